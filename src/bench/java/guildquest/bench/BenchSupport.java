@@ -0,0 +1,62 @@
+package guildquest.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.LongSupplier;
+
+/**
+ * Timing and allocation measurement shared by the benchmarks.
+ *
+ * Each case runs a few untimed warm-up rounds (so C2 has compiled it), then timed
+ * rounds; the best round is reported, per item. Allocation comes from the JVM's
+ * per-thread allocation counter (HotSpot), so it counts every byte the case
+ * allocated, including short-lived garbage escape analysis did not remove.
+ */
+final class BenchSupport {
+    static final int WARMUP_ROUNDS = 5;
+    static final int ROUNDS = 10;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** Results go here so the JIT can't drop the work. */
+    static volatile long sink;
+
+    static long allocatedBytes() {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /** Runs op (which handles {@code items} items per call) and prints ns and bytes per item. */
+    static void report(String name, long items, LongSupplier op) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) sink += op.getAsLong();
+        long bestNanos = Long.MAX_VALUE;
+        long leastBytes = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long bytes0 = allocatedBytes();
+            long t0 = System.nanoTime();
+            sink += op.getAsLong();
+            long nanos = System.nanoTime() - t0;
+            long bytes = allocatedBytes() - bytes0;
+            bestNanos = Math.min(bestNanos, nanos);
+            leastBytes = Math.min(leastBytes, bytes);
+        }
+        System.out.printf("%-48s %10.2f ns/item %10.2f B/item%n", name, (double) bestNanos / items, (double) leastBytes / items);
+    }
+
+    /** Heap in use after a few GCs, for footprint measurements. */
+    static long usedHeapAfterGc() {
+        Runtime rt = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            used = Math.min(used, rt.totalMemory() - rt.freeMemory());
+        }
+        return used;
+    }
+
+    private BenchSupport() { }
+}
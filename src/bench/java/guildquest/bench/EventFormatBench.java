@@ -0,0 +1,100 @@
+package guildquest.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import guildquest.gui.strategy.BothTimeStrategy;
+import guildquest.gui.strategy.EventDisplayStrategy;
+import guildquest.gui.strategy.LocalTimeStrategy;
+import guildquest.gui.strategy.WorldTimeStrategy;
+import guildquest.model.GlobalTime;
+import guildquest.model.QuestEvent;
+import guildquest.model.Realm;
+import guildquest.model.RealmRegistry;
+
+/**
+ * Event display formatting: the strategies' format() and formatTo() against the
+ * string-concatenation path they replaced (kept below as {@link #legacyBoth}, with
+ * String.format for the clock digits).
+ *
+ * Checks that legacy and current output agree before timing anything.
+ *
+ * Usage: EventFormatBench [events]
+ * Defaults: 200,000 events, half with an end time, over a year of world time.
+ */
+public final class EventFormatBench {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        Random rnd = new Random(42);
+        Realm[] realms = {
+                RealmRegistry.global().intern("Earth", 0),
+                RealmRegistry.global().intern("Mars", 39),
+                RealmRegistry.global().intern("Luna", 720),
+        };
+        long year = 365L * GlobalTime.MINUTES_PER_DAY;
+        List<QuestEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long start = (long) (rnd.nextDouble() * year);
+            long end = rnd.nextBoolean() ? start + rnd.nextInt(600) : QuestEvent.NO_END;
+            events.add(new QuestEvent(i + 1, "Event " + i, start, end, realms[i % realms.length]));
+        }
+
+        EventDisplayStrategy both = new BothTimeStrategy();
+        for (QuestEvent e : events) {
+            if (!legacyBoth(e).equals(both.format(e))) {
+                throw new IllegalStateException("output differs for " + e.getEventId() + ": " + both.format(e));
+            }
+        }
+        System.out.printf("events=%,d (legacy and current output identical)%n", count);
+
+        BenchSupport.report("legacy concat + String.format (Both)", count, () -> {
+            long sum = 0;
+            for (QuestEvent e : events) sum += legacyBoth(e).length();
+            return sum;
+        });
+        EventDisplayStrategy[] strategies = { new WorldTimeStrategy(), new LocalTimeStrategy(), both };
+        for (EventDisplayStrategy s : strategies) {
+            BenchSupport.report("format() " + s.getName(), count, () -> {
+                long sum = 0;
+                for (QuestEvent e : events) sum += s.format(e).length();
+                return sum;
+            });
+            StringBuilder sb = new StringBuilder(128);
+            BenchSupport.report("formatTo(reused builder) " + s.getName(), count, () -> {
+                long sum = 0;
+                for (QuestEvent e : events) {
+                    sb.setLength(0);
+                    s.formatTo(e, sb);
+                    sum += sb.length();
+                }
+                return sum;
+            });
+        }
+    }
+
+    /** BothTimeStrategy.format as it was before formatTo. */
+    private static String legacyBoth(QuestEvent e) {
+        String endWorld = e.hasEndTime() ? (" -> " + legacyTime(e.getEndMinutes())) : "";
+        Realm r = e.getRealm();
+        if (r == null) {
+            return e.getEventId() + " - " + e.getTitle()
+                    + " | World: " + legacyTime(e.getStartMinutes()) + endWorld
+                    + " | (No Realm)";
+        }
+        String localStart = legacyTime(r.toLocalMinutes(e.getStartMinutes()));
+        String endLocal = e.hasEndTime() ? " -> " + legacyTime(r.toLocalMinutes(e.getEndMinutes())) : "";
+        return e.getEventId() + " - " + e.getTitle()
+                + " | World: " + legacyTime(e.getStartMinutes()) + endWorld
+                + " | " + r.getName() + ": " + localStart + endLocal;
+    }
+
+    private static String legacyTime(long totalMinutes) {
+        long day = GlobalTime.daysOf(totalMinutes);
+        int minsInDay = GlobalTime.minuteOfDay(totalMinutes);
+        return "Day " + day + " " + String.format("%02d:%02d", minsInDay / 60, minsInDay % 60);
+    }
+
+    private EventFormatBench() { }
+}
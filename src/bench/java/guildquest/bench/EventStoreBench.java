@@ -0,0 +1,97 @@
+package guildquest.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import guildquest.model.QuestEvent;
+import guildquest.model.Realm;
+import guildquest.storage.lsm.EventStore;
+
+/**
+ * Write amplification and range-scan cost of {@link EventStore}.
+ *
+ * Loads events spread over a few campaigns, then moves a share of them (delete of the
+ * old key plus a put) and deletes some, all with a fixed seed. Prints the store stats
+ * and the level bound: with leveled compaction every byte is written once by the flush
+ * and about once per level, so WA should stay near 1 + levels as the data grows.
+ *
+ * Usage: EventStoreBench [events] [memtableBytes] [maxSegments]
+ * Defaults: 1,000,000 events, 1 MiB memtable, 4 segments per level.
+ */
+public final class EventStoreBench {
+    private static final int CAMPAIGNS = 8;
+    private static final long YEAR_MINUTES = 365L * 24 * 60;
+
+    public static void main(String[] args) throws IOException {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int memtableBytes = args.length > 1 ? Integer.parseInt(args[1]) : 1 << 20;
+        int maxSegments = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        Path dir = Files.createTempDirectory("guildquest-lsm-bench");
+        Realm realm = new Realm("Bench", 0);
+        Random rnd = new Random(42);
+        long[] start = new long[events];
+
+        try (EventStore store = new EventStore(dir, memtableBytes, maxSegments)) {
+            long t0 = System.nanoTime();
+            for (int id = 0; id < events; id++) {
+                start[id] = (long) (rnd.nextDouble() * YEAR_MINUTES);
+                store.put(id % CAMPAIGNS, new QuestEvent(id + 1, "Event " + id, start[id], start[id] + 60, realm));
+            }
+            // Churn: move half as many events as were loaded, delete a tenth.
+            for (int i = 0; i < events / 2; i++) {
+                int id = rnd.nextInt(events);
+                if (start[id] < 0) continue;
+                store.delete(id % CAMPAIGNS, start[id], id + 1);
+                start[id] = (long) (rnd.nextDouble() * YEAR_MINUTES);
+                store.put(id % CAMPAIGNS, new QuestEvent(id + 1, "Moved " + id, start[id], start[id] + 60, realm));
+            }
+            for (int i = 0; i < events / 10; i++) {
+                int id = rnd.nextInt(events);
+                if (start[id] < 0) continue;
+                store.delete(id % CAMPAIGNS, start[id], id + 1);
+                start[id] = -1;
+            }
+            store.flush();
+            long writeMs = (System.nanoTime() - t0) / 1_000_000;
+
+            EventStore.Stats stats = store.getStats();
+            int levels = levelsFor(stats.flushes, maxSegments);
+            System.out.printf("events=%,d memtable=%,d B maxSegments=%d%n", events, memtableBytes, maxSegments);
+            System.out.println(stats);
+            System.out.printf("levels=%d -> expected WA about %d or less; write phase %,d ms%n", levels, 1 + levels, writeMs);
+
+            // One-week windows in campaign 0, scanned sequentially out of every segment.
+            int scans = 200;
+            long hits = 0;
+            long t1 = System.nanoTime();
+            for (int i = 0; i < scans; i++) {
+                long from = (long) (rnd.nextDouble() * (YEAR_MINUTES - 7 * 24 * 60));
+                hits += store.range(0, from, from + 7 * 24 * 60).size();
+            }
+            long scanMicros = (System.nanoTime() - t1) / 1_000 / scans;
+            System.out.printf("range scan (1 week, 1 campaign): %,d us avg, %,d events avg%n", scanMicros, hits / scans);
+        } finally {
+            deleteTree(dir);
+        }
+    }
+
+    /** Levels needed so that no level exceeds maxSegments segments after this many flushes. */
+    private static int levelsFor(long flushes, int maxSegments) {
+        int levels = 0;
+        for (long n = flushes; n > maxSegments; n /= maxSegments + 1) levels++;
+        return levels;
+    }
+
+    private static void deleteTree(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) Files.deleteIfExists(p);
+        }
+    }
+
+    private EventStoreBench() { }
+}
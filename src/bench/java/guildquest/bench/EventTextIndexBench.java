@@ -0,0 +1,126 @@
+package guildquest.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import guildquest.model.Campaign;
+import guildquest.model.EventTextIndex;
+import guildquest.model.QuestEvent;
+
+/**
+ * Build cost, memory per posting and query latency of {@link EventTextIndex}.
+ *
+ * Generates events whose title words, participants and items follow a skewed
+ * (roughly Zipf) distribution, so some words hit a large share of the corpus and
+ * most are rare, as in real titles. Each query runs a few warm-up times, then the
+ * median and worst of the timed runs are printed, next to a brute-force scan of the
+ * same campaigns for one common query.
+ *
+ * Usage: EventTextIndexBench [events] [campaigns] [limit]
+ * Defaults: 1,000,000 events over 10 campaigns, top 50 hits per query.
+ */
+public final class EventTextIndexBench {
+    private static final int VOCABULARY = 20_000;
+    private static final int PEOPLE = 5_000;
+    private static final int ITEMS = 2_000;
+    private static final int WARMUP = 5;
+    private static final int RUNS = 21;
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int campaignCount = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int limit = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+
+        Random rnd = new Random(42);
+        List<Campaign> campaigns = new ArrayList<>();
+        for (int c = 0; c < campaignCount; c++) campaigns.add(new Campaign(c + 1, "Campaign " + c));
+        long heap0 = BenchSupport.usedHeapAfterGc();
+        EventTextIndex index = new EventTextIndex();
+        for (Campaign c : campaigns) index.watch(c);
+
+        long t0 = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            QuestEvent e = new QuestEvent(i + 1, word(rnd) + " " + word(rnd) + " " + word(rnd),
+                    rnd.nextInt(10_000_000), QuestEvent.NO_END, null);
+            int people = rnd.nextInt(4);
+            for (int p = 0; p < people; p++) e.addParticipant("person" + skewed(rnd, PEOPLE));
+            if (rnd.nextInt(3) == 0) e.addItem("item" + skewed(rnd, ITEMS));
+            campaigns.get(i % campaignCount).addEvent(e);
+        }
+        long buildMs = (System.nanoTime() - t0) / 1_000_000;
+        System.out.printf("events=%,d campaigns=%d docs=%,d terms=%,d postings=%,d%n", count, campaignCount,
+                index.getDocumentCount(), index.getTermCount(), index.getPostingCount());
+        System.out.printf("indexed while adding: %,d ms for the whole load (events included)%n", buildMs);
+
+        // Unwatching frees the index; the difference is what it held.
+        long postings = index.getPostingCount();
+        long withIndex = BenchSupport.usedHeapAfterGc();
+        for (Campaign c : campaigns) index.unwatch(c);
+        long withoutIndex = BenchSupport.usedHeapAfterGc();
+        long indexBytes = withIndex - withoutIndex;
+        System.out.printf("index heap: %,d B total, %.1f B/posting (events alone: %,d B)%n",
+                indexBytes, (double) indexBytes / Math.max(1, postings), withoutIndex - heap0);
+        index = new EventTextIndex();
+        for (Campaign c : campaigns) index.watch(c);
+
+        String[] queries = {
+                "w0",                // most common title word
+                "w17",
+                "w4321",             // rare
+                "w0 w1",             // AND of two common words
+                "w3 w999",
+                "w12*",              // prefix
+                "person0",
+                "item7 w0",
+                "nosuchword",
+        };
+        for (String q : queries) time(index, q, limit);
+
+        // Brute force over the same data for one common query, for scale.
+        long[] nanos = new long[RUNS];
+        long found = 0;
+        for (int r = -WARMUP; r < RUNS; r++) {
+            long s = System.nanoTime();
+            found = 0;
+            for (Campaign c : campaigns) {
+                for (QuestEvent e : c.getEvents()) {
+                    String title = e.getTitle().toLowerCase(Locale.ROOT);
+                    if (Arrays.asList(title.split(" ")).contains("w0")) found++;
+                }
+            }
+            if (r >= 0) nanos[r] = System.nanoTime() - s;
+        }
+        print("scan: title word 'w0'", found, nanos);
+    }
+
+    private static void time(EventTextIndex index, String query, int limit) {
+        long[] nanos = new long[RUNS];
+        int hits = 0;
+        for (int r = -WARMUP; r < RUNS; r++) {
+            long s = System.nanoTime();
+            hits = index.search(query, limit).size();
+            if (r >= 0) nanos[r] = System.nanoTime() - s;
+        }
+        print("index: '" + query + "'", hits, nanos);
+    }
+
+    private static void print(String what, long hits, long[] nanos) {
+        Arrays.sort(nanos);
+        System.out.printf("%-32s %8d hits  median %8.3f ms  worst %8.3f ms%n",
+                what, hits, nanos[nanos.length / 2] / 1e6, nanos[nanos.length - 1] / 1e6);
+    }
+
+    private static String word(Random rnd) {
+        return "w" + skewed(rnd, VOCABULARY);
+    }
+
+    /** Roughly Zipf over [0, n): small values are much more likely. */
+    private static int skewed(Random rnd, int n) {
+        return (int) Math.min(n - 1, Math.floor(Math.pow(n, rnd.nextDouble())) - 1);
+    }
+
+    private EventTextIndexBench() { }
+}
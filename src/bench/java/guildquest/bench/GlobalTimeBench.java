@@ -0,0 +1,75 @@
+package guildquest.bench;
+
+import java.util.List;
+import java.util.Random;
+
+import guildquest.model.Campaign;
+import guildquest.model.GlobalTime;
+import guildquest.model.QuestEvent;
+import guildquest.model.Realm;
+import guildquest.model.RealmRegistry;
+import guildquest.model.TimelineView;
+
+/**
+ * Cost per event of the time arithmetic in timeline rendering and queries.
+ *
+ * Converts each event's start to a realm's local time and buckets it by day, three
+ * ways: building GlobalTime objects with the constructor (how every call worked
+ * before the flyweight cache), through GlobalTime.of / Realm.toLocalTime (cached
+ * instances for the first two weeks), and with the primitive minute API. Then runs
+ * day-window timeline queries and reports allocation per returned event, which
+ * should be just the result list's slot.
+ *
+ * Usage: GlobalTimeBench [events] [spanDays]
+ * Defaults: 1,000,000 events spread over 14 days (inside the flyweight range).
+ */
+public final class GlobalTimeBench {
+
+    public static void main(String[] args) {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int spanDays = args.length > 1 ? Integer.parseInt(args[1]) : 14;
+
+        Realm realm = RealmRegistry.global().intern("Bench", 39);
+        Random rnd = new Random(42);
+        long span = (long) spanDays * GlobalTime.MINUTES_PER_DAY;
+        long[] starts = new long[events];
+        Campaign campaign = new Campaign(1, "bench");
+        for (int i = 0; i < events; i++) {
+            starts[i] = (long) (rnd.nextDouble() * span);
+            campaign.addEvent(new QuestEvent(i + 1, "e" + i, starts[i], QuestEvent.NO_END, realm));
+        }
+        System.out.printf("events=%,d spanDays=%d%n", events, spanDays);
+
+        BenchSupport.report("constructor GlobalTime (uncached)", events, () -> {
+            long sum = 0;
+            int off = realm.getOffsetMinutes();
+            for (long m : starts) sum += new GlobalTime(m).plus(off).toDays();
+            return sum;
+        });
+        BenchSupport.report("GlobalTime.of + Realm.toLocalTime", events, () -> {
+            long sum = 0;
+            for (long m : starts) sum += realm.toLocalTime(GlobalTime.of(m)).toDays();
+            return sum;
+        });
+        BenchSupport.report("primitive toLocalMinutes + daysOf", events, () -> {
+            long sum = 0;
+            for (long m : starts) sum += GlobalTime.daysOf(realm.toLocalMinutes(m));
+            return sum;
+        });
+
+        TimelineView view = new TimelineView(campaign);
+        int days = Math.max(1, spanDays);
+        long returned = 0;
+        for (int d = 0; d < days; d++) returned += view.eventsDay(GlobalTime.of(GlobalTime.startOfDay(d))).size();
+        BenchSupport.report("timeline day queries (per returned event)", returned, () -> {
+            long sum = 0;
+            for (int d = 0; d < days; d++) {
+                List<QuestEvent> day = view.eventsDay(GlobalTime.of(GlobalTime.startOfDay(d)));
+                sum += day.size();
+            }
+            return sum;
+        });
+    }
+
+    private GlobalTimeBench() { }
+}
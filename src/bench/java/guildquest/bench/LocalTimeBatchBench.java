@@ -0,0 +1,100 @@
+package guildquest.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import guildquest.gui.strategy.BothTimeStrategy;
+import guildquest.gui.strategy.EventBatchFormatter;
+import guildquest.gui.strategy.EventDisplayStrategy;
+import guildquest.model.GlobalTime;
+import guildquest.model.LocalTimeBatch;
+import guildquest.model.QuestEvent;
+import guildquest.model.Realm;
+import guildquest.model.RealmRegistry;
+
+/**
+ * Realm-local time conversion at scale: one Realm.toLocalTime call per event against
+ * the {@link LocalTimeBatch} kernels over primitive arrays, and per-event formatting
+ * against {@link EventBatchFormatter}.
+ *
+ * Both sides produce day/hour/minute fields; the batch result is checked against the
+ * per-event one before timing.
+ *
+ * Usage: LocalTimeBatchBench [events] [realms]
+ * Defaults: 1,000,000 events over 8 fixed-offset realms.
+ */
+public final class LocalTimeBatchBench {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int realmCount = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        Random rnd = new Random(42);
+        Realm[] realms = new Realm[realmCount];
+        for (int r = 0; r < realmCount; r++) realms[r] = RealmRegistry.global().intern("BatchBench" + r, r * 37 - 120);
+        long year = 365L * GlobalTime.MINUTES_PER_DAY;
+        long[] world = new long[count];
+        int[] realmIds = new int[count];
+        Realm[] realmOf = new Realm[count];
+        List<QuestEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            world[i] = GlobalTime.MINUTES_PER_DAY + (long) (rnd.nextDouble() * year);
+            realmOf[i] = realms[rnd.nextInt(realmCount)];
+            realmIds[i] = realmOf[i].getRealmId();
+            long end = rnd.nextBoolean() ? world[i] + rnd.nextInt(600) : QuestEvent.NO_END;
+            events.add(new QuestEvent(i + 1, "Event " + i, world[i], end, realmOf[i]));
+        }
+
+        long[] local = new long[count];
+        long[] days = new long[count];
+        int[] hours = new int[count];
+        int[] minutes = new int[count];
+        LocalTimeBatch.toLocal(RealmRegistry.global(), world, realmIds, local, count);
+        LocalTimeBatch.splitFields(local, days, hours, minutes, count);
+        for (int i = 0; i < count; i++) {
+            GlobalTime t = realmOf[i].toLocalTime(GlobalTime.of(world[i]));
+            int mod = GlobalTime.minuteOfDay(t.toMinutes());
+            if (t.toDays() != days[i] || mod / 60 != hours[i] || mod % 60 != minutes[i]) {
+                throw new IllegalStateException("batch disagrees with Realm.toLocalTime at " + i);
+            }
+        }
+        System.out.printf("events=%,d realms=%d (batch fields match per-event conversion)%n", count, realmCount);
+
+        BenchSupport.report("per event: Realm.toLocalTime + fields", count, () -> {
+            long sum = 0;
+            for (int i = 0; i < count; i++) {
+                GlobalTime t = realmOf[i].toLocalTime(GlobalTime.of(world[i]));
+                int mod = GlobalTime.minuteOfDay(t.toMinutes());
+                sum += t.toDays() + mod / 60 + mod % 60;
+            }
+            return sum;
+        });
+        BenchSupport.report("batch: toLocal + splitFields", count, () -> {
+            LocalTimeBatch.toLocal(RealmRegistry.global(), world, realmIds, local, count);
+            LocalTimeBatch.splitFields(local, days, hours, minutes, count);
+            return days[count - 1] + hours[count / 2] + minutes[0];
+        });
+
+        EventDisplayStrategy both = new BothTimeStrategy();
+        StringBuilder sb = new StringBuilder(128);
+        BenchSupport.report("format per event (formatTo, reused builder)", count, () -> {
+            long sum = 0;
+            for (QuestEvent e : events) {
+                sb.setLength(0);
+                both.formatTo(e, sb);
+                sum += sb.length();
+            }
+            return sum;
+        });
+        EventBatchFormatter formatter = new EventBatchFormatter();
+        long[] chars = new long[1];
+        BenchSupport.report("format in batches (EventBatchFormatter)", count, () -> {
+            chars[0] = 0;
+            formatter.formatAll(both, events, (e, text) -> chars[0] += text.length());
+            return chars[0];
+        });
+    }
+
+    private LocalTimeBatchBench() { }
+}
@@ -0,0 +1,124 @@
+package guildquest.bench;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import guildquest.model.GlobalTime;
+import guildquest.model.Permission;
+import guildquest.model.QuestEvent;
+import guildquest.model.Realm;
+import guildquest.model.RealmRegistry;
+import guildquest.model.User;
+
+/**
+ * Retained heap per event: the current compact {@link QuestEvent} against the original
+ * layout (two GlobalTime objects, two ArrayLists and a HashMap per event, kept below
+ * as {@link LegacyEvent}).
+ *
+ * Holds N events in a pre-allocated array and measures used heap after GC before and
+ * after filling it, so the figure is what the events retain, array slot excluded.
+ * Titles, names and users are shared instances, so only the per-event layout counts.
+ * A JOL-style shallow-size walk isn't available without the JOL dependency; the heap
+ * delta also counts the objects each event owns, which is the number that matters.
+ *
+ * Usage: QuestEventFootprintBench [events]
+ * Default: 1,000,000 events. Run with a heap large enough for both layouts (-Xmx2g).
+ */
+public final class QuestEventFootprintBench {
+
+    /** QuestEvent's fields as they were before the compact layout. */
+    @SuppressWarnings("unused")
+    private static final class LegacyEvent {
+        private final int eventId;
+        private String title;
+        private GlobalTime startTime;
+        private GlobalTime endTime;
+        private Realm realm;
+        private final List<String> participants = new ArrayList<>();
+        private final List<String> items = new ArrayList<>();
+        private final Map<User, Permission> sharedWith = new HashMap<>();
+
+        LegacyEvent(int eventId, String title, GlobalTime startTime, GlobalTime endTime, Realm realm) {
+            this.eventId = eventId;
+            this.title = title;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.realm = realm;
+        }
+    }
+
+    /** How an event is filled; both layouts get exactly the same names and shares. */
+    private interface Shape {
+        String[] participants(int i);
+        String[] items(int i);
+        boolean shared(int i);
+    }
+
+    private static final String[] NONE = new String[0];
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Realm realm = RealmRegistry.global().intern("Footprint", 0);
+        String title = "Event";
+        User ally = new User("Ally");
+        String[] people = new String[64];
+        for (int p = 0; p < people.length; p++) people[p] = "person" + p;
+
+        Shape bare = new Shape() {
+            @Override public String[] participants(int i) { return NONE; }
+            @Override public String[] items(int i) { return NONE; }
+            @Override public boolean shared(int i) { return false; }
+        };
+        // 0-3 participants, a third with one item, one in fifty shared (seeded per index).
+        Shape typical = new Shape() {
+            @Override public String[] participants(int i) {
+                int n = new Random(i).nextInt(4);
+                String[] out = new String[n];
+                for (int k = 0; k < n; k++) out[k] = people[(i + k) % people.length];
+                return out;
+            }
+            @Override public String[] items(int i) { return i % 3 == 0 ? new String[] { "Lantern" } : NONE; }
+            @Override public boolean shared(int i) { return i % 50 == 0; }
+        };
+
+        System.out.printf("events=%,d (bytes retained per event, after GC)%n", count);
+        for (Object[] c : new Object[][] { { "no names, no sharing", bare }, { "typical names and sharing", typical } }) {
+            Shape shape = (Shape) c[1];
+            double legacy = measure(count, i -> {
+                long start = i * 7L;
+                LegacyEvent e = new LegacyEvent(i, title, new GlobalTime(start), i % 2 == 0 ? new GlobalTime(start + 30) : null, realm);
+                for (String p : shape.participants(i)) e.participants.add(p);
+                for (String it : shape.items(i)) e.items.add(it);
+                if (shape.shared(i)) e.sharedWith.put(ally, Permission.VIEW_ONLY);
+                return e;
+            });
+            double compact = measure(count, i -> {
+                long start = i * 7L;
+                QuestEvent e = new QuestEvent(i, title, start, i % 2 == 0 ? start + 30 : QuestEvent.NO_END, realm);
+                for (String p : shape.participants(i)) e.addParticipant(p);
+                for (String it : shape.items(i)) e.addItem(it);
+                if (shape.shared(i)) e.shareWith(ally, Permission.VIEW_ONLY);
+                return e;
+            });
+            System.out.printf("%-28s legacy %7.1f B   compact %7.1f B%n", c[0], legacy, compact);
+        }
+    }
+
+    private interface Factory {
+        Object make(int i);
+    }
+
+    private static double measure(int count, Factory factory) {
+        Object[] hold = new Object[count];
+        long before = BenchSupport.usedHeapAfterGc();
+        for (int i = 0; i < count; i++) hold[i] = factory.make(i);
+        long after = BenchSupport.usedHeapAfterGc();
+        BenchSupport.sink += hold[count - 1].hashCode();
+        return (double) (after - before) / count;
+    }
+
+    private QuestEventFootprintBench() { }
+}
@@ -1,12 +1,20 @@
 package guildquest;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 
+import guildquest.export.ExportFormat;
+import guildquest.export.TimelineExporter;
 import guildquest.gui.strategy.BothTimeStrategy;
+import guildquest.gui.strategy.EventBatchFormatter;
 import guildquest.gui.strategy.EventDisplayStrategy;
 import guildquest.gui.strategy.LocalTimeStrategy;
 import guildquest.gui.strategy.WorldTimeStrategy;
 import guildquest.model.*;
+import guildquest.storage.ColdTier;
 
 /**
  * Simple text-based GuildQuest app for Assignment 2.
@@ -20,11 +28,32 @@ public class ConsoleApp {
 
     private int nextCampaignId = 1;
 
-    // Simple realm registry
-    private final Map<String, Realm> realms = new LinkedHashMap<>();
+    // Shared realm registry (interned realms, dense ids; events reference realms by id)
+    private final RealmRegistry realms = RealmRegistry.global();
+
+    // Archived campaigns park their events here (compressed, off-heap) until looked at again.
+    private final ColdTier coldTier = new ColdTier();
+
+    // Event start/end notifications as the clock advances (timing wheel, no rescans).
+    private final EventTriggerScheduler triggers = new EventTriggerScheduler(clock);
+
+    // Word search over titles, participants and items of every campaign.
+    private final EventTextIndex textIndex = new EventTextIndex();
+    private final EventQueryPlanner planner = new EventQueryPlanner(textIndex);
+
+    // Participant/item names in use (shared string per name; suggestions when adding events).
+    private final NameDictionary names = new NameDictionary();
+
+    // Running per-day/realm/participant totals for the stats dashboard (no rescans).
+    private final EventStatistics stats = new EventStatistics();
+
+    // Day/week listings slide with the clock instead of re-querying (created on first use).
+    private final Map<Campaign, LiveWindowView> dayViews = new HashMap<>();
+    private final Map<Campaign, LiveWindowView> weekViews = new HashMap<>();
 
     // Strategy pattern: swap event formatting without conditionals.
     private EventDisplayStrategy displayStrategy = new BothTimeStrategy();
+    private final EventBatchFormatter listFormatter = new EventBatchFormatter();
 
     // Refactoring (introduce enum): avoid stringly-typed views.
     private enum TimelineRange { ALL, DAY, WEEK }
@@ -37,18 +66,26 @@ public class ConsoleApp {
 
     private final Map<String, Command> commands = new LinkedHashMap<>();
 
+    // The model isn't thread-safe: commands and real-time clock ticks take turns holding this.
+    private final Object modelLock = new Object();
+
     public static void run() {
         new ConsoleApp().loop();
     }
 
     private ConsoleApp() {
         // default realms
-        realms.put("Earth", new Realm("Earth", 0));
-        realms.put("Mars", new Realm("Mars", 39));     // example offset
-        realms.put("Luna", new Realm("Luna", 0));
+        realms.intern("Earth", 0);
+        realms.intern("Mars", 39);     // example offset
+        realms.intern("Luna", 0);
 
         // Observer example: print whenever time changes.
-        clock.addListener(newTime -> System.out.println("[clock] now " + newTime));
+        // Real-time mode would print on every tick, so only manual advances are echoed.
+        clock.addListener(newTime -> {
+            if (!clock.isRealTime()) System.out.println("[clock] now " + newTime);
+        });
+        triggers.addTriggerListener(t -> System.out.println("[event] " + t));
+        clock.setErrorHandler(ex -> System.out.println("[clock] tick failed: " + ex.getMessage()));
 
         registerCommands();
     }
@@ -73,7 +110,9 @@ public class ConsoleApp {
                 if (c == null) {
                     System.out.println("Unknown command. Type 'help'.");
                 } else {
-                    c.execute();
+                    synchronized (modelLock) {
+                        c.execute();
+                    }
                 }
             } catch (RuntimeException ex) {
                 System.out.println("Error: " + ex.getMessage());
@@ -85,6 +124,7 @@ public class ConsoleApp {
         commands.put("help", cmd("help", this::help));
         commands.put("time", cmd("time", this::showTime));
         commands.put("advance", cmd("advance", this::advanceTime));
+        commands.put("realtime", cmd("realtime", this::realTime));
         commands.put("realms", cmd("realms", this::listRealms));
         commands.put("addrealm", cmd("addrealm", this::addRealm));
         commands.put("settings", cmd("settings", this::settings));
@@ -99,6 +139,10 @@ public class ConsoleApp {
         commands.put("addevent", cmd("addevent", this::addEvent));
         commands.put("updateevent", cmd("updateevent", this::updateEvent));
         commands.put("deleteevent", cmd("deleteevent", this::deleteEvent));
+        commands.put("export", cmd("export", this::exportTimeline));
+        commands.put("search", cmd("search", this::searchEvents));
+        commands.put("find", cmd("find", this::findEvents));
+        commands.put("stats", cmd("stats", this::showStats));
     }
 
     private Command cmd(String name, Runnable r) {
@@ -114,6 +158,7 @@ public class ConsoleApp {
             "  help\n" +
             "  time              (show world clock)\n" +
             "  advance           (advance world time by minutes)\n" +
+            "  realtime          (let the clock run on its own; rate 0 stops it)\n" +
             "  realms            (list realms)\n" +
             "  addrealm          (add realm with fixed offset)\n" +
             "  settings          (toggle time display: world/local)\n\n" +
@@ -125,7 +170,11 @@ public class ConsoleApp {
             "  events            (list events in a campaign with view filter)\n" +
             "  addevent\n" +
             "  updateevent\n" +
-            "  deleteevent\n\n" +
+            "  deleteevent\n" +
+            "  export            (stream a campaign timeline to csv/ndjson/ics)\n" +
+            "  search            (find events by words in title/participants/items)\n" +
+            "  find              (filter events, e.g. realm:Mars start>=day 3 participant:Jane title~raid)\n" +
+            "  stats             (event counts, busiest realms and participant load)\n\n" +
             "  quit\n"
         );
     }
@@ -140,9 +189,36 @@ public class ConsoleApp {
         System.out.println("WorldClock is now: " + clock.now());
     }
 
+    private void realTime() {
+        if (clock.isRealTime()) {
+            System.out.println("Clock is running at " + clock.getMinutesPerSecond() + " world minutes per second.");
+        }
+        String raw = ask("World minutes per real second (0 = stop): ").trim();
+        double rate;
+        try {
+            rate = Double.parseDouble(raw);
+        } catch (NumberFormatException ex) {
+            throw new RuntimeException("Not a number: " + raw);
+        }
+        if (rate <= 0) {
+            clock.stopRealTime();
+            System.out.println("Clock stopped at " + clock.now());
+        } else {
+            clock.startRealTime(rate, 1000, this::onModelThread);
+            System.out.println("Clock running. Use 'time' to check it.");
+        }
+    }
+
+    /** Runs clock listeners between commands rather than on the ticker thread. */
+    private void onModelThread(Runnable r) {
+        synchronized (modelLock) {
+            r.run();
+        }
+    }
+
     private void listRealms() {
         System.out.println("Realms:");
-        for (Realm r : realms.values()) {
+        for (Realm r : realms.listByName()) {
             System.out.println("  - " + r);
         }
     }
@@ -150,8 +226,20 @@ public class ConsoleApp {
     private void addRealm() {
         String name = ask("Realm name: ");
         int offset = askInt("Offset minutes from WorldClock (e.g., -60, 90): ");
-        realms.put(name, new Realm(name, offset));
-        System.out.println("Added realm: " + realms.get(name));
+        RealmOffsetSchedule schedule = parseOffsetChanges(offset,
+                ask("Offset changes (blank = none; 'D H M offset, ...' e.g. 90 0 0 60, 180 0 0 " + offset + "): "));
+        System.out.println("Added realm: " + realms.intern(name, null, offset, schedule));
+    }
+
+    private RealmOffsetSchedule parseOffsetChanges(int baseOffset, String raw) {
+        if (raw.isBlank()) return null;
+        RealmOffsetSchedule.Builder b = RealmOffsetSchedule.builder(baseOffset);
+        for (String change : raw.split(",")) {
+            String[] parts = change.trim().split("\\s+");
+            if (parts.length != 4) throw new RuntimeException("Each change must be: D H M offset (got '" + change.trim() + "')");
+            b.at(parseTime(parts[0] + " " + parts[1] + " " + parts[2]).toMinutes(), Integer.parseInt(parts[3]));
+        }
+        return b.build();
     }
 
     private void settings() {
@@ -179,7 +267,12 @@ public class ConsoleApp {
     private void addCampaign() {
         String name = ask("Campaign name: ");
         Campaign c = new Campaign(nextCampaignId++, name);
+        c.setColdTier(coldTier);
         user.addCampaign(c);
+        triggers.watch(c);
+        textIndex.watch(c);
+        names.watch(c);
+        stats.watch(c);
         System.out.println("Added campaign #" + c.getCampaignId());
     }
 
@@ -202,12 +295,18 @@ public class ConsoleApp {
         Campaign c = pickCampaign();
         boolean arch = askYesNo("Archive it? (y/n): ");
         c.setArchived(arch);
+        if (arch) closeLiveViews(c);
         System.out.println("Updated.");
     }
 
     private void deleteCampaign() {
         Campaign c = pickCampaign();
         user.removeCampaignById(c.getCampaignId());
+        triggers.unwatch(c);
+        textIndex.unwatch(c);
+        names.unwatch(c);
+        stats.unwatch(c);
+        closeLiveViews(c);
         System.out.println("Deleted.");
     }
 
@@ -217,19 +316,34 @@ public class ConsoleApp {
 
         TimelineRange view = askTimelineRange();
 
+        // Archived campaigns stay in the cold tier, so they get a one-off query instead of a live view.
         List<QuestEvent> events = switch (view) {
-            case DAY -> tv.eventsDay(clock.now());
-            case WEEK -> tv.eventsWeek(clock.now());
+            case DAY -> c.isArchived() ? tv.eventsDay(clock.now()) : liveView(dayViews, c, 1).events();
+            case WEEK -> c.isArchived() ? tv.eventsWeek(clock.now()) : liveView(weekViews, c, 7).events();
             default -> tv.eventsAll();
         };
+        c.releaseEvents(); // no-op unless archived; the list above is a copy
 
         if (events.isEmpty()) {
             System.out.println("(no events)");
             return;
         }
-        for (QuestEvent e : events) {
-            System.out.println("  " + displayStrategy.format(e));
-        }
+        StringBuilder line = new StringBuilder(128);
+        listFormatter.formatAll(displayStrategy, events, (e, text) -> {
+            line.setLength(0);
+            System.out.println(line.append("  ").append(text));
+        });
+    }
+
+    private LiveWindowView liveView(Map<Campaign, LiveWindowView> views, Campaign c, int days) {
+        return views.computeIfAbsent(c, k -> new LiveWindowView(k, clock, days));
+    }
+
+    private void closeLiveViews(Campaign c) {
+        LiveWindowView v = dayViews.remove(c);
+        if (v != null) v.close();
+        v = weekViews.remove(c);
+        if (v != null) v.close();
     }
 
     private TimelineRange askTimelineRange() {
@@ -247,49 +361,65 @@ public class ConsoleApp {
         GlobalTime start = askTime("Start time (D H M): ");
         boolean hasEnd = askYesNo("Has end time? (y/n): ");
         GlobalTime end = hasEnd ? askTime("End time (D H M): ") : null;
+        if (end != null && end.toMinutes() < start.toMinutes()) {
+            throw new RuntimeException("End must not be before start (" + start + ")");
+        }
 
         Realm realm = pickRealm();
         QuestEvent e = new QuestEvent(c.nextEventId(), title, start, end, realm);
+        showKnownNames(NameDictionary.Kind.PARTICIPANT);
+        for (String p : ask("Participants (comma-separated, blank = none): ").split(",")) e.addParticipant(p);
+        showKnownNames(NameDictionary.Kind.ITEM);
+        for (String it : ask("Items (comma-separated, blank = none): ").split(",")) e.addItem(it);
         c.addEvent(e);
         System.out.println("Added event #" + e.getEventId());
     }
 
+    private void showKnownNames(NameDictionary.Kind kind) {
+        List<String> top = names.complete(kind, "", 8);
+        if (!top.isEmpty()) System.out.println("  most used: " + String.join(", ", top));
+    }
+
     private void updateEvent() {
         Campaign c = pickCampaign();
         int id = askInt("Event id: ");
-        QuestEvent target = null;
-        for (QuestEvent e : c.getEvents()) if (e.getEventId() == id) target = e;
+        QuestEvent target = c.findEvent(id);
         if (target == null) throw new RuntimeException("Event not found: " + id);
 
-        // Refactoring: Extract Method (break up a long method).
+        // Ask for everything first: a bad answer leaves the event untouched.
         System.out.println("Leave blank to keep current value.");
-        applyOptionalTitle(target);
-        applyOptionalStartTime(target);
-        applyOptionalEndTime(target);
-        applyOptionalRealm(target);
+        String title = askOptionalTitle();
+        long start = askOptionalStart(target);
+        long end = askOptionalEnd(target);
+        Realm realm = askYesNo("Change realm? (y/n): ") ? pickRealm() : target.getRealm();
+        if (end != QuestEvent.NO_END && end < start) {
+            throw new RuntimeException("End must not be before start (" + GlobalTime.toString(start) + ")");
+        }
+
+        if (title != null) target.setTitle(title);
+        target.setTimes(start, end);
+        target.setRealm(realm);
+        c.updateEvent(target);
 
         System.out.println("Updated.");
     }
 
-    private void applyOptionalTitle(QuestEvent target) {
+    // Refactoring: Extract Method (break up a long method).
+    private String askOptionalTitle() {
         String title = ask("New title: ");
-        if (!title.isBlank()) target.setTitle(title);
+        return title.isBlank() ? null : title;
     }
 
-    private void applyOptionalStartTime(QuestEvent target) {
+    private long askOptionalStart(QuestEvent target) {
         String startRaw = ask("New start (D H M): ");
-        if (!startRaw.isBlank()) target.setStartTime(parseTime(startRaw));
+        return startRaw.isBlank() ? target.getStartMinutes() : parseTime(startRaw).toMinutes();
     }
 
-    private void applyOptionalEndTime(QuestEvent target) {
+    private long askOptionalEnd(QuestEvent target) {
         String endRaw = ask("New end (D H M) or 'none': ");
-        if (endRaw.isBlank()) return;
-        if (endRaw.equalsIgnoreCase("none")) target.setEndTime(null);
-        else target.setEndTime(parseTime(endRaw));
-    }
-
-    private void applyOptionalRealm(QuestEvent target) {
-        if (askYesNo("Change realm? (y/n): ")) target.setRealm(pickRealm());
+        if (endRaw.isBlank()) return target.getEndMinutes();
+        if (endRaw.equalsIgnoreCase("none")) return QuestEvent.NO_END;
+        return parseTime(endRaw).toMinutes();
     }
 
     private void deleteEvent() {
@@ -299,10 +429,104 @@ public class ConsoleApp {
         System.out.println("Deleted (if existed).");
     }
 
+    private void searchEvents() {
+        String query = ask("Words (all must match; end a word with * for a prefix): ");
+        List<EventTextIndex.Hit> hits = textIndex.search(query, 50);
+        if (hits.isEmpty()) {
+            System.out.println("(no matches)");
+            return;
+        }
+        for (EventTextIndex.Hit h : hits) {
+            QuestEvent e = h.getEvent();
+            if (e != null) System.out.println("  [" + h.getCampaign().getName() + "] " + displayStrategy.format(e));
+        }
+        for (EventTextIndex.Hit h : hits) h.getCampaign().releaseEvents(); // no-op unless archived
+        if (hits.size() == 50) System.out.println("  (first 50 by start time)");
+    }
+
+    private void findEvents() {
+        EventQuery query = EventQuery.parse(ask("Query: "), clock.now().toMinutes());
+        EventQueryPlanner.Result result = planner.find(query, user.getCampaigns(), 50);
+        for (EventQueryPlanner.Match m : result.getMatches()) {
+            System.out.println("  [" + m.getCampaign().getName() + "] " + displayStrategy.format(m.getEvent()));
+        }
+        for (Campaign c : user.getCampaigns()) c.releaseEvents(); // no-op unless archived
+        if (result.getTotal() == 0) System.out.println("(no matches)");
+        else if (result.getTotal() > 50) System.out.println("  (first 50 of " + result.getTotal() + " by start time)");
+        System.out.println("  " + result);
+    }
+
+    private void showStats() {
+        String raw = ask("Campaign id (blank = all yours): ");
+        EventStatistics.Totals t;
+        if (raw.isBlank()) {
+            t = stats.forOwner(user);
+        } else {
+            Campaign c;
+            try {
+                c = user.getCampaignById(Integer.parseInt(raw));
+            } catch (NumberFormatException ex) {
+                throw new RuntimeException("Not a campaign id: " + raw);
+            }
+            if (c == null) throw new RuntimeException("Campaign not found: " + raw);
+            t = stats.forCampaign(c);
+        }
+        if (t == null || t.getEventCount() == 0) {
+            System.out.println("(no events)");
+            return;
+        }
+
+        System.out.println("Events: " + t.getEventCount() + " (" + t.getOpenEndedCount() + " open-ended), "
+                + t.getScheduledMinutes() + " min scheduled");
+        long today = GlobalTime.daysOf(clock.now().toMinutes());
+        System.out.print("Next 7 days:");
+        for (long d = today; d < today + 7; d++) System.out.print("  Day " + d + ": " + t.eventsOnDay(d));
+        System.out.println();
+        System.out.println("This week: " + t.eventsBetweenDays(today, today + 7) + " event(s), "
+                + t.minutesBetweenDays(today, today + 7) + " min; last 30 days: "
+                + t.eventsBetweenDays(today - 30, today) + " event(s)");
+        System.out.println("Busiest realms:");
+        for (EventStatistics.Ranked r : t.busiestRealms(5)) System.out.println("  - " + r);
+        List<EventStatistics.Ranked> load = t.busiestParticipants(5);
+        if (!load.isEmpty()) {
+            System.out.println("Participant load:");
+            for (EventStatistics.Ranked r : load) System.out.println("  - " + r);
+        }
+        System.out.println("Indexes: " + textIndex + "; " + names + "; " + coldTier);
+    }
+
+    private void exportTimeline() {
+        Campaign c = pickCampaign();
+        ExportFormat format = askExportFormat();
+        boolean raw = askYesNo("Raw fields instead of current display mode? (y/n): ");
+        String path = ask("Output file (blank = campaign-" + c.getCampaignId() + "." + format.getFileExtension() + "): ");
+        if (path.isBlank()) path = "campaign-" + c.getCampaignId() + "." + format.getFileExtension();
+
+        TimelineExporter exporter = new TimelineExporter(format, raw ? null : displayStrategy);
+        try (FileChannel ch = FileChannel.open(Path.of(path),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long n = exporter.export(c, ch);
+            System.out.println("Exported " + n + " event(s) to " + path);
+        } catch (IOException ex) {
+            throw new RuntimeException("Export failed: " + ex.getMessage());
+        } finally {
+            c.releaseEvents();
+        }
+    }
+
+    private ExportFormat askExportFormat() {
+        String raw = ask("Format (csv/ndjson/ics): ").trim().toLowerCase(Locale.ROOT);
+        return switch (raw) {
+            case "ndjson", "json" -> ExportFormat.NDJSON;
+            case "ics", "ical", "icalendar" -> ExportFormat.ICALENDAR;
+            default -> ExportFormat.CSV;
+        };
+    }
+
     private Realm pickRealm() {
         listRealms();
         String name = ask("Realm name: ");
-        Realm r = realms.get(name);
+        Realm r = realms.byName(name);
         if (r == null) throw new RuntimeException("Unknown realm: " + name);
         return r;
     }
@@ -337,9 +561,13 @@ public class ConsoleApp {
     private GlobalTime parseTime(String raw) {
         String[] parts = raw.trim().split("\\s+");
         if (parts.length != 3) throw new RuntimeException("Format must be: D H M (e.g., 2 13 45)");
-        int d = Integer.parseInt(parts[0]);
+        long d = Long.parseLong(parts[0]);
         int h = Integer.parseInt(parts[1]);
         int m = Integer.parseInt(parts[2]);
-        return new GlobalTime(d, h, m);
+        try {
+            return GlobalTime.of(GlobalTime.minutesOf(d, h, m));
+        } catch (ArithmeticException ex) {
+            throw new RuntimeException("Time is out of range: " + raw);
+        }
     }
 }
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import guildquest.gui.NameListView;
 import guildquest.model.Campaign;
 import guildquest.model.GlobalTime;
 import guildquest.model.QuestEvent;
@@ -64,8 +65,10 @@ public class GuildQuestApp extends Application {
     private Label detailsTitle;
     private Label detailsTime;
     private Label detailsRealm;
-    private TextArea detailsParticipants;
-    private TextArea detailsItems;
+    private Label detailsParticipantsLabel;
+    private Label detailsItemsLabel;
+    private NameListView detailsParticipants;
+    private NameListView detailsItems;
 
     private enum EventAction { SAVE, DELETE }
 
@@ -185,17 +188,14 @@ public class GuildQuestApp extends Application {
         detailsTime.setWrapText(true);
         detailsRealm.setWrapText(true);
 
-        detailsParticipants = new TextArea();
-        detailsParticipants.setEditable(false);
-        detailsParticipants.setWrapText(true);
-        detailsParticipants.setPrefRowCount(2);
-        detailsParticipants.setMaxHeight(72);
+        // Virtualized: only visible names are rendered, straight from the event's lists.
+        detailsParticipantsLabel = smallLabel("Participants");
+        detailsParticipants = new NameListView("(none)");
+        detailsParticipants.setPrefHeight(NameListView.ROW_HEIGHT * 6);
 
-        detailsItems = new TextArea();
-        detailsItems.setEditable(false);
-        detailsItems.setWrapText(true);
-        detailsItems.setPrefRowCount(2);
-        detailsItems.setMaxHeight(72);
+        detailsItemsLabel = smallLabel("Items");
+        detailsItems = new NameListView("(none)");
+        detailsItems.setPrefHeight(NameListView.ROW_HEIGHT * 6);
 
         VBox detailsBox = new VBox(10,
                 sectionTitle("Event Details"),
@@ -203,11 +203,13 @@ public class GuildQuestApp extends Application {
                 detailsTime,
                 detailsRealm,
                 new Separator(),
-                smallLabel("Participants"),
+                detailsParticipantsLabel,
                 detailsParticipants,
-                smallLabel("Items"),
+                detailsItemsLabel,
                 detailsItems
         );
+        VBox.setVgrow(detailsParticipants, Priority.ALWAYS);
+        VBox.setVgrow(detailsItems, Priority.ALWAYS);
         detailsBox.setPadding(new Insets(12));
         detailsBox.setStyle("""
                 -fx-background-color: #f7f7f8;
@@ -821,8 +823,10 @@ public class GuildQuestApp extends Application {
             detailsTitle.setText("Select an event");
             detailsTime.setText("");
             detailsRealm.setText("");
-            detailsParticipants.setText("");
-            detailsItems.setText("");
+            detailsParticipantsLabel.setText("Participants");
+            detailsItemsLabel.setText("Items");
+            detailsParticipants.clear();
+            detailsItems.clear();
             return;
         }
 
@@ -833,8 +837,10 @@ public class GuildQuestApp extends Application {
         detailsTime.setText(timeStr);
 
         detailsRealm.setText("Realm: " + safe(e.getRealm()));
-        detailsParticipants.setText(String.join(", ", e.getParticipants()));
-        detailsItems.setText(String.join(", ", e.getItems()));
+        detailsParticipants.show(e.getParticipants());
+        detailsItems.show(e.getItems());
+        detailsParticipantsLabel.setText("Participants (" + detailsParticipants.getShownCount() + ")");
+        detailsItemsLabel.setText("Items (" + detailsItems.getShownCount() + ")");
     }
 
     private void updateTimeLabel() {
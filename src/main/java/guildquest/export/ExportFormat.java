@@ -0,0 +1,18 @@
+package guildquest.export;
+
+/**
+ * Output formats supported by {@link TimelineExporter}.
+ */
+public enum ExportFormat {
+    CSV("csv"),
+    NDJSON("ndjson"),
+    ICALENDAR("ics");
+
+    private final String fileExtension;
+
+    ExportFormat(String fileExtension) {
+        this.fileExtension = fileExtension;
+    }
+
+    public String getFileExtension() { return fileExtension; }
+}
@@ -0,0 +1,459 @@
+package guildquest.export;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import guildquest.gui.strategy.EventBatchFormatter;
+import guildquest.gui.strategy.EventDisplayStrategy;
+import guildquest.model.Campaign;
+import guildquest.model.GlobalTime;
+import guildquest.model.QuestEvent;
+import guildquest.model.Realm;
+
+/**
+ * Streams a campaign timeline to a byte channel in start-time order.
+ *
+ * Each event is rendered into one reusable line buffer and encoded straight into a
+ * fixed-size byte buffer, so memory stays flat no matter how large the campaign is.
+ * With a display strategy the exported text matches what the UI shows; without one
+ * (raw mode) the individual fields are written instead.
+ *
+ * iCalendar output follows RFC 5545: every DATE-TIME is in UTC form (world time has
+ * no zone, so World Day 0 00:00 is written as 2000-01-01T00:00Z), DTSTAMP is the time
+ * of the export, and content lines are folded at 75 octets.
+ *
+ * Not thread-safe: use one exporter per thread.
+ */
+public class TimelineExporter {
+    private static final int DEFAULT_BUFFER_BYTES = 64 * 1024;
+
+    // iCalendar needs real dates; World Day 0 is mapped to 2000-01-01.
+    private static final long ICS_EPOCH_DAY = 10957;
+    private static final long UNIX_EPOCH_DAY = 0;
+    private static final int ICS_MAX_OCTETS = 75; // per content line, without CRLF
+
+    private final ExportFormat format;
+    private final EventDisplayStrategy strategy; // null = raw mode
+
+    private final StringBuilder line = new StringBuilder(256);
+    private final EventBatchFormatter batch; // display mode only
+    private CharSequence displayText; // strategy output for the current event, before escaping
+    private final ByteBuffer out;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private char[] chars = new char[256];
+    private CharBuffer charView = CharBuffer.wrap(chars);
+
+    private LongSupplier wallClockMillis = System::currentTimeMillis; // DTSTAMP source
+    private final StringBuilder stamp = new StringBuilder(16);       // DTSTAMP of the running export
+    private final StringBuilder foldScratch = new StringBuilder(128);
+    private int contentLineStart; // iCalendar: where the open content line begins in `line`
+
+    public TimelineExporter(ExportFormat format, EventDisplayStrategy strategy) {
+        this(format, strategy, DEFAULT_BUFFER_BYTES);
+    }
+
+    public TimelineExporter(ExportFormat format, EventDisplayStrategy strategy, int bufferBytes) {
+        if (format == null) throw new IllegalArgumentException("format is required");
+        if (bufferBytes < 16) throw new IllegalArgumentException("bufferBytes must be >= 16");
+        this.format = format;
+        this.strategy = strategy;
+        this.batch = strategy == null ? null : new EventBatchFormatter();
+        this.out = ByteBuffer.allocateDirect(bufferBytes);
+    }
+
+    /** Exporter that writes the raw event fields instead of a display strategy's text. */
+    public static TimelineExporter raw(ExportFormat format) {
+        return new TimelineExporter(format, null);
+    }
+
+    public ExportFormat getFormat() { return format; }
+    public boolean isRaw() { return strategy == null; }
+
+    /** Real-time clock used for DTSTAMP (epoch milliseconds); for tests. */
+    void setWallClock(LongSupplier wallClockMillis) {
+        if (wallClockMillis == null) throw new IllegalArgumentException("wallClockMillis is required");
+        this.wallClockMillis = wallClockMillis;
+    }
+
+    /**
+     * Writes every event of the campaign to the channel. The channel is not closed.
+     *
+     * @return number of events written
+     */
+    public long export(Campaign campaign, WritableByteChannel channel) throws IOException {
+        if (campaign == null) throw new IllegalArgumentException("campaign is required");
+        if (channel == null) throw new IllegalArgumentException("channel is required");
+
+        out.clear();
+        if (format == ExportFormat.ICALENDAR) {
+            long nowMinutes = Math.floorDiv(wallClockMillis.getAsLong(), 60_000L);
+            stamp.setLength(0);
+            appendIcsDateTime(stamp, UNIX_EPOCH_DAY, nowMinutes);
+        }
+        beginLine();
+        appendHeader(campaign);
+        emit(channel);
+
+        long count;
+        if (isRaw()) {
+            count = 0;
+            for (QuestEvent e : campaign.eventsInStartOrder()) {
+                writeEvent(campaign, e, channel);
+                count++;
+            }
+        } else {
+            count = batch.formatAll(strategy, campaign.eventsInStartOrder(), (e, text) -> {
+                displayText = text;
+                writeEvent(campaign, e, channel);
+            });
+            displayText = null;
+        }
+
+        beginLine();
+        appendFooter();
+        emit(channel);
+        flush(channel);
+        return count;
+    }
+
+    private void writeEvent(Campaign campaign, QuestEvent e, WritableByteChannel channel) throws IOException {
+        beginLine();
+        appendEvent(campaign, e);
+        emit(channel);
+    }
+
+    // ---- Per-format rendering ----
+
+    private void appendHeader(Campaign campaign) {
+        switch (format) {
+            case CSV -> line.append(isRaw()
+                    ? "event_id,title,start_minutes,end_minutes,realm,realm_offset_minutes,participants,items\n"
+                    : "event_id,start_minutes,display\n");
+            case NDJSON -> { /* no header */ }
+            case ICALENDAR -> {
+                line.append("BEGIN:VCALENDAR\r\n")
+                        .append("VERSION:2.0\r\n")
+                        .append("PRODID:-//GuildQuest//Timeline Export//EN\r\n");
+                beginContentLine("X-WR-CALNAME:");
+                appendIcsText(campaign.getName());
+                endContentLine();
+            }
+        }
+    }
+
+    private void appendFooter() {
+        if (format == ExportFormat.ICALENDAR) line.append("END:VCALENDAR\r\n");
+    }
+
+    private void appendEvent(Campaign campaign, QuestEvent e) {
+        switch (format) {
+            case CSV -> appendCsv(e);
+            case NDJSON -> appendJson(e);
+            case ICALENDAR -> appendIcs(campaign, e);
+        }
+    }
+
+    private void appendCsv(QuestEvent e) {
+        line.append(e.getEventId()).append(',');
+        if (!isRaw()) {
+            line.append(e.getStartMinutes()).append(',');
+            appendCsvField(displayText);
+            line.append('\n');
+            return;
+        }
+
+        appendCsvField(e.getTitle());
+        line.append(',').append(e.getStartMinutes()).append(',');
+        if (e.hasEndTime()) line.append(e.getEndMinutes());
+        line.append(',');
+        Realm r = e.getRealm();
+        if (r != null) {
+            appendCsvField(r.getName());
+            line.append(',').append(r.getOffsetMinutes());
+        } else {
+            line.append(',');
+        }
+        line.append(',');
+        appendCsvList(e.getParticipants());
+        line.append(',');
+        appendCsvList(e.getItems());
+        line.append('\n');
+    }
+
+    private void appendJson(QuestEvent e) {
+        line.append("{\"eventId\":").append(e.getEventId())
+                .append(",\"start\":").append(e.getStartMinutes());
+        if (!isRaw()) {
+            line.append(",\"display\":");
+            appendJsonString(displayText);
+            line.append("}\n");
+            return;
+        }
+
+        line.append(",\"end\":");
+        if (e.hasEndTime()) line.append(e.getEndMinutes());
+        else line.append("null");
+        line.append(",\"title\":");
+        appendJsonString(e.getTitle());
+        Realm r = e.getRealm();
+        line.append(",\"realm\":");
+        if (r != null) {
+            appendJsonString(r.getName());
+            line.append(",\"realmOffset\":").append(r.getOffsetMinutes());
+        } else {
+            line.append("null");
+        }
+        line.append(",\"participants\":");
+        appendJsonArray(e.getParticipants());
+        line.append(",\"items\":");
+        appendJsonArray(e.getItems());
+        line.append("}\n");
+    }
+
+    private void appendIcs(Campaign campaign, QuestEvent e) {
+        line.append("BEGIN:VEVENT\r\n");
+        beginContentLine("UID:");
+        line.append(campaign.getCampaignId()).append('-').append(e.getEventId()).append("@guildquest");
+        endContentLine();
+        line.append("DTSTAMP:").append(stamp).append("\r\nDTSTART:");
+        appendIcsDateTime(line, ICS_EPOCH_DAY, e.getStartMinutes());
+        line.append("\r\n");
+        if (e.hasEndTime()) {
+            line.append("DTEND:");
+            appendIcsDateTime(line, ICS_EPOCH_DAY, e.getEndMinutes());
+            line.append("\r\n");
+        }
+        beginContentLine("SUMMARY:");
+        appendIcsText(isRaw() ? e.getTitle() : displayText);
+        endContentLine();
+        if (e.getRealm() != null) {
+            beginContentLine("LOCATION:");
+            appendIcsText(e.getRealm().getName());
+            endContentLine();
+        }
+        if (isRaw() && (!e.getParticipants().isEmpty() || !e.getItems().isEmpty())) {
+            beginContentLine("DESCRIPTION:Participants: ");
+            appendIcsList(e.getParticipants());
+            line.append("\\nItems: ");
+            appendIcsList(e.getItems());
+            endContentLine();
+        }
+        line.append("END:VEVENT\r\n");
+    }
+
+    private void beginContentLine(String nameAndColon) {
+        contentLineStart = line.length();
+        line.append(nameAndColon);
+    }
+
+    /**
+     * Folds the open content line so no physical line exceeds 75 UTF-8 octets
+     * (continuations start with a space, which counts), then ends it with CRLF.
+     * Folds never split a character.
+     */
+    private void endContentLine() {
+        int from = contentLineStart;
+        int end = line.length();
+        if (end - from > ICS_MAX_OCTETS / 3 && utf8Length(from, end) > ICS_MAX_OCTETS) {
+            foldScratch.setLength(0);
+            int octets = 0;
+            for (int i = from; i < end; ) {
+                int cp = line.codePointAt(i);
+                int n = Character.charCount(cp);
+                int size = cp < 0x80 ? 1 : cp < 0x800 ? 2 : cp < 0x10000 ? 3 : 4;
+                if (octets + size > ICS_MAX_OCTETS) {
+                    foldScratch.append("\r\n ");
+                    octets = 1;
+                }
+                foldScratch.append(line, i, i + n);
+                octets += size;
+                i += n;
+            }
+            line.setLength(from);
+            line.append(foldScratch);
+        }
+        line.append("\r\n");
+    }
+
+    private int utf8Length(int from, int to) {
+        int octets = 0;
+        for (int i = from; i < to; i++) {
+            char c = line.charAt(i);
+            if (c < 0x80) octets++;
+            else if (c < 0x800) octets += 2;
+            else if (Character.isHighSurrogate(c)) {
+                octets += 4;
+                i++;
+            } else octets += 3;
+        }
+        return octets;
+    }
+
+    // ---- Escaping helpers (append in place, no intermediate strings) ----
+
+    private void appendCsvField(CharSequence s) {
+        if (s == null) return;
+        boolean quote = false;
+        for (int i = 0; i < s.length() && !quote; i++) {
+            char c = s.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(s);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') line.append('"');
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    private void appendCsvList(List<String> values) {
+        if (values.isEmpty()) return;
+        line.append('"');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) line.append(';');
+            String v = values.get(i);
+            for (int j = 0; j < v.length(); j++) {
+                char c = v.charAt(j);
+                if (c == '"') line.append('"');
+                line.append(c);
+            }
+        }
+        line.append('"');
+    }
+
+    private void appendJsonString(CharSequence s) {
+        if (s == null) {
+            line.append("null");
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        line.append("\\u00");
+                        line.append(Character.forDigit(c >> 4, 16));
+                        line.append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        line.append(c);
+                    }
+                }
+            }
+        }
+        line.append('"');
+    }
+
+    private void appendJsonArray(List<String> values) {
+        line.append('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) line.append(',');
+            appendJsonString(values.get(i));
+        }
+        line.append(']');
+    }
+
+    private void appendIcsText(CharSequence s) {
+        if (s == null) return;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '\\', ';', ',' -> line.append('\\').append(c);
+                case '\n' -> line.append("\\n");
+                case '\r' -> { /* dropped */ }
+                default -> line.append(c);
+            }
+        }
+    }
+
+    private void appendIcsList(List<String> values) {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) line.append("\\, ");
+            appendIcsText(values.get(i));
+        }
+    }
+
+    /**
+     * Appends yyyyMMdd'T'HHmmss'Z' for minutes counted from epochDay (days since
+     * 1970-01-01). Civil-from-days, no java.time objects.
+     */
+    private static void appendIcsDateTime(StringBuilder sb, long epochDay, long total) {
+        long z = epochDay + GlobalTime.daysOf(total) + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        long day = doy - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+
+        int minsInDay = GlobalTime.minuteOfDay(total);
+        sb.append(year);
+        appendTwoDigits(sb, (int) month);
+        appendTwoDigits(sb, (int) day);
+        sb.append('T');
+        appendTwoDigits(sb, minsInDay / 60);
+        appendTwoDigits(sb, minsInDay % 60);
+        sb.append("00Z");
+    }
+
+    private static void appendTwoDigits(StringBuilder sb, int v) {
+        sb.append((char) ('0' + v / 10)).append((char) ('0' + v % 10));
+    }
+
+    // ---- Encoding / channel output ----
+
+    private void beginLine() {
+        line.setLength(0);
+    }
+
+    private void emit(WritableByteChannel channel) throws IOException {
+        int len = line.length();
+        if (len == 0) return;
+        if (len > chars.length) {
+            chars = new char[Math.max(len, chars.length * 2)];
+            charView = CharBuffer.wrap(chars);
+        }
+        line.getChars(0, len, chars, 0);
+        charView.clear().limit(len);
+
+        encoder.reset();
+        while (true) {
+            CoderResult r = encoder.encode(charView, out, true);
+            if (r.isOverflow()) {
+                flush(channel);
+                continue;
+            }
+            if (r.isError()) r.throwException();
+            break;
+        }
+        while (encoder.flush(out).isOverflow()) flush(channel);
+    }
+
+    private void flush(WritableByteChannel channel) throws IOException {
+        out.flip();
+        while (out.hasRemaining()) channel.write(out);
+        out.clear();
+    }
+}
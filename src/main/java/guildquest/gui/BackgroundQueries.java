@@ -0,0 +1,86 @@
+package guildquest.gui;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javafx.application.Platform;
+
+/**
+ * Runs the expensive part of timeline queries off the FX thread, newest request wins.
+ *
+ * The model is not thread-safe and belongs to the FX thread, so callers read the
+ * campaign there (a snapshot of the candidate events) and hand the worker only work
+ * over that snapshot: filtering, sorting, indexing. The worker never touches a Campaign.
+ *
+ * Every submit() bumps a generation counter. A query that was superseded before it
+ * starts is skipped, and one superseded while running has its result thrown away,
+ * so quickly switching campaigns never shows a stale list. The apply (or failed) step
+ * runs on the FX thread, and only for the newest query.
+ */
+public class BackgroundQueries {
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "timeline-query");
+        t.setDaemon(true);
+        return t;
+    });
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private Future<?> pending; // FX thread only
+
+    /**
+     * Call on the FX thread. query must not touch the model. apply (or onFailure, if query
+     * throws) runs on the FX thread, only if no newer submit happened.
+     */
+    public <R> void submit(Supplier<R> query, Consumer<R> apply, Consumer<RuntimeException> onFailure) {
+        long gen = generation.incrementAndGet();
+        if (pending != null && pending.cancel(false)) discarded.incrementAndGet(); // not started yet
+        pending = worker.submit(() -> {
+            if (gen != generation.get()) {
+                discarded.incrementAndGet();
+                return;
+            }
+            R result;
+            try {
+                result = query.get();
+            } catch (RuntimeException ex) {
+                Platform.runLater(() -> {
+                    if (gen != generation.get()) {
+                        discarded.incrementAndGet();
+                        return;
+                    }
+                    failed.incrementAndGet();
+                    onFailure.accept(ex);
+                });
+                return;
+            }
+            Platform.runLater(() -> {
+                if (gen != generation.get()) {
+                    discarded.incrementAndGet();
+                    return;
+                }
+                completed.incrementAndGet();
+                apply.accept(result);
+            });
+        });
+    }
+
+    public void shutdown() {
+        worker.shutdownNow();
+    }
+
+    public long getGeneration() { return generation.get(); }
+    public long getCompleted() { return completed.get(); }
+    public long getDiscarded() { return discarded.get(); }
+    public long getFailed() { return failed.get(); }
+
+    @Override
+    public String toString() {
+        return "queries: " + completed.get() + " applied, " + discarded.get() + " superseded, " + failed.get() + " failed";
+    }
+}
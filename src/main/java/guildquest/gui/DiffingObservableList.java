@@ -0,0 +1,101 @@
+package guildquest.gui;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import javafx.collections.ObservableListBase;
+
+/**
+ * Read-only ObservableList that is updated by syncing it to a new snapshot.
+ *
+ * sync() diffs the current contents against the snapshot ({@link ListDiff}) and fires
+ * the minimal inserts/removes as a single change, so a ListView keeps its cells and
+ * scroll position instead of rebuilding everything. Elements kept in place whose
+ * version moved on are reported as replaced-by-themselves, which makes visible cells
+ * re-render (see the cell factory in GuiMain).
+ */
+public class DiffingObservableList<T> extends ObservableListBase<T> {
+    private final ToIntFunction<? super T> versionOf;
+    private List<T> items = new ArrayList<>();
+    private int[] versions = new int[0];
+
+    private long syncs;
+    private long edits;
+
+    public DiffingObservableList(ToIntFunction<? super T> versionOf) {
+        if (versionOf == null) throw new IllegalArgumentException("versionOf is required");
+        this.versionOf = versionOf;
+    }
+
+    @Override
+    public T get(int index) { return items.get(index); }
+
+    @Override
+    public int size() { return items.size(); }
+
+    /** Makes the list equal to target (in its iteration order) with one change notification. */
+    public void sync(Collection<? extends T> target) {
+        List<T> next = new ArrayList<>(target);
+        int[] nextVersions = new int[next.size()];
+        for (int i = 0; i < nextVersions.length; i++) nextVersions[i] = versionOf.applyAsInt(next.get(i));
+        List<T> old = items;
+        int[] oldVersions = versions;
+        syncs++;
+
+        beginChange();
+        try {
+            edits += ListDiff.diff(old, next, new ListDiff.Visitor<T>() {
+                int at; // position in the list as the changes so far have left it
+
+                @Override
+                public void keep(int oldIndex, int newIndex, T item) {
+                    if (oldVersions[oldIndex] != nextVersions[newIndex]) nextSet(at, item);
+                    at++;
+                }
+
+                @Override
+                public void remove(int oldIndex, T item) {
+                    nextRemove(at, item);
+                }
+
+                @Override
+                public void insert(int newIndex, T item) {
+                    nextAdd(at, at + 1);
+                    at++;
+                }
+            });
+            // The change reads added elements from the final list when it is fired.
+            items = next;
+            versions = nextVersions;
+        } finally {
+            endChange();
+        }
+    }
+
+    /**
+     * Swaps in target wholesale (one remove-all plus add-all change), for when the
+     * contents are unrelated to what is shown, e.g. another campaign was selected.
+     */
+    public void replace(Collection<? extends T> target) {
+        List<T> next = new ArrayList<>(target);
+        int[] nextVersions = new int[next.size()];
+        for (int i = 0; i < nextVersions.length; i++) nextVersions[i] = versionOf.applyAsInt(next.get(i));
+        List<T> old = items;
+
+        beginChange();
+        try {
+            if (!old.isEmpty()) nextRemove(0, old);
+            if (!next.isEmpty()) nextAdd(0, next.size());
+            items = next;
+            versions = nextVersions;
+        } finally {
+            endChange();
+        }
+    }
+
+    /** sync() calls so far, and the inserts plus removes they produced. */
+    public long getSyncCount() { return syncs; }
+    public long getEditCount() { return edits; }
+}
@@ -0,0 +1,226 @@
+package guildquest.gui;
+
+import java.util.Arrays;
+import java.util.List;
+
+import guildquest.model.QuestEvent;
+
+/**
+ * Immutable interval index over one snapshot of a campaign, for the timeline canvas.
+ *
+ * Built off the FX thread (see GuiMain.loadEvents); answers the two questions a frame
+ * needs without walking the campaign:
+ * <ul>
+ *   <li>how many events overlap [from, to): #(start &lt; to) - #(end &lt;= from), two
+ *       binary searches over sorted start/end arrays, so a zoomed-out heat band costs
+ *       O(columns log n) whatever the event count;</li>
+ *   <li>which events overlap [from, to): events are bucketed by duration class
+ *       (powers of two), so each bucket only scans starts in [from - 2^(k+1), to).</li>
+ * </ul>
+ * Every event also gets a lane (row) assigned once, greedily in start order, so bars
+ * don't jump between rows while panning. Events without an end count as one minute.
+ */
+public final class GanttIndex {
+
+    public static final GanttIndex EMPTY = new GanttIndex(List.of());
+
+    public interface Visitor {
+        void visit(QuestEvent e, long start, long end, int lane);
+    }
+
+    private final QuestEvent[] events;  // start order
+    private final long[] starts;        // ascending
+    private final long[] ends;          // effective ends, > start
+    private final long[] sortedEnds;    // ascending
+    private final int[] lanes;
+    private final int laneCount;
+
+    // Duration class k holds events with end - start in [2^k, 2^(k+1)); members in start order.
+    private final int[][] classMembers = new int[64][];
+    private final long[][] classStarts = new long[64][];
+
+    /** @param inStartOrder events ordered by start time, e.g. Campaign.eventsInStartOrder() */
+    public GanttIndex(List<QuestEvent> inStartOrder) {
+        int n = inStartOrder.size();
+        events = inStartOrder.toArray(new QuestEvent[0]);
+        starts = new long[n];
+        ends = new long[n];
+        int[] classSizes = new int[64];
+        for (int i = 0; i < n; i++) {
+            QuestEvent e = events[i];
+            long s = e.getStartMinutes();
+            if (i > 0 && s < starts[i - 1]) throw new IllegalArgumentException("events must be in start order");
+            long end = e.getEndMinutes();
+            starts[i] = s;
+            ends[i] = (end > s || s == Long.MAX_VALUE) ? end : s + 1;
+            classSizes[durationClass(s, ends[i])]++;
+        }
+        sortedEnds = ends.clone();
+        Arrays.sort(sortedEnds);
+
+        for (int k = 0; k < 64; k++) {
+            classMembers[k] = new int[classSizes[k]];
+            classStarts[k] = new long[classSizes[k]];
+            classSizes[k] = 0;
+        }
+        for (int i = 0; i < n; i++) {
+            int k = durationClass(starts[i], ends[i]);
+            classMembers[k][classSizes[k]] = i;
+            classStarts[k][classSizes[k]++] = starts[i];
+        }
+
+        lanes = new int[n];
+        laneCount = assignLanes(starts, ends, lanes);
+    }
+
+    public int size() { return events.length; }
+    public int getLaneCount() { return laneCount; }
+    public boolean isEmpty() { return events.length == 0; }
+    /** Earliest start / latest end; only meaningful when not empty. */
+    public long getMinStart() { return starts[0]; }
+    public long getMaxEnd() { return sortedEnds[sortedEnds.length - 1]; }
+
+    /** Events overlapping [from, to). */
+    public int countOverlapping(long from, long to) {
+        if (to <= from) return 0;
+        return lowerBound(starts, starts.length, to) - upperBound(sortedEnds, from);
+    }
+
+    /**
+     * counts[c] = events overlapping column c, where column c covers
+     * [from + c * minutesPerColumn, from + (c + 1) * minutesPerColumn).
+     * @return the largest count
+     */
+    public int density(double from, double minutesPerColumn, int[] counts) {
+        int max = 0;
+        long a = (long) Math.floor(from);
+        for (int c = 0; c < counts.length; c++) {
+            long b = (long) Math.floor(from + (c + 1) * minutesPerColumn);
+            int n = countOverlapping(a, Math.max(b, a + 1));
+            counts[c] = n;
+            if (n > max) max = n;
+            a = b;
+        }
+        return max;
+    }
+
+    /**
+     * Visits the events overlapping [from, to) in start order, at most limit of them.
+     * @return how many overlap in total (may exceed limit)
+     */
+    public int forEachOverlapping(long from, long to, int limit, Visitor visitor) {
+        int total = countOverlapping(from, to);
+        if (total == 0 || limit <= 0) return total;
+
+        int[] hits = new int[Math.min(total, events.length)];
+        int found = 0;
+        for (int k = 0; k < 64; k++) {
+            long[] cs = classStarts[k];
+            if (cs.length == 0) continue;
+            // Members of class k last less than 2^(k+1), so earlier starts can't reach from.
+            long span = k >= 62 ? Long.MAX_VALUE : 1L << (k + 1);
+            long lo = from < Long.MIN_VALUE + span ? Long.MIN_VALUE : from - span;
+            int end = lowerBound(cs, cs.length, to);
+            for (int j = lowerBound(cs, end, lo); j < end && found < hits.length; j++) {
+                int i = classMembers[k][j];
+                if (ends[i] > from) hits[found++] = i;
+            }
+        }
+        Arrays.sort(hits, 0, found); // index order = start order
+        int n = Math.min(found, limit);
+        for (int h = 0; h < n; h++) {
+            int i = hits[h];
+            visitor.visit(events[i], starts[i], ends[i], lanes[i]);
+        }
+        return total;
+    }
+
+    private static int durationClass(long start, long end) {
+        long d = end - start;
+        if (d < 0) return 63; // span overflowed a long
+        return d == 0 ? 0 : 63 - Long.numberOfLeadingZeros(d);
+    }
+
+    /** Lowest free lane for each event in start order; returns the lane count. */
+    private static int assignLanes(long[] starts, long[] ends, int[] lanes) {
+        int n = starts.length;
+        int[] busy = new int[n];  // min-heap of event indexes by end
+        int busySize = 0;
+        int[] free = new int[n];  // min-heap of lane numbers
+        int freeSize = 0;
+        int laneCount = 0;
+        for (int i = 0; i < n; i++) {
+            while (busySize > 0 && ends[busy[0]] <= starts[i]) {
+                int done = busy[0];
+                busy[0] = busy[--busySize];
+                siftDown(busy, busySize, ends);
+                free[freeSize] = lanes[done];
+                siftUp(free, freeSize++, null);
+            }
+            if (freeSize > 0) {
+                lanes[i] = free[0];
+                free[0] = free[--freeSize];
+                siftDown(free, freeSize, null);
+            } else {
+                lanes[i] = laneCount++;
+            }
+            busy[busySize] = i;
+            siftUp(busy, busySize++, ends);
+        }
+        return laneCount;
+    }
+
+    // Int heaps ordered by keys[value], or by the value itself when keys is null.
+
+    private static long key(int v, long[] keys) { return keys == null ? v : keys[v]; }
+
+    private static void siftUp(int[] heap, int at, long[] keys) {
+        int v = heap[at];
+        while (at > 0) {
+            int parent = (at - 1) >>> 1;
+            if (key(heap[parent], keys) <= key(v, keys)) break;
+            heap[at] = heap[parent];
+            at = parent;
+        }
+        heap[at] = v;
+    }
+
+    private static void siftDown(int[] heap, int size, long[] keys) {
+        if (size == 0) return;
+        int v = heap[0];
+        int at = 0;
+        while (true) {
+            int child = 2 * at + 1;
+            if (child >= size) break;
+            if (child + 1 < size && key(heap[child + 1], keys) < key(heap[child], keys)) child++;
+            if (key(v, keys) <= key(heap[child], keys)) break;
+            heap[at] = heap[child];
+            at = child;
+        }
+        heap[at] = v;
+    }
+
+    /** First index in a[0, len) with a[i] >= x. */
+    private static int lowerBound(long[] a, int len, long x) {
+        int lo = 0;
+        int hi = len;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < x) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** First index with a[i] > x. */
+    private static int upperBound(long[] a, long x) {
+        int lo = 0;
+        int hi = a.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] <= x) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
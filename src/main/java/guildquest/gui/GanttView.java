@@ -0,0 +1,301 @@
+package guildquest.gui;
+
+import java.util.function.Consumer;
+
+import guildquest.model.GlobalTime;
+import guildquest.model.QuestEvent;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+
+/**
+ * Zoomable Gantt chart of a campaign's events, drawn on a Canvas.
+ *
+ * Each frame asks the {@link GanttIndex} only about the visible window. Level of
+ * detail follows how many events overlap it: up to MAX_BARS are drawn as bars in
+ * their lanes (titles when there is room), beyond that a heat band shows how many
+ * events overlap each pixel column. Either way a frame costs O(width log n) or
+ * O(MAX_BARS), not O(events).
+ *
+ * Drag pans (sideways in time, up/down through lanes), the wheel zooms around the
+ * pointer (shift+wheel scrolls lanes), arrows/+/- work too and Home fits everything.
+ * Redraws go through the RefreshScheduler, so a burst of input draws once per pulse.
+ */
+public class GanttView extends Pane {
+    private static final int MAX_BARS = 4000;
+    private static final double AXIS_HEIGHT = 22;
+    private static final double ROW_HEIGHT = 18;
+    private static final double MIN_TICK_PX = 90;
+    private static final double MIN_MINUTES_PER_PX = 1.0 / 32;
+    private static final double MAX_MINUTES_PER_PX = 1e13;
+    private static final long[] TICK_STEPS = {
+            1, 5, 15, 30, 60, 3 * 60, 6 * 60, 12 * 60,
+            GlobalTime.MINUTES_PER_DAY, 7L * GlobalTime.MINUTES_PER_DAY,
+            30L * GlobalTime.MINUTES_PER_DAY, 365L * GlobalTime.MINUTES_PER_DAY
+    };
+
+    private final Canvas canvas = new Canvas();
+    private final RefreshScheduler refresher;
+    private final RefreshScheduler.View redraw;
+    private final Color[] heatRamp = new Color[32];
+
+    private GanttIndex index = GanttIndex.EMPTY;
+    private double viewFrom;                               // minutes at the left edge
+    private double minutesPerPx = GlobalTime.MINUTES_PER_DAY / 100.0;
+    private double topLane;                                // fractional while dragging
+    private int[] columns = new int[0];
+    private Consumer<QuestEvent> onEventClicked = e -> { };
+
+    private double dragX;
+    private double dragY;
+    private boolean dragged;
+
+    // Frame stats for the tooltip: the draw cost is what has to stay under 16 ms.
+    private long frames;
+    private long lastFrameNanos;
+    private long maxFrameNanos;
+    private boolean lastFrameBars;
+
+    public GanttView(RefreshScheduler refresher) {
+        this.refresher = refresher;
+        this.redraw = refresher.register("timeline", this::draw);
+        for (int i = 0; i < heatRamp.length; i++) {
+            double f = (double) i / (heatRamp.length - 1);
+            heatRamp[i] = Color.rgb((int) (230 - 200 * f), (int) (240 - 150 * f), (int) (255 - 80 * f));
+        }
+
+        getChildren().add(canvas);
+        widthProperty().addListener((obs, oldV, newV) -> {
+            canvas.setWidth(newV.doubleValue());
+            refresher.markDirty(redraw);
+        });
+        heightProperty().addListener((obs, oldV, newV) -> {
+            canvas.setHeight(newV.doubleValue());
+            refresher.markDirty(redraw);
+        });
+
+        setFocusTraversable(true);
+        setOnMousePressed(this::onPressed);
+        setOnMouseDragged(this::onDragged);
+        setOnMouseClicked(this::onClicked);
+        setOnScroll(this::onScroll);
+        setOnKeyPressed(this::onKey);
+    }
+
+    /**
+     * Shows a new snapshot (FX thread). fit = true zooms to all events, for a newly
+     * selected campaign; otherwise the window stays put.
+     */
+    public void setIndex(GanttIndex index, boolean fit) {
+        this.index = index == null ? GanttIndex.EMPTY : index;
+        if (fit) fitAll();
+        clampLanes();
+        refresher.markDirty(redraw);
+    }
+
+    public void setOnEventClicked(Consumer<QuestEvent> handler) {
+        onEventClicked = handler == null ? e -> { } : handler;
+    }
+
+    public void fitAll() {
+        double w = Math.max(canvas.getWidth(), 100);
+        if (index.isEmpty()) {
+            viewFrom = 0;
+            minutesPerPx = 7.0 * GlobalTime.MINUTES_PER_DAY / w;
+        } else {
+            double span = Math.max((double) index.getMaxEnd() - index.getMinStart(), 60);
+            minutesPerPx = clampZoom(span * 1.1 / w);
+            viewFrom = index.getMinStart() - span * 0.05;
+        }
+        topLane = 0;
+        refresher.markDirty(redraw);
+    }
+
+    // ---- Input ----
+
+    private void onPressed(MouseEvent e) {
+        requestFocus();
+        dragX = e.getX();
+        dragY = e.getY();
+        dragged = false;
+    }
+
+    private void onDragged(MouseEvent e) {
+        double dx = e.getX() - dragX;
+        double dy = e.getY() - dragY;
+        if (Math.abs(dx) + Math.abs(dy) > 2) dragged = true;
+        viewFrom -= dx * minutesPerPx;
+        topLane -= dy / ROW_HEIGHT;
+        clampLanes();
+        dragX = e.getX();
+        dragY = e.getY();
+        refresher.markDirty(redraw);
+    }
+
+    private void onClicked(MouseEvent e) {
+        if (dragged || e.getY() < AXIS_HEIGHT) return;
+        int lane = (int) Math.floor(topLane) + (int) ((e.getY() - AXIS_HEIGHT) / ROW_HEIGHT);
+        // Two pixels of slack either side so short (or open-ended) events can be hit.
+        long from = (long) Math.floor(viewFrom + (e.getX() - 2) * minutesPerPx);
+        long to = (long) Math.ceil(viewFrom + (e.getX() + 2) * minutesPerPx);
+        if (index.countOverlapping(from, to) > MAX_BARS) return; // heat band: nothing to pick
+        QuestEvent[] hit = new QuestEvent[1];
+        index.forEachOverlapping(from, Math.max(to, from + 1), MAX_BARS, (ev, s, end, l) -> {
+            if (l == lane && hit[0] == null) hit[0] = ev;
+        });
+        if (hit[0] != null) onEventClicked.accept(hit[0]);
+    }
+
+    private void onScroll(ScrollEvent e) {
+        if (e.isShiftDown()) {
+            topLane -= (e.getDeltaY() + e.getDeltaX()) / ROW_HEIGHT;
+            clampLanes();
+        } else {
+            zoomAround(e.getX(), Math.pow(1.25, -e.getDeltaY() / 40));
+        }
+        refresher.markDirty(redraw);
+    }
+
+    private void onKey(KeyEvent e) {
+        double w = canvas.getWidth();
+        switch (e.getCode()) {
+            case LEFT -> viewFrom -= w / 4 * minutesPerPx;
+            case RIGHT -> viewFrom += w / 4 * minutesPerPx;
+            case UP -> topLane -= 1;
+            case DOWN -> topLane += 1;
+            case PLUS, ADD, EQUALS -> zoomAround(w / 2, 0.5);
+            case MINUS, SUBTRACT -> zoomAround(w / 2, 2);
+            case HOME -> fitAll();
+            default -> { return; }
+        }
+        clampLanes();
+        refresher.markDirty(redraw);
+    }
+
+    /** Scales the zoom by factor while keeping the time under pixel x in place. */
+    private void zoomAround(double x, double factor) {
+        double t = viewFrom + x * minutesPerPx;
+        minutesPerPx = clampZoom(minutesPerPx * factor);
+        viewFrom = t - x * minutesPerPx;
+    }
+
+    private static double clampZoom(double mpp) {
+        return Math.max(MIN_MINUTES_PER_PX, Math.min(MAX_MINUTES_PER_PX, mpp));
+    }
+
+    private void clampLanes() {
+        topLane = Math.max(0, Math.min(topLane, Math.max(0, index.getLaneCount() - 1)));
+    }
+
+    // ---- Drawing ----
+
+    private void draw() {
+        long t0 = System.nanoTime();
+        double w = canvas.getWidth();
+        double h = canvas.getHeight();
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.clearRect(0, 0, w, h);
+        if (w < 1 || h < 1) return;
+
+        long from = (long) Math.floor(viewFrom);
+        long to = (long) Math.ceil(viewFrom + w * minutesPerPx);
+        int visible = index.countOverlapping(from, to);
+        lastFrameBars = visible <= MAX_BARS;
+        if (lastFrameBars) drawBars(g, from, to, w, h);
+        else drawHeat(g, w, h, visible);
+        drawAxis(g, w);
+
+        long nanos = System.nanoTime() - t0;
+        frames++;
+        lastFrameNanos = nanos;
+        if (nanos > maxFrameNanos) maxFrameNanos = nanos;
+    }
+
+    private void drawBars(GraphicsContext g, long from, long to, double w, double h) {
+        int firstLane = (int) Math.floor(topLane);
+        int rows = (int) Math.ceil((h - AXIS_HEIGHT) / ROW_HEIGHT);
+        double laneShift = (topLane - firstLane) * ROW_HEIGHT;
+        g.setFont(Font.font(11));
+        index.forEachOverlapping(from, to, MAX_BARS, (e, s, end, lane) -> {
+            int row = lane - firstLane;
+            if (row < 0 || row > rows) return;
+            double x0 = Math.max(-1, (s - viewFrom) / minutesPerPx);
+            double x1 = Math.min(w + 1, (end - viewFrom) / minutesPerPx);
+            double bw = Math.max(x1 - x0, 2);
+            double y = AXIS_HEIGHT + row * ROW_HEIGHT - laneShift + 2;
+            g.setFill(e.hasEndTime() ? Color.STEELBLUE : Color.ORANGE);
+            g.fillRect(x0, y, bw, ROW_HEIGHT - 4);
+            if (bw > 30 && e.getTitle() != null) {
+                g.setFill(Color.WHITE);
+                double tx = Math.max(x0, 0) + 3;
+                g.fillText(e.getTitle(), tx, y + ROW_HEIGHT - 7, Math.max(x0 + bw - tx - 3, 1));
+            }
+        });
+    }
+
+    private void drawHeat(GraphicsContext g, double w, double h, int visible) {
+        int cols = (int) Math.ceil(w);
+        if (columns.length != cols) columns = new int[cols];
+        int max = index.density(viewFrom, minutesPerPx, columns);
+        double logMax = Math.log1p(max);
+        for (int c = 0; c < cols; c++) {
+            if (columns[c] == 0) continue;
+            int shade = (int) Math.round(Math.log1p(columns[c]) / logMax * (heatRamp.length - 1));
+            g.setFill(heatRamp[shade]);
+            g.fillRect(c, AXIS_HEIGHT, 1, h - AXIS_HEIGHT);
+        }
+        g.setFill(Color.DIMGRAY);
+        g.setFont(Font.font(11));
+        g.fillText(visible + " events in view (up to " + max + " at once) - zoom in for bars",
+                6, AXIS_HEIGHT + 14);
+    }
+
+    private void drawAxis(GraphicsContext g, double w) {
+        g.setFill(Color.WHITE);
+        g.fillRect(0, 0, w, AXIS_HEIGHT);
+        g.setStroke(Color.GRAY);
+        g.setLineWidth(1);
+        g.strokeLine(0, AXIS_HEIGHT - 0.5, w, AXIS_HEIGHT - 0.5);
+
+        long step = tickStep();
+        double firstTick = Math.ceil(viewFrom / step) * step;
+        g.setFill(Color.BLACK);
+        g.setFont(Font.font(11));
+        int maxTicks = (int) (w / MIN_TICK_PX) + 2; // bounded even where doubles get coarse
+        for (int i = 0; i < maxTicks; i++) {
+            double t = firstTick + (double) i * step;
+            if ((t - viewFrom) / minutesPerPx >= w) break;
+            double x = Math.floor((t - viewFrom) / minutesPerPx) + 0.5;
+            g.strokeLine(x, AXIS_HEIGHT - 6, x, AXIS_HEIGHT);
+            long minute = (long) t;
+            String label = step % GlobalTime.MINUTES_PER_DAY == 0
+                    ? "Day " + GlobalTime.daysOf(minute)
+                    : GlobalTime.toString(minute);
+            g.fillText(label, x + 3, AXIS_HEIGHT - 8);
+        }
+    }
+
+    /** Smallest step from TICK_STEPS (then powers of ten years) keeping ticks MIN_TICK_PX apart. */
+    private long tickStep() {
+        double minMinutes = MIN_TICK_PX * minutesPerPx;
+        for (long s : TICK_STEPS) {
+            if (s >= minMinutes) return s;
+        }
+        long s = TICK_STEPS[TICK_STEPS.length - 1];
+        while (s < minMinutes && s < Long.MAX_VALUE / 10) s *= 10;
+        return s;
+    }
+
+    @Override
+    public String toString() {
+        return "timeline: " + index.size() + " events in " + index.getLaneCount() + " lanes, "
+                + (lastFrameBars ? "bars" : "heat band") + ", " + frames + " frames (last "
+                + lastFrameNanos / 1000 + " us, worst " + maxFrameNanos / 1000 + " us)";
+    }
+}
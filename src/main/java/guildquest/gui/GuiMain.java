@@ -5,14 +5,20 @@ import guildquest.gui.strategy.*;
 import guildquest.model.Campaign;
 import guildquest.model.CampaignObserver;
 import guildquest.model.EventData;
+import guildquest.model.EventQuery;
+import guildquest.model.EventQueryPlanner;
+import guildquest.model.EventTextIndex;
 import guildquest.model.GlobalTime;
+import guildquest.model.NameDictionary;
 import guildquest.model.Permission;
 import guildquest.model.QuestEvent;
 import guildquest.model.Realm;
+import guildquest.model.RealmRegistry;
 import guildquest.model.Theme;
 import guildquest.model.TimeDisplayPreference;
 import guildquest.model.User;
 import guildquest.model.Visibility;
+import guildquest.storage.ColdTier;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.application.Application;
@@ -24,8 +30,8 @@ import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 
-import javafx.application.Platform;
-
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 public class GuiMain extends Application implements CampaignObserver {
@@ -41,14 +47,65 @@ public class GuiMain extends Application implements CampaignObserver {
     );
 
     private final ObservableList<Campaign> campaigns = FXCollections.observableArrayList();
-    private final ObservableList<QuestEvent> events = FXCollections.observableArrayList();
+    // Synced to the selected campaign by diffing, so updates don't rebuild every cell.
+    private final DiffingObservableList<QuestEvent> events = new DiffingObservableList<>(QuestEvent::getVersion);
 
     private final ObjectProperty<EventDisplayStrategy> eventDisplay = new SimpleObjectProperty<>();
 
+    // Cells are re-rendered constantly while scrolling; reuse their text until the event changes.
+    private final FormattedEventCache formatCache = new FormattedEventCache();
+
+    // Archived campaigns park their events here while they are not selected.
+    private final ColdTier coldTier = new ColdTier();
+
     // Keep references so observer callbacks can refresh UI safely.
     private ListView<Campaign> campaignList;
     private ListView<QuestEvent> eventList;
 
+    // Observer callbacks only mark views dirty; each view refreshes at most once per pulse.
+    private final RefreshScheduler refresher = new RefreshScheduler();
+    private RefreshScheduler.View campaignsView;
+    private RefreshScheduler.View eventsView;
+    private RefreshScheduler.View eventCellsView;
+    private volatile Campaign shownCampaign; // read by observer callbacks on any thread
+
+    // Event lists are snapshotted on the FX thread, then filtered and indexed off it.
+    private final BackgroundQueries queries = new BackgroundQueries();
+    private Campaign listedCampaign; // whose events `events` holds (FX thread)
+    private QuestEvent selectWhenListed; // selected once a load brings it in (FX thread)
+    private GanttView timeline;
+
+    // Details of the selected event; the name lists render only their visible rows.
+    private Label detailsTitle;
+    private Label participantsLabel;
+    private Label itemsLabel;
+    private NameListView participantsList;
+    private NameListView itemsList;
+    private RefreshScheduler.View detailsView;
+    private QuestEvent detailsEvent; // whose names are shown (FX thread)
+
+    // Participant/item names across campaigns, for completion in the add-event prompts.
+    private final NameDictionary names = new NameDictionary();
+
+    // Search box: a compiled EventQuery, planned against the text index (see loadEvents).
+    private final EventTextIndex textIndex = new EventTextIndex();
+    private final EventQueryPlanner planner = new EventQueryPlanner(textIndex);
+    private volatile EventQuery filter; // null = show everything
+    private Label searchStatus;
+
+    /** What a background load hands to the FX thread. */
+    private static final class LoadedEvents {
+        final List<QuestEvent> inStartOrder;
+        final GanttIndex timelineIndex;
+        final String status;
+
+        LoadedEvents(List<QuestEvent> inStartOrder, String status) {
+            this.inStartOrder = inStartOrder;
+            this.timelineIndex = new GanttIndex(inStartOrder);
+            this.status = status;
+        }
+    }
+
     // Stored so Commands can operate without capturing many locals.
     private Stage stageRef;
     private Realm defaultRealmRef;
@@ -57,7 +114,7 @@ public class GuiMain extends Application implements CampaignObserver {
     public void start(Stage stage) {
         this.stageRef = stage;
         // Your Realm constructor is (String name, int offsetMinutes)
-        this.defaultRealmRef = new Realm("Earth", 0);
+        this.defaultRealmRef = RealmRegistry.global().intern("Earth", 0);
 
         Campaign sample = new Campaign(1, "My Campaign", activeUser);
 
@@ -70,9 +127,12 @@ public class GuiMain extends Application implements CampaignObserver {
                 defaultRealmRef
         ));
 
+        sample.setColdTier(coldTier);
         campaigns.add(sample);
         // Observer registration (A3)
         sample.addObserver(this);
+        names.watch(sample);
+        textIndex.watch(sample);
 
         // Default settings wiring (strategy + theme)
         syncDisplayStrategyFromSettings();
@@ -98,26 +158,53 @@ public class GuiMain extends Application implements CampaignObserver {
 
         eventList = new ListView<>(events);
         eventList.setCellFactory(lv -> new ListCell<>() {
+            private int renderedVersion = -1;
+
+            // An event edited in place is the same instance; its version says whether to re-render.
+            @Override
+            protected boolean isItemChanged(QuestEvent oldItem, QuestEvent newItem) {
+                return oldItem != newItem || (newItem != null && newItem.getVersion() != renderedVersion);
+            }
+
             @Override
             protected void updateItem(QuestEvent item, boolean empty) {
                 super.updateItem(item, empty);
                 if (empty || item == null) {
+                    renderedVersion = -1;
                     setText("");
                     return;
                 }
 
+                renderedVersion = item.getVersion();
                 EventDisplayStrategy s = eventDisplay.get();
-                setText(s == null ? (item.getEventId() + " - " + item.getTitle()) : s.format(item));
+                setText(s == null ? (item.getEventId() + " - " + item.getTitle()) : formatCache.format(s, item));
             }
         });
 
+        campaignsView = refresher.register("campaign list", campaignList::refresh);
+        eventsView = refresher.register("event list", () -> loadEvents(shownCampaign));
+        timeline = new GanttView(refresher);
+        timeline.setOnEventClicked(ev -> eventList.getSelectionModel().select(ev));
+        eventCellsView = refresher.register("event text", () -> {
+            formatCache.invalidateAll();
+            eventList.refresh();
+        });
+
         // If settings change, refresh event list formatting
-        eventDisplay.addListener((obs, oldV, newV) -> eventList.refresh());
+        eventDisplay.addListener((obs, oldV, newV) -> refresher.markDirty(eventCellsView));
+
+        // Format cache hit rate and refresh coalescing, computed when the tooltip is about to show.
+        Tooltip cacheStats = new Tooltip();
+        cacheStats.setOnShowing(e -> cacheStats.setText(
+                formatCache + "\n" + refresher + "\n" + queries + "\n" + timeline));
+        eventList.setTooltip(cacheStats);
 
         // When campaign changes, refresh events list
         campaignList.getSelectionModel().selectedItemProperty().addListener((obs, oldV, newV) -> {
-            events.clear();
-            if (newV != null) events.addAll(newV.getEvents());
+            if (oldV != null) oldV.releaseEvents(); // queries work on snapshots, so this can't race them
+            shownCampaign = newV;
+            if (detailsView != null) showDetails(null);
+            loadEvents(newV);
         });
         campaignList.getSelectionModel().selectFirst();
 
@@ -150,17 +237,49 @@ public class GuiMain extends Application implements CampaignObserver {
         buttons.setPadding(new Insets(10));
 
         VBox left = new VBox(6, new Label("Campaigns"), campaignList);
-        VBox right = new VBox(6, new Label("Events"), eventList);
+        Tab listTab = new Tab("List", eventList);
+        listTab.setClosable(false);
+        Tab timelineTab = new Tab("Timeline", timeline);
+        timelineTab.setClosable(false);
+        TextField searchBox = new TextField();
+        searchBox.setPromptText("Filter, e.g. realm:Mars start>=day 3 participant:Jane title~raid");
+        searchStatus = new Label("");
+        searchBox.textProperty().addListener((obs, oldV, text) -> {
+            try {
+                // No world clock in this window: "now"/"today" mean minute 0.
+                EventQuery q = EventQuery.parse(text, 0);
+                filter = q.isEmpty() ? null : q;
+            } catch (IllegalArgumentException ex) {
+                searchStatus.setText(ex.getMessage()); // keep showing the last valid filter
+                return;
+            }
+            refresher.markDirty(eventsView); // each keystroke supersedes the previous query
+        });
+        VBox right = new VBox(6, new Label("Events"), searchBox, searchStatus, new TabPane(listTab, timelineTab));
+
+        detailsTitle = new Label("Select an event");
+        participantsLabel = new Label("Participants");
+        participantsList = new NameListView("(none)");
+        itemsLabel = new Label("Items");
+        itemsList = new NameListView("(none)");
+        VBox details = new VBox(6, detailsTitle, participantsLabel, participantsList, itemsLabel, itemsList);
+        VBox.setVgrow(participantsList, Priority.ALWAYS);
+        VBox.setVgrow(itemsList, Priority.ALWAYS);
+        detailsView = refresher.register("event details", () ->
+                showDetails(detailsEvent == null || shownCampaign == null ? null : shownCampaign.findEvent(detailsEvent.getEventId())));
+        eventList.getSelectionModel().selectedItemProperty().addListener((obs, oldV, newV) -> {
+            if (newV != null) showDetails(newV);
+        });
 
-        SplitPane split = new SplitPane(left, right);
-        split.setDividerPositions(0.33);
+        SplitPane split = new SplitPane(left, right, details);
+        split.setDividerPositions(0.27, 0.75);
 
         BorderPane root = new BorderPane();
         root.setCenter(split);
         root.setBottom(buttons);
         root.setPadding(new Insets(10));
 
-        stage.setScene(new Scene(root, 900, 520));
+        stage.setScene(new Scene(root, 1100, 520));
         // Apply theme once at startup
         applyTheme(stage);
 
@@ -168,26 +287,98 @@ public class GuiMain extends Application implements CampaignObserver {
         stage.show();
     }
 
+    @Override
+    public void stop() {
+        queries.shutdown();
+    }
+
+    /**
+     * Shows c's events, through the search filter if one is set. The candidates are
+     * copied out of the campaign here on the FX thread; checking them against the filter
+     * and indexing them for the timeline happen in the background. Superseded loads are
+     * dropped.
+     */
+    private void loadEvents(Campaign c) {
+        EventQuery f = filter;
+        List<QuestEvent> all = (c != null && f == null) ? new ArrayList<>(c.eventsInStartOrder()) : List.of();
+        EventQueryPlanner.Candidates candidates = (c != null && f != null) ? planner.gather(f, List.of(c)) : null;
+        queries.submit(
+                () -> {
+                    if (candidates == null) return new LoadedEvents(all, "");
+                    EventQueryPlanner.Result r = EventQueryPlanner.check(candidates, Integer.MAX_VALUE);
+                    List<QuestEvent> matched = new ArrayList<>(r.getMatches().size());
+                    for (EventQueryPlanner.Match m : r.getMatches()) matched.add(m.getEvent());
+                    return new LoadedEvents(matched, r.toString());
+                },
+                loaded -> {
+                    searchStatus.setText(loaded.status);
+                    if (c == listedCampaign) {
+                        events.sync(loaded.inStartOrder);
+                        timeline.setIndex(loaded.timelineIndex, false);
+                    } else {
+                        listedCampaign = c;
+                        events.replace(loaded.inStartOrder);
+                        timeline.setIndex(loaded.timelineIndex, true);
+                    }
+                    if (selectWhenListed != null && events.contains(selectWhenListed)) {
+                        eventList.getSelectionModel().select(selectWhenListed);
+                        selectWhenListed = null;
+                    }
+                },
+                ex -> {
+                    searchStatus.setText("Could not load events: " + ex.getMessage());
+                    if (c != listedCampaign) { // don't leave another campaign's events under this one
+                        listedCampaign = c;
+                        events.replace(List.of());
+                        timeline.setIndex(new GanttIndex(List.of()), true);
+                    }
+                });
+    }
+
     // ---- CampaignObserver (A3) ----
 
     @Override
     public void onCampaignChanged(Campaign campaign) {
-        Platform.runLater(() -> {
-            if (campaignList != null) campaignList.refresh();
-        });
+        if (campaignsView != null) refresher.markDirty(campaignsView);
     }
 
     @Override
     public void onEventChanged(Campaign campaign, QuestEvent event) {
-        Platform.runLater(() -> {
-            if (campaignList == null) return;
-            Campaign selected = campaignList.getSelectionModel().getSelectedItem();
-            if (selected == null) return;
-            if (selected.getCampaignId() != campaign.getCampaignId()) return;
+        if (eventsView != null && campaign == shownCampaign) refresher.markDirty(eventsView);
+        QuestEvent shown = detailsEvent;
+        if (detailsView != null && shown != null && shown.getEventId() == event.getEventId()) refresher.markDirty(detailsView);
+    }
 
-            events.setAll(campaign.getEvents());
-            if (eventList != null) eventList.refresh();
-        });
+    @Override
+    public void onEventsReloaded(Campaign campaign) {
+        // Thawed events are new instances; the shown list still holds the old ones.
+        if (eventsView != null && campaign == shownCampaign) refresher.markDirty(eventsView);
+        if (detailsView != null && campaign == shownCampaign) refresher.markDirty(detailsView);
+    }
+
+    /**
+     * Shows e's participants and items (null clears the pane). The name lists read through
+     * the event's live views; this is called again whenever the event changes so the
+     * lists announce the new sizes (and a thawed event's new instance is picked up).
+     */
+    private void showDetails(QuestEvent e) {
+        boolean sameEvent = e != null && detailsEvent != null && e.getEventId() == detailsEvent.getEventId();
+        detailsEvent = e;
+        if (e == null) {
+            detailsTitle.setText("Select an event");
+            participantsLabel.setText("Participants");
+            itemsLabel.setText("Items");
+            participantsList.clear();
+            itemsList.clear();
+            return;
+        }
+        List<String> participants = e.getParticipants();
+        List<String> items = e.getItems();
+        detailsTitle.setText("#" + e.getEventId() + " " + e.getTitle());
+        participantsLabel.setText("Participants (" + participants.size() + ")");
+        itemsLabel.setText("Items (" + items.size() + ")");
+        participantsList.show(participants, !sameEvent);
+        itemsList.show(items, !sameEvent);
     }
 
     // ---- Command targets (AI-assisted pattern) ----
@@ -196,7 +387,10 @@ public class GuiMain extends Application implements CampaignObserver {
         String name = prompt("Campaign name:", "New Campaign");
         if (name == null) return;
         Campaign c = new Campaign(nextCampaignId(), name, activeUser);
+        c.setColdTier(coldTier);
         c.addObserver(this);
+        names.watch(c);
+        textIndex.watch(c);
         campaigns.add(c);
     }
 
@@ -204,8 +398,14 @@ public class GuiMain extends Application implements CampaignObserver {
         Campaign selected = campaignList.getSelectionModel().getSelectedItem();
         if (selected == null) return;
         selected.removeObserver(this);
+        names.unwatch(selected);
+        textIndex.unwatch(selected);
         campaigns.remove(selected);
-        events.clear();
+        // Normally the selection listener has moved on already; cover an empty selection.
+        if (campaignList.getSelectionModel().getSelectedItem() == null) {
+            shownCampaign = null;
+            loadEvents(null);
+        }
     }
 
     public void handleShareVisibility() {
@@ -222,7 +422,7 @@ public class GuiMain extends Application implements CampaignObserver {
         if (openSettingsDialog(defaultRealmRef)) {
             syncDisplayStrategyFromSettings();
             applyTheme(stageRef);
-            if (eventList != null) eventList.refresh();
+            refresher.markDirty(eventCellsView);
         }
     }
 
@@ -241,7 +441,7 @@ public class GuiMain extends Application implements CampaignObserver {
 
         // optional end time
         Integer endMin = promptIntAllowBlank("End time (total minutes) (leave blank for none):", "");
-        GlobalTime endTime = (endMin == null) ? null : new GlobalTime(endMin);
+        GlobalTime endTime = (endMin == null) ? null : GlobalTime.of(endMin);
 
         String realmName = prompt("Realm name:", "Earth");
         if (realmName == null) return;
@@ -249,18 +449,27 @@ public class GuiMain extends Application implements CampaignObserver {
         Integer offset = promptInt("Realm offset minutes (e.g., -60, 0, 120):", "0");
         if (offset == null) return;
 
-        Realm realm = new Realm(realmName, offset);
+        Realm realm = RealmRegistry.global().intern(realmName, offset);
+
+        String participants = promptNames("Participants:", NameDictionary.Kind.PARTICIPANT);
+        if (participants == null) return;
+        String items = promptNames("Items:", NameDictionary.Kind.ITEM);
+        if (items == null) return;
 
         // Parameter Object refactoring (A3)
-        EventData data = new EventData(title, new GlobalTime(startMin), endTime, realm);
+        EventData data = new EventData(title, GlobalTime.of(startMin), endTime, realm);
         if (!data.isValid()) {
             alert("Invalid event: " + data.getValidationError());
             return;
         }
 
-        QuestEvent ev = selected.addEvent(data);
-        // no manual events.add: observer callback refreshes the list
-        eventList.getSelectionModel().select(ev);
+        QuestEvent ev = new QuestEvent(selected.nextEventId(), data.getTitle(), data.getStartTime(),
+                data.getEndTime(), data.getRealm());
+        for (String p : participants.split(",")) ev.addParticipant(p);
+        for (String it : items.split(",")) ev.addItem(it);
+        selected.addEvent(ev);
+        // no manual events.add: observer callback refreshes the list, then selects it
+        selectWhenListed = ev;
     }
 
     public void handleDeleteEvent() {
@@ -365,7 +574,7 @@ public class GuiMain extends Application implements CampaignObserver {
 
         activeUser.getSettings().setTheme(chosenTheme == null ? Theme.CLASSIC : chosenTheme);
         activeUser.getSettings().setTimeDisplayPreference(chosenPref == null ? TimeDisplayPreference.BOTH : chosenPref);
-        activeUser.getSettings().setCurrentRealm(new Realm(rn, off));
+        activeUser.getSettings().setCurrentRealm(RealmRegistry.global().intern(rn, off));
         return true;
     }
 
@@ -485,6 +694,38 @@ public class GuiMain extends Application implements CampaignObserver {
         }
     }
 
+    /**
+     * Comma-separated names, suggesting completions of the name being typed (most used
+     * first). Returns "" when left blank, null on cancel.
+     */
+    private String promptNames(String header, NameDictionary.Kind kind) {
+        TextInputDialog d = new TextInputDialog("");
+        d.setTitle("GuildQuest");
+        d.setHeaderText(header + " (comma-separated, click a suggestion to use it)");
+
+        TextField editor = d.getEditor();
+        ListView<String> suggestions = new ListView<>();
+        suggestions.setPrefHeight(150);
+        suggestions.getItems().setAll(names.complete(kind, "", 8));
+        editor.textProperty().addListener((obs, oldV, text) -> {
+            String typing = text.substring(text.lastIndexOf(',') + 1);
+            suggestions.getItems().setAll(names.complete(kind, typing, 8));
+        });
+        suggestions.setOnMouseClicked(e -> {
+            String pick = suggestions.getSelectionModel().getSelectedItem();
+            if (pick == null) return;
+            String text = editor.getText();
+            int cut = text.lastIndexOf(',') + 1;
+            editor.setText(text.substring(0, cut) + (cut > 0 ? " " : "") + pick + ", ");
+            editor.requestFocus();
+            editor.end();
+        });
+        d.getDialogPane().setContent(new VBox(6, editor, suggestions));
+
+        Optional<String> r = d.showAndWait();
+        return r.map(String::trim).orElse(null);
+    }
+
     // returns null if user leaves blank, otherwise integer
     private Integer promptIntAllowBlank(String header, String defaultValue) {
         TextInputDialog d = new TextInputDialog(defaultValue);
@@ -0,0 +1,148 @@
+package guildquest.gui;
+
+import java.util.List;
+
+/**
+ * Edit script between two ordered lists, matching elements by identity.
+ *
+ * Elements present in both lists whose relative order is preserved (a longest
+ * increasing subsequence of their new positions) are kept; everything else is a
+ * remove from the old list or an insert into the new one, so an element that moved
+ * shows up as one remove plus one insert. O((n + m) log n).
+ */
+public final class ListDiff {
+
+    /** Receives the script front to back. */
+    public interface Visitor<T> {
+        void keep(int oldIndex, int newIndex, T item);
+        void remove(int oldIndex, T item);
+        void insert(int newIndex, T item);
+    }
+
+    private ListDiff() { }
+
+    /** @return number of removes plus inserts */
+    public static <T> int diff(List<? extends T> oldList, List<? extends T> newList, Visitor<? super T> visitor) {
+        int n = oldList.size();
+        int m = newList.size();
+
+        // Typical updates touch a few elements; only the middle between the common
+        // prefix and suffix needs hashing.
+        int prefix = 0;
+        while (prefix < n && prefix < m && oldList.get(prefix) == newList.get(prefix)) prefix++;
+        int suffix = 0;
+        while (suffix < n - prefix && suffix < m - prefix
+                && oldList.get(n - 1 - suffix) == newList.get(m - 1 - suffix)) suffix++;
+
+        for (int k = 0; k < prefix; k++) visitor.keep(k, k, newList.get(k));
+        int edits = diffMiddle(oldList, newList, prefix, n - suffix, m - suffix, visitor);
+        for (int k = suffix; k > 0; k--) visitor.keep(n - k, m - k, newList.get(m - k));
+        return edits;
+    }
+
+    private static <T> int diffMiddle(List<? extends T> oldList, List<? extends T> newList,
+                                      int from, int oldEnd, int newEnd, Visitor<? super T> visitor) {
+        int n = oldEnd - from;
+        int m = newEnd - from;
+
+        IdentityIndex newIndex = new IdentityIndex(m);
+        for (int j = 0; j < m; j++) newIndex.putIfAbsent(newList.get(from + j), j);
+
+        // Position of each old element in the new list, -1 when it is gone (or a duplicate).
+        int[] target = new int[n];
+        for (int i = 0; i < n; i++) target[i] = newIndex.take(oldList.get(from + i));
+
+        boolean[] keptOld = new boolean[n];
+        boolean[] keptNew = new boolean[m];
+        markLongestIncreasing(target, keptOld, keptNew);
+
+        int edits = 0;
+        int i = 0;
+        int j = 0;
+        while (i < n || j < m) {
+            if (i < n && !keptOld[i]) {
+                visitor.remove(from + i, oldList.get(from + i));
+                i++;
+                edits++;
+            } else if (j < m && !keptNew[j]) {
+                visitor.insert(from + j, newList.get(from + j));
+                j++;
+                edits++;
+            } else {
+                visitor.keep(from + i, from + j, newList.get(from + j));
+                i++;
+                j++;
+            }
+        }
+        return edits;
+    }
+
+    /** Patience-style LIS over the non-negative entries of target; marks its members. */
+    private static void markLongestIncreasing(int[] target, boolean[] keptOld, boolean[] keptNew) {
+        int n = target.length;
+        int[] tails = new int[n];  // tails[k] = old index ending the best run of length k + 1
+        int[] prev = new int[n];
+        int len = 0;
+        for (int i = 0; i < n; i++) {
+            int t = target[i];
+            if (t < 0) continue;
+            int lo = 0;
+            int hi = len;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (target[tails[mid]] < t) lo = mid + 1;
+                else hi = mid;
+            }
+            prev[i] = lo > 0 ? tails[lo - 1] : -1;
+            tails[lo] = i;
+            if (lo == len) len++;
+        }
+        for (int i = len > 0 ? tails[len - 1] : -1; i >= 0; i = prev[i]) {
+            keptOld[i] = true;
+            keptNew[target[i]] = true;
+        }
+    }
+
+    /** Open-addressing identity map to int positions (no boxing; entries are taken once). */
+    private static final class IdentityIndex {
+        private final Object[] keys;
+        private final int[] values;
+        private final int mask;
+
+        IdentityIndex(int expected) {
+            int cap = Integer.highestOneBit(Math.max(4, expected * 2) - 1) << 1;
+            keys = new Object[cap];
+            values = new int[cap];
+            mask = cap - 1;
+        }
+
+        void putIfAbsent(Object key, int value) {
+            int i = slot(key);
+            while (keys[i] != null) {
+                if (keys[i] == key) return;
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        /** The value for key, or -1; a taken entry answers -1 afterwards. */
+        int take(Object key) {
+            int i = slot(key);
+            while (keys[i] != null) {
+                if (keys[i] == key) {
+                    int v = values[i];
+                    values[i] = -1; // keep the key so probe chains stay intact
+                    return v;
+                }
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        private int slot(Object key) {
+            int h = System.identityHashCode(key);
+            return (h ^ (h >>> 16)) * 0x9E3779B9 >>> 1 & mask;
+        }
+    }
+}
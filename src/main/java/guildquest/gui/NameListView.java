@@ -0,0 +1,96 @@
+package guildquest.gui;
+
+import java.util.Collections;
+import java.util.List;
+
+import javafx.collections.ObservableListBase;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+
+/**
+ * Read-only list of names (an event's participants or items) for detail panes.
+ *
+ * show() reads through the list it is given (e.g. QuestEvent.getParticipants(), a
+ * read-only live view) instead of copying or joining it, and ListView only asks for the
+ * rows on screen, so selecting an event with 100k participants costs about the same
+ * as one with three. Rows have a fixed height, so nothing off-screen is measured, and
+ * the same few cells are reused while scrolling.
+ *
+ * The rows read through, but ListView only learns about a new row count from a change
+ * event, so owners call show() again when the event's names change.
+ */
+public class NameListView extends ListView<String> {
+    public static final double ROW_HEIGHT = 22;
+
+    private final LiveList rows = new LiveList();
+    private long rowsRendered;
+
+    public NameListView(String emptyText) {
+        setItems(rows);
+        setFixedCellSize(ROW_HEIGHT);
+        setPlaceholder(new Label(emptyText));
+        setCellFactory(lv -> new ListCell<>() {
+            @Override
+            protected void updateItem(String name, boolean empty) {
+                super.updateItem(name, empty);
+                setText(empty ? null : name);
+                if (!empty) rowsRendered++;
+            }
+        });
+    }
+
+    /** Shows a different list from the top; see {@link #show(List, boolean)}. */
+    public void show(List<String> names) {
+        show(names, true);
+    }
+
+    /**
+     * Shows this list as is (not copied). Call again with a fresh list after the
+     * model changes; in between it must not change size. Pass scrollToTop = false
+     * to keep the scroll position when re-showing the same event.
+     */
+    public void show(List<String> names, boolean scrollToTop) {
+        rows.show(names == null ? Collections.emptyList() : names);
+        if (scrollToTop && !rows.isEmpty()) scrollTo(0);
+    }
+
+    public void clear() {
+        rows.show(Collections.emptyList());
+    }
+
+    public int getShownCount() { return rows.size(); }
+
+    /** Cell updates so far; stays near the visible row count per show(), whatever the list size. */
+    public long getRowsRendered() { return rowsRendered; }
+
+    /** ObservableList over a model list: get() reads through, nothing is copied. */
+    private static final class LiveList extends ObservableListBase<String> {
+        private List<String> source = Collections.emptyList();
+        private int shown; // size last announced to listeners
+
+        @Override
+        public String get(int index) {
+            if (index < 0 || index >= shown) throw new IndexOutOfBoundsException(index);
+            return index < source.size() ? source.get(index) : "";
+        }
+
+        @Override
+        public int size() { return shown; }
+
+        void show(List<String> next) {
+            List<String> old = source;
+            int oldSize = shown;
+            beginChange();
+            try {
+                // An edited list no longer holds what was shown; only the count is known then.
+                if (oldSize > 0) nextRemove(0, old != next && old.size() == oldSize ? old : Collections.nCopies(oldSize, ""));
+                source = next;
+                shown = next.size();
+                if (shown > 0) nextAdd(0, shown);
+            } finally {
+                endChange();
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package guildquest.gui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+/**
+ * Coalesces UI refreshes: callers mark a view dirty (from any thread) and the view
+ * refreshes at most once per JavaFX pulse, however many changes arrived in between.
+ *
+ * Backed by an AnimationTimer that only runs while something is dirty. Each view
+ * counts requests and refreshes; the difference is what coalescing saved.
+ */
+public class RefreshScheduler {
+
+    /** A registered view; refresh runs on the FX thread. */
+    public static final class View {
+        private final String name;
+        private final Runnable refresh;
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong refreshes = new AtomicLong();
+
+        private View(String name, Runnable refresh) {
+            this.name = name;
+            this.refresh = refresh;
+        }
+
+        public String getName() { return name; }
+        public long getRequests() { return requests.get(); }
+        public long getRefreshes() { return refreshes.get(); }
+        /** Requests that were folded into another refresh. */
+        public long getSuppressed() { return requests.get() - refreshes.get() - (dirty.get() ? 1 : 0); }
+    }
+
+    private final List<View> views = new ArrayList<>();
+    private final AtomicBoolean armed = new AtomicBoolean();
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            flush();
+        }
+    };
+
+    /** Call on the FX thread, before marking anything. */
+    public View register(String name, Runnable refresh) {
+        if (name == null || refresh == null) throw new IllegalArgumentException("name and refresh are required");
+        View v = new View(name, refresh);
+        views.add(v);
+        return v;
+    }
+
+    /** Thread-safe. The refresh runs on the next pulse. */
+    public void markDirty(View view) {
+        view.requests.incrementAndGet();
+        if (view.dirty.getAndSet(true)) return; // already queued for this pulse
+        if (!armed.getAndSet(true)) Platform.runLater(pulse::start);
+    }
+
+    private void flush() {
+        // Disarm first: anything marked while we refresh re-arms and gets the next pulse.
+        armed.set(false);
+        for (View v : views) {
+            if (!v.dirty.getAndSet(false)) continue;
+            v.refreshes.incrementAndGet();
+            v.refresh.run();
+        }
+        if (!armed.get()) pulse.stop();
+    }
+
+    public long getSuppressedTotal() {
+        long n = 0;
+        for (View v : views) n += v.getSuppressed();
+        return n;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("refreshes:");
+        for (View v : views) {
+            sb.append("\n  ").append(v.name).append(": ").append(v.getRefreshes())
+                    .append(" of ").append(v.getRequests()).append(" requested (")
+                    .append(v.getSuppressed()).append(" suppressed)");
+        }
+        return sb.toString();
+    }
+}
@@ -1,6 +1,7 @@
 package guildquest.gui.strategy;
 
 import guildquest.model.GlobalTime;
+import guildquest.model.LocalTimeBatch;
 import guildquest.model.QuestEvent;
 import guildquest.model.Realm;
 
@@ -10,26 +11,34 @@ public class BothTimeStrategy implements EventDisplayStrategy {
     public String getName() { return "World + Local"; }
 
     @Override
-    public String format(QuestEvent e) {
-        String endWorld = (e.getEndTime() != null) ? (" -> " + e.getEndTime()) : "";
+    public boolean usesLocalTime() { return true; }
+
+    @Override
+    public void formatTo(QuestEvent e, StringBuilder out) {
+        Realm r = appendHead(e, out);
+        if (r == null) return;
+        GlobalTime.appendTo(out, r.toLocalMinutes(e.getStartMinutes()));
+        if (e.hasEndTime()) GlobalTime.appendTo(out.append(" -> "), r.toLocalMinutes(e.getEndMinutes()));
+    }
+
+    @Override
+    public void formatTo(QuestEvent e, LocalTimeBatch times, int start, int end, StringBuilder out) {
+        if (appendHead(e, out) == null) return;
+        times.appendTo(out, start);
+        if (end >= 0) times.appendTo(out.append(" -> "), end);
+    }
+
+    private static Realm appendHead(QuestEvent e, StringBuilder out) {
+        out.append(e.getEventId()).append(" - ").append(e.getTitle()).append(" | World: ");
+        GlobalTime.appendTo(out, e.getStartMinutes());
+        if (e.hasEndTime()) GlobalTime.appendTo(out.append(" -> "), e.getEndMinutes());
 
         Realm r = e.getRealm();
         if (r == null) {
-            return e.getEventId()
-                    + " - " + e.getTitle()
-                    + " | World: " + e.getStartTime() + endWorld
-                    + " | (No Realm)";
+            out.append(" | (No Realm)");
+            return null;
         }
-
-        GlobalTime localStart = r.toLocalTime(e.getStartTime());
-        String endLocal = "";
-        if (e.getEndTime() != null) {
-            endLocal = " -> " + r.toLocalTime(e.getEndTime());
-        }
-
-        return e.getEventId()
-                + " - " + e.getTitle()
-                + " | World: " + e.getStartTime() + endWorld
-                + " | " + r.getName() + ": " + localStart + endLocal;
+        out.append(" | ").append(r.getName()).append(": ");
+        return r;
     }
-}
\ No newline at end of file
+}
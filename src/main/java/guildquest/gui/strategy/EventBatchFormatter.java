@@ -0,0 +1,77 @@
+package guildquest.gui.strategy;
+
+import java.util.Arrays;
+
+import guildquest.model.LocalTimeBatch;
+import guildquest.model.QuestEvent;
+
+/**
+ * Formats a stream of events with one strategy, converting local times in chunks
+ * through {@link LocalTimeBatch} instead of once per event. Strategies that don't
+ * show local times are simply called per event.
+ *
+ * Reuses its buffers across calls; not thread-safe.
+ */
+public class EventBatchFormatter {
+    public static final int CHUNK = 1024;
+
+    /** Receives each event with its display text; the text is only valid during the call. */
+    @FunctionalInterface
+    public interface Sink<X extends Exception> {
+        void accept(QuestEvent e, CharSequence text) throws X;
+    }
+
+    private final QuestEvent[] chunk = new QuestEvent[CHUNK];
+    private final int[] startIndex = new int[CHUNK];
+    private final int[] endIndex = new int[CHUNK];
+    private final LocalTimeBatch times = new LocalTimeBatch(2 * CHUNK);
+    private final StringBuilder text = new StringBuilder(128);
+
+    /** @return number of events formatted */
+    public <X extends Exception> long formatAll(EventDisplayStrategy strategy, Iterable<QuestEvent> events,
+                                                Sink<X> sink) throws X {
+        if (strategy == null) throw new IllegalArgumentException("strategy is required");
+        long count = 0;
+        if (!strategy.usesLocalTime()) {
+            for (QuestEvent e : events) {
+                text.setLength(0);
+                strategy.formatTo(e, text);
+                sink.accept(e, text);
+                count++;
+            }
+            return count;
+        }
+
+        int n = 0;
+        for (QuestEvent e : events) {
+            chunk[n++] = e;
+            if (n == CHUNK) {
+                flush(strategy, n, sink);
+                n = 0;
+            }
+            count++;
+        }
+        if (n > 0) flush(strategy, n, sink);
+        return count;
+    }
+
+    private <X extends Exception> void flush(EventDisplayStrategy strategy, int n, Sink<X> sink) throws X {
+        times.clear();
+        for (int i = 0; i < n; i++) {
+            QuestEvent e = chunk[i];
+            startIndex[i] = times.add(e.getStartMinutes(), e.getRealmId());
+            endIndex[i] = e.hasEndTime() ? times.add(e.getEndMinutes(), e.getRealmId()) : -1;
+        }
+        times.convert();
+
+        try {
+            for (int i = 0; i < n; i++) {
+                text.setLength(0);
+                strategy.formatTo(chunk[i], times, startIndex[i], endIndex[i], text);
+                sink.accept(chunk[i], text);
+            }
+        } finally {
+            Arrays.fill(chunk, 0, n, null); // don't pin events between calls
+        }
+    }
+}
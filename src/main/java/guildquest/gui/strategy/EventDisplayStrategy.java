@@ -1,8 +1,32 @@
 package guildquest.gui.strategy;
 
+import guildquest.model.LocalTimeBatch;
 import guildquest.model.QuestEvent;
 
 public interface EventDisplayStrategy {
     String getName();
-    String format(QuestEvent e);
-}
\ No newline at end of file
+
+    /**
+     * Appends the display text for e to out. Implementations append piece by piece
+     * (no intermediate strings), so callers can reuse one builder across many events.
+     */
+    void formatTo(QuestEvent e, StringBuilder out);
+
+    default String format(QuestEvent e) {
+        StringBuilder sb = new StringBuilder(96);
+        formatTo(e, sb);
+        return sb.toString();
+    }
+
+    /** Whether the text shows realm-local times, which batch callers precompute. */
+    default boolean usesLocalTime() { return false; }
+
+    /**
+     * Same text as formatTo(e, out), with the event's local start and end already
+     * converted as entries {@code start} and {@code end} of {@code times} (end is -1
+     * without an end time). See {@link EventBatchFormatter}.
+     */
+    default void formatTo(QuestEvent e, LocalTimeBatch times, int start, int end, StringBuilder out) {
+        formatTo(e, out);
+    }
+}
@@ -0,0 +1,104 @@
+package guildquest.gui.strategy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import guildquest.model.QuestEvent;
+import guildquest.model.RealmRegistry;
+
+/**
+ * Bounded LRU cache of display strings, so list cells that are re-rendered while
+ * scrolling or on refresh() don't format the same event again.
+ *
+ * An entry is reused only while the event id, event version, strategy type and realm
+ * offset all match what it was formatted with; any edit to the event bumps its
+ * version, so stale text is never shown. Single-threaded (FX thread).
+ */
+public class FormattedEventCache {
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private static final class Entry {
+        final int eventId;
+        final int version;
+        final Class<?> strategy;
+        final int realmOffset;
+        final String text;
+
+        Entry(int eventId, int version, Class<?> strategy, int realmOffset, String text) {
+            this.eventId = eventId;
+            this.version = version;
+            this.strategy = strategy;
+            this.realmOffset = realmOffset;
+            this.text = text;
+        }
+
+        boolean matches(QuestEvent e, EventDisplayStrategy s) {
+            return eventId == e.getEventId()
+                    && version == e.getVersion()
+                    && strategy == s.getClass()
+                    && realmOffset == realmOffset(e);
+        }
+    }
+
+    // Keyed by instance: event ids are only unique within one campaign.
+    private final LinkedHashMap<QuestEvent, Entry> entries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public FormattedEventCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public FormattedEventCache(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be >= 1");
+        this.entries = new LinkedHashMap<>(Math.min(capacity, 1024) * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<QuestEvent, Entry> eldest) {
+                if (size() <= capacity) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    public String format(EventDisplayStrategy strategy, QuestEvent e) {
+        Entry cached = entries.get(e);
+        if (cached != null && cached.matches(e, strategy)) {
+            hits++;
+            return cached.text;
+        }
+        misses++;
+        String text = strategy.format(e);
+        entries.put(e, new Entry(e.getEventId(), e.getVersion(), strategy.getClass(), realmOffset(e), text));
+        return text;
+    }
+
+    /** Drops every entry, e.g. when the time display preference changes. Counters are kept. */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    private static int realmOffset(QuestEvent e) {
+        return RealmRegistry.global().offsetOf(e.getRealmId());
+    }
+
+    // ---- Metrics ----
+
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+    public int size() { return entries.size(); }
+
+    /** Fraction of lookups served from the cache (0 when nothing was looked up yet). */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("format cache: %d entries, hit rate %.1f%% (%d hits, %d misses, %d evictions)",
+                size(), getHitRate() * 100, hits, misses, evictions);
+    }
+}
@@ -1,5 +1,6 @@
 package guildquest.gui.strategy;
 
+import guildquest.model.GlobalTime;
 import guildquest.model.QuestEvent;
 
 public class WorldTimeStrategy implements EventDisplayStrategy {
@@ -8,13 +9,10 @@ public class WorldTimeStrategy implements EventDisplayStrategy {
     public String getName() { return "World Time"; }
 
     @Override
-    public String format(QuestEvent e) {
-        String end = (e.getEndTime() != null) ? (" -> " + e.getEndTime()) : "";
-        String realmName = (e.getRealm() != null) ? e.getRealm().getName() : "No Realm";
-
-        return e.getEventId()
-                + " - " + e.getTitle()
-                + " | World: " + e.getStartTime() + end
-                + " (" + realmName + ")";
+    public void formatTo(QuestEvent e, StringBuilder out) {
+        out.append(e.getEventId()).append(" - ").append(e.getTitle()).append(" | World: ");
+        GlobalTime.appendTo(out, e.getStartMinutes());
+        if (e.hasEndTime()) GlobalTime.appendTo(out.append(" -> "), e.getEndMinutes());
+        out.append(" (").append(e.getRealm() != null ? e.getRealm().getName() : "No Realm").append(')');
     }
-}
\ No newline at end of file
+}
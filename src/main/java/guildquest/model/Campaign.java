@@ -1,12 +1,14 @@
 package guildquest.model;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
-public class Campaign {
+public class Campaign implements EventRangeQuery {
     private final int campaignId;
     private String name;
     private boolean archived;
@@ -17,10 +19,19 @@ public class Campaign {
 
     // ---- Observer (A3) ----
     private final List<CampaignObserver> observers = new ArrayList<>();
+    private CampaignChangeLog changeLog; // sees changes before they are applied
 
-    private final List<QuestEvent> events = new ArrayList<>();
+    // Replaced (not cleared) when frozen so the backing arrays are released too.
+    private List<QuestEvent> events = new ArrayList<>();
+    private Map<Integer, QuestEvent> eventsById = new HashMap<>();
+    private StartTimeIndex startIndex = new StartTimeIndex();
+    private EventRangeQuery rangeSource; // null = answer range queries from memory
     private int nextEventId = 1;
 
+    // ---- Cold tier: archived campaigns keep only this header on the heap ----
+    private EventColdTier coldTier;
+    private EventColdTier.FrozenEvents frozen;
+
     public Campaign(int campaignId, String name) {
         this.campaignId = campaignId;
         this.name = name;
@@ -60,34 +71,77 @@ public class Campaign {
         }
     }
 
+    private void notifyEventsReloaded() {
+        for (CampaignObserver o : List.copyOf(observers)) {
+            o.onEventsReloaded(this);
+        }
+    }
+
+    /** Write-ahead hook for a journal (null = none). A change it rejects is not applied. */
+    public void setChangeLog(CampaignChangeLog changeLog) {
+        this.changeLog = changeLog;
+    }
+
+    /** Shows the change log the header as it will be once {@code change} is applied. */
+    private void logHeader(Consumer<Campaign> change) {
+        if (changeLog == null) return;
+        Campaign next = new Campaign(campaignId, name, owner);
+        next.archived = archived;
+        next.visibility = visibility;
+        next.sharedWith.putAll(sharedWith);
+        change.accept(next);
+        changeLog.beforeHeaderChange(this, next);
+    }
+
     public void setName(String name) {
+        logHeader(next -> next.name = name);
         this.name = name;
         notifyCampaignChanged();
     }
 
+    /**
+     * Archiving freezes the events into the cold tier before anything changes, so a failed
+     * freeze (or a rejected change log write) leaves the campaign active with its events on
+     * the heap. Unarchiving thaws first for the same reason.
+     */
     public void setArchived(boolean archived) {
+        EventColdTier.FrozenEvents f = archived ? freezeEvents() : null;
+        if (!archived) thaw();
+        try {
+            logHeader(next -> next.archived = archived);
+        } catch (RuntimeException ex) {
+            if (f != null) f.discard();
+            throw ex;
+        }
         this.archived = archived;
+        if (f != null) dropEvents(f);
         notifyCampaignChanged();
     }
 
     public void setVisibility(Visibility visibility) {
-        this.visibility = (visibility == null) ? Visibility.PRIVATE : visibility;
+        Visibility v = (visibility == null) ? Visibility.PRIVATE : visibility;
+        logHeader(next -> next.visibility = v);
+        this.visibility = v;
         notifyCampaignChanged();
     }
 
     public void setOwner(User owner) {
+        logHeader(next -> next.owner = owner);
         this.owner = owner;
         notifyCampaignChanged();
     }
 
     public void shareWith(User user, Permission permission) {
         if (user == null) return;
-        sharedWith.put(user, permission == null ? Permission.VIEW_ONLY : permission);
+        Permission p = permission == null ? Permission.VIEW_ONLY : permission;
+        logHeader(next -> next.sharedWith.put(user, p));
+        sharedWith.put(user, p);
         notifyCampaignChanged();
     }
 
     public void unshare(User user) {
         if (user == null) return;
+        logHeader(next -> next.sharedWith.remove(user));
         sharedWith.remove(user);
         notifyCampaignChanged();
     }
@@ -106,13 +160,83 @@ public class Campaign {
         return p == Permission.COLLABORATIVE;
     }
 
+    // ---- Cold tier ----
+
+    /**
+     * Where to park the events while this campaign is archived (null = keep them on the heap).
+     * Freezing happens right away if the campaign is already archived.
+     */
+    public void setColdTier(EventColdTier coldTier) {
+        if (coldTier == null) thaw();
+        this.coldTier = coldTier;
+        if (archived) releaseEvents();
+    }
+
+    /** True while the events live in the cold tier rather than on the heap. */
+    public boolean isFrozen() { return frozen != null; }
+
+    /**
+     * Moves the events of an archived campaign back to the cold tier, e.g. after the
+     * user stops looking at it. Does nothing without a tier, or for active campaigns
+     * unless the tier is their system of record (see {@link EventColdTier#isSystemOfRecord()}).
+     */
+    public void releaseEvents() {
+        if (!archived && (coldTier == null || !coldTier.isSystemOfRecord())) return;
+        EventColdTier.FrozenEvents f = freezeEvents();
+        if (f != null) dropEvents(f);
+    }
+
+    /** Copies the resident events into the cold tier without dropping them yet; null if there is nothing to do. */
+    private EventColdTier.FrozenEvents freezeEvents() {
+        if (coldTier == null || frozen != null || events.isEmpty()) return null;
+        List<QuestEvent> byId = new ArrayList<>(events);
+        byId.sort((a, b) -> Integer.compare(a.getEventId(), b.getEventId()));
+        return coldTier.freeze(campaignId, byId);
+    }
+
+    private void dropEvents(EventColdTier.FrozenEvents f) {
+        frozen = f;
+        events = new ArrayList<>();
+        eventsById = new HashMap<>();
+        startIndex = new StartTimeIndex();
+    }
+
+    /**
+     * Brings frozen events back (getters call this). A failed thaw leaves the campaign
+     * frozen; a successful one tells observers, since the events are new instances.
+     */
+    private void thaw() {
+        if (frozen == null) return;
+        EventColdTier.FrozenEvents f = frozen;
+        List<QuestEvent> thawed = f.thaw();
+        frozen = null;
+        for (QuestEvent e : thawed) index(e);
+        f.discard();
+        notifyEventsReloaded();
+    }
+
     public int nextEventId() { return nextEventId++; }
 
+    /** @throws IllegalArgumentException if the campaign already has an event with this id */
     public void addEvent(QuestEvent e) {
-        events.add(e);
+        if (e == null) throw new IllegalArgumentException("event is required");
+        thaw();
+        if (eventsById.containsKey(e.getEventId())) {
+            throw new IllegalArgumentException("Event id " + e.getEventId() + " already exists in campaign " + campaignId);
+        }
+        if (changeLog != null) changeLog.beforeEventUpsert(this, e);
+        index(e);
         notifyEventChanged(e);
     }
 
+    private void index(QuestEvent e) {
+        events.add(e);
+        eventsById.put(e.getEventId(), e);
+        startIndex.put(e);
+        // Events built with explicit ids (GUI samples, restored checkpoints) must not be handed out again.
+        if (e.getEventId() >= nextEventId) nextEventId = e.getEventId() + 1;
+    }
+
     /** Parameter Object overload (A3 refactoring): create + add an event from a single data object. */
     public QuestEvent addEvent(EventData data) {
         if (data == null) throw new IllegalArgumentException("EventData is required");
@@ -133,17 +257,32 @@ public class Campaign {
 
     // Original method (keep it)
     public void removeEventById(int eventId) {
-        QuestEvent removed = null;
-        for (QuestEvent e : events) {
-            if (e.getEventId() == eventId) {
-                removed = e;
-                break;
-            }
-        }
-        if (removed != null) {
-            events.remove(removed);
-            notifyEventChanged(removed);
+        thaw();
+        if (!eventsById.containsKey(eventId)) return;
+        if (changeLog != null) changeLog.beforeEventRemove(this, eventId);
+        QuestEvent removed = eventsById.remove(eventId);
+        events.remove(removed);
+        startIndex.remove(eventId);
+        notifyEventChanged(removed);
+    }
+
+    /**
+     * Call after editing an event in place (or pass a replacement with the same id)
+     * so ordering stays correct and observers hear about it. With a change log attached,
+     * prefer a replacement: if the log rejects it, the stored event is left as it was.
+     */
+    public void updateEvent(QuestEvent updated) {
+        if (updated == null) return;
+        thaw();
+        QuestEvent current = eventsById.get(updated.getEventId());
+        if (current == null) return;
+        if (changeLog != null) changeLog.beforeEventUpsert(this, updated);
+        if (current != updated) {
+            events.set(events.indexOf(current), updated);
+            eventsById.put(updated.getEventId(), updated);
         }
+        startIndex.put(updated);
+        notifyEventChanged(updated);
     }
 
     // Alias used by the GUI (so GuiMain can call deleteEvent)
@@ -151,10 +290,49 @@ public class Campaign {
         removeEventById(eventId);
     }
 
+    /**
+     * Lets a storage engine answer range queries (TimelineView goes through here).
+     * Pass null to go back to the in-memory index.
+     */
+    public void setRangeSource(EventRangeQuery rangeSource) {
+        this.rangeSource = (rangeSource == this) ? null : rangeSource;
+    }
+
+    @Override
+    public List<QuestEvent> eventsStartingBetween(long fromMinutes, long toMinutes) {
+        if (rangeSource != null) return rangeSource.eventsStartingBetween(fromMinutes, toMinutes);
+        thaw();
+        return new ArrayList<>(startIndex.range(fromMinutes, toMinutes));
+    }
+
+    /** Earliest and latest start time, or null without events (for query planning). */
+    long[] startSpan() {
+        thaw();
+        return startIndex.size() == 0 ? null : new long[] { startIndex.firstStart(), startIndex.lastStart() };
+    }
+
+    public QuestEvent findEvent(int eventId) {
+        thaw();
+        return eventsById.get(eventId);
+    }
+
+    /** Does not thaw a frozen campaign. */
+    public int getEventCount() { return frozen != null ? frozen.count() : events.size(); }
+
     public List<QuestEvent> getEvents() {
+        thaw();
         return List.copyOf(events);
     }
 
+    /**
+     * Read-only live view of the events ordered by start time (ties by id).
+     * Unlike getEvents() nothing is copied, so don't modify the campaign while iterating.
+     */
+    public Collection<QuestEvent> eventsInStartOrder() {
+        thaw();
+        return Collections.unmodifiableCollection(startIndex.inStartOrder());
+    }
+
     @Override
     public String toString() {
         return archived ? (name + " (archived)") : name;
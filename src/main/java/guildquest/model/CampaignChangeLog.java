@@ -0,0 +1,20 @@
+package guildquest.model;
+
+/**
+ * Write-ahead hook: sees every persistent change to a campaign before it is applied.
+ *
+ * Campaign validates a change first, then calls the log, then applies it. If the log
+ * throws, the campaign stays unchanged and the exception reaches the caller, so a
+ * journal never misses a change that the in-memory model already shows.
+ * See {@link Campaign#setChangeLog(CampaignChangeLog)}.
+ */
+public interface CampaignChangeLog {
+    /** Before an event is added or replaced; {@code event} holds the new state. */
+    void beforeEventUpsert(Campaign campaign, QuestEvent event);
+
+    /** Before an existing event is removed. */
+    void beforeEventRemove(Campaign campaign, int eventId);
+
+    /** Before campaign metadata changes; {@code next} is a detached header copy with the change applied. */
+    void beforeHeaderChange(Campaign campaign, Campaign next);
+}
@@ -11,4 +11,11 @@ public interface CampaignObserver {
 
     /** Called when quest events are added/removed/updated within the campaign. */
     void onEventChanged(Campaign campaign, QuestEvent event);
+
+    /**
+     * Called when a frozen campaign's events were thawed back onto the heap (see
+     * {@link Campaign#isFrozen()}). They are new QuestEvent instances with the same ids,
+     * so drop references to the old ones.
+     */
+    default void onEventsReloaded(Campaign campaign) { }
 }
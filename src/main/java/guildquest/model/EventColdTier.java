@@ -0,0 +1,27 @@
+package guildquest.model;
+
+import java.util.List;
+
+/**
+ * Somewhere off the Java heap to park an archived campaign's events.
+ *
+ * Campaign freezes its events into the tier when archived and thaws them the first
+ * time they are needed again (see {@link Campaign#setColdTier(EventColdTier)}).
+ */
+public interface EventColdTier {
+
+    /** Handle to one campaign's frozen events. */
+    interface FrozenEvents {
+        int count();
+        List<QuestEvent> thaw();
+        void discard();
+    }
+
+    FrozenEvents freeze(int campaignId, List<QuestEvent> events);
+
+    /**
+     * True if the tier already holds every event of the campaign (a bound storage
+     * engine), so active campaigns may drop their heap copy too, not just archived ones.
+     */
+    default boolean isSystemOfRecord() { return false; }
+}
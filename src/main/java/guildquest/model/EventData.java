@@ -20,10 +20,10 @@ public class EventData {
     }
 
     /** Convenience constructor for GUI dialogs that collect minutes. */
-    public EventData(String title, int startMinutes, Integer endMinutes, Realm realm) {
+    public EventData(String title, long startMinutes, Long endMinutes, Realm realm) {
         this(title,
-                new GlobalTime(startMinutes),
-                (endMinutes == null) ? null : new GlobalTime(endMinutes),
+                GlobalTime.of(startMinutes),
+                (endMinutes == null) ? null : GlobalTime.of(endMinutes),
                 realm);
     }
 
@@ -0,0 +1,286 @@
+package guildquest.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A compiled event filter, parsed from text such as
+ * <pre>  realm:Mars start&gt;=day 3 participant:Jane title~"raid" dragon*</pre>
+ *
+ * Clauses are separated by spaces and must all hold; double quotes group a value
+ * with spaces. Supported clauses:
+ * <ul>
+ *   <li>{@code realm:}, {@code participant:} (or {@code who:}), {@code item:},
+ *       {@code campaign:} - name equals the value, ignoring case; a trailing '*'
+ *       makes it a prefix;</li>
+ *   <li>{@code title:words} - the title contains these words; {@code title~text} -
+ *       the title contains the text anywhere;</li>
+ *   <li>{@code start} / {@code end} with {@code = : < <= > >=} and a time: {@code day N}
+ *       (a whole day), {@code today}, {@code now} or plain world minutes. Events
+ *       without an end never match an {@code end} clause;</li>
+ *   <li>anything else is a word (prefix with '*') that must appear in the title,
+ *       a participant or an item.</li>
+ * </ul>
+ * {@link EventQueryPlanner} decides how to find candidates; {@link #matches} has the
+ * final say.
+ */
+public final class EventQuery {
+
+    private static final Pattern CLAUSE = Pattern.compile("([A-Za-z]+)(>=|<=|>|<|=|:|~)(.*)", Pattern.DOTALL);
+
+    /** A lower-cased name, exact or prefix. */
+    static final class Term {
+        final String value;
+        final boolean prefix;
+
+        Term(String raw) {
+            String v = raw.trim().toLowerCase(Locale.ROOT);
+            prefix = v.endsWith("*");
+            value = prefix ? v.substring(0, v.length() - 1) : v;
+        }
+
+        boolean matches(String name) {
+            if (name == null) return false;
+            String n = name.toLowerCase(Locale.ROOT);
+            return prefix ? n.startsWith(value) : n.equals(value);
+        }
+
+        /** The same condition as words for EventTextIndex (which may match more). */
+        String asIndexQuery() { return prefix ? value + "*" : value; }
+    }
+
+    /** Words that must all occur in a field (null = title, participants or items). */
+    static final class Words {
+        final EventTextIndex.Field field;
+        final String query;
+
+        Words(EventTextIndex.Field field, String query) {
+            this.field = field;
+            this.query = query;
+        }
+
+        boolean matches(QuestEvent e) {
+            List<String> have = new ArrayList<>();
+            if (field == null || field == EventTextIndex.Field.TITLE) have.addAll(EventTextIndex.tokenize(e.getTitle()));
+            if (field == null || field == EventTextIndex.Field.PARTICIPANT) {
+                for (String p : e.getParticipants()) have.addAll(EventTextIndex.tokenize(p));
+            }
+            if (field == null || field == EventTextIndex.Field.ITEM) {
+                for (String it : e.getItems()) have.addAll(EventTextIndex.tokenize(it));
+            }
+            for (String raw : query.split("\\s+")) {
+                boolean prefix = raw.endsWith("*");
+                List<String> want = EventTextIndex.tokenize(prefix ? raw.substring(0, raw.length() - 1) : raw);
+                for (int w = 0; w < want.size(); w++) {
+                    if (!contains(have, want.get(w), prefix && w == want.size() - 1)) return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean contains(List<String> have, String word, boolean prefix) {
+            for (String h : have) {
+                if (prefix ? h.startsWith(word) : h.equals(word)) return true;
+            }
+            return false;
+        }
+    }
+
+    private final String text;
+
+    // Start / end ranges, [from, to).
+    long startFrom = Long.MIN_VALUE;
+    long startTo = Long.MAX_VALUE;
+    long endFrom = Long.MIN_VALUE;
+    long endTo = Long.MAX_VALUE;
+    boolean endConstrained;
+
+    final List<Term> realms = new ArrayList<>();
+    final List<Term> participants = new ArrayList<>();
+    final List<Term> items = new ArrayList<>();
+    final List<Term> campaigns = new ArrayList<>();
+    final List<Words> words = new ArrayList<>();
+    final List<String> titleContains = new ArrayList<>();
+
+    private EventQuery(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Compiles a query. nowMinutes anchors "now" and "today".
+     * @throws IllegalArgumentException on unknown fields or bad times
+     */
+    public static EventQuery parse(String text, long nowMinutes) {
+        EventQuery q = new EventQuery(text == null ? "" : text.trim());
+        List<String> tokens = lex(q.text);
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            Matcher m = CLAUSE.matcher(token);
+            if (!m.matches()) {
+                if (!token.isBlank()) q.words.add(new Words(null, token));
+                continue;
+            }
+            String field = m.group(1).toLowerCase(Locale.ROOT);
+            String op = m.group(2);
+            String value = m.group(3);
+            if (field.equals("start") || field.equals("end")) {
+                if (value.isEmpty() && i + 1 < tokens.size()) value = tokens.get(++i); // "start>= day 3"
+                if (value.equalsIgnoreCase("day")) {
+                    if (i + 1 >= tokens.size()) throw new IllegalArgumentException("Missing day number after " + token);
+                    value = "day " + tokens.get(++i);
+                }
+                q.addTimeClause(field.equals("start"), op, value, nowMinutes);
+                continue;
+            }
+            if (value.isBlank()) throw new IllegalArgumentException("Missing value in " + token);
+            if (op.equals("~") && !field.equals("title")) {
+                throw new IllegalArgumentException("'~' only works with title (got " + token + ")");
+            }
+            if (!op.equals(":") && !op.equals("=") && !op.equals("~")) {
+                throw new IllegalArgumentException("Use ':' with " + field + " (got " + token + ")");
+            }
+            switch (field) {
+                case "realm" -> q.realms.add(new Term(value));
+                case "participant", "who" -> q.participants.add(new Term(value));
+                case "item" -> q.items.add(new Term(value));
+                case "campaign" -> q.campaigns.add(new Term(value));
+                case "title" -> {
+                    if (op.equals("~")) q.titleContains.add(value.toLowerCase(Locale.ROOT));
+                    else q.words.add(new Words(EventTextIndex.Field.TITLE, value));
+                }
+                default -> throw new IllegalArgumentException("Unknown field '" + field
+                        + "' (use realm, participant, item, campaign, title, start, end)");
+            }
+        }
+        return q;
+    }
+
+    /** Splits on spaces; "double quotes" keep spaces inside a token (and are dropped). */
+    private static List<String> lex(String text) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                any = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (any) tokens.add(cur.toString());
+                cur.setLength(0);
+                any = false;
+            } else {
+                cur.append(c);
+                any = true;
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("Unclosed quote");
+        if (any) tokens.add(cur.toString());
+        return tokens;
+    }
+
+    private void addTimeClause(boolean start, String op, String value, long now) {
+        long at;
+        long granule;
+        String v = value.trim().toLowerCase(Locale.ROOT);
+        try {
+            if (v.startsWith("day")) {
+                at = GlobalTime.startOfDay(Long.parseLong(v.substring(3).trim()));
+                granule = GlobalTime.MINUTES_PER_DAY;
+            } else if (v.equals("today")) {
+                at = GlobalTime.startOfDay(GlobalTime.daysOf(now));
+                granule = GlobalTime.MINUTES_PER_DAY;
+            } else if (v.equals("now")) {
+                at = now;
+                granule = 1;
+            } else {
+                at = Long.parseLong(v);
+                granule = 1;
+            }
+        } catch (NumberFormatException | ArithmeticException ex) {
+            throw new IllegalArgumentException("Bad time '" + value + "' (use day N, today, now or minutes)");
+        }
+        long next = saturatingAdd(at, granule);
+        long from = Long.MIN_VALUE;
+        long to = Long.MAX_VALUE;
+        switch (op) {
+            case ">=" -> from = at;
+            case ">" -> from = next;
+            case "<" -> to = at;
+            case "<=" -> to = next;
+            case "=", ":" -> {
+                from = at;
+                to = next;
+            }
+            default -> throw new IllegalArgumentException("Use = < <= > >= with " + (start ? "start" : "end"));
+        }
+        if (start) {
+            startFrom = Math.max(startFrom, from);
+            startTo = Math.min(startTo, to);
+        } else {
+            endFrom = Math.max(endFrom, from);
+            endTo = Math.min(endTo, to);
+            endConstrained = true;
+        }
+    }
+
+    private static long saturatingAdd(long a, long b) {
+        long r = a + b;
+        return ((a ^ r) & (b ^ r)) < 0 ? Long.MAX_VALUE : r;
+    }
+
+    // ---- Evaluation ----
+
+    public boolean matches(Campaign c, QuestEvent e) {
+        return matchesCampaign(c) && matchesEvent(e);
+    }
+
+    /** Every clause except campaign: ones; reads only the event. */
+    public boolean matchesEvent(QuestEvent e) {
+        long s = e.getStartMinutes();
+        if (s < startFrom || s >= startTo) return false;
+        if (endConstrained) {
+            if (!e.hasEndTime() || e.getEndMinutes() < endFrom || e.getEndMinutes() >= endTo) return false;
+        }
+        if (!realms.isEmpty()) {
+            Realm realm = e.getRealm();
+            for (Term t : realms) if (realm == null || !t.matches(realm.getName())) return false;
+        }
+        for (Term t : participants) if (!anyMatches(t, e.getParticipants())) return false;
+        for (Term t : items) if (!anyMatches(t, e.getItems())) return false;
+        if (!titleContains.isEmpty()) {
+            String title = e.getTitle() == null ? "" : e.getTitle().toLowerCase(Locale.ROOT);
+            for (String part : titleContains) if (!title.contains(part)) return false;
+        }
+        for (Words w : words) if (!w.matches(e)) return false;
+        return true;
+    }
+
+    /** True when the campaign could hold matches (its name passes the campaign: clauses). */
+    public boolean matchesCampaign(Campaign c) {
+        for (Term t : campaigns) if (!t.matches(c.getName())) return false;
+        return true;
+    }
+
+    private static boolean anyMatches(Term t, List<String> names) {
+        for (String n : names) if (t.matches(n)) return true;
+        return false;
+    }
+
+    public boolean hasStartRange() {
+        return startFrom != Long.MIN_VALUE || startTo != Long.MAX_VALUE;
+    }
+
+    /** No clauses at all: matches everything. */
+    public boolean isEmpty() {
+        return !hasStartRange() && !endConstrained && realms.isEmpty() && participants.isEmpty()
+                && items.isEmpty() && campaigns.isEmpty() && words.isEmpty() && titleContains.isEmpty();
+    }
+
+    @Override
+    public String toString() { return text; }
+}
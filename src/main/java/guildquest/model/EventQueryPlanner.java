@@ -0,0 +1,229 @@
+package guildquest.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs {@link EventQuery}s over a set of campaigns.
+ *
+ * Candidates come from one access path: a start-time range through each campaign's
+ * start index, one clause through the {@link EventTextIndex} (participant, item,
+ * realm or title/word postings), or a plain scan. The planner estimates each path and
+ * takes the cheapest; every candidate is then checked with {@link EventQuery#matches},
+ * so the choice only affects speed, never results.
+ *
+ * Estimates: a time range assumes starts are spread evenly between a campaign's
+ * first and last start; a text clause uses its posting list size (an upper bound);
+ * a scan costs every event. Archived campaigns that are frozen are not thawed just
+ * to estimate, they count in full.
+ *
+ * find() is gather() followed by check(). Only gather() touches the campaigns and the
+ * text index; check() reads nothing but the collected events, so a UI can gather on the
+ * thread that owns the model and check elsewhere.
+ */
+public class EventQueryPlanner {
+
+    /** One matching event and its campaign. */
+    public static final class Match {
+        private final Campaign campaign;
+        private final QuestEvent event;
+
+        Match(Campaign campaign, QuestEvent event) {
+            this.campaign = campaign;
+            this.event = event;
+        }
+
+        public Campaign getCampaign() { return campaign; }
+        public QuestEvent getEvent() { return event; }
+    }
+
+    /** The chosen access path. */
+    public static final class Plan {
+        enum Access { RANGE, TEXT, SCAN }
+
+        final Access access;
+        final EventTextIndex.Field field;  // TEXT only
+        final String indexQuery;           // TEXT only
+        private final long estimate;
+        private final String description;
+
+        Plan(Access access, EventTextIndex.Field field, String indexQuery, long estimate, String description) {
+            this.access = access;
+            this.field = field;
+            this.indexQuery = indexQuery;
+            this.estimate = estimate;
+            this.description = description;
+        }
+
+        public long getEstimate() { return estimate; }
+
+        @Override
+        public String toString() { return description + " (~" + estimate + " candidates)"; }
+    }
+
+    /** Matches in start order plus how they were found. */
+    public static final class Result {
+        private final List<Match> matches;
+        private final Plan plan;
+        private final long examined;
+        private final long total;
+
+        Result(List<Match> matches, Plan plan, long examined, long total) {
+            this.matches = matches;
+            this.plan = plan;
+            this.examined = examined;
+            this.total = total;
+        }
+
+        /** At most the requested limit. */
+        public List<Match> getMatches() { return matches; }
+        public Plan getPlan() { return plan; }
+        /** Candidates checked against the query. */
+        public long getExamined() { return examined; }
+        /** All matches, before the limit. */
+        public long getTotal() { return total; }
+
+        @Override
+        public String toString() {
+            return total + " match(es), " + examined + " checked via " + plan;
+        }
+    }
+
+    /** What gather() collected: the plan and, per campaign in scope, the events to check. */
+    public static final class Candidates {
+        private final EventQuery query;
+        private final Plan plan;
+        private final Map<Campaign, List<QuestEvent>> byCampaign;
+
+        Candidates(EventQuery query, Plan plan, Map<Campaign, List<QuestEvent>> byCampaign) {
+            this.query = query;
+            this.plan = plan;
+            this.byCampaign = byCampaign;
+        }
+
+        public Plan getPlan() { return plan; }
+    }
+
+    private final EventTextIndex textIndex; // null = no text index, never planned
+
+    public EventQueryPlanner(EventTextIndex textIndex) {
+        this.textIndex = textIndex;
+    }
+
+    public Result find(EventQuery query, Collection<Campaign> campaigns, int limit) {
+        return check(gather(query, campaigns), limit);
+    }
+
+    /** Plans the query and copies out the candidate events; the only step that reads the campaigns. */
+    public Candidates gather(EventQuery query, Collection<Campaign> campaigns) {
+        List<Campaign> scope = new ArrayList<>();
+        for (Campaign c : campaigns) if (query.matchesCampaign(c)) scope.add(c);
+        Plan plan = plan(query, scope);
+
+        Map<Campaign, List<QuestEvent>> byCampaign = new LinkedHashMap<>();
+        Map<Campaign, int[]> ids = plan.access == Plan.Access.TEXT
+                ? textIndex.matchingEventIds(plan.field, plan.indexQuery) : null;
+        for (Campaign c : scope) {
+            List<QuestEvent> candidates;
+            switch (plan.access) {
+                case RANGE -> candidates = c.eventsStartingBetween(query.startFrom, query.startTo);
+                case TEXT -> {
+                    int[] forCampaign = ids == null ? null : ids.get(c);
+                    candidates = new ArrayList<>(forCampaign == null ? 0 : forCampaign.length);
+                    if (forCampaign != null) {
+                        for (int id : forCampaign) {
+                            QuestEvent e = c.findEvent(id);
+                            if (e != null) candidates.add(e);
+                        }
+                    }
+                }
+                default -> candidates = new ArrayList<>(c.eventsInStartOrder());
+            }
+            byCampaign.put(c, candidates);
+        }
+        return new Candidates(query, plan, byCampaign);
+    }
+
+    /**
+     * Checks gathered candidates against the query and sorts the matches. Reads only
+     * the events (campaign clauses were settled by gather()), so it may run on another
+     * thread as long as those events are not edited in place meanwhile.
+     */
+    public static Result check(Candidates gathered, int limit) {
+        EventQuery query = gathered.query;
+        List<Match> matches = new ArrayList<>();
+        long examined = 0;
+        for (Map.Entry<Campaign, List<QuestEvent>> entry : gathered.byCampaign.entrySet()) {
+            Campaign c = entry.getKey();
+            for (QuestEvent e : entry.getValue()) {
+                examined++;
+                if (query.matchesEvent(e)) matches.add(new Match(c, e));
+            }
+        }
+
+        matches.sort(Comparator.comparingLong((Match m) -> m.event.getStartMinutes())
+                .thenComparingInt(m -> m.campaign.getCampaignId())
+                .thenComparingInt(m -> m.event.getEventId()));
+        long total = matches.size();
+        List<Match> limited = total > limit ? new ArrayList<>(matches.subList(0, Math.max(limit, 0))) : matches;
+        return new Result(limited, gathered.plan, examined, total);
+    }
+
+    /** Picks the cheapest access path for the query over these campaigns. */
+    public Plan plan(EventQuery query, Collection<Campaign> campaigns) {
+        long scanCost = 0;
+        for (Campaign c : campaigns) scanCost += c.getEventCount();
+        Plan best = new Plan(Plan.Access.SCAN, null, null, scanCost, "full scan");
+
+        if (query.hasStartRange()) {
+            long cost = 0;
+            for (Campaign c : campaigns) cost += estimateRange(c, query.startFrom, query.startTo);
+            if (cost < best.estimate) {
+                best = new Plan(Plan.Access.RANGE, null, null, cost, "start-time index "
+                        + describeRange(query.startFrom, query.startTo));
+            }
+        }
+
+        if (textIndex != null && allIndexed(campaigns)) {
+            for (EventQuery.Term t : query.participants) best = cheaper(best, EventTextIndex.Field.PARTICIPANT, t.asIndexQuery(), "participant");
+            for (EventQuery.Term t : query.items) best = cheaper(best, EventTextIndex.Field.ITEM, t.asIndexQuery(), "item");
+            for (EventQuery.Term t : query.realms) best = cheaper(best, EventTextIndex.Field.REALM, t.asIndexQuery(), "realm");
+            for (EventQuery.Words w : query.words) {
+                best = cheaper(best, w.field, w.query, w.field == null ? "words" : "title words");
+            }
+        }
+        return best;
+    }
+
+    private Plan cheaper(Plan best, EventTextIndex.Field field, String indexQuery, String what) {
+        long cost = textIndex.estimate(field, indexQuery);
+        if (cost < 0 || cost >= best.estimate) return best;
+        return new Plan(Plan.Access.TEXT, field, indexQuery, cost, "text index on " + what + " '" + indexQuery + "'");
+    }
+
+    private boolean allIndexed(Collection<Campaign> campaigns) {
+        for (Campaign c : campaigns) if (!textIndex.isWatching(c)) return false;
+        return true;
+    }
+
+    private static long estimateRange(Campaign c, long from, long to) {
+        long n = c.getEventCount();
+        if (n == 0 || c.isFrozen()) return n;
+        long[] span = c.startSpan();
+        if (span == null) return 0;
+        double first = span[0];
+        double last = span[1] + 1.0;
+        double overlap = Math.min(to, last) - Math.max(from, first);
+        if (overlap <= 0) return 0;
+        return Math.max(1, (long) Math.ceil(n * Math.min(1.0, overlap / (last - first))));
+    }
+
+    private static String describeRange(long from, long to) {
+        return "[" + (from == Long.MIN_VALUE ? "-" : GlobalTime.toString(from)) + ", "
+                + (to == Long.MAX_VALUE ? "-" : GlobalTime.toString(to)) + ")";
+    }
+}
@@ -0,0 +1,14 @@
+package guildquest.model;
+
+import java.util.List;
+
+/**
+ * Source of events by start-time range.
+ *
+ * Campaign answers these from memory by default; a storage engine can take over
+ * (see {@link Campaign#setRangeSource(EventRangeQuery)}).
+ */
+public interface EventRangeQuery {
+    /** Events whose start time falls in [fromMinutes, toMinutes), ordered by start time then id. */
+    List<QuestEvent> eventsStartingBetween(long fromMinutes, long toMinutes);
+}
@@ -0,0 +1,397 @@
+package guildquest.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Running totals for dashboards: events per day, scheduled minutes, busiest realms
+ * and participant load, kept per campaign, per campaign owner and overall.
+ *
+ * Follows campaigns as a CampaignObserver. Each event's share of the totals is
+ * remembered, so an edit takes back the old share and adds the new one; nothing is
+ * recounted from the event list. Day windows are prefix sums over day numbers
+ * (O(log days) for any window), and the realm/participant rankings stay sorted as
+ * counts move, so top-K costs O(K).
+ *
+ * An event counts on the day it starts. Its scheduled minutes are end - start;
+ * open-ended events add no minutes and are counted separately.
+ *
+ * Thread-safe. Totals are live views and follow later edits.
+ */
+public class EventStatistics implements CampaignObserver {
+
+    private final Map<Campaign, Watched> watched = new IdentityHashMap<>();
+    private final Map<User, Totals> byOwner = new HashMap<>();
+    private final Totals overall = new Totals(this);
+
+    /** A watched campaign: its totals, current owner and each event's share. */
+    private static final class Watched {
+        final Totals totals;
+        final Map<Integer, Share> shares = new HashMap<>();
+        User owner;
+
+        Watched(Totals totals, User owner) {
+            this.totals = totals;
+            this.owner = owner;
+        }
+    }
+
+    /** What one event adds to the totals, kept so an edit or delete can take it back. */
+    private static final class Share {
+        final long day;
+        final long minutes;
+        final boolean openEnded;
+        final String realm;           // null = no realm
+        final String[] participants;  // distinct, ignoring case
+
+        Share(QuestEvent e) {
+            long start = e.getStartMinutes();
+            day = GlobalTime.daysOf(start);
+            openEnded = !e.hasEndTime();
+            minutes = openEnded ? 0 : Math.max(0, e.getEndMinutes() - start);
+            Realm r = e.getRealm();
+            realm = r == null ? null : r.getName();
+            Map<String, String> distinct = new LinkedHashMap<>();
+            for (String p : e.getParticipants()) distinct.putIfAbsent(p.toLowerCase(Locale.ROOT), p);
+            participants = distinct.values().toArray(new String[0]);
+        }
+    }
+
+    // ---- Watching ----
+
+    public synchronized void watch(Campaign campaign) {
+        if (campaign == null || watched.containsKey(campaign)) return;
+        Watched w = new Watched(new Totals(this), campaign.getOwner());
+        watched.put(campaign, w);
+        ownerTotals(w.owner, true);
+        campaign.addObserver(this);
+        for (QuestEvent e : campaign.eventsInStartOrder()) add(w, e);
+        campaign.releaseEvents(); // no-op unless archived
+    }
+
+    public synchronized void unwatch(Campaign campaign) {
+        Watched w = watched.remove(campaign);
+        if (w == null) return;
+        campaign.removeObserver(this);
+        Totals owner = ownerTotals(w.owner, false);
+        for (Share s : w.shares.values()) {
+            overall.apply(s, -1);
+            if (owner != null) owner.apply(s, -1);
+        }
+        dropOwner(w.owner);
+    }
+
+    /** Picks up owner changes; the campaign's shares move to the new owner's totals. */
+    @Override
+    public synchronized void onCampaignChanged(Campaign campaign) {
+        Watched w = watched.get(campaign);
+        if (w == null || Objects.equals(w.owner, campaign.getOwner())) return;
+        Totals from = ownerTotals(w.owner, false);
+        Totals to = ownerTotals(campaign.getOwner(), true);
+        for (Share s : w.shares.values()) {
+            if (from != null) from.apply(s, -1);
+            if (to != null) to.apply(s, 1);
+        }
+        dropOwner(w.owner);
+        w.owner = campaign.getOwner();
+    }
+
+    @Override
+    public synchronized void onEventChanged(Campaign campaign, QuestEvent event) {
+        Watched w = watched.get(campaign);
+        if (w == null) return;
+        Share old = w.shares.remove(event.getEventId());
+        if (old != null) applyAll(w, old, -1);
+        QuestEvent current = campaign.findEvent(event.getEventId());
+        if (current != null) add(w, current);
+    }
+
+    private void add(Watched w, QuestEvent e) {
+        Share s = new Share(e);
+        w.shares.put(e.getEventId(), s);
+        applyAll(w, s, 1);
+    }
+
+    private void applyAll(Watched w, Share s, int sign) {
+        w.totals.apply(s, sign);
+        overall.apply(s, sign);
+        Totals owner = ownerTotals(w.owner, false);
+        if (owner != null) owner.apply(s, sign);
+    }
+
+    private Totals ownerTotals(User owner, boolean attach) {
+        if (owner == null) return null;
+        Totals t = byOwner.get(owner);
+        if (attach) {
+            if (t == null) byOwner.put(owner, t = new Totals(this));
+            t.campaigns++;
+        }
+        return t;
+    }
+
+    private void dropOwner(User owner) {
+        Totals t = owner == null ? null : byOwner.get(owner);
+        if (t != null && --t.campaigns == 0) byOwner.remove(owner);
+    }
+
+    // ---- Reads ----
+
+    /** Totals for one watched campaign, or null. */
+    public synchronized Totals forCampaign(Campaign campaign) {
+        Watched w = watched.get(campaign);
+        return w == null ? null : w.totals;
+    }
+
+    /** Totals over the watched campaigns this user owns, or null if none. */
+    public synchronized Totals forOwner(User owner) {
+        return owner == null ? null : byOwner.get(owner);
+    }
+
+    /** Totals over every watched campaign. */
+    public Totals overall() { return overall; }
+
+    @Override
+    public synchronized String toString() {
+        return "stats: " + watched.size() + " campaign(s), " + byOwner.size() + " owner(s), " + overall;
+    }
+
+    /** A realm or participant with its event count and scheduled minutes. */
+    public static final class Ranked {
+        private final String name;
+        private final long events;
+        private final long minutes;
+
+        Ranked(String name, long events, long minutes) {
+            this.name = name;
+            this.events = events;
+            this.minutes = minutes;
+        }
+
+        public String getName() { return name; }
+        public long getEvents() { return events; }
+        public long getMinutes() { return minutes; }
+
+        @Override
+        public String toString() { return name + " (" + events + " events, " + minutes + " min)"; }
+    }
+
+    /** One set of running totals (a campaign, an owner, or everything). */
+    public static final class Totals {
+        private final Object lock;
+        private long events;
+        private long openEnded;
+        private long minutes;
+        private final DaySums days = new DaySums();
+        private final Ranking realms = new Ranking();
+        private final Ranking participants = new Ranking();
+        int campaigns; // owner totals: campaigns feeding in
+
+        Totals(Object lock) {
+            this.lock = lock;
+        }
+
+        void apply(Share s, int sign) {
+            long m = sign * s.minutes;
+            events += sign;
+            if (s.openEnded) openEnded += sign;
+            minutes += m;
+            days.add(s.day, sign, m);
+            if (s.realm != null) realms.adjust(s.realm, sign, m);
+            for (String p : s.participants) participants.adjust(p, sign, m);
+        }
+
+        public long getEventCount() { synchronized (lock) { return events; } }
+        public long getOpenEndedCount() { synchronized (lock) { return openEnded; } }
+        public long getScheduledMinutes() { synchronized (lock) { return minutes; } }
+
+        public long eventsOnDay(long day) {
+            return eventsBetweenDays(day, day + 1);
+        }
+
+        /** Events starting on days [fromDay, toDay). */
+        public long eventsBetweenDays(long fromDay, long toDay) {
+            if (toDay <= fromDay) return 0;
+            synchronized (lock) { return days.countBefore(toDay) - days.countBefore(fromDay); }
+        }
+
+        /** Scheduled minutes of events starting on days [fromDay, toDay). */
+        public long minutesBetweenDays(long fromDay, long toDay) {
+            if (toDay <= fromDay) return 0;
+            synchronized (lock) { return days.minutesBefore(toDay) - days.minutesBefore(fromDay); }
+        }
+
+        /** Up to k realms with the most events. */
+        public List<Ranked> busiestRealms(int k) { synchronized (lock) { return realms.top(k); } }
+
+        /** Up to k participants in the most events. */
+        public List<Ranked> busiestParticipants(int k) { synchronized (lock) { return participants.top(k); } }
+
+        /** Load of one participant (case-insensitive), or null if in no event. */
+        public Ranked participant(String name) {
+            if (name == null) return null;
+            synchronized (lock) { return participants.get(name.trim()); }
+        }
+
+        @Override
+        public String toString() {
+            synchronized (lock) {
+                return events + " event(s), " + openEnded + " open-ended, " + minutes + " min scheduled, "
+                        + realms.size() + " realm(s), " + participants.size() + " participant(s)";
+            }
+        }
+    }
+
+    /** Names ranked by event count (then minutes), updated in place. */
+    private static final class Ranking {
+        private static final class Entry {
+            final String name;
+            final String key;
+            long events;
+            long minutes;
+
+            Entry(String name, String key) {
+                this.name = name;
+                this.key = key;
+            }
+        }
+
+        private static final Comparator<Entry> BUSIEST_FIRST = Comparator
+                .comparingLong((Entry e) -> -e.events)
+                .thenComparingLong(e -> -e.minutes)
+                .thenComparing(e -> e.key);
+
+        private final Map<String, Entry> byKey = new HashMap<>();
+        private final TreeSet<Entry> order = new TreeSet<>(BUSIEST_FIRST);
+
+        void adjust(String name, int events, long minutes) {
+            String key = name.toLowerCase(Locale.ROOT);
+            Entry e = byKey.get(key);
+            if (e == null) {
+                if (events <= 0) return;
+                e = new Entry(name, key);
+                byKey.put(key, e);
+            } else {
+                order.remove(e); // re-sorted below
+            }
+            e.events += events;
+            e.minutes += minutes;
+            if (e.events <= 0) byKey.remove(key);
+            else order.add(e);
+        }
+
+        List<Ranked> top(int k) {
+            List<Ranked> out = new ArrayList<>(Math.max(0, Math.min(k, order.size())));
+            for (Entry e : order) {
+                if (out.size() >= k) break;
+                out.add(new Ranked(e.name, e.events, e.minutes));
+            }
+            return out;
+        }
+
+        Ranked get(String name) {
+            Entry e = byKey.get(name.toLowerCase(Locale.ROOT));
+            return e == null ? null : new Ranked(e.name, e.events, e.minutes);
+        }
+
+        int size() { return byKey.size(); }
+    }
+
+    /**
+     * Event counts and minutes by day with prefix sums: a Fenwick tree over every
+     * possible day number, storing only the nodes in use (open addressing on the
+     * node index). Updates and prefix reads touch at most 53 nodes.
+     */
+    private static final class DaySums {
+        private static final long LIMIT = 1L << 53; // above the last day a long minute count reaches
+        private static final long EMPTY = 0;        // node indexes start at 1
+
+        private long[] keys = new long[16];
+        private long[] counts = new long[16];
+        private long[] minutes = new long[16];
+        private int size;
+
+        void add(long day, long count, long mins) {
+            for (long i = Math.max(day, 0) + 1; i <= LIMIT; i += i & -i) {
+                int at = slotFor(i);
+                counts[at] += count;
+                minutes[at] += mins;
+            }
+        }
+
+        /** Events starting before this day. */
+        long countBefore(long day) {
+            long sum = 0;
+            for (long i = clamp(day); i > 0; i -= i & -i) {
+                int at = find(i);
+                if (at >= 0) sum += counts[at];
+            }
+            return sum;
+        }
+
+        long minutesBefore(long day) {
+            long sum = 0;
+            for (long i = clamp(day); i > 0; i -= i & -i) {
+                int at = find(i);
+                if (at >= 0) sum += minutes[at];
+            }
+            return sum;
+        }
+
+        private static long clamp(long day) {
+            return Math.min(Math.max(day, 0), LIMIT);
+        }
+
+        private int find(long node) {
+            int mask = keys.length - 1;
+            for (int i = hash(node, mask); keys[i] != EMPTY; i = (i + 1) & mask) {
+                if (keys[i] == node) return i;
+            }
+            return -1;
+        }
+
+        private int slotFor(long node) {
+            if ((size + 1) * 2 > keys.length) grow();
+            int mask = keys.length - 1;
+            int i = hash(node, mask);
+            while (keys[i] != EMPTY) {
+                if (keys[i] == node) return i;
+                i = (i + 1) & mask;
+            }
+            keys[i] = node;
+            size++;
+            return i;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldCounts = counts;
+            long[] oldMinutes = minutes;
+            int cap = oldKeys.length * 2;
+            keys = new long[cap];
+            counts = new long[cap];
+            minutes = new long[cap];
+            int mask = cap - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldKeys[j] == EMPTY) continue;
+                int i = hash(oldKeys[j], mask);
+                while (keys[i] != EMPTY) i = (i + 1) & mask;
+                keys[i] = oldKeys[j];
+                counts[i] = oldCounts[j];
+                minutes[i] = oldMinutes[j];
+            }
+        }
+
+        private static int hash(long node, int mask) {
+            long h = node * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
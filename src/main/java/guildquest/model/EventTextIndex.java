@@ -0,0 +1,522 @@
+package guildquest.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Inverted index over event titles, participants, items and realm names, across campaigns.
+ *
+ * Each indexed event is a document with a dense int id; a term maps to a sorted int
+ * array of document ids (4 bytes per posting). Terms are lower-cased words tagged with
+ * the field they came from, so a query can search one field or all of them. Queries
+ * are ANDs of words; a trailing '*' makes a word a prefix. Results come back ordered
+ * by start time.
+ *
+ * Kept current through CampaignObserver: an edited event gets a fresh document and
+ * its old one is marked dead (filtered at query time, dropped by a periodic compaction).
+ * Documents hold campaign + event id rather than the event itself, so indexing an
+ * archived campaign doesn't pin its events on the heap.
+ *
+ * Thread-safe.
+ */
+public class EventTextIndex implements CampaignObserver {
+
+    /** Where a word occurs. */
+    public enum Field {
+        TITLE('t'), PARTICIPANT('p'), ITEM('i'), REALM('r');
+
+        final char tag;
+
+        Field(char tag) { this.tag = tag; }
+    }
+
+    /** One matching event; {@link #getEvent()} looks it up (thawing an archived campaign). */
+    public static final class Hit {
+        private final Campaign campaign;
+        private final int eventId;
+        private final long startMinutes;
+
+        Hit(Campaign campaign, int eventId, long startMinutes) {
+            this.campaign = campaign;
+            this.eventId = eventId;
+            this.startMinutes = startMinutes;
+        }
+
+        public Campaign getCampaign() { return campaign; }
+        public int getEventId() { return eventId; }
+        public long getStartMinutes() { return startMinutes; }
+        public QuestEvent getEvent() { return campaign.findEvent(eventId); }
+    }
+
+    private static final int COMPACT_MIN_DOCS = 4096;
+    private static final Field[] ANY_FIELD = { Field.TITLE, Field.PARTICIPANT, Field.ITEM };
+
+    private final NavigableMap<String, Postings> terms = new TreeMap<>();
+
+    // Documents, by id. A dead document has docCampaign == -1.
+    private int[] docCampaign = new int[1024];
+    private int[] docEvent = new int[1024];
+    private long[] docStart = new long[1024];
+    private int docCount;
+    private int liveDocs;
+    private long postingCount;
+
+    private final List<Campaign> campaigns = new ArrayList<>(); // by slot; null = unwatched
+    private final Map<Campaign, Integer> slotOf = new IdentityHashMap<>();
+    private final LongIntMap docOf = new LongIntMap(); // (slot, eventId) -> live doc
+
+    // ---- Watching ----
+
+    /** Indexes every event of the campaign and follows its changes. */
+    public synchronized void watch(Campaign campaign) {
+        if (campaign == null || slotOf.containsKey(campaign)) return;
+        int slot = campaigns.size();
+        campaigns.add(campaign);
+        slotOf.put(campaign, slot);
+        campaign.addObserver(this);
+        for (QuestEvent e : campaign.eventsInStartOrder()) addDoc(slot, e);
+        campaign.releaseEvents(); // no-op unless archived; the index keeps no references
+    }
+
+    public synchronized void unwatch(Campaign campaign) {
+        Integer slot = slotOf.remove(campaign);
+        if (slot == null) return;
+        campaign.removeObserver(this);
+        campaigns.set(slot, null);
+        for (int d = 0; d < docCount; d++) {
+            if (docCampaign[d] == slot) killDoc(d);
+        }
+        maybeCompact();
+    }
+
+    public synchronized boolean isWatching(Campaign campaign) {
+        return slotOf.containsKey(campaign);
+    }
+
+    @Override
+    public void onCampaignChanged(Campaign campaign) { /* only event contents are indexed */ }
+
+    @Override
+    public synchronized void onEventChanged(Campaign campaign, QuestEvent event) {
+        Integer slot = slotOf.get(campaign);
+        if (slot == null) return;
+        int old = docOf.remove(key(slot, event.getEventId()));
+        if (old >= 0) killDoc(old);
+        QuestEvent current = campaign.findEvent(event.getEventId());
+        if (current != null) addDoc(slot, current);
+        maybeCompact();
+    }
+
+    // ---- Queries ----
+
+    /**
+     * Events containing every word of the query, earliest start first, at most limit.
+     * Words are matched case-insensitively in any field but the realm; "word*" matches
+     * by prefix.
+     */
+    public List<Hit> search(String query, int limit) {
+        return search(null, query, limit);
+    }
+
+    /** Like {@link #search(String, int)} but only looks in one field (null = all but realm). */
+    public synchronized List<Hit> search(Field field, String query, int limit) {
+        int[] docs = matchingDocs(field, query);
+        return docs == null ? Collections.emptyList() : toHits(docs, limit);
+    }
+
+    /**
+     * Event ids, per campaign, matching every word of the query in the field (null =
+     * all but realm); null when the query has no words. Ids are ascending.
+     */
+    public synchronized Map<Campaign, int[]> matchingEventIds(Field field, String query) {
+        int[] docs = matchingDocs(field, query);
+        if (docs == null) return null;
+        int[] perSlot = new int[campaigns.size()];
+        for (int d : docs) perSlot[docCampaign[d]]++;
+        Map<Campaign, int[]> out = new IdentityHashMap<>();
+        for (int slot = 0; slot < perSlot.length; slot++) {
+            if (perSlot[slot] > 0) out.put(campaigns.get(slot), new int[perSlot[slot]]);
+        }
+        int[] filled = new int[perSlot.length];
+        for (int d : docs) {
+            int slot = docCampaign[d];
+            out.get(campaigns.get(slot))[filled[slot]++] = docEvent[d];
+        }
+        for (int[] ids : out.values()) Arrays.sort(ids);
+        return out;
+    }
+
+    /**
+     * Upper bound on the matches of a query, from posting list sizes alone (the
+     * smallest word's list); -1 when the query has no words. For query planning.
+     */
+    public synchronized long estimate(Field field, String query) {
+        long best = -1;
+        for (String raw : query == null ? new String[0] : query.trim().split("\\s+")) {
+            boolean prefix = raw.endsWith("*");
+            List<String> words = tokenize(prefix ? raw.substring(0, raw.length() - 1) : raw);
+            for (int w = 0; w < words.size(); w++) {
+                long n = postingsFor(field, words.get(w), prefix && w == words.size() - 1);
+                best = best < 0 ? n : Math.min(best, n);
+            }
+        }
+        return best;
+    }
+
+    private long postingsFor(Field field, String word, boolean prefix) {
+        long n = 0;
+        for (Field f : fields(field)) {
+            String key = f.tag + word;
+            if (prefix) {
+                for (Postings p : terms.subMap(key, true, key + Character.MAX_VALUE, false).values()) n += p.size;
+            } else {
+                Postings p = terms.get(key);
+                if (p != null) n += p.size;
+            }
+        }
+        return n;
+    }
+
+    private static Field[] fields(Field field) {
+        return field == null ? ANY_FIELD : new Field[] { field };
+    }
+
+    /** Sorted live documents matching every word, or null when there are no words. */
+    private int[] matchingDocs(Field field, String query) {
+        List<int[]> lists = new ArrayList<>();
+        for (String raw : query == null ? new String[0] : query.trim().split("\\s+")) {
+            boolean prefix = raw.endsWith("*");
+            List<String> words = tokenize(prefix ? raw.substring(0, raw.length() - 1) : raw);
+            for (int w = 0; w < words.size(); w++) {
+                // Only the last word of "foo-ba*" is a prefix.
+                lists.add(docsFor(field, words.get(w), prefix && w == words.size() - 1));
+            }
+        }
+        if (lists.isEmpty()) return null;
+
+        lists.sort((a, b) -> Integer.compare(a.length, b.length));
+        int[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) result = intersect(result, lists.get(i));
+
+        int live = 0;
+        for (int d : result) if (docCampaign[d] >= 0) result[live++] = d;
+        return live == result.length ? result : Arrays.copyOf(result, live);
+    }
+
+    /** Sorted documents with the word (or a word starting with it) in field, or any field. */
+    private int[] docsFor(Field field, String word, boolean prefix) {
+        List<Postings> matched = new ArrayList<>();
+        for (Field f : fields(field)) {
+            String key = f.tag + word;
+            if (prefix) {
+                matched.addAll(terms.subMap(key, true, key + Character.MAX_VALUE, false).values());
+            } else {
+                Postings p = terms.get(key);
+                if (p != null) matched.add(p);
+            }
+        }
+        if (matched.isEmpty()) return new int[0];
+        if (matched.size() == 1) return Arrays.copyOf(matched.get(0).docs, matched.get(0).size);
+
+        // Union of many lists: a bitset over document ids is cheaper than merging.
+        long[] bits = new long[(docCount + 63) >>> 6];
+        int total = 0;
+        for (Postings p : matched) {
+            for (int i = 0; i < p.size; i++) {
+                int d = p.docs[i];
+                long mask = 1L << d;
+                if ((bits[d >>> 6] & mask) == 0) {
+                    bits[d >>> 6] |= mask;
+                    total++;
+                }
+            }
+        }
+        int[] out = new int[total];
+        int n = 0;
+        for (int w = 0; w < bits.length; w++) {
+            for (long b = bits[w]; b != 0; b &= b - 1) out[n++] = (w << 6) + Long.numberOfTrailingZeros(b);
+        }
+        return out;
+    }
+
+    /** Sorted intersection; a is the shorter list, b is galloped through. */
+    static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[a.length];
+        int n = 0;
+        int lo = 0;
+        for (int x : a) {
+            int step = 1;
+            int hi = lo;
+            while (hi < b.length && b[hi] < x) {
+                lo = hi + 1;
+                hi += step;
+                step <<= 1;
+            }
+            int from = lo;
+            int to = Math.min(hi + 1, b.length);
+            int at = Arrays.binarySearch(b, from, to, x);
+            if (at >= 0) {
+                out[n++] = x;
+                lo = at + 1;
+            } else {
+                lo = -at - 1;
+            }
+            if (lo >= b.length) break;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /** The limit earliest-starting documents (ties by doc id), as hits in that order. */
+    private List<Hit> toHits(int[] docs, int limit) {
+        int k = Math.min(Math.max(limit, 0), docs.length);
+        if (k == 0) return Collections.emptyList();
+        // Max-heap of the k best so far, then popped back to front.
+        int[] heap = new int[k];
+        int size = 0;
+        for (int d : docs) {
+            if (size < k) {
+                heap[size] = d;
+                siftUp(heap, size++);
+            } else if (before(d, heap[0])) {
+                heap[0] = d;
+                siftDown(heap, size);
+            }
+        }
+        Hit[] out = new Hit[size];
+        while (size > 0) {
+            int d = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size);
+            out[size] = new Hit(campaigns.get(docCampaign[d]), docEvent[d], docStart[d]);
+        }
+        return Arrays.asList(out);
+    }
+
+    private boolean before(int a, int b) {
+        return docStart[a] != docStart[b] ? docStart[a] < docStart[b] : a < b;
+    }
+
+    private void siftUp(int[] heap, int at) {
+        int v = heap[at];
+        while (at > 0) {
+            int parent = (at - 1) >>> 1;
+            if (!before(heap[parent], v)) break;
+            heap[at] = heap[parent];
+            at = parent;
+        }
+        heap[at] = v;
+    }
+
+    private void siftDown(int[] heap, int size) {
+        if (size == 0) return;
+        int v = heap[0];
+        int at = 0;
+        while (true) {
+            int child = 2 * at + 1;
+            if (child >= size) break;
+            if (child + 1 < size && before(heap[child], heap[child + 1])) child++;
+            if (!before(v, heap[child])) break;
+            heap[at] = heap[child];
+            at = child;
+        }
+        heap[at] = v;
+    }
+
+    // ---- Stats ----
+
+    public synchronized int getDocumentCount() { return liveDocs; }
+    public synchronized int getTermCount() { return terms.size(); }
+    public synchronized long getPostingCount() { return postingCount; }
+
+    @Override
+    public synchronized String toString() {
+        return "text index: " + liveDocs + " events, " + terms.size() + " terms, "
+                + postingCount + " postings (" + (docCount - liveDocs) + " dead docs)";
+    }
+
+    // ---- Maintenance ----
+
+    private void addDoc(int slot, QuestEvent e) {
+        if (docCount == docEvent.length) {
+            int cap = docCount * 2;
+            docCampaign = Arrays.copyOf(docCampaign, cap);
+            docEvent = Arrays.copyOf(docEvent, cap);
+            docStart = Arrays.copyOf(docStart, cap);
+        }
+        int d = docCount++;
+        docCampaign[d] = slot;
+        docEvent[d] = e.getEventId();
+        docStart[d] = e.getStartMinutes();
+        liveDocs++;
+        docOf.put(key(slot, e.getEventId()), d);
+
+        post(Field.TITLE, e.getTitle(), d);
+        for (String p : e.getParticipants()) post(Field.PARTICIPANT, p, d);
+        for (String it : e.getItems()) post(Field.ITEM, it, d);
+        Realm realm = e.getRealm();
+        if (realm != null) post(Field.REALM, realm.getName(), d);
+    }
+
+    private void post(Field field, String text, int doc) {
+        for (String word : tokenize(text)) {
+            Postings p = terms.computeIfAbsent(field.tag + word, k -> new Postings());
+            if (p.size > 0 && p.docs[p.size - 1] == doc) continue; // word repeated in this field
+            p.add(doc);
+            postingCount++;
+        }
+    }
+
+    private void killDoc(int d) {
+        if (docCampaign[d] < 0) return;
+        docOf.remove(key(docCampaign[d], docEvent[d]));
+        docCampaign[d] = -1;
+        liveDocs--;
+    }
+
+    /** Once most documents are dead, renumbers the live ones and rewrites the postings. */
+    private void maybeCompact() {
+        if (docCount < COMPACT_MIN_DOCS || liveDocs * 2 > docCount) return;
+        int[] remap = new int[docCount];
+        int live = 0;
+        for (int d = 0; d < docCount; d++) {
+            if (docCampaign[d] < 0) {
+                remap[d] = -1;
+                continue;
+            }
+            remap[d] = live;
+            docCampaign[live] = docCampaign[d];
+            docEvent[live] = docEvent[d];
+            docStart[live] = docStart[d];
+            docOf.put(key(docCampaign[live], docEvent[live]), live);
+            live++;
+        }
+        docCount = live;
+
+        postingCount = 0;
+        terms.values().removeIf(p -> {
+            int n = 0;
+            for (int i = 0; i < p.size; i++) {
+                int d = remap[p.docs[i]];
+                if (d >= 0) p.docs[n++] = d; // remap is increasing, so the list stays sorted
+            }
+            p.size = n;
+            postingCount += n;
+            return n == 0;
+        });
+    }
+
+    /** Lower-cased runs of letters and digits. */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) return Collections.emptyList();
+        List<String> words = new ArrayList<>(4);
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) start = i;
+            if (!word && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static long key(int slot, int eventId) {
+        return ((long) slot << 32) | (eventId & 0xFFFFFFFFL);
+    }
+
+    /** Growable sorted int array. */
+    private static final class Postings {
+        int[] docs = new int[2];
+        int size;
+
+        void add(int doc) {
+            if (size == docs.length) docs = Arrays.copyOf(docs, size * 2);
+            docs[size++] = doc;
+        }
+    }
+
+    /** Open-addressing long -> int map (values >= 0), linear probing, backward-shift removal. */
+    static final class LongIntMap {
+        private static final long EMPTY = Long.MIN_VALUE;
+        private long[] keys = newKeys(16);
+        private int[] values = new int[16];
+        private int size;
+
+        private static long[] newKeys(int cap) {
+            long[] k = new long[cap];
+            Arrays.fill(k, EMPTY);
+            return k;
+        }
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); keys[i] != EMPTY; i = (i + 1) & mask) {
+                if (keys[i] == key) return values[i];
+            }
+            return -1;
+        }
+
+        void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) grow();
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != EMPTY) {
+                if (keys[i] == key) {
+                    values[i] = value;
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            size++;
+        }
+
+        /** Returns the removed value, or -1. */
+        int remove(long key) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (keys[i] != key) {
+                if (keys[i] == EMPTY) return -1;
+                i = (i + 1) & mask;
+            }
+            int removed = values[i];
+            // Shift later entries of the probe run back so lookups never hit a gap.
+            for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+                int home = slot(keys[j], mask);
+                if (((j - home) & mask) >= ((j - i) & mask)) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    i = j;
+                }
+            }
+            keys[i] = EMPTY;
+            size--;
+            return removed;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = newKeys(oldKeys.length * 2);
+            values = new int[oldKeys.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h >>> 32) & mask;
+        }
+    }
+}
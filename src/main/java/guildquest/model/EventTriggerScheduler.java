@@ -0,0 +1,230 @@
+package guildquest.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fires "event started", "event ended" and reminder callbacks as the WorldClock moves.
+ *
+ * Watched campaigns are kept in sync through CampaignObserver, and pending triggers
+ * live in a {@link TimingWheel}, so an advance only touches the triggers that fire
+ * instead of rescanning every campaign. Only triggers strictly after the current time
+ * are scheduled; one that falls exactly on the new time fires with that advance.
+ *
+ * Timers are keyed by (campaign, event id), not by QuestEvent instance, because a
+ * thaw from the cold tier replaces the instances. Archiving a campaign cancels its
+ * timers (only reminder settings are kept), so nothing pins archived events on the
+ * heap; unarchiving schedules them again.
+ *
+ * Synchronized; listeners run on the thread that advanced the clock, while the
+ * scheduler's lock is held, so they should be quick.
+ */
+public class EventTriggerScheduler implements WorldClock.ClockListener, CampaignObserver {
+
+    public enum Kind { START, END, REMINDER }
+
+    /** One fired (or pending) trigger. */
+    public static final class Trigger {
+        private final Kind kind;
+        private final Campaign campaign;
+        private final int eventId;
+        private final long atMinutes;
+        private final long leadMinutes;
+
+        Trigger(Kind kind, Campaign campaign, int eventId, long atMinutes, long leadMinutes) {
+            this.kind = kind;
+            this.campaign = campaign;
+            this.eventId = eventId;
+            this.atMinutes = atMinutes;
+            this.leadMinutes = leadMinutes;
+        }
+
+        public Kind getKind() { return kind; }
+        public Campaign getCampaign() { return campaign; }
+        public int getEventId() { return eventId; }
+        /** Looks the event up, so it is the campaign's current instance. */
+        public QuestEvent getEvent() { return campaign.findEvent(eventId); }
+        public long getAtMinutes() { return atMinutes; }
+        /** Minutes before the start, for reminders (0 otherwise). */
+        public long getLeadMinutes() { return leadMinutes; }
+
+        @Override
+        public String toString() {
+            String what = switch (kind) {
+                case START -> "started";
+                case END -> "ended";
+                case REMINDER -> "starts in " + leadMinutes + " min";
+            };
+            QuestEvent event = getEvent();
+            String title = event == null ? "event #" + eventId : event.getTitle();
+            return GlobalTime.toString(atMinutes) + " - " + title + " " + what;
+        }
+    }
+
+    public interface TriggerListener {
+        void onTrigger(Trigger trigger);
+    }
+
+    /** Timers currently scheduled for one event, plus what they were computed from. */
+    private static final class EventTimers {
+        long start = Long.MIN_VALUE;
+        long end;
+        long[] leads = new long[0];
+        final List<TimingWheel.Timer<Trigger>> timers = new ArrayList<>(2);
+    }
+
+    private final WorldClock clock;
+    private final TimingWheel<Trigger> wheel;
+    // Per watched campaign: event id -> timers. Archived campaigns keep only entries with reminders.
+    private final Map<Campaign, Map<Integer, EventTimers>> byCampaign = new IdentityHashMap<>();
+    private final List<Campaign> watched = new ArrayList<>();
+    private final Set<Campaign> parked = Collections.newSetFromMap(new IdentityHashMap<>()); // archived, timers cancelled
+    private final List<TriggerListener> listeners = new ArrayList<>();
+    private long fired;
+
+    public EventTriggerScheduler(WorldClock clock) {
+        if (clock == null) throw new IllegalArgumentException("clock is required");
+        this.clock = clock;
+        this.wheel = new TimingWheel<>(clock.now().toMinutes());
+        clock.addListener(this);
+    }
+
+    public synchronized void addTriggerListener(TriggerListener l) {
+        if (l != null) listeners.add(l);
+    }
+
+    public synchronized void removeTriggerListener(TriggerListener l) {
+        listeners.remove(l);
+    }
+
+    // ---- Campaigns ----
+
+    /**
+     * Schedules the start/end of every event in the campaign and follows its changes.
+     * An archived campaign is not thawed; its events are scheduled once it is unarchived.
+     */
+    public synchronized void watch(Campaign campaign) {
+        if (campaign == null || watched.contains(campaign)) return;
+        watched.add(campaign);
+        byCampaign.put(campaign, new HashMap<>());
+        campaign.addObserver(this);
+        if (campaign.isArchived()) parked.add(campaign);
+        else scheduleAll(campaign);
+    }
+
+    public synchronized void unwatch(Campaign campaign) {
+        if (!watched.remove(campaign)) return;
+        campaign.removeObserver(this);
+        parked.remove(campaign);
+        for (EventTimers t : byCampaign.remove(campaign).values()) cancelAll(t);
+    }
+
+    /** Stops listening to the clock and drops every pending trigger. */
+    public synchronized void close() {
+        clock.removeListener(this);
+        for (Campaign c : List.copyOf(watched)) unwatch(c);
+    }
+
+    /**
+     * Adds a reminder {@code minutesBefore} the event's start. Reminders follow the
+     * event when it is rescheduled, archived and unarchived. The campaign must be watched.
+     */
+    public synchronized void addReminder(Campaign campaign, int eventId, long minutesBefore) {
+        if (minutesBefore < 1) throw new IllegalArgumentException("minutesBefore must be >= 1");
+        Map<Integer, EventTimers> timers = byCampaign.get(campaign);
+        if (timers == null) throw new IllegalArgumentException("campaign is not watched");
+        QuestEvent e = campaign.findEvent(eventId);
+        if (e == null) throw new IllegalArgumentException("no event " + eventId + " in " + campaign.getName());
+        EventTimers t = timers.computeIfAbsent(eventId, k -> new EventTimers());
+        long[] leads = Arrays.copyOf(t.leads, t.leads.length + 1);
+        leads[leads.length - 1] = minutesBefore;
+        t.leads = leads;
+        t.start = Long.MIN_VALUE; // force a reschedule
+        if (!campaign.isArchived()) reschedule(campaign, e);
+    }
+
+    @Override
+    public synchronized void onCampaignChanged(Campaign campaign) {
+        Map<Integer, EventTimers> timers = byCampaign.get(campaign);
+        if (timers == null) return;
+        if (campaign.isArchived() && parked.add(campaign)) {
+            // Drop everything but reminder settings; the events themselves go to the cold tier.
+            timers.values().removeIf(t -> {
+                cancelAll(t);
+                t.start = Long.MIN_VALUE;
+                return t.leads.length == 0;
+            });
+        } else if (!campaign.isArchived() && parked.remove(campaign)) {
+            scheduleAll(campaign); // unarchived: the events were thawed as new instances
+        }
+    }
+
+    @Override
+    public synchronized void onEventChanged(Campaign campaign, QuestEvent event) {
+        Map<Integer, EventTimers> timers = byCampaign.get(campaign);
+        if (timers == null) return;
+        QuestEvent live = campaign.findEvent(event.getEventId());
+        if (live == null) {
+            EventTimers t = timers.remove(event.getEventId());
+            if (t != null) cancelAll(t);
+        } else if (!campaign.isArchived()) {
+            reschedule(campaign, live);
+        }
+    }
+
+    private void scheduleAll(Campaign campaign) {
+        for (QuestEvent e : campaign.eventsInStartOrder()) reschedule(campaign, e);
+    }
+
+    private void reschedule(Campaign campaign, QuestEvent e) {
+        EventTimers t = byCampaign.get(campaign).computeIfAbsent(e.getEventId(), k -> new EventTimers());
+        if (t.start == e.getStartMinutes() && t.end == e.getEndMinutes()) return; // times unchanged
+        cancelAll(t);
+        t.start = e.getStartMinutes();
+        t.end = e.getEndMinutes();
+
+        int id = e.getEventId();
+        long now = wheel.now();
+        for (long lead : t.leads) {
+            long at = t.start - lead;
+            if (at > now) t.timers.add(wheel.schedule(at, new Trigger(Kind.REMINDER, campaign, id, at, lead)));
+        }
+        if (t.start > now) t.timers.add(wheel.schedule(t.start, new Trigger(Kind.START, campaign, id, t.start, 0)));
+        if (e.hasEndTime() && t.end > now) {
+            t.timers.add(wheel.schedule(t.end, new Trigger(Kind.END, campaign, id, t.end, 0)));
+        }
+    }
+
+    private void cancelAll(EventTimers t) {
+        for (TimingWheel.Timer<Trigger> timer : t.timers) wheel.cancel(timer);
+        t.timers.clear();
+    }
+
+    // ---- Clock ----
+
+    @Override
+    public synchronized void onTimeChanged(GlobalTime newTime) {
+        long target = newTime.toMinutes();
+        if (target <= wheel.now()) return;
+        List<TriggerListener> ls = List.copyOf(listeners);
+        wheel.advanceTo(target, timer -> dispatch(timer, ls));
+    }
+
+    private void dispatch(TimingWheel.Timer<Trigger> timer, List<TriggerListener> ls) {
+        fired++;
+        Trigger trigger = timer.payload;
+        Map<Integer, EventTimers> timers = byCampaign.get(trigger.campaign);
+        EventTimers t = timers == null ? null : timers.get(trigger.eventId);
+        if (t != null) t.timers.remove(timer);
+        for (TriggerListener l : ls) l.onTrigger(trigger);
+    }
+
+    public synchronized int getPendingCount() { return wheel.pending(); }
+    public synchronized long getFiredCount() { return fired; }
+}
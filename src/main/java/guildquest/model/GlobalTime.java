@@ -1,40 +1,116 @@
 package guildquest.model;
 
+/**
+ * A point on the world timeline, in whole minutes since Day 0.
+ *
+ * Minutes are 64-bit so long-running worlds (accelerated clocks, thousands of
+ * in-game years) never wrap; every arithmetic path is overflow-checked and throws
+ * ArithmeticException instead of silently going negative.
+ */
 public class GlobalTime implements Comparable<GlobalTime> {
-    private final int totalMinutes;
+    public static final int MINUTES_PER_HOUR = 60;
+    public static final int MINUTES_PER_DAY = 24 * MINUTES_PER_HOUR;
 
-    public GlobalTime(int totalMinutes) {
-        if (totalMinutes < 0) throw new IllegalArgumentException("totalMinutes must be >= 0");
+    // Flyweights for the first CACHED_DAYS days, filled lazily (instances are immutable,
+    // so a racy fill only ever costs a duplicate allocation).
+    private static final int CACHED_DAYS = 14;
+    private static final GlobalTime[] CACHE = new GlobalTime[CACHED_DAYS * MINUTES_PER_DAY];
+
+    private final long totalMinutes;
+
+    public GlobalTime(long totalMinutes) {
+        this(requireNonNegative(totalMinutes), true);
+    }
+
+    public GlobalTime(long days, int hours, int minutes) {
+        this(minutesOf(days, hours, minutes));
+    }
+
+    private GlobalTime(long totalMinutes, boolean trusted) {
         this.totalMinutes = totalMinutes;
     }
 
-    public GlobalTime(int days, int hours, int minutes) {
-        this(days * 24 * 60 + hours * 60 + minutes);
+    /** Same as the constructor, but shares instances for common (early) times. */
+    public static GlobalTime of(long totalMinutes) {
+        requireNonNegative(totalMinutes);
+        if (totalMinutes >= CACHE.length) return new GlobalTime(totalMinutes, true);
+        int i = (int) totalMinutes;
+        GlobalTime t = CACHE[i];
+        if (t == null) CACHE[i] = t = new GlobalTime(totalMinutes, true);
+        return t;
+    }
+
+    private static long requireNonNegative(long totalMinutes) {
+        if (totalMinutes < 0) throw new IllegalArgumentException("totalMinutes must be >= 0");
+        return totalMinutes;
+    }
+
+    // ---- Primitive API: hot paths work on minute counts and never allocate ----
+
+    /** days/hours/minutes to total minutes; throws ArithmeticException on overflow. */
+    public static long minutesOf(long days, int hours, int minutes) {
+        long m = Math.multiplyExact(days, (long) MINUTES_PER_DAY);
+        m = Math.addExact(m, (long) hours * MINUTES_PER_HOUR);
+        return Math.addExact(m, minutes);
+    }
+
+    /** Overflow-checked minute addition. */
+    public static long addMinutes(long totalMinutes, long deltaMinutes) {
+        return Math.addExact(totalMinutes, deltaMinutes);
     }
 
+    // Floor division so a local time before Day 0 (negative realm offset) still reads "Day -1 23:00".
+    public static long daysOf(long totalMinutes) { return Math.floorDiv(totalMinutes, MINUTES_PER_DAY); }
+    public static int minuteOfDay(long totalMinutes) { return Math.floorMod(totalMinutes, MINUTES_PER_DAY); }
+    public static long startOfDay(long day) { return Math.multiplyExact(day, (long) MINUTES_PER_DAY); }
+
+    /** Minutes of the null-safe time, or -1 for null (e.g. an open-ended event). */
+    public static long minutesOrNone(GlobalTime t) { return t == null ? -1 : t.totalMinutes; }
+
+    public long toMinutes() { return totalMinutes; }
+    public long toDays() { return daysOf(totalMinutes); }
 
-    public int toMinutes() { return totalMinutes; }
-    public int toDays() { return totalMinutes / (60 * 24); }
+    public boolean isBefore(GlobalTime other) { return totalMinutes < other.totalMinutes; }
+    public boolean isAfter(GlobalTime other) { return totalMinutes > other.totalMinutes; }
 
-    public GlobalTime plus(int minutes) {
-        return new GlobalTime(this.totalMinutes + minutes);
+    public GlobalTime plus(long minutes) {
+        return minutes == 0 ? this : of(addMinutes(this.totalMinutes, minutes));
     }
 
     @Override
     public int compareTo(GlobalTime other) {
-        return Integer.compare(this.totalMinutes, other.totalMinutes);
+        return Long.compare(this.totalMinutes, other.totalMinutes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof GlobalTime && ((GlobalTime) o).totalMinutes == totalMinutes;
     }
 
+    @Override
+    public int hashCode() { return Long.hashCode(totalMinutes); }
+
     @Override
     public String toString() {
-        int day = toDays();
-        int minsInDay = totalMinutes % (60 * 24);
-        int hr = minsInDay / 60;
-        int min = minsInDay % 60;
-        return "Day " + day + " " + String.format("%02d:%02d", hr, min);
+        return toString(totalMinutes);
+    }
+
+    /** "Day D HH:MM" for a minute count, without building a GlobalTime. */
+    public static String toString(long totalMinutes) {
+        return appendTo(new StringBuilder(20), totalMinutes).toString();
+    }
+
+    /** Appends "Day D HH:MM" digit by digit (no String.format, no intermediate strings). */
+    public static StringBuilder appendTo(StringBuilder out, long totalMinutes) {
+        int minsInDay = minuteOfDay(totalMinutes);
+        int hr = minsInDay / MINUTES_PER_HOUR;
+        int min = minsInDay % MINUTES_PER_HOUR;
+        out.append("Day ").append(daysOf(totalMinutes)).append(' ');
+        out.append((char) ('0' + hr / 10)).append((char) ('0' + hr % 10)).append(':');
+        return out.append((char) ('0' + min / 10)).append((char) ('0' + min % 10));
     }
 
-    public GlobalTime plusMinutes(int deltaMinutes) {
-        return new GlobalTime(this.totalMinutes + deltaMinutes);
+    public GlobalTime plusMinutes(long deltaMinutes) {
+        return plus(deltaMinutes);
     }
 }
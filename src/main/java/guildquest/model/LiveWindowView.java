@@ -0,0 +1,192 @@
+package guildquest.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A day/week/... view that stays current as the clock moves and the campaign changes.
+ *
+ * Covers events starting in [start of today, start of today + dayCount days), like
+ * the TimelineView queries. Instead of re-querying on every change it slides: when
+ * the day rolls over, events that left the window are dropped from its head and only
+ * the newly covered range is queried. Per advance that costs the events crossing the
+ * window edges, not the campaign size; advances within the same day cost nothing.
+ *
+ * Reads the campaign, so it has to be told about changes on the thread that owns the
+ * model (real-time clock ticks are delivered there, see WorldClock). Listeners run on
+ * that same thread.
+ */
+public class LiveWindowView implements WorldClock.ClockListener, CampaignObserver {
+
+    public interface WindowListener {
+        /** An edited event that stays in the window appears in both lists. */
+        void onWindowChanged(LiveWindowView view, List<QuestEvent> removed, List<QuestEvent> added);
+    }
+
+    private final Campaign campaign;
+    private final WorldClock clock;
+    private final int dayCount;
+    private final StartTimeIndex window = new StartTimeIndex();
+    private final List<WindowListener> listeners = new CopyOnWriteArrayList<>();
+
+    private long fromDay;
+    private long from;
+    private long to;
+    private boolean stale; // campaign was archived; refill on next read
+
+    public LiveWindowView(Campaign campaign, WorldClock clock, int dayCount) {
+        if (campaign == null) throw new IllegalArgumentException("campaign is required");
+        if (clock == null) throw new IllegalArgumentException("clock is required");
+        if (dayCount < 1) throw new IllegalArgumentException("dayCount must be >= 1");
+        this.campaign = campaign;
+        this.clock = clock;
+        this.dayCount = dayCount;
+        synchronized (this) {
+            moveTo(clock.now().toDays());
+            for (QuestEvent e : campaign.eventsStartingBetween(from, to)) window.put(e);
+        }
+        campaign.addObserver(this);
+        clock.addListener(this);
+    }
+
+    public static LiveWindowView day(Campaign campaign, WorldClock clock) {
+        return new LiveWindowView(campaign, clock, 1);
+    }
+
+    public static LiveWindowView week(Campaign campaign, WorldClock clock) {
+        return new LiveWindowView(campaign, clock, 7);
+    }
+
+    public void addListener(WindowListener l) {
+        if (l != null) listeners.add(l);
+    }
+
+    public void removeListener(WindowListener l) {
+        listeners.remove(l);
+    }
+
+    /** Stops following the clock and the campaign. */
+    public void close() {
+        clock.removeListener(this);
+        campaign.removeObserver(this);
+    }
+
+    // ---- Reads ----
+
+    /** Snapshot of the window in start order. */
+    public List<QuestEvent> events() {
+        List<QuestEvent> added;
+        List<QuestEvent> snapshot;
+        synchronized (this) {
+            added = stale ? refill() : Collections.emptyList();
+            snapshot = new ArrayList<>(window.inStartOrder());
+        }
+        fire(Collections.emptyList(), added);
+        return snapshot;
+    }
+
+    public synchronized int size() { return window.size(); }
+    public synchronized long getFromMinutes() { return from; }
+    public synchronized long getToMinutes() { return to; }
+    public int getDayCount() { return dayCount; }
+    public Campaign getCampaign() { return campaign; }
+
+    // ---- Clock ----
+
+    @Override
+    public void onTimeChanged(GlobalTime newTime) {
+        List<QuestEvent> removed;
+        List<QuestEvent> added;
+        synchronized (this) {
+            long day = newTime.toDays();
+            if (day == fromDay) return;
+            long oldDay = fromDay;
+            long oldTo = to;
+            moveTo(day);
+            if (stale) return;
+
+            if (from >= oldTo || day < oldDay) {
+                // Jumped past the whole window (or, defensively, backwards): start over.
+                removed = new ArrayList<>(window.inStartOrder());
+                window.clear();
+                added = campaign.eventsStartingBetween(from, to);
+            } else {
+                removed = window.removeBefore(from);
+                added = campaign.eventsStartingBetween(oldTo, to);
+            }
+            for (QuestEvent e : added) window.put(e);
+        }
+        fire(removed, added);
+    }
+
+    private void moveTo(long day) {
+        fromDay = day;
+        from = GlobalTime.startOfDay(day);
+        long span = (long) dayCount * GlobalTime.MINUTES_PER_DAY;
+        to = (from > Long.MAX_VALUE - span) ? Long.MAX_VALUE : from + span;
+    }
+
+    // ---- Campaign ----
+
+    @Override
+    public void onCampaignChanged(Campaign c) {
+        List<QuestEvent> removed = Collections.emptyList();
+        List<QuestEvent> added = Collections.emptyList();
+        synchronized (this) {
+            if (c.isArchived() && !stale) {
+                // Archiving parks the events in the cold tier; don't pin them (or thaw them back).
+                removed = new ArrayList<>(window.inStartOrder());
+                window.clear();
+                stale = true;
+            } else if (!c.isArchived() && stale) {
+                added = refill(); // unarchived: the campaign has fresh event instances
+            }
+        }
+        fire(removed, added);
+    }
+
+    @Override
+    public void onEventChanged(Campaign c, QuestEvent e) {
+        List<QuestEvent> removed;
+        List<QuestEvent> added;
+        synchronized (this) {
+            if (stale) return;
+            boolean isIn = c.findEvent(e.getEventId()) == e
+                    && e.getStartMinutes() >= from && e.getStartMinutes() < to;
+            QuestEvent previous = isIn ? window.put(e) : window.remove(e.getEventId());
+            if (previous == null && !isIn) return;
+            removed = previous != null ? List.of(previous) : Collections.emptyList();
+            added = isIn ? List.of(e) : Collections.emptyList();
+        }
+        fire(removed, added);
+    }
+
+    @Override
+    public void onEventsReloaded(Campaign c) {
+        List<QuestEvent> removed;
+        List<QuestEvent> added;
+        synchronized (this) {
+            if (stale) return; // archived: refilled when unarchived
+            removed = new ArrayList<>(window.inStartOrder());
+            window.clear();
+            added = refill();
+        }
+        fire(removed, added);
+    }
+
+    private List<QuestEvent> refill() {
+        stale = false;
+        List<QuestEvent> added = campaign.eventsStartingBetween(from, to);
+        for (QuestEvent e : added) window.put(e);
+        return added;
+    }
+
+    private void fire(List<QuestEvent> removed, List<QuestEvent> added) {
+        if (removed.isEmpty() && added.isEmpty()) return;
+        List<QuestEvent> r = Collections.unmodifiableList(removed);
+        List<QuestEvent> a = Collections.unmodifiableList(added);
+        for (WindowListener l : listeners) l.onWindowChanged(this, r, a);
+    }
+}
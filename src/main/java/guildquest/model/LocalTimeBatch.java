@@ -0,0 +1,154 @@
+package guildquest.model;
+
+import java.util.Arrays;
+
+/**
+ * Converts many world times to realm-local times at once, over primitive arrays.
+ *
+ * The static kernels are plain counted loops over caller-provided arrays (no calls,
+ * no allocation, no per-element branches on the fixed-offset path), which is the shape
+ * C2 auto-vectorizes. Realms with an offset schedule are patched in a second pass that
+ * only runs when such realms exist.
+ *
+ * An instance is a reusable buffer: add() world times with their realm ids, convert(),
+ * then read the local minutes or day/hour/minute fields by index. Not thread-safe.
+ */
+public final class LocalTimeBatch {
+    // Offsets are ints, so world times inside this range can't overflow when shifted.
+    private static final long SAFE_MIN = Long.MIN_VALUE - (long) Integer.MIN_VALUE;
+    private static final long SAFE_MAX = Long.MAX_VALUE - Integer.MAX_VALUE;
+
+    private final RealmRegistry registry;
+    private long[] world;
+    private int[] realmIds;
+    private long[] local;
+    private long[] days;
+    private int[] hours;
+    private int[] minutes;
+    private int count;
+
+    public LocalTimeBatch(int initialCapacity) {
+        this(RealmRegistry.global(), initialCapacity);
+    }
+
+    public LocalTimeBatch(RealmRegistry registry, int initialCapacity) {
+        if (registry == null) throw new IllegalArgumentException("registry is required");
+        if (initialCapacity < 1) throw new IllegalArgumentException("initialCapacity must be >= 1");
+        this.registry = registry;
+        allocate(initialCapacity);
+    }
+
+    private void allocate(int capacity) {
+        world = Arrays.copyOf(world == null ? new long[0] : world, capacity);
+        realmIds = Arrays.copyOf(realmIds == null ? new int[0] : realmIds, capacity);
+        local = new long[capacity];
+        days = new long[capacity];
+        hours = new int[capacity];
+        minutes = new int[capacity];
+    }
+
+    // ---- Buffer ----
+
+    public void clear() { count = 0; }
+    public int size() { return count; }
+
+    /** Queues one world time; returns its index for the getters after convert(). */
+    public int add(long worldMinutes, int realmId) {
+        if (count == world.length) allocate(count * 2);
+        world[count] = worldMinutes;
+        realmIds[count] = realmId;
+        return count++;
+    }
+
+    /** Converts everything queued since clear(). */
+    public void convert() {
+        toLocal(registry, world, realmIds, local, count);
+        splitFields(local, days, hours, minutes, count);
+    }
+
+    public long localMinutes(int i) { return local[i]; }
+    public long day(int i) { return days[i]; }
+    public int hour(int i) { return hours[i]; }
+    public int minute(int i) { return minutes[i]; }
+
+    /** Appends entry i as "Day D HH:MM", same text as GlobalTime.appendTo(localMinutes(i)). */
+    public StringBuilder appendTo(StringBuilder out, int i) {
+        int hr = hours[i];
+        int min = minutes[i];
+        out.append("Day ").append(days[i]).append(' ');
+        out.append((char) ('0' + hr / 10)).append((char) ('0' + hr % 10)).append(':');
+        return out.append((char) ('0' + min / 10)).append((char) ('0' + min % 10));
+    }
+
+    // ---- Kernels ----
+
+    /**
+     * local[i] = world[i] in the local time of realm realmIds[i] (QuestEvent.NO_REALM = unchanged).
+     * Throws IllegalArgumentException for a realm id outside the registry and ArithmeticException
+     * if a result would overflow.
+     */
+    public static void toLocal(RealmRegistry registry, long[] world, int[] realmIds, long[] local, int count) {
+        int[] table = registry.offsetTable();
+
+        // Range checks up front as reductions, so the main loop needs no per-element tests.
+        int minId = 0, maxId = -1;
+        long minT = 0, maxT = 0;
+        for (int i = 0; i < count; i++) {
+            minId = Math.min(minId, realmIds[i]);
+            maxId = Math.max(maxId, realmIds[i]);
+            minT = Math.min(minT, world[i]);
+            maxT = Math.max(maxT, world[i]);
+        }
+        if (minId < QuestEvent.NO_REALM || maxId + 1 >= table.length) {
+            throw new IllegalArgumentException("unknown realm id in batch");
+        }
+
+        if (minT >= SAFE_MIN && maxT <= SAFE_MAX) {
+            for (int i = 0; i < count; i++) {
+                local[i] = world[i] + table[realmIds[i] + 1];
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                local[i] = Math.addExact(world[i], (long) table[realmIds[i] + 1]);
+            }
+        }
+
+        if (registry.hasSchedules()) {
+            RealmOffsetSchedule[] schedules = registry.scheduleTable();
+            for (int i = 0; i < count; i++) {
+                int slot = realmIds[i] + 1;
+                RealmOffsetSchedule s = slot < schedules.length ? schedules[slot] : null;
+                if (s != null) local[i] = GlobalTime.addMinutes(world[i], s.offsetAt(world[i]));
+            }
+        }
+    }
+
+    /** Splits minute counts into day / hour / minute fields (floor semantics, like GlobalTime). */
+    public static void splitFields(long[] totalMinutes, long[] days, int[] hours, int[] minutes, int count) {
+        long lo = 0, hi = 0;
+        for (int i = 0; i < count; i++) {
+            lo = Math.min(lo, totalMinutes[i]);
+            hi = Math.max(hi, totalMinutes[i]);
+        }
+        if (lo >= 0 && hi <= Integer.MAX_VALUE) {
+            // Common case (first ~4000 years, no time before Day 0): int division by a
+            // constant compiles to multiply-and-shift, long floor division does not.
+            for (int i = 0; i < count; i++) {
+                int t = (int) totalMinutes[i];
+                int d = t / GlobalTime.MINUTES_PER_DAY;
+                int m = t - d * GlobalTime.MINUTES_PER_DAY;
+                days[i] = d;
+                hours[i] = m / GlobalTime.MINUTES_PER_HOUR;
+                minutes[i] = m % GlobalTime.MINUTES_PER_HOUR;
+            }
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            long d = Math.floorDiv(totalMinutes[i], GlobalTime.MINUTES_PER_DAY);
+            int m = (int) (totalMinutes[i] - d * GlobalTime.MINUTES_PER_DAY);
+            days[i] = d;
+            hours[i] = m / GlobalTime.MINUTES_PER_HOUR;
+            minutes[i] = m % GlobalTime.MINUTES_PER_HOUR;
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package guildquest.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Participant and item names used across campaigns, for autocomplete.
+ *
+ * One prefix trie per kind, keyed case-insensitively. Each name remembers how many
+ * times it is used, and every trie node remembers the largest count below it, so
+ * top-K completion is a best-first walk from the prefix node. It touches only about
+ * K paths, not every name under the prefix.
+ *
+ * Follows campaigns as a CampaignObserver; counts go up and down as events are
+ * added, edited and removed. While indexing it also swaps each event's name strings
+ * for one shared instance per name, so a name used by 10k events is stored once.
+ *
+ * Thread-safe.
+ */
+public class NameDictionary implements CampaignObserver {
+
+    public enum Kind { PARTICIPANT, ITEM }
+
+    private final Trie participants = new Trie();
+    private final Trie items = new Trie();
+
+    // Names each indexed event contributed, so an edit or delete can take them back.
+    private final Map<Campaign, Integer> slotOf = new IdentityHashMap<>();
+    private final Map<Long, String[][]> namesByEvent = new HashMap<>();
+    private int nextSlot;
+
+    // ---- Watching ----
+
+    public synchronized void watch(Campaign campaign) {
+        if (campaign == null || slotOf.containsKey(campaign)) return;
+        int slot = nextSlot++;
+        slotOf.put(campaign, slot);
+        campaign.addObserver(this);
+        for (QuestEvent e : campaign.eventsInStartOrder()) add(slot, e);
+        campaign.releaseEvents(); // no-op unless archived
+    }
+
+    public synchronized void unwatch(Campaign campaign) {
+        Integer slot = slotOf.remove(campaign);
+        if (slot == null) return;
+        campaign.removeObserver(this);
+        namesByEvent.entrySet().removeIf(en -> {
+            if ((int) (en.getKey() >>> 32) != slot) return false;
+            retract(en.getValue());
+            return true;
+        });
+    }
+
+    @Override
+    public void onCampaignChanged(Campaign campaign) { /* names are per event */ }
+
+    @Override
+    public synchronized void onEventChanged(Campaign campaign, QuestEvent event) {
+        Integer slot = slotOf.get(campaign);
+        if (slot == null) return;
+        String[][] old = namesByEvent.remove(key(slot, event.getEventId()));
+        if (old != null) retract(old);
+        QuestEvent current = campaign.findEvent(event.getEventId());
+        if (current != null) add(slot, current);
+    }
+
+    private void add(int slot, QuestEvent e) {
+        e.replaceNames(participants::intern, items::intern);
+        String[] p = e.getParticipants().toArray(new String[0]);
+        String[] it = e.getItems().toArray(new String[0]);
+        for (String name : p) participants.adjust(name, 1);
+        for (String name : it) items.adjust(name, 1);
+        if (p.length > 0 || it.length > 0) namesByEvent.put(key(slot, e.getEventId()), new String[][] { p, it });
+    }
+
+    private void retract(String[][] names) {
+        for (String name : names[0]) participants.adjust(name, -1);
+        for (String name : names[1]) items.adjust(name, -1);
+    }
+
+    private static long key(int slot, int eventId) {
+        return ((long) slot << 32) | (eventId & 0xFFFFFFFFL);
+    }
+
+    // ---- Queries ----
+
+    /** Up to k names starting with prefix (case-insensitive), most used first. */
+    public synchronized List<String> complete(Kind kind, String prefix, int k) {
+        return trie(kind).complete(prefix == null ? "" : prefix.trim(), k);
+    }
+
+    /** Times the name (case-insensitive) is used. */
+    public synchronized int count(Kind kind, String name) {
+        Trie.Node n = trie(kind).find(name == null ? "" : name.trim());
+        return n == null ? 0 : n.count;
+    }
+
+    public synchronized int size(Kind kind) { return trie(kind).names; }
+
+    @Override
+    public synchronized String toString() {
+        return "names: " + participants.names + " participants, " + items.names + " items ("
+                + (participants.nodes + items.nodes) + " trie nodes)";
+    }
+
+    private Trie trie(Kind kind) {
+        return kind == Kind.ITEM ? items : participants;
+    }
+
+    /** Case-insensitive trie with per-name counts and per-subtree best counts. */
+    private static final class Trie {
+        static final class Node {
+            char[] keys = new char[0];  // sorted
+            Node[] kids = new Node[0];
+            int count;                  // uses of the name ending here
+            int best;                   // max count in this subtree
+            String[] forms;             // spellings seen (first = display form), when count > 0
+        }
+
+        /** A subtree (weight = its best) or the name at a node (weight = its count). */
+        static final class Pending {
+            final Node node;
+            final int weight;
+            final boolean isName;
+
+            Pending(Node node, int weight, boolean isName) {
+                this.node = node;
+                this.weight = weight;
+                this.isName = isName;
+            }
+        }
+
+        final Node root = new Node();
+        int names;
+        int nodes = 1;
+
+        Node find(String s) {
+            Node n = root;
+            for (int i = 0; i < s.length() && n != null; i++) n = child(n, fold(s.charAt(i)));
+            return n;
+        }
+
+        /** The shared instance of this exact spelling (recorded if new). */
+        String intern(String name) {
+            Node n = find(name);
+            if (n == null || n.forms == null) return name; // adjust() records it
+            for (String f : n.forms) if (f.equals(name)) return f;
+            n.forms = Arrays.copyOf(n.forms, n.forms.length + 1);
+            n.forms[n.forms.length - 1] = name;
+            return name;
+        }
+
+        void adjust(String name, int delta) {
+            Node[] path = new Node[name.length() + 1];
+            Node n = root;
+            path[0] = n;
+            for (int i = 0; i < name.length(); i++) {
+                char c = fold(name.charAt(i));
+                Node next = child(n, c);
+                if (next == null) {
+                    if (delta < 0) return; // not present
+                    next = insertChild(n, c);
+                }
+                n = next;
+                path[i + 1] = n;
+            }
+            int before = n.count;
+            n.count = Math.max(0, before + delta);
+            if (before == 0 && n.count > 0) {
+                names++;
+                n.forms = new String[] { name };
+            } else if (before > 0 && n.count == 0) {
+                names--;
+                n.forms = null;
+            }
+
+            // Recompute best bottom-up; prune nodes that no longer lead anywhere.
+            for (int i = name.length(); i >= 0; i--) {
+                Node p = path[i];
+                int best = p.count;
+                for (Node kid : p.kids) best = Math.max(best, kid.best);
+                p.best = best;
+                if (i > 0 && best == 0 && p.kids.length == 0) removeChild(path[i - 1], fold(name.charAt(i - 1)));
+            }
+        }
+
+        List<String> complete(String prefix, int k) {
+            Node start = find(prefix);
+            if (start == null || start.best == 0 || k <= 0) return Collections.emptyList();
+            // Best-first: a node's bound is its subtree best; a name is emitted once no
+            // pending bound can beat it.
+            PriorityQueue<Pending> queue = new PriorityQueue<>((a, b) -> Integer.compare(b.weight, a.weight));
+            queue.add(new Pending(start, start.best, false));
+            List<String> out = new ArrayList<>(k);
+            while (!queue.isEmpty() && out.size() < k) {
+                Pending top = queue.poll();
+                Node n = top.node;
+                if (top.isName) {
+                    out.add(n.forms[0]);
+                    continue;
+                }
+                if (n.count > 0) queue.add(new Pending(n, n.count, true));
+                for (Node kid : n.kids) {
+                    if (kid.best > 0) queue.add(new Pending(kid, kid.best, false));
+                }
+            }
+            return out;
+        }
+
+        private static char fold(char c) {
+            return Character.toLowerCase(c);
+        }
+
+        private static Node child(Node n, char c) {
+            int i = Arrays.binarySearch(n.keys, c);
+            return i >= 0 ? n.kids[i] : null;
+        }
+
+        private Node insertChild(Node n, char c) {
+            int at = -Arrays.binarySearch(n.keys, c) - 1;
+            int len = n.keys.length;
+            char[] keys = new char[len + 1];
+            Node[] kids = new Node[len + 1];
+            System.arraycopy(n.keys, 0, keys, 0, at);
+            System.arraycopy(n.kids, 0, kids, 0, at);
+            System.arraycopy(n.keys, at, keys, at + 1, len - at);
+            System.arraycopy(n.kids, at, kids, at + 1, len - at);
+            Node child = new Node();
+            keys[at] = c;
+            kids[at] = child;
+            n.keys = keys;
+            n.kids = kids;
+            nodes++;
+            return child;
+        }
+
+        private void removeChild(Node n, char c) {
+            int at = Arrays.binarySearch(n.keys, c);
+            if (at < 0) return;
+            int len = n.keys.length;
+            char[] keys = new char[len - 1];
+            Node[] kids = new Node[len - 1];
+            System.arraycopy(n.keys, 0, keys, 0, at);
+            System.arraycopy(n.kids, 0, kids, 0, at);
+            System.arraycopy(n.keys, at + 1, keys, at, len - at - 1);
+            System.arraycopy(n.kids, at + 1, kids, at, len - at - 1);
+            n.keys = keys;
+            n.kids = kids;
+            nodes--;
+        }
+    }
+}
@@ -1,93 +1,252 @@
 package guildquest.model;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.UnaryOperator;
 
 public class QuestEvent {
+    public static final long NO_END = -1;
+    public static final int NO_REALM = -1;
+
+    // Names lists stay a bare exact-size array up to this many entries.
+    private static final int INLINE_NAMES = 8;
+
     private final int eventId;
     private String title;
-    private GlobalTime startTime;
-    private GlobalTime endTime; // nullable
-    private Realm realm;
+    // Kept as primitive minutes (no GlobalTime objects per event); NO_END = open-ended.
+    private long startMinutes;
+    private long endMinutes;
+    private int realmId; // RealmRegistry.global() id, or NO_REALM
+    private int version; // bumped by every mutator, lets caches spot stale entries
 
     // Lightweight MVP for "participants" + "items" fields in the GUI and requirements.
     // (Strings keep it simple; you can later upgrade to Character/Inventory.)
-    private final List<String> participants = new ArrayList<>();
-    private final List<String> items = new ArrayList<>();
+    // Each is null (none), an exact-size String[] (up to INLINE_NAMES) or an ArrayList,
+    // so the usual event with a few names carries no list objects or spare capacity.
+    private Object participants;
+    private Object items;
 
-    // Event-level sharing (share a single event without sharing the entire campaign)
-    private final Map<User, Permission> sharedWith = new HashMap<>();
+    // Event-level sharing (share a single event without sharing the entire campaign); null until first share.
+    private Map<User, Permission> sharedWith;
 
     public QuestEvent(int eventId, String title, GlobalTime startTime, GlobalTime endTime, Realm realm) {
+        if (startTime == null) throw new IllegalArgumentException("startTime is required");
+        this.eventId = eventId;
+        this.title = title;
+        setTimes(startTime.toMinutes(), GlobalTime.minutesOrNone(endTime));
+        setRealm(realm);
+    }
+
+    /** Primitive form for decoders: endMinutes may be NO_END. */
+    public QuestEvent(int eventId, String title, long startMinutes, long endMinutes, Realm realm) {
         this.eventId = eventId;
         this.title = title;
-        this.startTime = startTime;
-        this.endTime = endTime;
-        this.realm = realm;
+        setTimes(startMinutes, endMinutes);
+        setRealm(realm);
     }
 
     public int getEventId() { return eventId; }
     public String getTitle() { return title; }
-    public GlobalTime getStartTime() { return startTime; }
-    public GlobalTime getEndTime() { return endTime; }
-    public Realm getRealm() { return realm; }
+    public GlobalTime getStartTime() { return GlobalTime.of(startMinutes); }
+    public GlobalTime getEndTime() { return endMinutes == NO_END ? null : GlobalTime.of(endMinutes); }
+    public long getStartMinutes() { return startMinutes; }
+    /** NO_END when the event has no end time. */
+    public long getEndMinutes() { return endMinutes; }
+    public boolean hasEndTime() { return endMinutes != NO_END; }
+    public Realm getRealm() { return RealmRegistry.global().get(realmId); }
+    public int getRealmId() { return realmId; }
+    public int getVersion() { return version; }
+
+    /**
+     * Read-only live view: it reads through to the event, so later additions and clears
+     * show up in it whatever the list's current representation. Copy it to keep a snapshot.
+     */
+    public List<String> getParticipants() { return new NamesView(false); }
+    /** Read-only live view, like {@link #getParticipants()}. */
+    public List<String> getItems() { return new NamesView(true); }
+
+    public Map<User, Permission> getSharedWith() {
+        return sharedWith == null ? Collections.emptyMap() : Collections.unmodifiableMap(sharedWith);
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+        version++;
+    }
+
+    public void setEndTime(GlobalTime endTime) {
+        setEndMinutes(GlobalTime.minutesOrNone(endTime));
+    }
 
-    public List<String> getParticipants() { return Collections.unmodifiableList(participants); }
-    public List<String> getItems() { return Collections.unmodifiableList(items); }
+    /** Events keep only the realm's registry id; the realm is interned if needed. */
+    public void setRealm(Realm realm) {
+        this.realmId = realm == null ? NO_REALM : RealmRegistry.global().intern(realm).getRealmId();
+        version++;
+    }
+
+    public void setStartTime(GlobalTime startTime) {
+        if (startTime == null) throw new IllegalArgumentException("startTime is required");
+        setStartMinutes(startTime.toMinutes());
+    }
 
-    public Map<User, Permission> getSharedWith() { return Collections.unmodifiableMap(sharedWith); }
+    /** Must not move the start past the current end; use setTimes to move both. */
+    public void setStartMinutes(long startMinutes) {
+        setTimes(startMinutes, endMinutes);
+    }
+
+    public void setEndMinutes(long endMinutes) {
+        setTimes(startMinutes, endMinutes);
+    }
 
-    public void setTitle(String title) { this.title = title; }
-    public void setStartTime(GlobalTime startTime) { this.startTime = startTime; }
-    public void setEndTime(GlobalTime endTime) { this.endTime = endTime; }
-    public void setRealm(Realm realm) { this.realm = realm; }
+    /**
+     * Sets start and end together (end may be NO_END). Either both change or, if the
+     * pair is invalid, neither does.
+     *
+     * @throws IllegalArgumentException for negative times or an end before the start
+     */
+    public void setTimes(long startMinutes, long endMinutes) {
+        if (startMinutes < 0) throw new IllegalArgumentException("startMinutes must be >= 0");
+        if (endMinutes < 0 && endMinutes != NO_END) throw new IllegalArgumentException("endMinutes must be >= 0 or NO_END");
+        if (endMinutes != NO_END && endMinutes < startMinutes) {
+            throw new IllegalArgumentException("endMinutes must not be before startMinutes");
+        }
+        this.startMinutes = startMinutes;
+        this.endMinutes = endMinutes;
+        version++;
+    }
 
     public void addParticipant(String name) {
         if (name == null) return;
         String n = name.trim();
-        if (!n.isEmpty()) participants.add(n);
+        if (n.isEmpty()) return;
+        participants = append(participants, n);
+        version++;
     }
 
-    public void clearParticipants() { participants.clear(); }
+    public void clearParticipants() {
+        participants = null;
+        version++;
+    }
 
     public void addItem(String item) {
         if (item == null) return;
         String it = item.trim();
-        if (!it.isEmpty()) items.add(it);
+        if (it.isEmpty()) return;
+        items = append(items, it);
+        version++;
     }
 
-    public void clearItems() { items.clear(); }
+    public void clearItems() {
+        items = null;
+        version++;
+    }
+
+    /**
+     * Swaps participant/item strings for equal shared instances (see NameDictionary).
+     * The contents don't change, so the version stays put.
+     */
+    void replaceNames(UnaryOperator<String> participant, UnaryOperator<String> item) {
+        replaceAll(participants, participant);
+        replaceAll(items, item);
+    }
+
+    // ---- Compact name lists ----
+
+    /** Reads the field on every call, so it follows the list from inline array to ArrayList and back. */
+    private final class NamesView extends AbstractList<String> implements RandomAccess {
+        private final boolean itemList;
+
+        NamesView(boolean itemList) {
+            this.itemList = itemList;
+        }
+
+        private Object names() { return itemList ? items : participants; }
+
+        @Override
+        public String get(int index) {
+            Object names = names();
+            if (names instanceof String[] arr) return arr[Objects.checkIndex(index, arr.length)];
+            if (names == null) throw new IndexOutOfBoundsException(index);
+            return asList(names).get(index);
+        }
+
+        @Override
+        public int size() {
+            Object names = names();
+            if (names == null) return 0;
+            return names instanceof String[] arr ? arr.length : asList(names).size();
+        }
+    }
+
+    private static Object append(Object names, String name) {
+        if (names == null) return new String[] { name };
+        if (names instanceof String[] arr) {
+            if (arr.length < INLINE_NAMES) {
+                String[] grown = Arrays.copyOf(arr, arr.length + 1);
+                grown[arr.length] = name;
+                return grown;
+            }
+            List<String> list = new ArrayList<>(arr.length * 2);
+            Collections.addAll(list, arr);
+            list.add(name);
+            return list;
+        }
+        asList(names).add(name);
+        return names;
+    }
+
+    private static void replaceAll(Object names, UnaryOperator<String> op) {
+        if (names instanceof String[] arr) {
+            for (int i = 0; i < arr.length; i++) arr[i] = op.apply(arr[i]);
+        } else if (names != null) {
+            asList(names).replaceAll(op);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> asList(Object names) {
+        return (List<String>) names;
+    }
 
     public void shareWith(User user, Permission permission) {
         if (user == null) return;
+        if (sharedWith == null) sharedWith = new HashMap<>(4);
         sharedWith.put(user, permission == null ? Permission.VIEW_ONLY : permission);
+        version++;
     }
 
     public void unshare(User user) {
-        if (user == null) return;
-        sharedWith.remove(user);
+        if (user == null || sharedWith == null) return;
+        if (sharedWith.remove(user) != null) version++;
+        if (sharedWith.isEmpty()) sharedWith = null;
     }
 
     public String formatForDisplay(boolean showWorldTime, boolean showLocalTime) {
-        StringBuilder sb = new StringBuilder();
-        sb.append("#").append(eventId).append(" ").append(title);
+        return formatForDisplayTo(new StringBuilder(96), showWorldTime, showLocalTime).toString();
+    }
+
+    /** Appending form of {@link #formatForDisplay}, for callers that reuse a builder. */
+    public StringBuilder formatForDisplayTo(StringBuilder sb, boolean showWorldTime, boolean showLocalTime) {
+        Realm realm = getRealm();
+        sb.append('#').append(eventId).append(' ').append(title);
 
         if (showWorldTime) {
-            sb.append(" | World: ").append(startTime);
-            if (endTime != null) sb.append(" - ").append(endTime);
+            GlobalTime.appendTo(sb.append(" | World: "), startMinutes);
+            if (hasEndTime()) GlobalTime.appendTo(sb.append(" - "), endMinutes);
         }
         if (showLocalTime && realm != null) {
-            GlobalTime localStart = realm.toLocalTime(startTime);
-            sb.append(" | ").append(realm.getName()).append(": ").append(localStart);
-            if (endTime != null) {
-                GlobalTime localEnd = realm.toLocalTime(endTime);
-                sb.append(" - ").append(localEnd);
-            }
+            sb.append(" | ").append(realm.getName()).append(": ");
+            GlobalTime.appendTo(sb, realm.toLocalMinutes(startMinutes));
+            if (hasEndTime()) GlobalTime.appendTo(sb.append(" - "), realm.toLocalMinutes(endMinutes));
         }
-        if (realm != null) sb.append(" | Realm: ").append(realm);
-        return sb.toString();
+        if (realm != null) realm.appendTo(sb.append(" | Realm: "));
+        return sb;
     }
 }
@@ -1,28 +1,41 @@
 package guildquest.model;
 
+import java.util.Objects;
+
 /**
- * Realm represents a physical location with a simple fixed offset (in minutes)
- * from WorldClock time. (LocalTime = WorldTime + offsetMinutes)
+ * Realm represents a physical location with an offset (in minutes) from WorldClock
+ * time. (LocalTime = WorldTime + offset) The offset is fixed unless the realm has a
+ * {@link RealmOffsetSchedule}, in which case getOffsetMinutes() is the base offset.
  */
 public class Realm {
     private final int realmId;
     private final String name;
     private final String description; // nullable
     private final int offsetMinutes;
+    private final RealmOffsetSchedule schedule; // nullable = fixed offset
 
     /**
-     * Backward-compatible constructor.
-     * Realm identity is derived from the name (good enough for the assignment MVP).
+     * Backward-compatible constructor. The id comes from {@link RealmRegistry#global()},
+     * so equal realms get the same dense id; prefer {@code RealmRegistry.intern} to also
+     * share the instance.
      */
     public Realm(String name, int offsetMinutes) {
-        this(Math.abs(name == null ? 0 : name.hashCode()), name, null, offsetMinutes);
+        this(RealmRegistry.global().intern(name, null, offsetMinutes).getRealmId(), name, null, offsetMinutes);
     }
 
     public Realm(int realmId, String name, String description, int offsetMinutes) {
+        this(realmId, name, description, offsetMinutes, null);
+    }
+
+    public Realm(int realmId, String name, String description, int offsetMinutes, RealmOffsetSchedule schedule) {
+        if (schedule != null && schedule.getBaseOffset() != offsetMinutes) {
+            throw new IllegalArgumentException("schedule base offset must equal offsetMinutes");
+        }
         this.realmId = realmId;
         this.name = name;
         this.description = (description == null || description.isBlank()) ? null : description;
         this.offsetMinutes = offsetMinutes;
+        this.schedule = schedule;
     }
 
     /** Unique map identity (minimum requirement). */
@@ -31,17 +44,57 @@ public class Realm {
     public String getName() { return name; }
     public String getDescription() { return description; }
     public int getOffsetMinutes() { return offsetMinutes; }
+    public RealmOffsetSchedule getSchedule() { return schedule; }
+
+    /** Offset in effect at the given world time. */
+    public int offsetAt(long worldMinutes) {
+        return schedule == null ? offsetMinutes : schedule.offsetAt(worldMinutes);
+    }
 
     public GlobalTime toLocalTime(GlobalTime worldTime) {
-        return worldTime.plusMinutes(offsetMinutes);
+        return GlobalTime.of(toLocalMinutes(worldTime.toMinutes()));
+    }
+
+    /** Primitive form of {@link #toLocalTime(GlobalTime)} for per-event hot paths. */
+    public long toLocalMinutes(long worldMinutes) {
+        return GlobalTime.addMinutes(worldMinutes, offsetAt(worldMinutes));
+    }
+
+    /** Converts many world times at once; sorted input takes a single pass over the schedule. */
+    public void toLocalMinutes(long[] world, long[] local, int count) {
+        if (schedule != null) {
+            schedule.toLocal(world, local, count);
+            return;
+        }
+        for (int i = 0; i < count; i++) local[i] = GlobalTime.addMinutes(world[i], offsetMinutes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return o instanceof Realm r && r.realmId == realmId && r.offsetMinutes == offsetMinutes
+                && Objects.equals(r.name, name) && Objects.equals(r.description, description)
+                && Objects.equals(r.schedule, schedule);
     }
 
+    @Override
+    public int hashCode() { return realmId; }
+
     @Override
     public String toString() {
-        String sign = offsetMinutes >= 0 ? "+" : "-";
+        return appendTo(new StringBuilder(40)).toString();
+    }
+
+    /** Appends "name (#id) (UTC+HH:MM)" without intermediate strings. */
+    public StringBuilder appendTo(StringBuilder out) {
         int abs = Math.abs(offsetMinutes);
         int h = abs / 60;
         int m = abs % 60;
-        return name + " (#" + realmId + ") (UTC" + sign + String.format("%02d:%02d", h, m) + ")";
+        out.append(name).append(" (#").append(realmId).append(") (UTC").append(offsetMinutes >= 0 ? '+' : '-');
+        if (h < 10) out.append('0');
+        out.append(h).append(':').append((char) ('0' + m / 10)).append((char) ('0' + m % 10));
+        out.append(')');
+        if (schedule != null) out.append(" [").append(schedule).append(']');
+        return out;
     }
 }
@@ -0,0 +1,163 @@
+package guildquest.model;
+
+import java.util.Arrays;
+
+/**
+ * Time-dependent realm offset (seasonal, DST-style shifts).
+ *
+ * Stored as a precomputed transition table: at world minute {@code at[i]} the offset
+ * becomes {@code offset[i]}; before the first transition it is {@code baseOffset}.
+ * Single lookups binary-search the table, but first try the segment the previous
+ * lookup landed in (and the one after it), so monotonic access is O(1). Sorted bulk
+ * conversions walk the table once in a merge pass.
+ *
+ * Immutable and thread-safe (the segment hint is a benign race).
+ */
+public final class RealmOffsetSchedule {
+    private final int baseOffset;
+    private final long[] at;
+    private final int[] offset;
+
+    // Index of the last segment used, -1 = before the first transition.
+    private volatile int hint = -1;
+
+    private RealmOffsetSchedule(int baseOffset, long[] at, int[] offset) {
+        this.baseOffset = baseOffset;
+        this.at = at;
+        this.offset = offset;
+    }
+
+    public static Builder builder(int baseOffset) {
+        return new Builder(baseOffset);
+    }
+
+    /**
+     * Repeating shift: every {@code periodDays}, starting at day {@code shiftStartDay} of the
+     * period, the offset is {@code shiftedOffset} for {@code shiftDays} days; transitions
+     * are precomputed up to {@code horizonDays}.
+     */
+    public static RealmOffsetSchedule seasonal(int baseOffset, int shiftedOffset, long periodDays,
+                                               long shiftStartDay, long shiftDays, long horizonDays) {
+        if (periodDays < 1) throw new IllegalArgumentException("periodDays must be >= 1");
+        if (shiftStartDay < 0 || shiftDays < 1 || shiftStartDay + shiftDays > periodDays) {
+            throw new IllegalArgumentException("shift must lie within one period");
+        }
+        Builder b = builder(baseOffset);
+        for (long p = 0; p < horizonDays; p += periodDays) {
+            b.at(GlobalTime.startOfDay(p + shiftStartDay), shiftedOffset);
+            b.at(GlobalTime.startOfDay(p + shiftStartDay + shiftDays), baseOffset);
+        }
+        return b.build();
+    }
+
+    // ---- Lookups ----
+
+    public int offsetAt(long worldMinutes) {
+        int h = hint;
+        if (covers(h, worldMinutes)) return offsetOf(h);
+        if (covers(h + 1, worldMinutes)) {
+            hint = h + 1;
+            return offsetOf(h + 1);
+        }
+        int s = segmentOf(worldMinutes);
+        hint = s;
+        return offsetOf(s);
+    }
+
+    /** Segment i spans [at[i], at[i+1]); segment -1 is everything before at[0]. */
+    private boolean covers(int i, long t) {
+        if (i < -1 || i >= at.length) return false;
+        return (i < 0 || at[i] <= t) && (i + 1 >= at.length || t < at[i + 1]);
+    }
+
+    private int offsetOf(int segment) {
+        return segment < 0 ? baseOffset : offset[segment];
+    }
+
+    /** Last transition index with at[i] <= t, or -1. */
+    private int segmentOf(long t) {
+        int i = Arrays.binarySearch(at, t);
+        if (i >= 0) {
+            while (i + 1 < at.length && at[i + 1] == t) i++; // several transitions at one instant: last wins
+            return i;
+        }
+        return -i - 2;
+    }
+
+    /**
+     * Converts world minutes sorted ascending to local minutes in one merge pass over the
+     * transitions (no per-element search). Unsorted input still converts correctly, just
+     * via per-element lookups.
+     */
+    public void toLocal(long[] world, long[] local, int count) {
+        int seg = count == 0 ? -1 : segmentOf(world[0]);
+        long prev = Long.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            long t = world[i];
+            if (t < prev) seg = segmentOf(t);
+            while (seg + 1 < at.length && at[seg + 1] <= t) seg++;
+            local[i] = GlobalTime.addMinutes(t, offsetOf(seg));
+            prev = t;
+        }
+    }
+
+    public int getBaseOffset() { return baseOffset; }
+    public int getTransitionCount() { return at.length; }
+    public long getTransitionAt(int i) { return at[i]; }
+    public int getOffsetAfter(int i) { return offset[i]; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return o instanceof RealmOffsetSchedule s && s.baseOffset == baseOffset
+                && Arrays.equals(s.at, at) && Arrays.equals(s.offset, offset);
+    }
+
+    @Override
+    public int hashCode() {
+        return (baseOffset * 31 + Arrays.hashCode(at)) * 31 + Arrays.hashCode(offset);
+    }
+
+    @Override
+    public String toString() {
+        return at.length + " offset change(s)";
+    }
+
+    /** Collects transitions in any order; build() sorts them (stable for equal instants). */
+    public static final class Builder {
+        private final int baseOffset;
+        private long[] at = new long[8];
+        private int[] offset = new int[8];
+        private int n;
+
+        private Builder(int baseOffset) {
+            this.baseOffset = baseOffset;
+        }
+
+        public Builder at(long worldMinutes, int offsetMinutes) {
+            if (worldMinutes < 0) throw new IllegalArgumentException("transition time must be >= 0");
+            if (n == at.length) {
+                at = Arrays.copyOf(at, n * 2);
+                offset = Arrays.copyOf(offset, n * 2);
+            }
+            at[n] = worldMinutes;
+            offset[n] = offsetMinutes;
+            n++;
+            return this;
+        }
+
+        public RealmOffsetSchedule build() {
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Long.compare(at[a], at[b]));
+
+            long[] sortedAt = new long[n];
+            int[] sortedOffset = new int[n];
+            for (int i = 0; i < n; i++) {
+                sortedAt[i] = at[order[i]];
+                sortedOffset[i] = offset[order[i]];
+            }
+            return new RealmOffsetSchedule(baseOffset, sortedAt, sortedOffset);
+        }
+    }
+}
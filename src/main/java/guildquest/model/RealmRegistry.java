@@ -0,0 +1,140 @@
+package guildquest.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Interns realms and hands out dense ids (0, 1, 2, ...).
+ *
+ * Equal realms (same name, description and offset) share one instance and one id,
+ * so events only need to keep the id. Lookups by id and offset reads are plain array
+ * reads. Interning is synchronized; reads are lock-free and safe from any thread.
+ */
+public final class RealmRegistry {
+    private static final RealmRegistry GLOBAL = new RealmRegistry();
+
+    /** The registry QuestEvent resolves realm ids against. */
+    public static RealmRegistry global() { return GLOBAL; }
+
+    private final Map<Key, Realm> byValue = new HashMap<>();
+    private final Map<String, Realm> byName = new LinkedHashMap<>(); // latest realm interned under each name
+
+    // Replaced (never mutated in place after publication of a slot) when they grow.
+    // offsets and schedules are indexed by id + 1, so slot 0 (NO_REALM) reads as offset 0.
+    private volatile Realm[] realms = new Realm[16];
+    private volatile int[] offsets = new int[17];
+    private volatile RealmOffsetSchedule[] schedules = new RealmOffsetSchedule[17];
+    private volatile int scheduledCount;
+    private volatile int size;
+
+    // ---- Interning ----
+
+    public Realm intern(String name, int offsetMinutes) {
+        return intern(name, null, offsetMinutes);
+    }
+
+    public Realm intern(String name, String description, int offsetMinutes) {
+        return intern(name, description, offsetMinutes, null);
+    }
+
+    /** A realm whose offset follows a schedule (null schedule = fixed offset). */
+    public synchronized Realm intern(String name, String description, int offsetMinutes, RealmOffsetSchedule schedule) {
+        String desc = (description == null || description.isBlank()) ? null : description;
+        Key key = new Key(name, desc, offsetMinutes, schedule);
+        Realm r = byValue.get(key);
+        if (r == null) {
+            int id = size;
+            r = new Realm(id, name, desc, offsetMinutes, schedule);
+            if (id == realms.length) {
+                offsets = Arrays.copyOf(offsets, id * 2 + 1);
+                schedules = Arrays.copyOf(schedules, id * 2 + 1);
+                realms = Arrays.copyOf(realms, id * 2);
+            }
+            offsets[id + 1] = offsetMinutes;
+            schedules[id + 1] = schedule;
+            realms[id] = r;
+            if (schedule != null) scheduledCount++;
+            size = id + 1;
+            byValue.put(key, r);
+        }
+        if (name != null) byName.put(name, r);
+        return r;
+    }
+
+    /** Canonical instance for a realm built elsewhere (decoded, or via the Realm constructors). */
+    public Realm intern(Realm realm) {
+        if (realm == null) return null;
+        Realm known = get(realm.getRealmId());
+        if (known != null && known.equals(realm)) return known;
+        return intern(realm.getName(), realm.getDescription(), realm.getOffsetMinutes(), realm.getSchedule());
+    }
+
+    // ---- Lookups ----
+
+    /** The realm with this id, or null. */
+    public Realm get(int realmId) {
+        Realm[] a = realms;
+        return (realmId >= 0 && realmId < a.length) ? a[realmId] : null;
+    }
+
+    /** Fixed (base, for scheduled realms) offset of a registered realm; 0 for an unknown id. */
+    public int offsetOf(int realmId) {
+        int[] a = offsets;
+        return (realmId >= 0 && realmId + 1 < a.length) ? a[realmId + 1] : 0;
+    }
+
+    /**
+     * Fixed offsets indexed by realm id + 1 (slot 0 = no realm = 0). Shared, not copied:
+     * callers must not write to it. Ids registered after the read may be out of range.
+     */
+    int[] offsetTable() { return offsets; }
+
+    /** Schedules indexed by realm id + 1 (null = fixed offset). Same sharing rules as offsetTable(). */
+    RealmOffsetSchedule[] scheduleTable() { return schedules; }
+
+    /** Whether any registered realm has an offset schedule. */
+    boolean hasSchedules() { return scheduledCount > 0; }
+
+    /** The realm most recently interned under this name, or null. */
+    public synchronized Realm byName(String name) {
+        return byName.get(name);
+    }
+
+    /** One realm per name (the latest), in order of each name's first registration. */
+    public synchronized List<Realm> listByName() {
+        return new ArrayList<>(byName.values());
+    }
+
+    public int size() { return size; }
+
+    private static final class Key {
+        final String name;
+        final String description;
+        final int offset;
+        final RealmOffsetSchedule schedule;
+
+        Key(String name, String description, int offset, RealmOffsetSchedule schedule) {
+            this.name = name;
+            this.description = description;
+            this.offset = offset;
+            this.schedule = schedule;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && k.offset == offset
+                    && Objects.equals(k.name, name) && Objects.equals(k.description, description)
+                    && Objects.equals(k.schedule, schedule);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, description, offset, schedule);
+        }
+    }
+}
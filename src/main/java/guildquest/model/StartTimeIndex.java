@@ -0,0 +1,91 @@
+package guildquest.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Keeps a campaign's events ordered by (startMinutes, eventId).
+ *
+ * The key each event was filed under is remembered by id, so an event whose
+ * start time was edited in place can still be found and re-filed.
+ */
+final class StartTimeIndex {
+    private final NavigableMap<Key, QuestEvent> byStart = new TreeMap<>();
+    private final Map<Integer, Key> keyById = new HashMap<>();
+
+    /** Files (or re-files) e; returns the event previously filed under its id, or null. */
+    QuestEvent put(QuestEvent e) {
+        Key key = new Key(e.getStartMinutes(), e.getEventId());
+        Key old = keyById.put(e.getEventId(), key);
+        QuestEvent previous = old != null ? byStart.remove(old) : null;
+        byStart.put(key, e);
+        return previous;
+    }
+
+    /** Returns the removed event, or null. */
+    QuestEvent remove(int eventId) {
+        Key key = keyById.remove(eventId);
+        return key != null ? byStart.remove(key) : null;
+    }
+
+    /** Removes every event starting before fromMinutes; returns them in start order. */
+    List<QuestEvent> removeBefore(long fromMinutes) {
+        NavigableMap<Key, QuestEvent> head = byStart.headMap(new Key(fromMinutes, Integer.MIN_VALUE), false);
+        List<QuestEvent> removed = new ArrayList<>(head.values());
+        for (Key k : head.keySet()) keyById.remove(k.id);
+        head.clear();
+        return removed;
+    }
+
+    int size() { return byStart.size(); }
+
+    /** Earliest / latest start; the index must not be empty. */
+    long firstStart() { return byStart.firstKey().start; }
+    long lastStart() { return byStart.lastKey().start; }
+
+    void clear() {
+        byStart.clear();
+        keyById.clear();
+    }
+
+    Collection<QuestEvent> inStartOrder() {
+        return byStart.values();
+    }
+
+    /** Events starting in [fromMinutes, toMinutes). */
+    Collection<QuestEvent> range(long fromMinutes, long toMinutes) {
+        if (toMinutes <= fromMinutes) return Collections.emptyList();
+        return byStart.subMap(new Key(fromMinutes, Integer.MIN_VALUE), true, new Key(toMinutes, Integer.MIN_VALUE), false).values();
+    }
+
+    /** (startMinutes, eventId); no longer fits one packed long now that minutes are 64-bit. */
+    private static final class Key implements Comparable<Key> {
+        final long start;
+        final int id;
+
+        Key(long start, int id) {
+            this.start = start;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Key o) {
+            int c = Long.compare(start, o.start);
+            return c != 0 ? c : Integer.compare(id, o.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && k.start == start && k.id == id;
+        }
+
+        @Override
+        public int hashCode() { return Long.hashCode(start) * 31 + id; }
+    }
+}
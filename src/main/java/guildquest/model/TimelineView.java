@@ -1,9 +1,14 @@
 package guildquest.model;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 
+/**
+ * Day/week/month/year views over a campaign.
+ *
+ * Each view is a start-time range query against the campaign (in-memory index or
+ * an attached storage engine), so results come back already sorted.
+ */
 public class TimelineView {
     private final Campaign campaign;
 
@@ -12,63 +17,35 @@ public class TimelineView {
     }
 
     public List<QuestEvent> eventsAll() {
-        return sortedCopy(campaign.getEvents());
+        return new ArrayList<>(campaign.eventsInStartOrder());
     }
 
     public List<QuestEvent> eventsDay(GlobalTime now) {
-        int day = now.toDays();
-        List<QuestEvent> out = new ArrayList<>();
-        for (QuestEvent e : campaign.getEvents()) {
-            if (e.getStartTime().toDays() == day) out.add(e);
-        }
-        return sortedCopy(out);
+        return eventsForDays(now.toDays(), 1);
     }
 
     public List<QuestEvent> eventsWeek(GlobalTime now) {
-        int startDay = now.toDays();
-        int endDay = startDay + 6;
-
-        List<QuestEvent> out = new ArrayList<>();
-        for (QuestEvent e : campaign.getEvents()) {
-            int d = e.getStartTime().toDays();
-            if (d >= startDay && d <= endDay) out.add(e);
-        }
-        return sortedCopy(out);
+        return eventsForDays(now.toDays(), 7);
     }
 
     /**
      * Simple month view: 30 days starting from today's WorldClock day.
      */
     public List<QuestEvent> eventsMonth(GlobalTime now) {
-        int startDay = now.toDays();
-        int endDay = startDay + 29;
-
-        List<QuestEvent> out = new ArrayList<>();
-        for (QuestEvent e : campaign.getEvents()) {
-            int d = e.getStartTime().toDays();
-            if (d >= startDay && d <= endDay) out.add(e);
-        }
-        return sortedCopy(out);
+        return eventsForDays(now.toDays(), 30);
     }
 
     /**
      * Simple year view: 360 days starting from today's WorldClock day.
      */
     public List<QuestEvent> eventsYear(GlobalTime now) {
-        int startDay = now.toDays();
-        int endDay = startDay + 359;
-
-        List<QuestEvent> out = new ArrayList<>();
-        for (QuestEvent e : campaign.getEvents()) {
-            int d = e.getStartTime().toDays();
-            if (d >= startDay && d <= endDay) out.add(e);
-        }
-        return sortedCopy(out);
+        return eventsForDays(now.toDays(), 360);
     }
 
-    private List<QuestEvent> sortedCopy(List<QuestEvent> list) {
-        List<QuestEvent> copy = new ArrayList<>(list);
-        copy.sort(Comparator.comparingInt(e -> e.getStartTime().toMinutes()));
-        return copy;
+    private List<QuestEvent> eventsForDays(long startDay, int dayCount) {
+        long from = GlobalTime.startOfDay(startDay);
+        long span = (long) dayCount * GlobalTime.MINUTES_PER_DAY;
+        long to = (from > Long.MAX_VALUE - span) ? Long.MAX_VALUE : from + span;
+        return campaign.eventsStartingBetween(from, to);
     }
 }
@@ -0,0 +1,169 @@
+package guildquest.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel over world minutes, with an overflow heap.
+ *
+ * Five levels of 64 slots; slot width is 1, 64, 4096, ... minutes, so the wheel spans
+ * 2^30 minutes (about 2000 in-game years) and anything beyond waits in a heap. Each
+ * level keeps a 64-bit occupancy mask, so advancing jumps straight to the next
+ * non-empty slot: the cost of advanceTo() depends on the entries that fire (plus the
+ * few that cascade down a level), not on how many are pending or how far time moves.
+ *
+ * Entries due in the same minute fire in scheduling order. Cancellation is lazy.
+ * Not thread-safe.
+ */
+final class TimingWheel<T> {
+    private static final int LEVELS = 5;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int WHEEL_BITS = LEVELS * SLOT_BITS;
+
+    /** Handle for one scheduled entry. */
+    static final class Timer<T> implements Comparable<Timer<T>> {
+        final long at;
+        final long seq;
+        final T payload;
+        boolean cancelled;
+        boolean done;
+
+        Timer(long at, long seq, T payload) {
+            this.at = at;
+            this.seq = seq;
+            this.payload = payload;
+        }
+
+        @Override
+        public int compareTo(Timer<T> o) {
+            int c = Long.compare(at, o.at);
+            return c != 0 ? c : Long.compare(seq, o.seq);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private final ArrayList<Timer<T>>[][] slots = new ArrayList[LEVELS][SLOTS];
+    private final long[] occupied = new long[LEVELS];
+    private final PriorityQueue<Timer<T>> overflow = new PriorityQueue<>();
+    private final ArrayDeque<Timer<T>> overdue = new ArrayDeque<>(); // scheduled before now
+
+    private long now;
+    private long seq;
+    private int pending;
+
+    TimingWheel(long now) {
+        this.now = now;
+    }
+
+    long now() { return now; }
+
+    /** Scheduled and not yet fired or cancelled. */
+    int pending() { return pending; }
+
+    Timer<T> schedule(long at, T payload) {
+        Timer<T> t = new Timer<>(at, seq++, payload);
+        pending++;
+        if (at < now) overdue.add(t);
+        else place(t);
+        return t;
+    }
+
+    void cancel(Timer<T> t) {
+        if (t.cancelled || t.done) return;
+        t.cancelled = true;
+        pending--;
+    }
+
+    /**
+     * Moves time forward to target, handing every live entry with at <= target to fire
+     * in (time, scheduling) order. Entries scheduled in the past fire first. An entry
+     * scheduled from inside fire for an earlier minute waits for the next call.
+     */
+    void advanceTo(long target, Consumer<Timer<T>> fire) {
+        if (target < now) throw new IllegalArgumentException("the wheel only moves forward");
+
+        for (int n = overdue.size(); n > 0; n--) fire(overdue.poll(), fire);
+
+        while (true) {
+            int level = -1;
+            long start = Long.MAX_VALUE;
+            for (int k = 0; k < LEVELS; k++) {
+                int shift = k * SLOT_BITS;
+                int current = (int) (now >>> shift) & (SLOTS - 1);
+                long mask = occupied[k] & (-1L << current);
+                if (mask == 0) continue;
+                long s = blockStart(now, k + 1) + ((long) Long.numberOfTrailingZeros(mask) << shift);
+                if (s < start) {
+                    start = s;
+                    level = k;
+                }
+            }
+            Timer<T> head = overflow.peek();
+            if (head != null && head.at < start) {
+                if (head.at > target) break;
+                now = head.at;
+                pullFromOverflow();
+                continue;
+            }
+            if (level < 0 || start > target) break;
+
+            now = Math.max(now, start);
+            int slot = (int) (start >>> (level * SLOT_BITS)) & (SLOTS - 1);
+            ArrayList<Timer<T>> bucket = slots[level][slot];
+            slots[level][slot] = null;
+            occupied[level] &= ~(1L << slot);
+
+            if (level == 0) {
+                if (bucket.size() > 1) bucket.sort(null); // cascaded entries can arrive after direct ones
+                for (Timer<T> t : bucket) fire(t, fire);
+            } else {
+                for (Timer<T> t : bucket) {
+                    if (!t.cancelled) place(t);
+                }
+            }
+        }
+
+        now = target;
+        pullFromOverflow();
+    }
+
+    private void fire(Timer<T> t, Consumer<Timer<T>> fire) {
+        if (t.cancelled) return;
+        t.done = true;
+        pending--;
+        fire.accept(t);
+    }
+
+    /** Lowest level whose current block (relative to now) contains at; overflow beyond the top. */
+    private void place(Timer<T> t) {
+        for (int k = 0; k < LEVELS; k++) {
+            int blockBits = (k + 1) * SLOT_BITS;
+            if ((t.at >>> blockBits) == (now >>> blockBits)) {
+                int slot = (int) (t.at >>> (k * SLOT_BITS)) & (SLOTS - 1);
+                ArrayList<Timer<T>> bucket = slots[k][slot];
+                if (bucket == null) slots[k][slot] = bucket = new ArrayList<>(4);
+                bucket.add(t);
+                occupied[k] |= 1L << slot;
+                return;
+            }
+        }
+        overflow.add(t);
+    }
+
+    /** Moves heap entries that now fall inside the wheel's span into the wheel. */
+    private void pullFromOverflow() {
+        Timer<T> head;
+        while ((head = overflow.peek()) != null && (head.at >>> WHEEL_BITS) == (now >>> WHEEL_BITS)) {
+            overflow.poll();
+            if (!head.cancelled) place(head);
+        }
+    }
+
+    private static long blockStart(long t, int level) {
+        int bits = level * SLOT_BITS;
+        return (t >>> bits) << bits;
+    }
+}
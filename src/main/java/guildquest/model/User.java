@@ -12,7 +12,7 @@ public class User {
     public User(String name) {
         this.name = name;
         // Reasonable defaults (can be changed from a Settings screen later)
-        this.settings = new UserSettings(new Realm("Earth", 0), Theme.CLASSIC, TimeDisplayPreference.BOTH);
+        this.settings = new UserSettings(RealmRegistry.global().intern("Earth", 0), Theme.CLASSIC, TimeDisplayPreference.BOTH);
     }
 
     public String getName() { return name; }
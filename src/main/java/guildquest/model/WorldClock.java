@@ -1,10 +1,31 @@
 package guildquest.model;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+/**
+ * The world's current time. Moves forward only: by advance(), or on its own in
+ * real-time mode, where a background ticker adds world minutes at a fixed rate.
+ *
+ * Thread-safe. now() is a single volatile read, so the console, the GUI and
+ * background jobs can call it freely. Listeners are notified one at a time and
+ * always with the latest time: advances that happen while they run (including ones
+ * a listener makes) are coalesced into one more round after the current one, so no
+ * listener ever hears an older time than one already delivered.
+ *
+ * advance() notifies on the calling thread. Listeners such as LiveWindowView and
+ * EventTriggerScheduler read the (not thread-safe) model, so real-time ticks are
+ * handed to an executor that runs them where the model is owned.
+ */
 public class WorldClock {
-    private GlobalTime currentTime;
+    public static final long DEFAULT_TICK_MILLIS = 50;
+
+    private volatile GlobalTime currentTime;
 
     /**
      * Observer pattern: listeners can react whenever the clock changes.
@@ -13,9 +34,22 @@ public class WorldClock {
         void onTimeChanged(GlobalTime newTime);
     }
 
-    private final List<ClockListener> listeners = new ArrayList<>();
+    private final List<ClockListener> listeners = new CopyOnWriteArrayList<>();
+    private final Object notifyLock = new Object();
+    private long changes;       // guarded by this: bumped by every advance
+    private long delivered;     // guarded by this: the value of changes listeners last heard about
+    private boolean delivering; // guarded by notifyLock: a round is running (possibly further up this stack)
+
+    // Real-time mode (guarded by this)
+    private ScheduledExecutorService ticker;
+    private double minutesPerSecond;
+    private long lastTickNanos;
+    private double carry; // fractional world minutes not yet applied
+    private Executor tickExecutor;
+    private volatile Consumer<? super RuntimeException> errorHandler;
 
     public WorldClock(GlobalTime start) {
+        if (start == null) throw new IllegalArgumentException("start time is required");
         this.currentTime = start;
     }
 
@@ -29,15 +63,128 @@ public class WorldClock {
         listeners.remove(l);
     }
 
-    public void advance(int minutes) {
+    /** Where failed real-time ticks are reported (null = the ticker thread's uncaught exception handler). */
+    public void setErrorHandler(Consumer<? super RuntimeException> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    public void advance(long minutes) {
         if (minutes < 0) throw new IllegalArgumentException("minutes must be >= 0");
-        currentTime = currentTime.plus(minutes);
+        synchronized (this) {
+            currentTime = currentTime.plus(minutes);
+            changes++;
+        }
         notifyListeners();
     }
 
     private void notifyListeners() {
-        for (ClockListener l : List.copyOf(listeners)) {
-            l.onTimeChanged(currentTime);
+        synchronized (notifyLock) {
+            if (delivering) return; // a listener advanced the clock: the running round picks it up
+            delivering = true;
+            try {
+                while (true) {
+                    GlobalTime t;
+                    synchronized (this) {
+                        if (delivered == changes) return;
+                        delivered = changes;
+                        t = currentTime;
+                    }
+                    for (ClockListener l : listeners) {
+                        l.onTimeChanged(t);
+                    }
+                }
+            } finally {
+                delivering = false;
+            }
+        }
+    }
+
+    // ---- Real-time mode ----
+
+    /** Starts (or re-rates) real-time mode with the default tick; see {@link #startRealTime(double, long, Executor)}. */
+    public void startRealTime(double worldMinutesPerSecond, Executor modelThread) {
+        startRealTime(worldMinutesPerSecond, DEFAULT_TICK_MILLIS, modelThread);
+    }
+
+    /**
+     * Advances the clock by {@code worldMinutesPerSecond} per wall-clock second, checked
+     * every {@code tickMillis}. Listeners hear about it at most once per tick, however
+     * many world minutes passed; fractions of a minute carry over to the next tick.
+     *
+     * Listeners are notified through {@code modelThread}, e.g. Platform::runLater in the
+     * GUI or a wrapper that takes the model's lock, never directly on the ticker thread.
+     */
+    public synchronized void startRealTime(double worldMinutesPerSecond, long tickMillis, Executor modelThread) {
+        if (modelThread == null) throw new IllegalArgumentException("modelThread executor is required");
+        if (!(worldMinutesPerSecond > 0) || Double.isInfinite(worldMinutesPerSecond)) {
+            throw new IllegalArgumentException("worldMinutesPerSecond must be > 0");
+        }
+        if (tickMillis < 1) throw new IllegalArgumentException("tickMillis must be >= 1");
+        stopRealTime();
+        this.minutesPerSecond = worldMinutesPerSecond;
+        this.lastTickNanos = System.nanoTime();
+        this.carry = 0;
+        this.tickExecutor = modelThread;
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "world-clock");
+            t.setDaemon(true);
+            return t;
+        });
+        // Fixed delay: a slow listener delays the next tick instead of causing a burst.
+        ticker.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stopRealTime() {
+        if (ticker == null) return;
+        ticker.shutdownNow();
+        ticker = null;
+        tickExecutor = null;
+        minutesPerSecond = 0;
+    }
+
+    public synchronized boolean isRealTime() { return ticker != null; }
+
+    /** World minutes per wall-clock second in real-time mode, 0 when stopped. */
+    public synchronized double getMinutesPerSecond() { return minutesPerSecond; }
+
+    private void tick() {
+        Executor deliver;
+        try {
+            synchronized (this) {
+                if (ticker == null) return;
+                long nanos = System.nanoTime();
+                double gained = carry + (nanos - lastTickNanos) * minutesPerSecond / 1e9;
+                lastTickNanos = nanos;
+                long whole = (long) gained;
+                carry = gained - whole;
+                if (whole == 0) return;
+                currentTime = currentTime.plus(whole);
+                changes++;
+                deliver = tickExecutor;
+            }
+            deliver.execute(this::notifyTicks);
+        } catch (RuntimeException ex) {
+            // An exception would cancel the schedule; keep ticking and report it.
+            reportTickFailure(ex);
+        }
+    }
+
+    /** Runs on the model thread; a failing listener is reported without stopping the clock. */
+    private void notifyTicks() {
+        try {
+            notifyListeners();
+        } catch (RuntimeException ex) {
+            reportTickFailure(ex);
+        }
+    }
+
+    private void reportTickFailure(RuntimeException ex) {
+        Consumer<? super RuntimeException> handler = errorHandler;
+        if (handler != null) {
+            handler.accept(ex);
+        } else {
+            Thread t = Thread.currentThread();
+            t.getUncaughtExceptionHandler().uncaughtException(t, ex);
         }
     }
 }
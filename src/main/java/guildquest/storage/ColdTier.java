@@ -0,0 +1,168 @@
+package guildquest.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import guildquest.model.EventColdTier;
+import guildquest.model.QuestEvent;
+
+/**
+ * Compressed cold tier for archived campaigns.
+ *
+ * Events are encoded with {@link EventCodec}, deflated, and kept either in a direct
+ * (off-heap) buffer or in a file under a spill directory. The Campaign object itself
+ * stays on the heap as a small header, which is all campaign listings need.
+ */
+public class ColdTier implements EventColdTier {
+    private final Path spillDir; // null = off-heap buffers
+
+    private final AtomicLong frozenCampaigns = new AtomicLong();
+    private final AtomicLong rawBytes = new AtomicLong();
+    private final AtomicLong storedBytes = new AtomicLong();
+
+    /** Keeps frozen events in off-heap memory. */
+    public ColdTier() {
+        this.spillDir = null;
+    }
+
+    /** Keeps frozen events in files under the given directory. */
+    public ColdTier(Path spillDir) throws IOException {
+        if (spillDir == null) throw new IllegalArgumentException("spillDir is required");
+        this.spillDir = spillDir;
+        Files.createDirectories(spillDir);
+    }
+
+    @Override
+    public FrozenEvents freeze(int campaignId, List<QuestEvent> events) {
+        try {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            CountingStream raw;
+            try (DataOutputStream out = new DataOutputStream(
+                    raw = new CountingStream(new DeflaterOutputStream(compressed, deflater, 64 * 1024)))) {
+                out.writeInt(events.size());
+                for (QuestEvent e : events) EventCodec.writeEvent(out, e);
+            } finally {
+                deflater.end();
+            }
+
+            Frozen f;
+            if (spillDir == null) {
+                ByteBuffer buf = ByteBuffer.allocateDirect(compressed.size());
+                buf.put(compressed.toByteArray()).flip();
+                f = new Frozen(events.size(), buf, null, raw.count, compressed.size());
+            } else {
+                Path file = Files.createTempFile(spillDir, "campaign-" + campaignId + "-", ".cold");
+                Files.write(file, compressed.toByteArray());
+                f = new Frozen(events.size(), null, file, raw.count, compressed.size());
+            }
+            frozenCampaigns.incrementAndGet();
+            rawBytes.addAndGet(f.rawBytes);
+            storedBytes.addAndGet(f.storedBytes);
+            return f;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not freeze campaign " + campaignId, ex);
+        }
+    }
+
+    private final class Frozen implements FrozenEvents {
+        private final int count;
+        private final long rawBytes;
+        private final long storedBytes;
+        private ByteBuffer offHeap;
+        private Path file;
+
+        Frozen(int count, ByteBuffer offHeap, Path file, long rawBytes, long storedBytes) {
+            this.count = count;
+            this.offHeap = offHeap;
+            this.file = file;
+            this.rawBytes = rawBytes;
+            this.storedBytes = storedBytes;
+        }
+
+        @Override
+        public int count() { return count; }
+
+        @Override
+        public List<QuestEvent> thaw() {
+            try (DataInputStream in = new DataInputStream(new InflaterInputStream(open(), new Inflater(), 64 * 1024))) {
+                int n = in.readInt();
+                List<QuestEvent> out = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) out.add(EventCodec.readEvent(in));
+                return out;
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not thaw archived events", ex);
+            }
+        }
+
+        private InputStream open() throws IOException {
+            if (file != null) return Files.newInputStream(file);
+            byte[] bytes = new byte[offHeap.remaining()];
+            offHeap.duplicate().get(bytes);
+            return new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public void discard() {
+            if (offHeap == null && file == null) return;
+            frozenCampaigns.decrementAndGet();
+            ColdTier.this.rawBytes.addAndGet(-rawBytes);
+            ColdTier.this.storedBytes.addAndGet(-storedBytes);
+            offHeap = null;
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException ex) {
+                    System.err.println("[cold-tier] could not delete " + file + ": " + ex.getMessage());
+                }
+                file = null;
+            }
+        }
+    }
+
+    /** Counts uncompressed bytes on their way into the deflater. */
+    private static final class CountingStream extends FilterOutputStream {
+        long count;
+
+        CountingStream(OutputStream out) { super(out); }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    public long getFrozenCampaigns() { return frozenCampaigns.get(); }
+    public long getRawBytes() { return rawBytes.get(); }
+    public long getStoredBytes() { return storedBytes.get(); }
+
+    @Override
+    public String toString() {
+        return String.format("ColdTier[%s, campaigns=%d, raw=%d B, stored=%d B]",
+                spillDir == null ? "off-heap" : spillDir.toString(), getFrozenCampaigns(), getRawBytes(), getStoredBytes());
+    }
+}
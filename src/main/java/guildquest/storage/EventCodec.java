@@ -0,0 +1,203 @@
+package guildquest.storage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import guildquest.model.Campaign;
+import guildquest.model.Permission;
+import guildquest.model.QuestEvent;
+import guildquest.model.Realm;
+import guildquest.model.RealmOffsetSchedule;
+import guildquest.model.RealmRegistry;
+import guildquest.model.User;
+import guildquest.model.Visibility;
+
+/**
+ * Binary encoding of campaigns and quest events shared by the storage classes.
+ *
+ * Users are stored by name (User equality is name-based), realms by value and are
+ * interned into the {@link RealmRegistry} when read.
+ *
+ * Event format versions: v1 wrote start/end minutes as 32-bit ints; v2 (current)
+ * writes 64-bit minutes as varints (start, then end - start + 1 with 0 = no end),
+ * which is no larger than v1 for realistic times. Readers of stored data pass the
+ * version the data was written with; writers always use the current one.
+ *
+ * QuestEvent guarantees end >= start, so the v2 span is never negative. v1 data
+ * predates that check: an end before the start is read back as no end.
+ */
+public final class EventCodec {
+    public static final int FORMAT_V1 = 1;
+    public static final int FORMAT_V2 = 2;
+    public static final int CURRENT_FORMAT = FORMAT_V2;
+
+    private EventCodec() {}
+
+    // ---- Events ----
+
+    public static void writeEvent(DataOutput out, QuestEvent e) throws IOException {
+        out.writeInt(e.getEventId());
+        writeNullableString(out, e.getTitle());
+        writeVarLong(out, e.getStartMinutes());
+        writeVarLong(out, e.hasEndTime() ? e.getEndMinutes() - e.getStartMinutes() + 1 : 0);
+        writeRealm(out, e.getRealm());
+        writeStrings(out, e.getParticipants());
+        writeStrings(out, e.getItems());
+        writeShares(out, e.getSharedWith());
+    }
+
+    public static QuestEvent readEvent(DataInput in) throws IOException {
+        return readEvent(in, CURRENT_FORMAT);
+    }
+
+    public static QuestEvent readEvent(DataInput in, int format) throws IOException {
+        int id = in.readInt();
+        String title = readNullableString(in);
+        long start;
+        long end;
+        if (format == FORMAT_V1) {
+            start = in.readInt();
+            int endMinutes = in.readInt();
+            end = endMinutes < 0 || endMinutes < start ? QuestEvent.NO_END : endMinutes;
+        } else if (format == FORMAT_V2) {
+            start = readVarLong(in);
+            long span = readVarLong(in);
+            end = span == 0 ? QuestEvent.NO_END : Math.addExact(start, span - 1);
+        } else {
+            throw new IOException("Unsupported event format " + format);
+        }
+        Realm realm = readRealm(in);
+
+        QuestEvent e = new QuestEvent(id, title, start, end, realm);
+        int participants = in.readInt();
+        for (int i = 0; i < participants; i++) e.addParticipant(in.readUTF());
+        int items = in.readInt();
+        for (int i = 0; i < items; i++) e.addItem(in.readUTF());
+        int shares = in.readInt();
+        for (int i = 0; i < shares; i++) e.shareWith(new User(in.readUTF()), readPermission(in));
+        return e;
+    }
+
+    // ---- Campaign metadata (everything except the events) ----
+
+    public static void writeCampaignHeader(DataOutput out, Campaign c) throws IOException {
+        out.writeInt(c.getCampaignId());
+        writeNullableString(out, c.getName());
+        out.writeBoolean(c.isArchived());
+        out.writeByte(c.getVisibility().ordinal());
+        writeNullableString(out, c.getOwner() == null ? null : c.getOwner().getName());
+        writeShares(out, c.getSharedWith());
+    }
+
+    public static Campaign readCampaignHeader(DataInput in) throws IOException {
+        int id = in.readInt();
+        String name = readNullableString(in);
+        boolean archived = in.readBoolean();
+        Visibility visibility = Visibility.values()[in.readByte()];
+        String owner = readNullableString(in);
+
+        Campaign c = (owner == null) ? new Campaign(id, name) : new Campaign(id, name, new User(owner));
+        c.setArchived(archived);
+        c.setVisibility(visibility);
+        int shares = in.readInt();
+        for (int i = 0; i < shares; i++) c.shareWith(new User(in.readUTF()), readPermission(in));
+        return c;
+    }
+
+    // ---- Helpers ----
+
+    // Realm tag byte: 0 = none, 1 = fixed offset, 2 = fixed fields followed by an offset schedule.
+    // Older writers only used 0/1 (written as a boolean), so the extension reads old data as-is.
+    private static final byte REALM_NONE = 0;
+    private static final byte REALM_FIXED = 1;
+    private static final byte REALM_SCHEDULED = 2;
+
+    private static void writeRealm(DataOutput out, Realm r) throws IOException {
+        RealmOffsetSchedule schedule = r == null ? null : r.getSchedule();
+        out.writeByte(r == null ? REALM_NONE : schedule == null ? REALM_FIXED : REALM_SCHEDULED);
+        if (r == null) return;
+        out.writeInt(0); // realm ids are per-process registry ids; realms are stored by value
+        writeNullableString(out, r.getName());
+        writeNullableString(out, r.getDescription());
+        out.writeInt(r.getOffsetMinutes());
+        if (schedule == null) return;
+        writeVarLong(out, schedule.getTransitionCount());
+        long prev = 0;
+        for (int i = 0; i < schedule.getTransitionCount(); i++) {
+            writeVarLong(out, schedule.getTransitionAt(i) - prev); // sorted, so deltas are >= 0
+            out.writeInt(schedule.getOffsetAfter(i));
+            prev = schedule.getTransitionAt(i);
+        }
+    }
+
+    private static Realm readRealm(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        if (tag == REALM_NONE) return null;
+        if (tag != REALM_FIXED && tag != REALM_SCHEDULED) throw new IOException("Unknown realm tag " + tag);
+        in.readInt(); // unused: old files hold name-hash ids, newer ones 0
+        String name = readNullableString(in);
+        String description = readNullableString(in);
+        int offset = in.readInt();
+        RealmOffsetSchedule schedule = null;
+        if (tag == REALM_SCHEDULED) {
+            long n = readVarLong(in);
+            RealmOffsetSchedule.Builder b = RealmOffsetSchedule.builder(offset);
+            long at = 0;
+            for (long i = 0; i < n; i++) {
+                at = Math.addExact(at, readVarLong(in));
+                b.at(at, in.readInt());
+            }
+            schedule = b.build();
+        }
+        return RealmRegistry.global().intern(name, description, offset, schedule);
+    }
+
+    private static void writeStrings(DataOutput out, List<String> values) throws IOException {
+        out.writeInt(values.size());
+        for (String v : values) out.writeUTF(v);
+    }
+
+    private static void writeShares(DataOutput out, Map<User, Permission> shares) throws IOException {
+        out.writeInt(shares.size());
+        for (Map.Entry<User, Permission> s : shares.entrySet()) {
+            out.writeUTF(s.getKey().getName());
+            out.writeByte(s.getValue().ordinal());
+        }
+    }
+
+    private static Permission readPermission(DataInput in) throws IOException {
+        return Permission.values()[in.readByte()];
+    }
+
+    private static void writeNullableString(DataOutput out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) out.writeUTF(s);
+    }
+
+    private static String readNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /** Unsigned LEB128: 7 bits per byte, high bit set on all but the last byte. */
+    static void writeVarLong(DataOutput out, long v) throws IOException {
+        if (v < 0) throw new IOException("Negative varint: " + v);
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new IOException("Malformed varint");
+    }
+}
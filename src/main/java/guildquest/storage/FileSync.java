@@ -0,0 +1,48 @@
+package guildquest.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Durable file replacement: fsync the new file, rename it over the old one, then
+ * fsync the directory so the rename itself survives a crash.
+ */
+final class FileSync {
+    private FileSync() {}
+
+    /** Moves a fully written and synced temp file into place and makes the move durable. */
+    static void replace(Path tmp, Path target) throws IOException {
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(target.toAbsolutePath().getParent());
+    }
+
+    /** Writes bytes to tmp, fsyncs them and replaces target with it. */
+    static void writeAtomically(Path target, byte[] bytes) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer buf = ByteBuffer.wrap(bytes);
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(true);
+        }
+        replace(tmp, target);
+    }
+
+    /** Flushes directory entries (renames, creates, deletes). A no-op where directories can't be opened (Windows). */
+    static void syncDirectory(Path dir) throws IOException {
+        FileChannel ch;
+        try {
+            ch = FileChannel.open(dir, StandardOpenOption.READ);
+        } catch (IOException ex) {
+            return; // platform does not allow opening directories
+        }
+        try (ch) {
+            ch.force(true);
+        }
+    }
+}
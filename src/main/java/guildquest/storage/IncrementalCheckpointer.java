@@ -0,0 +1,369 @@
+package guildquest.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import guildquest.model.Campaign;
+import guildquest.model.CampaignObserver;
+import guildquest.model.QuestEvent;
+
+/**
+ * Dirty-only checkpointing for a set of campaigns.
+ *
+ * Observes tracked campaigns and remembers which campaign headers and which event
+ * pages (PAGE_SIZE consecutive event ids) changed. {@link #checkpoint()} writes only
+ * those into a new delta file and appends it to the MANIFEST, so the cost follows the
+ * amount of change rather than the total data size. Once enough deltas pile up, a
+ * background thread folds them into a fresh full snapshot.
+ *
+ * Campaigns are not thread-safe, so call checkpoint() from the thread that edits them.
+ * Only compaction (pure file work) runs in the background.
+ */
+public class IncrementalCheckpointer implements CampaignObserver, Closeable {
+    public static final int PAGE_SIZE = 64;
+    public static final int DEFAULT_COMPACT_AFTER_DELTAS = 8;
+
+    private static final String MANIFEST = "MANIFEST";
+    private static final String MANIFEST_HEADER = "guildquest-checkpoint 1";
+
+    private final Path dir;
+    private final int compactAfterDeltas;
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "guildquest-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Dirty state (guarded by this)
+    private final Map<Integer, Campaign> tracked = new LinkedHashMap<>();
+    private Set<Integer> dirtyHeaders = new HashSet<>();
+    private Map<Integer, BitSet> dirtyPages = new HashMap<>();
+    private Set<Integer> dropped = new HashSet<>();
+
+    // Manifest state (guarded by manifestLock)
+    private final Object manifestLock = new Object();
+    private String snapshot; // nullable until the first compaction
+    private final List<String> deltas = new ArrayList<>();
+    private long nextSeq = 1;
+    private boolean compacting;
+
+    public IncrementalCheckpointer(Path dir) throws IOException {
+        this(dir, DEFAULT_COMPACT_AFTER_DELTAS);
+    }
+
+    public IncrementalCheckpointer(Path dir, int compactAfterDeltas) throws IOException {
+        if (dir == null) throw new IllegalArgumentException("dir is required");
+        if (compactAfterDeltas < 1) throw new IllegalArgumentException("compactAfterDeltas must be >= 1");
+        this.dir = dir;
+        this.compactAfterDeltas = compactAfterDeltas;
+        Files.createDirectories(dir);
+        readManifest();
+    }
+
+    // ---- Tracking ----
+
+    /** Start tracking a campaign. Everything in it counts as dirty until the next checkpoint. */
+    public synchronized void track(Campaign c) {
+        if (c == null) return;
+        tracked.put(c.getCampaignId(), c);
+        c.addObserver(this);
+        dropped.remove(c.getCampaignId());
+        dirtyHeaders.add(c.getCampaignId());
+        for (QuestEvent e : c.eventsInStartOrder()) markPage(c.getCampaignId(), e.getEventId());
+    }
+
+    /** Stop tracking a deleted campaign; the next checkpoint records the drop. */
+    public synchronized void untrack(Campaign c) {
+        if (c == null || tracked.remove(c.getCampaignId()) == null) return;
+        c.removeObserver(this);
+        dirtyHeaders.remove(c.getCampaignId());
+        dirtyPages.remove(c.getCampaignId());
+        dropped.add(c.getCampaignId());
+    }
+
+    @Override
+    public synchronized void onCampaignChanged(Campaign campaign) {
+        if (tracked.containsKey(campaign.getCampaignId())) dirtyHeaders.add(campaign.getCampaignId());
+    }
+
+    @Override
+    public synchronized void onEventChanged(Campaign campaign, QuestEvent event) {
+        if (tracked.containsKey(campaign.getCampaignId())) markPage(campaign.getCampaignId(), event.getEventId());
+    }
+
+    private void markPage(int campaignId, int eventId) {
+        dirtyPages.computeIfAbsent(campaignId, k -> new BitSet()).set(eventId / PAGE_SIZE);
+    }
+
+    public synchronized boolean isDirty() {
+        return !dirtyHeaders.isEmpty() || !dirtyPages.isEmpty() || !dropped.isEmpty();
+    }
+
+    // ---- Checkpoint ----
+
+    /**
+     * Writes the dirty headers and pages as one delta.
+     *
+     * @return number of pages written (0 if nothing was dirty)
+     */
+    public int checkpoint() throws IOException {
+        Set<Integer> headers;
+        Map<Integer, BitSet> pages;
+        Set<Integer> drops;
+        Map<Integer, Campaign> campaigns;
+        synchronized (this) {
+            if (!isDirty()) return 0;
+            headers = dirtyHeaders;
+            pages = dirtyPages;
+            drops = dropped;
+            dirtyHeaders = new HashSet<>();
+            dirtyPages = new HashMap<>();
+            dropped = new HashSet<>();
+            campaigns = new HashMap<>(tracked);
+        }
+
+        String name;
+        synchronized (manifestLock) {
+            name = fileName("delta", nextSeq++);
+        }
+
+        int written = 0;
+        try (PageFile.Writer w = new PageFile.Writer(dir.resolve(name))) {
+            for (int id : drops) w.drop(id);
+            for (int id : headers) {
+                Campaign c = campaigns.get(id);
+                if (c != null) w.campaign(id, encodeHeader(c));
+            }
+            for (Map.Entry<Integer, BitSet> e : pages.entrySet()) {
+                Campaign c = campaigns.get(e.getKey());
+                if (c == null) continue;
+                BitSet bits = e.getValue();
+                for (int p = bits.nextSetBit(0); p >= 0; p = bits.nextSetBit(p + 1)) {
+                    w.page(c.getCampaignId(), p, encodePage(c, p));
+                    written++;
+                }
+            }
+            w.commit();
+        } catch (IOException ex) {
+            restoreDirty(headers, pages, drops);
+            throw ex;
+        }
+
+        boolean compactNow;
+        synchronized (manifestLock) {
+            deltas.add(name);
+            writeManifest();
+            compactNow = deltas.size() >= compactAfterDeltas && !compacting;
+        }
+        if (compactNow) compactInBackground();
+        return written;
+    }
+
+    private synchronized void restoreDirty(Set<Integer> headers, Map<Integer, BitSet> pages, Set<Integer> drops) {
+        for (int id : headers) if (tracked.containsKey(id)) dirtyHeaders.add(id);
+        for (Map.Entry<Integer, BitSet> e : pages.entrySet()) {
+            if (tracked.containsKey(e.getKey())) dirtyPages.computeIfAbsent(e.getKey(), k -> new BitSet()).or(e.getValue());
+        }
+        for (int id : drops) if (!tracked.containsKey(id)) dropped.add(id);
+    }
+
+    private static byte[] encodeHeader(Campaign c) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        EventCodec.writeCampaignHeader(new DataOutputStream(bytes), c);
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encodePage(Campaign c, int pageNo) throws IOException {
+        List<QuestEvent> live = new ArrayList<>();
+        int first = pageNo * PAGE_SIZE;
+        for (int id = first; id < first + PAGE_SIZE; id++) {
+            QuestEvent e = c.findEvent(id);
+            if (e != null) live.add(e);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + live.size() * 96);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(live.size());
+        for (QuestEvent e : live) EventCodec.writeEvent(out, e);
+        return bytes.toByteArray();
+    }
+
+    // ---- Compaction ----
+
+    public void compactInBackground() {
+        compactor.execute(() -> {
+            try {
+                compact();
+            } catch (IOException ex) {
+                System.err.println("[checkpoint] compaction failed: " + ex.getMessage());
+            }
+        });
+    }
+
+    /** Folds the current deltas into a new full snapshot. Safe to run alongside checkpoint(). */
+    public void compact() throws IOException {
+        String base;
+        List<String> folded;
+        String name;
+        synchronized (manifestLock) {
+            if (deltas.isEmpty() || compacting) return;
+            compacting = true;
+            base = snapshot;
+            folded = new ArrayList<>(deltas);
+            name = fileName("snapshot", nextSeq++);
+        }
+
+        try {
+            PageFile.Fold fold = PageFile.Fold.of(dir, folded);
+            try (PageFile.Writer w = new PageFile.Writer(dir.resolve(name))) {
+                fold.mergeInto(base == null ? null : dir.resolve(base), w);
+                w.commit();
+            }
+            synchronized (manifestLock) {
+                snapshot = name;
+                deltas.subList(0, folded.size()).clear();
+                writeManifest();
+            }
+            if (base != null) Files.deleteIfExists(dir.resolve(base));
+            for (String d : folded) Files.deleteIfExists(dir.resolve(d));
+        } finally {
+            synchronized (manifestLock) {
+                compacting = false;
+            }
+        }
+    }
+
+    // ---- Restore ----
+
+    /**
+     * Loads every campaign from the snapshot plus deltas and tracks them as clean.
+     * Events are re-added in id order.
+     */
+    public List<Campaign> restore() throws IOException {
+        String base;
+        List<String> chain;
+        synchronized (manifestLock) {
+            base = snapshot;
+            chain = new ArrayList<>(deltas);
+        }
+
+        Map<Integer, Campaign> campaigns = new TreeMap<>();
+        Map<Integer, TreeMap<Integer, QuestEvent>> events = new HashMap<>();
+        PageFile.Fold.of(dir, chain).mergeInto(base == null ? null : dir.resolve(base), new PageFile.Sink() {
+            @Override
+            public void campaign(int campaignId, byte[] header) throws IOException {
+                campaigns.put(campaignId, EventCodec.readCampaignHeader(input(header)));
+            }
+
+            @Override
+            public void page(int campaignId, int pageNo, byte[] payload) throws IOException {
+                DataInputStream in = input(payload);
+                TreeMap<Integer, QuestEvent> byId = events.computeIfAbsent(campaignId, k -> new TreeMap<>());
+                int n = in.readInt();
+                for (int i = 0; i < n; i++) {
+                    QuestEvent e = EventCodec.readEvent(in);
+                    byId.put(e.getEventId(), e);
+                }
+            }
+        });
+
+        List<Campaign> out = new ArrayList<>();
+        synchronized (this) {
+            for (Campaign c : campaigns.values()) {
+                TreeMap<Integer, QuestEvent> byId = events.get(c.getCampaignId());
+                if (byId != null) for (QuestEvent e : byId.values()) c.addEvent(e);
+                tracked.put(c.getCampaignId(), c);
+                c.addObserver(this);
+                out.add(c);
+            }
+        }
+        return out;
+    }
+
+    private static DataInputStream input(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    // ---- Manifest ----
+
+    private void readManifest() throws IOException {
+        Path manifest = dir.resolve(MANIFEST);
+        if (!Files.exists(manifest)) return;
+
+        List<String> lines = Files.readAllLines(manifest, StandardCharsets.UTF_8);
+        if (lines.isEmpty() || !MANIFEST_HEADER.equals(lines.get(0))) {
+            throw new IOException("Unrecognized checkpoint manifest: " + manifest);
+        }
+        synchronized (manifestLock) {
+            for (String line : lines.subList(1, lines.size())) {
+                String[] parts = line.trim().split("\\s+");
+                if (parts.length != 2) continue;
+                if (parts[0].equals("snapshot")) snapshot = parts[1];
+                else if (parts[0].equals("delta")) deltas.add(parts[1]);
+                nextSeq = Math.max(nextSeq, seqOf(parts[1]) + 1);
+            }
+        }
+    }
+
+    /**
+     * Caller holds manifestLock. Durable on return (file and directory synced), so the
+     * files it no longer lists, and journals it covers, can be deleted afterwards.
+     */
+    private void writeManifest() throws IOException {
+        StringBuilder sb = new StringBuilder(MANIFEST_HEADER).append('\n');
+        if (snapshot != null) sb.append("snapshot ").append(snapshot).append('\n');
+        for (String d : deltas) sb.append("delta ").append(d).append('\n');
+        FileSync.writeAtomically(dir.resolve(MANIFEST), sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String fileName(String kind, long seq) {
+        return String.format("%s-%08d.gqp", kind, seq);
+    }
+
+    private static long seqOf(String fileName) {
+        int dash = fileName.indexOf('-');
+        int dot = fileName.indexOf('.', dash);
+        try {
+            return Long.parseLong(fileName.substring(dash + 1, dot));
+        } catch (RuntimeException ex) {
+            return 0;
+        }
+    }
+
+    public Path getDirectory() { return dir; }
+
+    public int getDeltaCount() {
+        synchronized (manifestLock) {
+            return deltas.size();
+        }
+    }
+
+    /** Waits for a running compaction, so no files change after close returns. */
+    @Override
+    public void close() {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
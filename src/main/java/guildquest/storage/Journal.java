@@ -0,0 +1,123 @@
+package guildquest.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal file of checksummed records.
+ *
+ * Record layout: [payload length int][CRC32 of payload int][payload]. A record that
+ * is cut short or fails its checksum marks the end of the valid log (a torn tail from
+ * a crash mid-write); {@link #scan} reports where that is so the tail can be cut off.
+ */
+final class Journal implements Closeable {
+    static final int RECORD_HEADER_BYTES = 8;
+    static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+
+    interface RecordHandler {
+        void record(DataInputStream payload) throws IOException;
+    }
+
+    /** Outcome of scanning one journal file. */
+    static final class ScanResult {
+        final long validBytes;
+        final long fileBytes;
+        final int records;
+
+        ScanResult(long validBytes, long fileBytes, int records) {
+            this.validBytes = validBytes;
+            this.fileBytes = fileBytes;
+            this.records = records;
+        }
+
+        boolean torn() { return validBytes < fileBytes; }
+    }
+
+    private final FileChannel channel;
+    private final boolean syncOnWrite;
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer buf = ByteBuffer.allocate(4096);
+
+    Journal(Path file, boolean syncOnWrite) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.syncOnWrite = syncOnWrite;
+    }
+
+    void append(byte[] payload, int length) throws IOException {
+        if (length > MAX_RECORD_BYTES) throw new IOException("Journal record too large: " + length);
+        crc.reset();
+        crc.update(payload, 0, length);
+
+        int total = RECORD_HEADER_BYTES + length;
+        if (buf.capacity() < total) buf = ByteBuffer.allocate(Math.max(total, buf.capacity() * 2));
+        buf.clear();
+        buf.putInt(length).putInt((int) crc.getValue()).put(payload, 0, length).flip();
+        while (buf.hasRemaining()) channel.write(buf);
+        if (syncOnWrite) channel.force(false);
+    }
+
+    void sync() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /** Reads valid records in order and stops at the first torn or corrupt one. */
+    static ScanResult scan(Path file, RecordHandler handler) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            long pos = 0;
+            int records = 0;
+            ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+            ByteBuffer payload = ByteBuffer.allocate(4096);
+            CRC32 crc = new CRC32();
+
+            while (pos + RECORD_HEADER_BYTES <= size) {
+                header.clear();
+                readFully(ch, header, pos);
+                header.flip();
+                int length = header.getInt();
+                int expected = header.getInt();
+                if (length < 0 || length > MAX_RECORD_BYTES || pos + RECORD_HEADER_BYTES + length > size) break;
+
+                if (payload.capacity() < length) payload = ByteBuffer.allocate(length);
+                payload.clear().limit(length);
+                readFully(ch, payload, pos + RECORD_HEADER_BYTES);
+                crc.reset();
+                crc.update(payload.array(), 0, length);
+                if ((int) crc.getValue() != expected) break;
+
+                handler.record(new DataInputStream(new ByteArrayInputStream(payload.array(), 0, length)));
+                pos += RECORD_HEADER_BYTES + length;
+                records++;
+            }
+            return new ScanResult(pos, size, records);
+        }
+    }
+
+    /** Cuts a torn tail off so new records are appended after the last valid one. */
+    static void truncate(Path file, long validBytes) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(validBytes);
+            ch.force(true);
+        }
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer dst, long position) throws IOException {
+        while (dst.hasRemaining()) {
+            int r = ch.read(dst, position);
+            if (r < 0) throw new IOException("Unexpected end of journal");
+            position += r;
+        }
+    }
+}
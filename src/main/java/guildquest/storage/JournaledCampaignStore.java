@@ -0,0 +1,363 @@
+package guildquest.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import guildquest.model.Campaign;
+import guildquest.model.CampaignChangeLog;
+import guildquest.model.Permission;
+import guildquest.model.QuestEvent;
+import guildquest.model.User;
+
+/**
+ * Crash-consistent persistence for campaigns: write-ahead journal + incremental checkpoints.
+ *
+ * Every change to a tracked campaign is appended to the journal as a checksummed
+ * record holding the full new state of what changed (campaign header, one event, or a
+ * delete), so replaying a record twice is harmless. The record is written before the
+ * campaign applies the change ({@link CampaignChangeLog}); if the append fails, the
+ * change is rejected. Once {@code checkpointInterval} records have piled up, the next
+ * change first takes an {@link IncrementalCheckpointer} checkpoint and drops the older
+ * journal files, so recovery replays at most that many records. A newly tracked
+ * campaign goes straight into a checkpoint rather than the journal.
+ *
+ * Recovery ({@link #open()}) restores the latest valid checkpoint, replays the
+ * journal files in order, and cuts off a torn tail left by a crash mid-write.
+ * Journals written with the 32-bit event format are still replayed, and the
+ * checkpoint taken at the end of recovery rewrites their content in the current one.
+ *
+ * Like the checkpointer, use it from the thread that edits the campaigns.
+ */
+public class JournaledCampaignStore implements CampaignChangeLog, Closeable {
+    public static final int DEFAULT_CHECKPOINT_INTERVAL = 1000;
+
+    private static final String JOURNAL_PREFIX = "journal-";
+    private static final String JOURNAL_SUFFIX = ".log";
+
+    private static final byte REC_HEADER = 1;
+    private static final byte REC_UPSERT_EVENT_V1 = 2; // EventCodec v1; replayed, never written
+    private static final byte REC_DELETE_EVENT = 3;
+    private static final byte REC_DROP_CAMPAIGN = 4;
+    private static final byte REC_UPSERT_EVENT = 5;
+
+    /** What the last recovery did and how long it took. */
+    public static final class RecoveryReport {
+        public final int campaigns;
+        public final int journalFiles;
+        public final long recordsReplayed;
+        public final long tornBytesDiscarded;
+        public final long elapsedNanos;
+
+        RecoveryReport(int campaigns, int journalFiles, long recordsReplayed, long tornBytesDiscarded, long elapsedNanos) {
+            this.campaigns = campaigns;
+            this.journalFiles = journalFiles;
+            this.recordsReplayed = recordsReplayed;
+            this.tornBytesDiscarded = tornBytesDiscarded;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("recovered %d campaign(s): replayed %d record(s) from %d journal file(s), "
+                            + "discarded %d torn byte(s) in %.1f ms",
+                    campaigns, recordsReplayed, journalFiles, tornBytesDiscarded, elapsedNanos / 1_000_000.0);
+        }
+    }
+
+    private final Path dir;
+    private final int checkpointInterval;
+    private final boolean syncOnWrite;
+    private final IncrementalCheckpointer checkpointer;
+
+    private final Map<Integer, Campaign> tracked = new LinkedHashMap<>();
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+    private final DataOutputStream record = new DataOutputStream(recordBytes);
+
+    private Journal journal;
+    private long journalSeq;
+    private int recordsSinceCheckpoint;
+    private RecoveryReport lastRecovery;
+    private boolean closed;
+
+    public JournaledCampaignStore(Path dir) throws IOException {
+        this(dir, DEFAULT_CHECKPOINT_INTERVAL, true);
+    }
+
+    /**
+     * @param checkpointInterval journal records between checkpoints (bounds recovery replay)
+     * @param syncOnWrite        fsync every journal record (turn off only if losing the
+     *                           last few edits on power loss is acceptable)
+     */
+    public JournaledCampaignStore(Path dir, int checkpointInterval, boolean syncOnWrite) throws IOException {
+        if (dir == null) throw new IllegalArgumentException("dir is required");
+        if (checkpointInterval < 1) throw new IllegalArgumentException("checkpointInterval must be >= 1");
+        this.dir = dir;
+        this.checkpointInterval = checkpointInterval;
+        this.syncOnWrite = syncOnWrite;
+        Files.createDirectories(dir);
+        this.checkpointer = new IncrementalCheckpointer(dir.resolve("checkpoints"));
+    }
+
+    // ---- Recovery ----
+
+    /**
+     * Restores the latest checkpoint, replays the journal on top and starts a fresh
+     * journal. Must be called once before tracking campaigns.
+     */
+    public synchronized List<Campaign> open() throws IOException {
+        if (journal != null) throw new IllegalStateException("already open");
+        long started = System.nanoTime();
+
+        Map<Integer, Campaign> campaigns = new LinkedHashMap<>();
+        for (Campaign c : checkpointer.restore()) campaigns.put(c.getCampaignId(), c);
+
+        List<Path> journals = listJournals();
+        long replayed = 0;
+        long torn = 0;
+        for (Path file : journals) {
+            Journal.ScanResult r = Journal.scan(file, in -> replay(in, campaigns));
+            replayed += r.records;
+            if (r.torn()) {
+                torn += r.fileBytes - r.validBytes;
+                Journal.truncate(file, r.validBytes);
+            }
+            journalSeq = Math.max(journalSeq, seqOf(file));
+        }
+
+        for (Campaign c : campaigns.values()) {
+            tracked.put(c.getCampaignId(), c);
+            c.setChangeLog(this);
+        }
+
+        // Fold what was replayed into a checkpoint so the next recovery starts from here.
+        startNewJournal();
+        checkpointer.checkpoint();
+        deleteJournalsBefore(journalSeq);
+
+        lastRecovery = new RecoveryReport(campaigns.size(), journals.size(), replayed, torn, System.nanoTime() - started);
+        return new ArrayList<>(campaigns.values());
+    }
+
+    private void replay(DataInputStream in, Map<Integer, Campaign> campaigns) throws IOException {
+        byte type = in.readByte();
+        int campaignId = in.readInt();
+        Campaign c = campaigns.get(campaignId);
+        switch (type) {
+            case REC_HEADER -> {
+                Campaign decoded = EventCodec.readCampaignHeader(in);
+                if (c == null) {
+                    campaigns.put(campaignId, decoded);
+                    checkpointer.track(decoded);
+                } else {
+                    applyHeader(c, decoded);
+                }
+            }
+            case REC_UPSERT_EVENT, REC_UPSERT_EVENT_V1 -> {
+                QuestEvent e = EventCodec.readEvent(in, type == REC_UPSERT_EVENT ? EventCodec.CURRENT_FORMAT : EventCodec.FORMAT_V1);
+                if (c == null) return;
+                if (c.findEvent(e.getEventId()) == null) c.addEvent(e);
+                else c.updateEvent(e);
+            }
+            case REC_DELETE_EVENT -> {
+                int eventId = in.readInt();
+                if (c != null) c.removeEventById(eventId);
+            }
+            case REC_DROP_CAMPAIGN -> {
+                if (c != null) {
+                    campaigns.remove(campaignId);
+                    checkpointer.untrack(c);
+                }
+            }
+            default -> throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    private static void applyHeader(Campaign target, Campaign from) {
+        target.setName(from.getName());
+        target.setArchived(from.isArchived());
+        target.setVisibility(from.getVisibility());
+        target.setOwner(from.getOwner());
+        for (User u : new ArrayList<>(target.getSharedWith().keySet())) {
+            if (!from.getSharedWith().containsKey(u)) target.unshare(u);
+        }
+        for (Map.Entry<User, Permission> s : from.getSharedWith().entrySet()) {
+            target.shareWith(s.getKey(), s.getValue());
+        }
+    }
+
+    public RecoveryReport getLastRecovery() { return lastRecovery; }
+
+    // ---- Tracking ----
+
+    /** Starts journaling the campaign; its current content is written as a checkpoint right away. */
+    public synchronized void track(Campaign c) {
+        requireOpen();
+        if (c == null || tracked.containsKey(c.getCampaignId())) return;
+        tracked.put(c.getCampaignId(), c);
+        checkpointer.track(c);
+        c.setChangeLog(this);
+        try {
+            checkpoint();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Checkpoint failed", ex);
+        }
+    }
+
+    public synchronized void untrack(Campaign c) {
+        requireOpen();
+        if (c == null || !tracked.containsKey(c.getCampaignId())) return;
+        try {
+            maybeCheckpoint();
+            beginRecord(REC_DROP_CAMPAIGN, c.getCampaignId());
+            commitRecord();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Journal write failed", ex);
+        }
+        tracked.remove(c.getCampaignId());
+        c.setChangeLog(null);
+        checkpointer.untrack(c);
+    }
+
+    @Override
+    public synchronized void beforeHeaderChange(Campaign campaign, Campaign next) {
+        if (!tracked.containsKey(campaign.getCampaignId())) return;
+        try {
+            maybeCheckpoint();
+            appendHeader(next);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Journal write failed", ex);
+        }
+    }
+
+    @Override
+    public synchronized void beforeEventUpsert(Campaign campaign, QuestEvent event) {
+        if (!tracked.containsKey(campaign.getCampaignId())) return;
+        try {
+            maybeCheckpoint();
+            appendUpsert(campaign, event);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Journal write failed", ex);
+        }
+    }
+
+    @Override
+    public synchronized void beforeEventRemove(Campaign campaign, int eventId) {
+        if (!tracked.containsKey(campaign.getCampaignId())) return;
+        try {
+            maybeCheckpoint();
+            beginRecord(REC_DELETE_EVENT, campaign.getCampaignId());
+            record.writeInt(eventId);
+            commitRecord();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Journal write failed", ex);
+        }
+    }
+
+    // ---- Journal + checkpoint plumbing ----
+
+    private void appendHeader(Campaign c) throws IOException {
+        beginRecord(REC_HEADER, c.getCampaignId());
+        EventCodec.writeCampaignHeader(record, c);
+        commitRecord();
+    }
+
+    private void appendUpsert(Campaign c, QuestEvent e) throws IOException {
+        beginRecord(REC_UPSERT_EVENT, c.getCampaignId());
+        EventCodec.writeEvent(record, e);
+        commitRecord();
+    }
+
+    private void beginRecord(byte type, int campaignId) throws IOException {
+        recordBytes.reset();
+        record.writeByte(type);
+        record.writeInt(campaignId);
+    }
+
+    private void commitRecord() throws IOException {
+        if (closed) throw new IOException("Journal is closed");
+        journal.append(recordBytes.toByteArray(), recordBytes.size());
+        recordsSinceCheckpoint++;
+    }
+
+    /**
+     * Runs before a record is appended, never after: the previous change has been fully
+     * applied by then, so the checkpoint covers every record in the journals it deletes.
+     */
+    private void maybeCheckpoint() throws IOException {
+        if (recordsSinceCheckpoint >= checkpointInterval) checkpoint();
+    }
+
+    /**
+     * Switches to a new journal file, checkpoints, then deletes the journal files the
+     * checkpoint now covers. A crash in between only means some records get replayed twice.
+     */
+    public synchronized void checkpoint() throws IOException {
+        requireOpen();
+        if (closed) throw new IOException("Journal is closed");
+        startNewJournal();
+        checkpointer.checkpoint();
+        deleteJournalsBefore(journalSeq);
+    }
+
+    /** Opens the next journal file before closing the current one, so a failure leaves the old one usable. */
+    private void startNewJournal() throws IOException {
+        Journal next = new Journal(dir.resolve(String.format("%s%08d%s", JOURNAL_PREFIX, journalSeq + 1, JOURNAL_SUFFIX)), syncOnWrite);
+        FileSync.syncDirectory(dir); // the new file must outlive the journals the checkpoint deletes
+        if (journal != null) journal.close();
+        journal = next;
+        journalSeq++;
+        recordsSinceCheckpoint = 0;
+    }
+
+    private void deleteJournalsBefore(long seq) throws IOException {
+        for (Path p : listJournals()) {
+            if (seqOf(p) < seq) Files.deleteIfExists(p);
+        }
+    }
+
+    private List<Path> listJournals() throws IOException {
+        List<Path> out = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(p -> {
+                String n = p.getFileName().toString();
+                return n.startsWith(JOURNAL_PREFIX) && n.endsWith(JOURNAL_SUFFIX);
+            }).forEach(out::add);
+        }
+        out.sort((a, b) -> Long.compare(seqOf(a), seqOf(b)));
+        return out;
+    }
+
+    private static long seqOf(Path journalFile) {
+        String n = journalFile.getFileName().toString();
+        return Long.parseLong(n.substring(JOURNAL_PREFIX.length(), n.length() - JOURNAL_SUFFIX.length()));
+    }
+
+    private void requireOpen() {
+        if (journal == null) throw new IllegalStateException("call open() first");
+    }
+
+    public IncrementalCheckpointer getCheckpointer() { return checkpointer; }
+
+    /** Later changes to tracked campaigns are rejected, since they could no longer be journaled. */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        if (journal != null) {
+            journal.sync();
+            journal.close();
+        }
+        checkpointer.close();
+    }
+}
@@ -0,0 +1,259 @@
+package guildquest.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * On-disk format shared by checkpoint snapshots and deltas.
+ *
+ * A file is a sequence of records: a campaign header, a campaign drop, or one page
+ * of events (all live events whose id falls in the page). A delta only holds the
+ * records that changed; a snapshot holds every live header and non-empty page.
+ *
+ * Version 1 files hold pages in EventCodec v1; the reader upgrades those pages as it
+ * goes, so folding and compaction only ever see (and write) the current format.
+ */
+final class PageFile {
+    static final int MAGIC = 0x47515046; // "GQPF"
+    static final int VERSION = 2;
+    static final int LEGACY_VERSION = 1;
+
+    static final byte END = 0;
+    static final byte CAMPAIGN = 1;
+    static final byte DROP = 2;
+    static final byte PAGE = 3;
+
+    private PageFile() {}
+
+    /** Receives merged records (no drops: dropped content is simply left out). */
+    interface Sink {
+        void campaign(int campaignId, byte[] header) throws IOException;
+        void page(int campaignId, int pageNo, byte[] payload) throws IOException;
+    }
+
+    static final class Record {
+        final byte tag;
+        final int campaignId;
+        final int pageNo;
+        final byte[] payload;
+
+        Record(byte tag, int campaignId, int pageNo, byte[] payload) {
+            this.tag = tag;
+            this.campaignId = campaignId;
+            this.pageNo = pageNo;
+            this.payload = payload;
+        }
+    }
+
+    // ---- Writing ----
+
+    /**
+     * Writes to a temp file that {@link #commit()} moves into place, so readers never
+     * see half a file. Closing without a commit (the write failed) deletes the temp
+     * file and leaves the target as it was.
+     */
+    static final class Writer implements Sink, Closeable {
+        private final Path target;
+        private final Path tmp;
+        private final FileOutputStream file;
+        private final DataOutputStream out;
+        private long bytes;
+        private boolean committed;
+        private boolean closed;
+
+        Writer(Path target) throws IOException {
+            this.target = target;
+            this.tmp = target.resolveSibling(target.getFileName() + ".tmp");
+            this.file = new FileOutputStream(tmp.toFile());
+            this.out = new DataOutputStream(new BufferedOutputStream(file, 64 * 1024));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+
+        @Override
+        public void campaign(int campaignId, byte[] header) throws IOException {
+            write(CAMPAIGN, campaignId, 0, header);
+        }
+
+        @Override
+        public void page(int campaignId, int pageNo, byte[] payload) throws IOException {
+            write(PAGE, campaignId, pageNo, payload);
+        }
+
+        void drop(int campaignId) throws IOException {
+            write(DROP, campaignId, 0, new byte[0]);
+        }
+
+        private void write(byte tag, int campaignId, int pageNo, byte[] payload) throws IOException {
+            out.writeByte(tag);
+            out.writeInt(campaignId);
+            out.writeInt(pageNo);
+            out.writeInt(payload.length);
+            out.write(payload);
+            bytes += 13 + payload.length;
+        }
+
+        long bytesWritten() { return bytes; }
+
+        /** Ends the file, fsyncs it and durably replaces the target. Call last, inside the try. */
+        void commit() throws IOException {
+            if (closed) throw new IOException("Page file writer is closed: " + target);
+            out.writeByte(END);
+            out.flush();
+            file.getFD().sync();
+            closed = true;
+            out.close();
+            FileSync.replace(tmp, target);
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (committed) return;
+            try {
+                if (!closed) {
+                    closed = true;
+                    out.close();
+                }
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        }
+    }
+
+    // ---- Reading ----
+
+    static final class Reader implements Closeable {
+        private final DataInputStream in;
+        private final int version;
+        private boolean done;
+
+        Reader(Path file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024));
+            if (in.readInt() != MAGIC) throw new IOException("Not a GuildQuest page file: " + file);
+            this.version = in.readInt();
+            if (version != VERSION && version != LEGACY_VERSION) throw new IOException("Unsupported page file version " + version + ": " + file);
+        }
+
+        /** @return the next record, or null at the end of the file */
+        Record next() throws IOException {
+            if (done) return null;
+            byte tag;
+            try {
+                tag = in.readByte();
+            } catch (EOFException ex) {
+                throw new IOException("Page file is truncated (missing END record)", ex);
+            }
+            if (tag == END) {
+                done = true;
+                return null;
+            }
+            int campaignId = in.readInt();
+            int pageNo = in.readInt();
+            byte[] payload = new byte[in.readInt()];
+            in.readFully(payload);
+            if (tag == PAGE && version == LEGACY_VERSION) payload = upgradePage(payload);
+            return new Record(tag, campaignId, pageNo, payload);
+        }
+
+        private static byte[] upgradePage(byte[] payload) throws IOException {
+            DataInputStream page = new DataInputStream(new ByteArrayInputStream(payload));
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(payload.length);
+            DataOutputStream out = new DataOutputStream(bytes);
+            int n = page.readInt();
+            out.writeInt(n);
+            for (int i = 0; i < n; i++) EventCodec.writeEvent(out, EventCodec.readEvent(page, EventCodec.FORMAT_V1));
+            return bytes.toByteArray();
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    // ---- Merging ----
+
+    /**
+     * The net effect of a chain of deltas, applied in order.
+     * Memory is proportional to the deltas only; the base snapshot is streamed.
+     */
+    static final class Fold {
+        private final Map<Integer, byte[]> headers = new HashMap<>();
+        private final Map<Integer, TreeMap<Integer, byte[]>> pages = new TreeMap<>();
+        // Campaigns dropped at some point: nothing from the base snapshot survives for them.
+        private final Set<Integer> reset = new HashSet<>();
+
+        static Fold of(Path dir, List<String> deltaFiles) throws IOException {
+            Fold fold = new Fold();
+            for (String name : deltaFiles) {
+                try (Reader r = new Reader(dir.resolve(name))) {
+                    for (Record rec = r.next(); rec != null; rec = r.next()) fold.apply(rec);
+                }
+            }
+            return fold;
+        }
+
+        void apply(Record rec) {
+            switch (rec.tag) {
+                case CAMPAIGN -> headers.put(rec.campaignId, rec.payload);
+                case DROP -> {
+                    headers.remove(rec.campaignId);
+                    pages.remove(rec.campaignId);
+                    reset.add(rec.campaignId);
+                }
+                case PAGE -> pages.computeIfAbsent(rec.campaignId, k -> new TreeMap<>()).put(rec.pageNo, rec.payload);
+                default -> throw new IllegalStateException("Unknown page record tag " + rec.tag);
+            }
+        }
+
+        /** Streams base (nullable) with this fold applied on top into the sink. Empty pages are dropped. */
+        void mergeInto(Path base, Sink sink) throws IOException {
+            if (base != null) {
+                try (Reader r = new Reader(base)) {
+                    for (Record rec = r.next(); rec != null; rec = r.next()) {
+                        if (reset.contains(rec.campaignId)) continue;
+                        if (rec.tag == CAMPAIGN && !headers.containsKey(rec.campaignId)) {
+                            sink.campaign(rec.campaignId, rec.payload);
+                        } else if (rec.tag == PAGE && !overridden(rec.campaignId, rec.pageNo) && !isEmptyPage(rec.payload)) {
+                            sink.page(rec.campaignId, rec.pageNo, rec.payload);
+                        }
+                    }
+                }
+            }
+            for (Map.Entry<Integer, byte[]> h : headers.entrySet()) sink.campaign(h.getKey(), h.getValue());
+            for (Map.Entry<Integer, TreeMap<Integer, byte[]>> c : pages.entrySet()) {
+                for (Map.Entry<Integer, byte[]> p : c.getValue().entrySet()) {
+                    if (!isEmptyPage(p.getValue())) sink.page(c.getKey(), p.getKey(), p.getValue());
+                }
+            }
+        }
+
+        private boolean overridden(int campaignId, int pageNo) {
+            TreeMap<Integer, byte[]> p = pages.get(campaignId);
+            return p != null && p.containsKey(pageNo);
+        }
+    }
+
+    /** A page payload starts with its event count. */
+    static boolean isEmptyPage(byte[] payload) {
+        return payload.length < 4
+                || (payload[0] | payload[1] | payload[2] | payload[3]) == 0;
+    }
+}
@@ -0,0 +1,157 @@
+package guildquest.storage.lsm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import guildquest.model.Campaign;
+import guildquest.model.CampaignObserver;
+import guildquest.model.EventColdTier;
+import guildquest.model.EventRangeQuery;
+import guildquest.model.QuestEvent;
+
+/**
+ * Mirrors one Campaign into an {@link EventStore} and answers its range queries.
+ *
+ * Attaching reconciles the store with the campaign (only differences are written).
+ * Afterwards every add/update/remove is written through, and Campaign / TimelineView
+ * range queries scan the store. Scan hits resolve to the live QuestEvent instances
+ * so UI selection keeps working; only events missing from memory are decoded.
+ *
+ * The binding is also the campaign's cold tier. Since the store already holds every
+ * event, {@link #release()} simply drops the heap copy (active campaigns included);
+ * range queries then decode from the store, and anything else thaws the campaign.
+ */
+public class CampaignBinding implements CampaignObserver, EventRangeQuery, EventColdTier {
+    private final EventStore store;
+    private final Campaign campaign;
+    private final int campaignId;
+
+    // Start time each event is currently filed under, needed to delete the old key when it moves.
+    // Range queries may read it from a background query thread.
+    private final Map<Integer, Long> filedStart = new ConcurrentHashMap<>();
+
+    CampaignBinding(EventStore store, Campaign campaign) throws IOException {
+        this.store = store;
+        this.campaign = campaign;
+        this.campaignId = campaign.getCampaignId();
+        reconcile();
+        campaign.addObserver(this);
+        campaign.setRangeSource(this);
+        campaign.setColdTier(this);
+    }
+
+    private void reconcile() throws IOException {
+        List<long[]> deletes = new ArrayList<>(); // {startMinutes, eventId}
+        store.scan(campaignId, 0, Long.MAX_VALUE, (id, start, bytes) -> {
+            QuestEvent live = campaign.findEvent(id);
+            if (live != null && live.getStartMinutes() == start) {
+                if (Arrays.equals(bytes, EventStore.encode(live))) filedStart.put(id, start);
+            } else {
+                deletes.add(new long[] { start, id });
+            }
+        });
+        for (long[] d : deletes) store.delete(campaignId, d[0], (int) d[1]);
+        for (QuestEvent e : campaign.eventsInStartOrder()) {
+            if (!filedStart.containsKey(e.getEventId())) file(e);
+        }
+    }
+
+    /** Brings the events back onto the heap first, so the campaign works without the store. */
+    public void detach() {
+        campaign.setColdTier(null);
+        campaign.removeObserver(this);
+        campaign.setRangeSource(null);
+    }
+
+    /** Drops the campaign's in-memory events; the store keeps serving them. */
+    public void release() {
+        campaign.releaseEvents();
+    }
+
+    public Campaign getCampaign() { return campaign; }
+
+    @Override
+    public void onCampaignChanged(Campaign c) {
+        // Campaign metadata is not part of the event store.
+    }
+
+    @Override
+    public void onEventChanged(Campaign c, QuestEvent event) {
+        int id = event.getEventId();
+        QuestEvent live = campaign.findEvent(id);
+        Long previous = filedStart.get(id);
+
+        if (live == null) {
+            if (previous != null) {
+                store.delete(campaignId, previous, id);
+                filedStart.remove(id);
+            }
+            return;
+        }
+        if (previous != null && previous != live.getStartMinutes()) {
+            store.delete(campaignId, previous, id);
+        }
+        file(live);
+    }
+
+    private void file(QuestEvent e) {
+        store.put(campaignId, e);
+        filedStart.put(e.getEventId(), e.getStartMinutes());
+    }
+
+    @Override
+    public List<QuestEvent> eventsStartingBetween(long fromMinutes, long toMinutes) {
+        List<QuestEvent> out = new ArrayList<>();
+        try {
+            // Checked once: findEvent would thaw a released campaign.
+            boolean resident = !campaign.isFrozen();
+            store.scan(campaignId, fromMinutes, toMinutes, (id, start, bytes) -> {
+                QuestEvent live = resident ? campaign.findEvent(id) : null;
+                out.add(live != null ? live : EventStore.decode(bytes));
+            });
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Event store scan failed", ex);
+        }
+        return out;
+    }
+
+    // ---- Cold tier: the store already has the events, nothing to copy ----
+
+    @Override
+    public boolean isSystemOfRecord() { return true; }
+
+    @Override
+    public FrozenEvents freeze(int campaignId, List<QuestEvent> events) {
+        if (campaignId != this.campaignId) {
+            throw new IllegalArgumentException("Binding for campaign " + this.campaignId + " cannot hold campaign " + campaignId);
+        }
+        int count = events.size();
+        return new FrozenEvents() {
+            @Override
+            public int count() { return count; }
+
+            @Override
+            public List<QuestEvent> thaw() {
+                List<QuestEvent> out;
+                try {
+                    out = store.range(campaignId, Long.MIN_VALUE, Long.MAX_VALUE);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException("Event store scan failed", ex);
+                }
+                out.sort(Comparator.comparingInt(QuestEvent::getEventId));
+                return out;
+            }
+
+            @Override
+            public void discard() {
+                // The store stays the copy of record.
+            }
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package guildquest.storage.lsm;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * Forward-only iterator over sorted store entries. Call advance() before the first key().
+ */
+interface Cursor {
+    /** Value marking a deleted key. Compared by identity. */
+    byte[] TOMBSTONE = new byte[0];
+
+    boolean advance() throws IOException;
+    StoreKey key();
+    byte[] value();
+
+    /** Cursor over [lo, hi) of a memtable; a null bound means unbounded. */
+    static Cursor over(NavigableMap<StoreKey, byte[]> map, StoreKey lo, StoreKey hi) {
+        NavigableMap<StoreKey, byte[]> view = map;
+        if (lo != null) view = view.tailMap(lo, true);
+        if (hi != null) view = view.headMap(hi, false);
+        Iterator<Map.Entry<StoreKey, byte[]>> it = view.entrySet().iterator();
+        return new Cursor() {
+            private Map.Entry<StoreKey, byte[]> current;
+
+            @Override
+            public boolean advance() {
+                current = it.hasNext() ? it.next() : null;
+                return current != null;
+            }
+
+            @Override public StoreKey key() { return current.getKey(); }
+            @Override public byte[] value() { return current.getValue(); }
+        };
+    }
+}
@@ -0,0 +1,414 @@
+package guildquest.storage.lsm;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import guildquest.model.Campaign;
+import guildquest.model.QuestEvent;
+import guildquest.storage.EventCodec;
+
+/**
+ * Log-structured embedded event store keyed by (campaignId, startMinutes, eventId).
+ *
+ * Writes go to an in-memory memtable. A full memtable is frozen and flushed by a
+ * background thread into an immutable sorted segment file with a sparse index.
+ * Compaction is leveled by merge count: flushes land on level 0, and once a level holds
+ * more than maxSegments segments the same thread merges just those into one segment on
+ * the next level. Each entry is therefore rewritten about once per level, i.e.
+ * log(data / memtable) times, instead of on every compaction. Range scans merge the
+ * memtables and segments in key order, reading each segment sequentially.
+ *
+ * Keys include the start time, so moving an event means a delete of the old key plus
+ * a put of the new one; {@link CampaignBinding} takes care of that for a Campaign.
+ */
+public class EventStore implements Closeable {
+    public static final int DEFAULT_MEMTABLE_BYTES = 4 * 1024 * 1024;
+    public static final int DEFAULT_MAX_SEGMENTS = 4;
+
+    /** Receives scan results in key order. Must not write to the store (the scan holds its read lock). */
+    public interface EntryVisitor {
+        void visit(int eventId, long startMinutes, byte[] encodedEvent) throws IOException;
+    }
+
+    private final Path dir;
+    private final int memtableLimitBytes;
+    private final int maxSegments;
+    private final ExecutorService background = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "guildquest-lsm");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Structure changes (rotation, flush, compaction) take the write lock; puts and scans the read lock.
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private ConcurrentSkipListMap<StoreKey, byte[]> active = new ConcurrentSkipListMap<>();
+    private final AtomicLong activeBytes = new AtomicLong();
+    private final Deque<NavigableMap<StoreKey, byte[]>> frozen = new ArrayDeque<>(); // newest first
+    private List<Segment> segments = new ArrayList<>();                               // newest first
+    private long nextSeq = 1;
+    private long nextFileId = 1;
+    private boolean closed;
+
+    // Stats
+    private final AtomicLong userBytes = new AtomicLong();
+    private final AtomicLong diskBytes = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong compactionCount = new AtomicLong();
+
+    public EventStore(Path dir) throws IOException {
+        this(dir, DEFAULT_MEMTABLE_BYTES, DEFAULT_MAX_SEGMENTS);
+    }
+
+    /**
+     * @param memtableLimitBytes memtable size that triggers a flush
+     * @param maxSegments        segments a level may hold before they are merged into one on the next level
+     */
+    public EventStore(Path dir, int memtableLimitBytes, int maxSegments) throws IOException {
+        if (dir == null) throw new IllegalArgumentException("dir is required");
+        if (memtableLimitBytes < 1024) throw new IllegalArgumentException("memtableLimitBytes must be >= 1024");
+        if (maxSegments < 1) throw new IllegalArgumentException("maxSegments must be >= 1");
+        this.dir = dir;
+        this.memtableLimitBytes = memtableLimitBytes;
+        this.maxSegments = maxSegments;
+        Files.createDirectories(dir);
+        openSegments();
+        if (segments.stream().anyMatch(Segment::isLegacy)) background.execute(this::migrateLegacySegments);
+    }
+
+    /** Rewrites segments from the 32-bit-minutes format (a merge always writes the current one). */
+    private void migrateLegacySegments() {
+        try {
+            merge(segments);
+        } catch (IOException ex) {
+            System.err.println("[event-store] legacy segment migration failed: " + ex.getMessage());
+        }
+    }
+
+    private void openSegments() throws IOException {
+        List<Segment> found = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                String name = p.getFileName().toString();
+                if (name.endsWith(Segment.SUFFIX + ".tmp")) Files.deleteIfExists(p); // interrupted write
+                else if (name.endsWith(Segment.SUFFIX)) found.add(Segment.open(p));
+            }
+        }
+
+        // A compaction that finished writing but crashed before deleting its inputs.
+        List<Segment> live = new ArrayList<>();
+        for (Segment s : found) {
+            boolean superseded = false;
+            for (Segment c : found) {
+                if (c.compacted && c != s && c.baseSeq <= s.seq && s.seq <= c.seq && s.fileId < c.fileId) {
+                    superseded = true;
+                    break;
+                }
+            }
+            if (superseded) {
+                s.close();
+                Files.deleteIfExists(s.path);
+            } else {
+                live.add(s);
+            }
+        }
+        live.sort(NEWEST_FIRST);
+        segments = live;
+        for (Segment s : live) {
+            nextSeq = Math.max(nextSeq, s.seq + 1);
+            nextFileId = Math.max(nextFileId, s.fileId + 1);
+        }
+    }
+
+    private static final Comparator<Segment> NEWEST_FIRST =
+            Comparator.comparingLong((Segment s) -> s.seq).thenComparingLong(s -> s.fileId).reversed();
+
+    // ---- Writes ----
+
+    public void put(int campaignId, QuestEvent e) {
+        write(new StoreKey(campaignId, e.getStartMinutes(), e.getEventId()), encode(e));
+    }
+
+    public void delete(int campaignId, long startMinutes, int eventId) {
+        write(new StoreKey(campaignId, startMinutes, eventId), Cursor.TOMBSTONE);
+    }
+
+    private void write(StoreKey key, byte[] value) {
+        int bytes = StoreKey.BYTES + value.length;
+        lock.readLock().lock();
+        try {
+            if (closed) throw new IllegalStateException("EventStore is closed");
+            active.put(key, value);
+        } finally {
+            lock.readLock().unlock();
+        }
+        userBytes.addAndGet(bytes);
+        if (activeBytes.addAndGet(bytes) >= memtableLimitBytes) rotate();
+    }
+
+    /** Freezes the active memtable and hands it to the background thread. */
+    private void rotate() {
+        lock.writeLock().lock();
+        try {
+            if (active.isEmpty() || activeBytes.get() < memtableLimitBytes) return; // someone beat us to it
+            freezeActive();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Caller holds the write lock. */
+    private void freezeActive() {
+        NavigableMap<StoreKey, byte[]> memtable = active;
+        long seq = nextSeq++;
+        long fileId = nextFileId++;
+        frozen.addFirst(memtable);
+        active = new ConcurrentSkipListMap<>();
+        activeBytes.set(0);
+        background.execute(() -> flush(memtable, seq, fileId));
+    }
+
+    private void flush(NavigableMap<StoreKey, byte[]> memtable, long seq, long fileId) {
+        try {
+            Segment s = Segment.write(dir, fileId, seq, seq, 0, false, Cursor.over(memtable, null, null));
+            diskBytes.addAndGet(s.sizeBytes());
+            flushCount.incrementAndGet();
+            lock.writeLock().lock();
+            try {
+                List<Segment> next = new ArrayList<>(segments);
+                next.add(s);
+                next.sort(NEWEST_FIRST);
+                segments = next;
+                frozen.remove(memtable);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            compact();
+        } catch (IOException ex) {
+            // The memtable stays in 'frozen', so its data is still readable; it is just not on disk yet.
+            System.err.println("[event-store] flush failed: " + ex.getMessage());
+        }
+    }
+
+    // ---- Compaction ----
+
+    /**
+     * Merges runs of same-level segments until no level holds more than maxSegments.
+     * Only the background thread changes the segment list, so it can be read here without a lock.
+     */
+    private void compact() throws IOException {
+        List<Segment> run;
+        while ((run = overfullLevel(segments)) != null) merge(run);
+    }
+
+    /**
+     * The first level (newest first) with more than maxSegments segments, or null.
+     * Merges always replace a run by one segment on the next level, so levels never
+     * increase towards the newest segment and each level is one contiguous run.
+     */
+    private List<Segment> overfullLevel(List<Segment> newestFirst) {
+        int i = 0;
+        while (i < newestFirst.size()) {
+            int level = newestFirst.get(i).level;
+            int j = i;
+            while (j < newestFirst.size() && newestFirst.get(j).level == level) j++;
+            if (j - i > maxSegments) return List.copyOf(newestFirst.subList(i, j));
+            i = j;
+        }
+        return null;
+    }
+
+    /**
+     * Merges a contiguous (by seq) run of segments into one. Tombstones are dropped only
+     * when the run reaches the oldest segment; otherwise they still hide older entries.
+     * Runs on the background thread.
+     */
+    private void merge(List<Segment> inputs) throws IOException {
+        if (inputs.isEmpty() || (inputs.size() == 1 && !inputs.get(0).isLegacy())) return;
+        List<Segment> current = segments;
+        boolean reachesOldest = inputs.get(inputs.size() - 1) == current.get(current.size() - 1);
+        long fileId;
+        lock.writeLock().lock();
+        try {
+            fileId = nextFileId++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Inherit the newest input's precedence so memtables frozen meanwhile still win.
+        long seq = inputs.get(0).seq;
+        long baseSeq = inputs.get(inputs.size() - 1).baseSeq;
+        int level = 0;
+        List<Cursor> cursors = new ArrayList<>();
+        for (Segment s : inputs) {
+            cursors.add(s.cursor(null, null));
+            level = Math.max(level, s.level + 1);
+        }
+        Segment merged = Segment.write(dir, fileId, seq, baseSeq, level, true, new MergingCursor(cursors, reachesOldest));
+        diskBytes.addAndGet(merged.sizeBytes());
+        compactionCount.incrementAndGet();
+
+        lock.writeLock().lock();
+        try {
+            List<Segment> next = new ArrayList<>(segments);
+            next.removeAll(inputs);
+            next.add(merged);
+            next.sort(NEWEST_FIRST);
+            segments = next;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (Segment s : inputs) {
+            s.close();
+            Files.deleteIfExists(s.path);
+        }
+    }
+
+    // ---- Reads ----
+
+    /** Visits live entries of one campaign with startMinutes in [fromMinutes, toMinutes), in key order. */
+    public void scan(int campaignId, long fromMinutes, long toMinutes, EntryVisitor visitor) throws IOException {
+        if (toMinutes <= fromMinutes) return;
+        StoreKey lo = new StoreKey(campaignId, fromMinutes, Integer.MIN_VALUE);
+        StoreKey hi = new StoreKey(campaignId, toMinutes, Integer.MIN_VALUE);
+
+        lock.readLock().lock();
+        try {
+            List<Cursor> sources = new ArrayList<>(2 + frozen.size() + segments.size());
+            sources.add(Cursor.over(active, lo, hi));
+            for (NavigableMap<StoreKey, byte[]> m : frozen) sources.add(Cursor.over(m, lo, hi));
+            for (Segment s : segments) sources.add(s.cursor(lo, hi));
+
+            Cursor merged = new MergingCursor(sources, true);
+            while (merged.advance()) {
+                StoreKey k = merged.key();
+                visitor.visit(k.eventId, k.startMinutes, merged.value());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Decoded events of one campaign starting in [fromMinutes, toMinutes). */
+    public List<QuestEvent> range(int campaignId, long fromMinutes, long toMinutes) throws IOException {
+        List<QuestEvent> out = new ArrayList<>();
+        scan(campaignId, fromMinutes, toMinutes, (id, start, bytes) -> out.add(decode(bytes)));
+        return out;
+    }
+
+    /** Keeps the campaign mirrored into this store and routes its range queries here. */
+    public CampaignBinding attach(Campaign campaign) throws IOException {
+        return new CampaignBinding(this, campaign);
+    }
+
+    static byte[] encode(QuestEvent e) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+            EventCodec.writeEvent(new DataOutputStream(bytes), e);
+            return bytes.toByteArray();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex); // in-memory stream
+        }
+    }
+
+    static QuestEvent decode(byte[] bytes) throws IOException {
+        return EventCodec.readEvent(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    // ---- Stats / lifecycle ----
+
+    /** Snapshot of the store counters. */
+    public static final class Stats {
+        public final long userBytes;
+        public final long diskBytes;
+        public final long flushes;
+        public final long compactions;
+        public final int segments;
+
+        Stats(long userBytes, long diskBytes, long flushes, long compactions, int segments) {
+            this.userBytes = userBytes;
+            this.diskBytes = diskBytes;
+            this.flushes = flushes;
+            this.compactions = compactions;
+            this.segments = segments;
+        }
+
+        /** Bytes written to segment files per byte written by callers. */
+        public double writeAmplification() {
+            return userBytes == 0 ? 0 : (double) diskBytes / userBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("user=%d B, disk=%d B, WA=%.2f, flushes=%d, compactions=%d, segments=%d",
+                    userBytes, diskBytes, writeAmplification(), flushes, compactions, segments);
+        }
+    }
+
+    public Stats getStats() {
+        lock.readLock().lock();
+        try {
+            return new Stats(userBytes.get(), diskBytes.get(), flushCount.get(), compactionCount.get(), segments.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Freezes the active memtable and waits until everything pending is on disk. */
+    public void flush() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (!active.isEmpty()) freezeActive();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            background.submit(() -> { }).get();
+        } catch (Exception ex) {
+            throw new IOException("Waiting for background flush failed", ex);
+        }
+        lock.readLock().lock();
+        try {
+            if (!frozen.isEmpty()) throw new IOException("Some memtables could not be flushed");
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        lock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        background.shutdown();
+        try {
+            background.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        for (Segment s : segments) s.close();
+    }
+}
@@ -0,0 +1,68 @@
+package guildquest.storage.lsm;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges several cursors into one sorted stream.
+ *
+ * Sources are given newest first; when several hold the same key only the newest
+ * entry is returned. Tombstones are optionally hidden (scans) or kept (partial merges).
+ */
+final class MergingCursor implements Cursor {
+
+    private static final class Source {
+        final Cursor cursor;
+        final int rank; // 0 = newest
+
+        Source(Cursor cursor, int rank) {
+            this.cursor = cursor;
+            this.rank = rank;
+        }
+    }
+
+    private final PriorityQueue<Source> queue;
+    private final boolean hideTombstones;
+    private StoreKey key;
+    private byte[] value;
+
+    MergingCursor(List<Cursor> newestFirst, boolean hideTombstones) throws IOException {
+        this.hideTombstones = hideTombstones;
+        this.queue = new PriorityQueue<>(Math.max(1, newestFirst.size()), (a, b) -> {
+            int c = a.cursor.key().compareTo(b.cursor.key());
+            return c != 0 ? c : Integer.compare(a.rank, b.rank);
+        });
+        for (int i = 0; i < newestFirst.size(); i++) {
+            Cursor c = newestFirst.get(i);
+            if (c.advance()) queue.add(new Source(c, i));
+        }
+    }
+
+    @Override
+    public boolean advance() throws IOException {
+        while (!queue.isEmpty()) {
+            Source newest = queue.poll();
+            StoreKey k = newest.cursor.key();
+            byte[] v = newest.cursor.value();
+            if (newest.cursor.advance()) queue.add(newest);
+
+            // Skip older copies of the same key.
+            while (!queue.isEmpty() && queue.peek().cursor.key().equals(k)) {
+                Source older = queue.poll();
+                if (older.cursor.advance()) queue.add(older);
+            }
+
+            if (hideTombstones && v == TOMBSTONE) continue;
+            key = k;
+            value = v;
+            return true;
+        }
+        key = null;
+        value = null;
+        return false;
+    }
+
+    @Override public StoreKey key() { return key; }
+    @Override public byte[] value() { return value; }
+}
@@ -0,0 +1,372 @@
+package guildquest.storage.lsm;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import guildquest.storage.EventCodec;
+
+/**
+ * Immutable sorted segment file.
+ *
+ * Layout: header, records sorted by key, sparse index (every INDEX_INTERVAL-th key
+ * with its file offset), fixed-size footer. Only the sparse index is kept in memory;
+ * a scan binary-searches it and then reads the data region sequentially.
+ *
+ * The header records which flushes the segment covers (seq range) and its compaction
+ * level, so recovery knows exactly which inputs a merged segment replaces.
+ *
+ * Version 1 and 2 files have no level (they count as level 0); a compacted one covers
+ * every older segment. Version 1 files (32-bit start minutes, EventCodec v1 values) are still readable:
+ * their keys are widened and values re-encoded as they are read, and the next
+ * compaction rewrites them in the current format.
+ */
+final class Segment implements Closeable {
+    static final String SUFFIX = ".sst";
+
+    private static final int MAGIC = 0x47514C53; // "GQLS"
+    private static final int VERSION = 3;
+    private static final int V2_VERSION = 2;
+    private static final int LEGACY_VERSION = 1;
+    private static final int V2_HEADER_BYTES = 4 + 4 + 8 + 8 + 1;
+    private static final int HEADER_BYTES = V2_HEADER_BYTES + 8 + 4;
+    private static final int FOOTER_BYTES = 8 + 4 + 4;
+    private static final int RECORD_HEADER_BYTES = StoreKey.BYTES + 4;
+    private static final int LEGACY_RECORD_HEADER_BYTES = 12 + 4;
+    private static final int INDEX_INTERVAL = 64;
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    final long fileId;
+    final long seq;          // precedence: higher wins
+    final long baseSeq;      // lowest flush seq merged into this segment (== seq for a flush)
+    final int level;         // 0 = flushed memtable, n + 1 = merge of level-n segments
+    final boolean compacted; // replaces every segment with seq in [baseSeq, seq] and a lower fileId
+    final Path path;
+
+    private final FileChannel channel;
+    private final int version;
+    private final long dataStart;
+    private final long dataEnd;
+    private final long sizeBytes;
+    private final int recordCount;
+
+    // Sparse index (parallel primitive arrays)
+    private final int[] idxCampaign;
+    private final long[] idxStart;
+    private final int[] idxEvent;
+    private final long[] idxOffset;
+
+    private Segment(Path path, FileChannel channel, int version, long fileId, long seq, long baseSeq, int level,
+                    boolean compacted, long dataStart, long dataEnd, long sizeBytes, int recordCount,
+                    int[] idxCampaign, long[] idxStart, int[] idxEvent, long[] idxOffset) {
+        this.path = path;
+        this.channel = channel;
+        this.version = version;
+        this.fileId = fileId;
+        this.seq = seq;
+        this.baseSeq = baseSeq;
+        this.level = level;
+        this.compacted = compacted;
+        this.dataStart = dataStart;
+        this.dataEnd = dataEnd;
+        this.sizeBytes = sizeBytes;
+        this.recordCount = recordCount;
+        this.idxCampaign = idxCampaign;
+        this.idxStart = idxStart;
+        this.idxEvent = idxEvent;
+        this.idxOffset = idxOffset;
+    }
+
+    static Path pathFor(Path dir, long fileId) {
+        return dir.resolve(String.format("segment-%08d%s", fileId, SUFFIX));
+    }
+
+    long sizeBytes() { return sizeBytes; }
+    int recordCount() { return recordCount; }
+    boolean isLegacy() { return version == LEGACY_VERSION; }
+
+    // ---- Writing ----
+
+    /** Writes every entry of the source cursor to a new segment (temp file + atomic rename). */
+    static Segment write(Path dir, long fileId, long seq, long baseSeq, int level, boolean compacted,
+                         Cursor source) throws IOException {
+        Path target = pathFor(dir, fileId);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        IntList idxCampaign = new IntList(), idxEvent = new IntList();
+        LongList idxStart = new LongList(), idxOffset = new LongList();
+        long offset = HEADER_BYTES;
+        int count = 0;
+
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fileId);
+            out.writeLong(seq);
+            out.writeBoolean(compacted);
+            out.writeLong(baseSeq);
+            out.writeInt(level);
+
+            while (source.advance()) {
+                StoreKey k = source.key();
+                byte[] v = source.value();
+                if (count % INDEX_INTERVAL == 0) {
+                    idxCampaign.add(k.campaignId);
+                    idxStart.add(k.startMinutes);
+                    idxEvent.add(k.eventId);
+                    idxOffset.add(offset);
+                }
+                out.writeInt(k.campaignId);
+                out.writeLong(k.startMinutes);
+                out.writeInt(k.eventId);
+                if (v == Cursor.TOMBSTONE) {
+                    out.writeInt(-1);
+                } else {
+                    out.writeInt(v.length);
+                    out.write(v);
+                }
+                offset += RECORD_HEADER_BYTES + (v == Cursor.TOMBSTONE ? 0 : v.length);
+                count++;
+            }
+
+            long indexOffset = offset;
+            out.writeInt(idxOffset.size());
+            for (int i = 0; i < idxOffset.size(); i++) {
+                out.writeInt(idxCampaign.get(i));
+                out.writeLong(idxStart.get(i));
+                out.writeInt(idxEvent.get(i));
+                out.writeLong(idxOffset.get(i));
+            }
+            out.writeLong(indexOffset);
+            out.writeInt(count);
+            out.writeInt(MAGIC);
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(target);
+    }
+
+    // ---- Reading ----
+
+    static Segment open(Path path) throws IOException {
+        FileChannel ch = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = ch.size();
+            if (size < V2_HEADER_BYTES + FOOTER_BYTES + 4) throw new IOException("Segment too small: " + path);
+
+            ByteBuffer header = readFully(ch, 0, V2_HEADER_BYTES);
+            if (header.getInt() != MAGIC) throw new IOException("Not a segment file: " + path);
+            int version = header.getInt();
+            if (version != VERSION && version != V2_VERSION && version != LEGACY_VERSION) {
+                throw new IOException("Unsupported segment version " + version + ": " + path);
+            }
+            long fileId = header.getLong();
+            long seq = header.getLong();
+            boolean compacted = header.get() != 0;
+            long baseSeq = compacted ? 0 : seq;
+            int level = 0;
+            long dataStart = V2_HEADER_BYTES;
+            if (version == VERSION) {
+                ByteBuffer rest = readFully(ch, V2_HEADER_BYTES, HEADER_BYTES - V2_HEADER_BYTES);
+                baseSeq = rest.getLong();
+                level = rest.getInt();
+                dataStart = HEADER_BYTES;
+            }
+
+            ByteBuffer footer = readFully(ch, size - FOOTER_BYTES, FOOTER_BYTES);
+            long indexOffset = footer.getLong();
+            int count = footer.getInt();
+            if (footer.getInt() != MAGIC) throw new IOException("Segment footer is corrupt: " + path);
+
+            ByteBuffer index = readFully(ch, indexOffset, (int) (size - FOOTER_BYTES - indexOffset));
+            int n = index.getInt();
+            int[] c = new int[n], e = new int[n];
+            long[] s = new long[n], off = new long[n];
+            for (int i = 0; i < n; i++) {
+                c[i] = index.getInt();
+                s[i] = version == LEGACY_VERSION ? index.getInt() : index.getLong();
+                e[i] = index.getInt();
+                off[i] = index.getLong();
+            }
+            return new Segment(path, ch, version, fileId, seq, baseSeq, level, compacted,
+                    dataStart, indexOffset, size, count, c, s, e, off);
+        } catch (IOException | RuntimeException ex) {
+            ch.close();
+            throw ex;
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel ch, long position, int length) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, position + buf.position()) < 0) throw new EOFException("Unexpected end of segment");
+        }
+        buf.flip();
+        return buf;
+    }
+
+    /** Cursor over [lo, hi); null bounds mean unbounded. Each cursor has its own read buffer. */
+    Cursor cursor(StoreKey lo, StoreKey hi) {
+        return new SegmentCursor(lo == null ? dataStart : seekOffset(lo), lo, hi);
+    }
+
+    /** Offset of the last indexed key <= lo (the first record that can matter). */
+    private long seekOffset(StoreKey lo) {
+        int low = 0, high = idxOffset.length - 1, found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compareIndex(mid, lo) <= 0) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found < 0 ? dataStart : idxOffset[found];
+    }
+
+    private int compareIndex(int i, StoreKey k) {
+        int c = Integer.compare(idxCampaign[i], k.campaignId);
+        if (c != 0) return c;
+        c = Long.compare(idxStart[i], k.startMinutes);
+        if (c != 0) return c;
+        return Integer.compare(idxEvent[i], k.eventId);
+    }
+
+    private final class SegmentCursor implements Cursor {
+        private final StoreKey lo;
+        private final StoreKey hi;
+        private ByteBuffer buf = ByteBuffer.allocate(READ_BUFFER_BYTES).flip();
+        private long loadPos;   // file position of the next byte to load into buf
+        private long recordPos; // file position of the next record
+        private StoreKey key;
+        private byte[] value;
+
+        SegmentCursor(long start, StoreKey lo, StoreKey hi) {
+            this.lo = lo;
+            this.hi = hi;
+            this.loadPos = start;
+            this.recordPos = start;
+        }
+
+        @Override
+        public boolean advance() throws IOException {
+            boolean legacy = isLegacy();
+            int headerBytes = legacy ? LEGACY_RECORD_HEADER_BYTES : RECORD_HEADER_BYTES;
+            while (recordPos < dataEnd) {
+                ensure(headerBytes);
+                int campaignId = buf.getInt();
+                long start = legacy ? buf.getInt() : buf.getLong();
+                StoreKey k = new StoreKey(campaignId, start, buf.getInt());
+                int len = buf.getInt();
+                int bodyLen = Math.max(len, 0);
+                recordPos += headerBytes + bodyLen;
+
+                if (hi != null && k.compareTo(hi) >= 0) {
+                    recordPos = dataEnd;
+                    break;
+                }
+                if (lo != null && k.compareTo(lo) < 0) {
+                    skip(bodyLen);
+                    continue;
+                }
+
+                byte[] v = TOMBSTONE;
+                if (len >= 0) {
+                    ensure(len);
+                    v = new byte[len];
+                    buf.get(v);
+                    if (legacy) v = upgradeValue(v);
+                }
+                key = k;
+                value = v;
+                return true;
+            }
+            key = null;
+            value = null;
+            return false;
+        }
+
+        @Override public StoreKey key() { return key; }
+        @Override public byte[] value() { return value; }
+
+        private void skip(int n) throws IOException {
+            if (buf.remaining() >= n) {
+                buf.position(buf.position() + n);
+            } else {
+                loadPos += n - buf.remaining();
+                buf.position(buf.limit());
+            }
+        }
+
+        /** Makes at least n bytes readable in buf using positional (sequential) reads. */
+        private void ensure(int n) throws IOException {
+            if (buf.remaining() >= n) return;
+            if (n > buf.capacity()) {
+                ByteBuffer bigger = ByteBuffer.allocate(n);
+                bigger.put(buf);
+                buf = bigger;
+            } else {
+                buf.compact();
+            }
+            while (buf.position() < n) {
+                int r = channel.read(buf, loadPos);
+                if (r < 0) throw new EOFException("Segment truncated: " + path);
+                loadPos += r;
+            }
+            buf.flip();
+        }
+    }
+
+    /** Re-encodes a version 1 value (EventCodec v1) in the current event format. */
+    private static byte[] upgradeValue(byte[] v1) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(v1));
+        return EventStore.encode(EventCodec.readEvent(in, EventCodec.FORMAT_V1));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ---- Tiny growable primitive lists for building the index ----
+
+    private static final class IntList {
+        private int[] a = new int[16];
+        private int n;
+
+        void add(int v) {
+            if (n == a.length) a = Arrays.copyOf(a, n * 2);
+            a[n++] = v;
+        }
+
+        int get(int i) { return a[i]; }
+    }
+
+    private static final class LongList {
+        private long[] a = new long[16];
+        private int n;
+
+        void add(long v) {
+            if (n == a.length) a = Arrays.copyOf(a, n * 2);
+            a[n++] = v;
+        }
+
+        long get(int i) { return a[i]; }
+        int size() { return n; }
+    }
+}
@@ -0,0 +1,44 @@
+package guildquest.storage.lsm;
+
+/**
+ * Sort key of the event store: (campaignId, startMinutes, eventId).
+ */
+final class StoreKey implements Comparable<StoreKey> {
+    static final int BYTES = 16;
+
+    final int campaignId;
+    final long startMinutes;
+    final int eventId;
+
+    StoreKey(int campaignId, long startMinutes, int eventId) {
+        this.campaignId = campaignId;
+        this.startMinutes = startMinutes;
+        this.eventId = eventId;
+    }
+
+    @Override
+    public int compareTo(StoreKey o) {
+        int c = Integer.compare(campaignId, o.campaignId);
+        if (c != 0) return c;
+        c = Long.compare(startMinutes, o.startMinutes);
+        if (c != 0) return c;
+        return Integer.compare(eventId, o.eventId);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StoreKey k)) return false;
+        return campaignId == k.campaignId && startMinutes == k.startMinutes && eventId == k.eventId;
+    }
+
+    @Override
+    public int hashCode() {
+        return (campaignId * 31 + Long.hashCode(startMinutes)) * 31 + eventId;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + campaignId + ", " + startMinutes + ", " + eventId + ")";
+    }
+}
@@ -0,0 +1,60 @@
+package guildquest.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import guildquest.model.Campaign;
+import guildquest.model.QuestEvent;
+import guildquest.model.RealmRegistry;
+
+class TimelineExporterTest {
+
+    private static String exportIcs(Campaign c, long wallClockMillis) throws IOException {
+        TimelineExporter exporter = TimelineExporter.raw(ExportFormat.ICALENDAR);
+        exporter.setWallClock(() -> wallClockMillis);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        exporter.export(c, Channels.newChannel(bytes));
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void icsUsesExportTimeForStampAndUtcForEveryDateTime() throws IOException {
+        Campaign c = new Campaign(1, "Raids");
+        c.addEvent(new QuestEvent(1, "Siege", 1440 + 90, 1440 + 150, null));
+
+        // 2024-03-05T06:07:00Z
+        String ics = exportIcs(c, 1709618820_000L);
+
+        assertTrue(ics.contains("\r\nDTSTAMP:20240305T060700Z\r\n"), ics);
+        assertTrue(ics.contains("\r\nDTSTART:20000102T013000Z\r\n"), ics);
+        assertTrue(ics.contains("\r\nDTEND:20000102T023000Z\r\n"), ics);
+    }
+
+    @Test
+    void icsFoldsLongLinesAt75OctetsWithoutSplittingCharacters() throws IOException {
+        StringBuilder title = new StringBuilder();
+        for (int i = 0; i < 40; i++) title.append("Drachenjagd über den Gipfeln 🐉 ");
+        Campaign c = new Campaign(1, "Raids");
+        QuestEvent e = new QuestEvent(1, title.toString().trim(), 0, QuestEvent.NO_END, RealmRegistry.global().intern("Mars", 39));
+        for (int i = 0; i < 200; i++) e.addParticipant("Participant " + i);
+        c.addEvent(e);
+
+        String ics = exportIcs(c, 0);
+
+        for (String physical : ics.split("\r\n")) {
+            int octets = physical.getBytes(StandardCharsets.UTF_8).length;
+            assertTrue(octets <= 75, () -> octets + " octets: " + physical);
+            assertTrue(physical.indexOf('�') < 0 && physical.indexOf('?') < 0, physical);
+        }
+        String unfolded = ics.replace("\r\n ", "");
+        assertTrue(unfolded.contains("\r\nSUMMARY:" + title.toString().trim() + "\r\n"), "summary survives unfolding");
+        assertTrue(unfolded.contains("Participant 0\\, Participant 1\\, "), "description survives unfolding");
+    }
+}
@@ -0,0 +1,184 @@
+package guildquest.gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ListDiffTest {
+
+    /** Identity matters, not equality: every Item is a distinct element. */
+    private static final class Item {
+        final int id;
+        int version;
+
+        Item(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public String toString() { return id + "v" + version; }
+    }
+
+    /** Replays a script on a copy of the old list, the way DiffingObservableList does. */
+    private static final class Replay implements ListDiff.Visitor<Item> {
+        final List<Item> list;
+        final int[] oldVersions;
+        final int[] newVersions;
+        final List<Item> kept = new ArrayList<>();
+        final List<Item> replaced = new ArrayList<>();
+        int at;
+        int removes;
+        int inserts;
+        int lastOld = -1;
+        int lastNew = -1;
+
+        Replay(List<Item> old, int[] oldVersions, int[] newVersions) {
+            this.list = new ArrayList<>(old);
+            this.oldVersions = oldVersions;
+            this.newVersions = newVersions;
+        }
+
+        @Override
+        public void keep(int oldIndex, int newIndex, Item item) {
+            assertSame(item, list.get(at));
+            assertTrue(oldIndex > lastOld && newIndex > lastNew, "keeps must run front to back");
+            lastOld = oldIndex;
+            lastNew = newIndex;
+            kept.add(item);
+            if (oldVersions[oldIndex] != newVersions[newIndex]) replaced.add(item);
+            at++;
+        }
+
+        @Override
+        public void remove(int oldIndex, Item item) {
+            assertSame(item, list.remove(at));
+            removes++;
+        }
+
+        @Override
+        public void insert(int newIndex, Item item) {
+            list.add(at, item);
+            at++;
+            inserts++;
+        }
+    }
+
+    @Test
+    void replayingTheScriptTurnsTheOldListIntoTheNewOne() {
+        Random rnd = new Random(41);
+        for (int round = 0; round < 3_000; round++) {
+            int size = rnd.nextInt(round % 10 == 0 ? 300 : 30);
+            List<Item> pool = new ArrayList<>();
+            for (int i = 0; i < size + 20; i++) pool.add(new Item(i));
+            List<Item> old = new ArrayList<>(pool.subList(0, size));
+            int[] oldVersions = versions(old);
+
+            List<Item> next = mutate(old, pool, rnd);
+            Map<Item, Boolean> bumped = new IdentityHashMap<>();
+            for (Item it : next) {
+                if (rnd.nextInt(8) == 0 && bumped.put(it, true) == null) it.version++;
+            }
+            int[] newVersions = versions(next);
+
+            Replay replay = new Replay(old, oldVersions, newVersions);
+            int edits = ListDiff.diff(old, next, replay);
+
+            assertEquals(next.size(), replay.list.size());
+            for (int i = 0; i < next.size(); i++) assertSame(next.get(i), replay.list.get(i));
+            assertEquals(replay.removes + replay.inserts, edits);
+            // Minimal: everything outside a longest common (order-preserving) subsequence moves.
+            int lcs = longestKept(old, next);
+            assertEquals(old.size() + next.size() - 2 * lcs, edits, "round " + round);
+            // Exactly the kept elements whose version moved are reported as replaced.
+            List<Item> expected = new ArrayList<>();
+            for (Item it : replay.kept) if (bumped.containsKey(it)) expected.add(it);
+            assertEquals(expected, replay.replaced);
+        }
+    }
+
+    @Test
+    void versionOnlyChangesAreKeptAndReported() {
+        List<Item> old = new ArrayList<>();
+        for (int i = 0; i < 10; i++) old.add(new Item(i));
+        int[] oldVersions = versions(old);
+        old.get(0).version++;
+        old.get(4).version++;
+        old.get(9).version++;
+        Replay replay = new Replay(old, oldVersions, versions(old));
+
+        assertEquals(0, ListDiff.diff(old, old, replay));
+        assertEquals(List.of(old.get(0), old.get(4), old.get(9)), replay.replaced);
+    }
+
+    @Test
+    void duplicatesAndDisjointListsStillReplayCorrectly() {
+        Item a = new Item(1);
+        Item b = new Item(2);
+        Item c = new Item(3);
+        List<Item> old = List.of(a, b, a, c);
+        List<Item> next = List.of(c, a, a, b, new Item(4));
+        Replay replay = new Replay(old, versions(old), versions(next));
+        ListDiff.diff(old, next, replay);
+        assertEquals(next.size(), replay.list.size());
+        for (int i = 0; i < next.size(); i++) assertSame(next.get(i), replay.list.get(i));
+
+        List<Item> other = List.of(new Item(5), new Item(6));
+        replay = new Replay(old, versions(old), versions(other));
+        assertEquals(old.size() + other.size(), ListDiff.diff(old, other, replay));
+        assertEquals(other, replay.list);
+    }
+
+    /** Inserts, removes, moves and swaps, with unchanged runs at both ends now and then. */
+    private static List<Item> mutate(List<Item> old, List<Item> pool, Random rnd) {
+        List<Item> next = new ArrayList<>(old);
+        List<Item> spare = new ArrayList<>(pool.subList(old.size(), pool.size()));
+        int ops = rnd.nextInt(6);
+        for (int k = 0; k < ops; k++) {
+            switch (rnd.nextInt(4)) {
+                case 0 -> {
+                    if (!spare.isEmpty()) next.add(rnd.nextInt(next.size() + 1), spare.remove(spare.size() - 1));
+                }
+                case 1 -> {
+                    if (!next.isEmpty()) next.remove(rnd.nextInt(next.size()));
+                }
+                case 2 -> {
+                    if (!next.isEmpty()) {
+                        Item moved = next.remove(rnd.nextInt(next.size()));
+                        next.add(rnd.nextInt(next.size() + 1), moved);
+                    }
+                }
+                default -> {
+                    if (next.size() > 1) Collections.swap(next, rnd.nextInt(next.size()), rnd.nextInt(next.size()));
+                }
+            }
+        }
+        if (rnd.nextInt(20) == 0) Collections.shuffle(next, rnd);
+        return next;
+    }
+
+    private static int[] versions(List<Item> items) {
+        int[] v = new int[items.size()];
+        for (int i = 0; i < v.length; i++) v[i] = items.get(i).version;
+        return v;
+    }
+
+    /** Longest common subsequence by identity (distinct elements), quadratic reference. */
+    private static int longestKept(List<Item> a, List<Item> b) {
+        int[][] best = new int[a.size() + 1][b.size() + 1];
+        for (int i = a.size() - 1; i >= 0; i--) {
+            for (int j = b.size() - 1; j >= 0; j--) {
+                best[i][j] = a.get(i) == b.get(j) ? best[i + 1][j + 1] + 1 : Math.max(best[i + 1][j], best[i][j + 1]);
+            }
+        }
+        return best[0][0];
+    }
+}
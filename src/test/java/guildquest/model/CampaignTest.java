@@ -0,0 +1,79 @@
+package guildquest.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class CampaignTest {
+
+    @Test
+    void duplicateEventIdIsRejectedAndIndexesStayInAgreement() {
+        Campaign c = new Campaign(1, "Raids");
+        QuestEvent first = new QuestEvent(5, "first", 10, QuestEvent.NO_END, null);
+        c.addEvent(first);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> c.addEvent(new QuestEvent(5, "second", 20, QuestEvent.NO_END, null)));
+
+        assertEquals(1, c.getEventCount());
+        assertEquals(1, c.getEvents().size());
+        assertEquals(1, c.eventsInStartOrder().size());
+        assertEquals(1, c.eventsStartingBetween(0, 100).size());
+        assertSame(first, c.findEvent(5));
+    }
+
+    @Test
+    void failedFreezeLeavesTheCampaignActiveAndUnannounced() {
+        Campaign c = new Campaign(2, "Guild");
+        c.addEvent(new QuestEvent(1, "raid", 10, QuestEvent.NO_END, null));
+        c.setColdTier((id, events) -> { throw new IllegalStateException("tier full"); });
+        Counter counter = new Counter();
+        c.addObserver(counter);
+
+        assertThrows(IllegalStateException.class, () -> c.setArchived(true));
+
+        assertFalse(c.isArchived());
+        assertFalse(c.isFrozen());
+        assertEquals(0, counter.campaignChanges);
+        assertEquals("raid", c.findEvent(1).getTitle());
+    }
+
+    @Test
+    void thawingTellsObserversTheEventsAreNewInstances() {
+        Campaign c = new Campaign(3, "Archive");
+        QuestEvent original = new QuestEvent(1, "old raid", 10, QuestEvent.NO_END, null);
+        c.addEvent(original);
+        CopyingColdTier tier = new CopyingColdTier();
+        c.setColdTier(tier);
+        c.setArchived(true);
+        assertTrue(c.isFrozen());
+        Counter counter = new Counter();
+        c.addObserver(counter);
+
+        tier.failNextThaw = true;
+        assertThrows(IllegalStateException.class, () -> c.findEvent(1));
+        assertTrue(c.isFrozen());
+        assertEquals(0, counter.reloads);
+
+        QuestEvent thawed = c.findEvent(1);
+        assertEquals(1, counter.reloads);
+        assertNotSame(original, thawed);
+        assertEquals("old raid", thawed.getTitle());
+        c.getEvents();
+        assertEquals(1, counter.reloads);
+    }
+
+    private static final class Counter implements CampaignObserver {
+        int campaignChanges;
+        int reloads;
+
+        @Override public void onCampaignChanged(Campaign campaign) { campaignChanges++; }
+        @Override public void onEventChanged(Campaign campaign, QuestEvent event) { }
+        @Override public void onEventsReloaded(Campaign campaign) { reloads++; }
+    }
+}
@@ -0,0 +1,37 @@
+package guildquest.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test cold tier that keeps copies on the heap; thaw hands out fresh instances like a
+ * real tier does. failNextThaw makes the next thaw throw.
+ */
+final class CopyingColdTier implements EventColdTier {
+    boolean failNextThaw;
+
+    @Override
+    public FrozenEvents freeze(int campaignId, List<QuestEvent> events) {
+        List<QuestEvent> copies = new ArrayList<>();
+        for (QuestEvent e : events) copies.add(copy(e));
+        return new FrozenEvents() {
+            @Override public int count() { return copies.size(); }
+            @Override public void discard() { }
+
+            @Override
+            public List<QuestEvent> thaw() {
+                if (failNextThaw) {
+                    failNextThaw = false;
+                    throw new IllegalStateException("tier unavailable");
+                }
+                List<QuestEvent> out = new ArrayList<>();
+                for (QuestEvent e : copies) out.add(copy(e));
+                return out;
+            }
+        };
+    }
+
+    private static QuestEvent copy(QuestEvent e) {
+        return new QuestEvent(e.getEventId(), e.getTitle(), e.getStartMinutes(), e.getEndMinutes(), e.getRealm());
+    }
+}
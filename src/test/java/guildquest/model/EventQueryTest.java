@@ -0,0 +1,264 @@
+package guildquest.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class EventQueryTest {
+
+    private static final long DAY = GlobalTime.MINUTES_PER_DAY;
+    private static final Realm MARS = RealmRegistry.global().intern("Mars", 0);
+    private static final Realm MARSH = RealmRegistry.global().intern("Marsh", 30);
+    private static final Realm VENUS = RealmRegistry.global().intern("Venus", -60);
+
+    @Test
+    void nameClausesMatchWholeNamesIgnoringCaseOrPrefixesWithAStar() {
+        QuestEvent e = event(1, "Dragon raid", 10, QuestEvent.NO_END, MARS);
+        e.addParticipant("Jane Doe");
+        e.addItem("Iron Sword");
+        Campaign raids = new Campaign(1, "Raid Night");
+
+        assertTrue(matches("realm:mars", raids, e));
+        assertFalse(matches("realm:mar", raids, e));
+        assertTrue(matches("realm:MA*", raids, e));
+        assertFalse(matches("realm:venus", raids, e));
+        assertFalse(matches("realm:mars", raids, event(2, "x", 10, QuestEvent.NO_END, null)));
+
+        assertTrue(matches("participant:\"jane doe\"", raids, e));
+        assertTrue(matches("who:\"JANE DOE\"", raids, e));
+        assertTrue(matches("who=jan*", raids, e));
+        assertFalse(matches("who:jane", raids, e));
+
+        assertTrue(matches("item:\"iron sword\"", raids, e));
+        assertTrue(matches("item:iron*", raids, e));
+        assertFalse(matches("item:sword", raids, e));
+
+        assertTrue(matches("campaign:\"raid night\"", raids, e));
+        assertTrue(matches("campaign:rai*", raids, e));
+        assertFalse(matches("campaign:raid", raids, e));
+        assertTrue(EventQuery.parse("campaign:feasts", 0).matchesEvent(e)); // campaign clauses aren't event clauses
+    }
+
+    @Test
+    void titleWordsTitleSubstringsAndBareWords() {
+        QuestEvent e = event(1, "Dragon-slaying raid", 10, QuestEvent.NO_END, MARS);
+        e.addParticipant("Jane");
+        e.addItem("Potion of Haste");
+        Campaign c = new Campaign(1, "Raids");
+
+        assertTrue(matches("title:\"raid dragon\"", c, e));
+        assertTrue(matches("title:drag*", c, e));
+        assertFalse(matches("title:jane", c, e));
+        assertFalse(matches("title:drag", c, e));
+
+        assertTrue(matches("title~\"on-sla\"", c, e));
+        assertTrue(matches("title~RAID", c, e));
+        assertFalse(matches("title~\"raid dragon\"", c, e));
+
+        // Bare words look in the title, participants and items, but not the realm.
+        assertTrue(matches("jane", c, e));
+        assertTrue(matches("hast*", c, e));
+        assertTrue(matches("dragon jane potion", c, e));
+        assertFalse(matches("mars", c, e));
+        assertFalse(matches("dragon goblin", c, e));
+        assertTrue(EventQuery.parse("", 0).isEmpty());
+        assertTrue(matches("   ", c, e));
+    }
+
+    @Test
+    void timeClausesCoverEveryOperatorAndTimeForm() {
+        long now = 5 * DAY + 100;
+        assertRange("start<day 2", now, Long.MIN_VALUE, 2 * DAY);
+        assertRange("start<=day 2", now, Long.MIN_VALUE, 3 * DAY);
+        assertRange("start=day 2", now, 2 * DAY, 3 * DAY);
+        assertRange("start:day 2", now, 2 * DAY, 3 * DAY);
+        assertRange("start: day 2", now, 2 * DAY, 3 * DAY);
+        assertRange("start>= day 2", now, 2 * DAY, Long.MAX_VALUE);
+        assertRange("start>day 2", now, 3 * DAY, Long.MAX_VALUE);
+        assertRange("start<500", now, Long.MIN_VALUE, 500);
+        assertRange("start<=500", now, Long.MIN_VALUE, 501);
+        assertRange("start=500", now, 500, 501);
+        assertRange("start>=500", now, 500, Long.MAX_VALUE);
+        assertRange("start>500", now, 501, Long.MAX_VALUE);
+        assertRange("start=today", now, 5 * DAY, 6 * DAY);
+        assertRange("start>now", now, now + 1, Long.MAX_VALUE);
+        assertRange("start>=100 start<=day 0 start>50", now, 100, DAY); // clauses intersect
+
+        EventQuery end = EventQuery.parse("end>=day 1 end<day 2", now);
+        assertTrue(end.endConstrained);
+        assertFalse(end.hasStartRange());
+        assertTrue(end.matchesEvent(event(1, "a", 0, DAY, null)));
+        assertTrue(end.matchesEvent(event(2, "a", 0, 2 * DAY - 1, null)));
+        assertFalse(end.matchesEvent(event(3, "a", 0, 2 * DAY, null)));
+        assertFalse(end.matchesEvent(event(4, "a", DAY, QuestEvent.NO_END, null)));
+
+        EventQuery day1 = EventQuery.parse("start=day 1", now);
+        assertFalse(day1.matchesEvent(event(5, "a", DAY - 1, QuestEvent.NO_END, null)));
+        assertTrue(day1.matchesEvent(event(6, "a", DAY, QuestEvent.NO_END, null)));
+        assertTrue(day1.matchesEvent(event(7, "a", 2 * DAY - 1, QuestEvent.NO_END, null)));
+        assertFalse(day1.matchesEvent(event(8, "a", 2 * DAY, QuestEvent.NO_END, null)));
+    }
+
+    @Test
+    void malformedQueriesExplainWhatIsWrong() {
+        assertError("realm<Mars", "Use ':' with realm (got realm<Mars)");
+        assertError("who>=jane", "Use ':' with who (got who>=jane)");
+        assertError("title~", "Missing value in title~");
+        assertError("item:\"\"", "Missing value in item:");
+        assertError("item~sword", "'~' only works with title (got item~sword)");
+        assertError("color:red", "Unknown field 'color' (use realm, participant, item, campaign, title, start, end)");
+        assertError("start>=soon", "Bad time 'soon' (use day N, today, now or minutes)");
+        assertError("start>=day x", "Bad time 'day x' (use day N, today, now or minutes)");
+        assertError("end<", "Bad time '' (use day N, today, now or minutes)");
+        assertError("start=day 99999999999999999", "Bad time 'day 99999999999999999' (use day N, today, now or minutes)");
+        assertError("start>=day", "Missing day number after start>=day");
+        assertError("start~5", "Use = < <= > >= with start");
+        assertError("who:\"jane", "Unclosed quote");
+    }
+
+    @Test
+    void everyAccessPathReturnsExactlyTheBruteForceMatchesInOrder() {
+        Random rnd = new Random(47);
+        EventTextIndex index = new EventTextIndex();
+        List<Campaign> campaigns = new ArrayList<>();
+        String[] names = { "Raids", "Raid Night", "Feasts", "Market Days" };
+        int nextId = 1;
+        for (int c = 0; c < names.length; c++) {
+            Campaign campaign = new Campaign(c + 1, names[c]);
+            for (int i = 0; i < 300; i++) campaign.addEvent(randomEvent(rnd, nextId++));
+            index.watch(campaign);
+            campaigns.add(campaign);
+        }
+        EventQueryPlanner planner = new EventQueryPlanner(index);
+        EventQueryPlanner scanOnly = new EventQueryPlanner(null);
+
+        Map<EventQueryPlanner.Plan.Access, Integer> seen = new EnumMap<>(EventQueryPlanner.Plan.Access.class);
+        for (int round = 0; round < 1500; round++) {
+            // Keep the index following edits while queries run.
+            Campaign touched = campaigns.get(rnd.nextInt(campaigns.size()));
+            List<QuestEvent> events = touched.getEvents();
+            QuestEvent victim = events.get(rnd.nextInt(events.size()));
+            switch (rnd.nextInt(3)) {
+                case 0 -> touched.removeEventById(victim.getEventId());
+                case 1 -> touched.updateEvent(randomEvent(rnd, victim.getEventId()));
+                default -> touched.addEvent(randomEvent(rnd, nextId++));
+            }
+
+            String text = randomQuery(rnd);
+            EventQuery query = EventQuery.parse(text, 4 * DAY + 600);
+            List<EventQueryPlanner.Match> expected = bruteForce(query, campaigns);
+
+            EventQueryPlanner.Result result = planner.find(query, campaigns, Integer.MAX_VALUE);
+            seen.merge(result.getPlan().access, 1, Integer::sum);
+            assertSameMatches(text + " via " + result.getPlan(), expected, result.getMatches());
+            assertEquals(expected.size(), result.getTotal(), text);
+            assertTrue(result.getExamined() >= result.getTotal(), text);
+
+            assertSameMatches(text + " by scan", expected, scanOnly.find(query, campaigns, Integer.MAX_VALUE).getMatches());
+
+            int limit = rnd.nextInt(5);
+            EventQueryPlanner.Result limited = planner.find(query, campaigns, limit);
+            assertSameMatches(text + " limit " + limit, expected.subList(0, Math.min(limit, expected.size())), limited.getMatches());
+            assertEquals(expected.size(), limited.getTotal(), text);
+        }
+        for (EventQueryPlanner.Plan.Access access : EventQueryPlanner.Plan.Access.values()) {
+            assertTrue(seen.getOrDefault(access, 0) >= 100, () -> "too few " + access + " plans: " + seen);
+        }
+    }
+
+    // ---- Helpers ----
+
+    private static final String[] TITLE_WORDS = { "dragon", "raid", "goblin", "feast", "drake", "market", "siege", "Draft" };
+    private static final String[] PARTICIPANTS = { "Jane", "jake", "Bob", "Bo Peep", "Ann-Marie", "Drake" };
+    private static final String[] ITEMS = { "Iron Sword", "sword", "Shield", "potion", "Dragon Egg" };
+    private static final Realm[] REALMS = { MARS, MARSH, VENUS, null };
+
+    private static QuestEvent randomEvent(Random rnd, int id) {
+        StringBuilder title = new StringBuilder();
+        for (int w = rnd.nextInt(3) + 1; w > 0; w--) {
+            if (title.length() > 0) title.append(rnd.nextBoolean() ? " " : "-");
+            title.append(TITLE_WORDS[rnd.nextInt(TITLE_WORDS.length)]);
+        }
+        long start = rnd.nextInt(20 * (int) DAY);
+        long end = rnd.nextInt(3) == 0 ? QuestEvent.NO_END : start + rnd.nextInt(3 * (int) DAY);
+        QuestEvent e = event(id, title.toString(), start, end, REALMS[rnd.nextInt(REALMS.length)]);
+        for (int p = rnd.nextInt(3); p > 0; p--) e.addParticipant(PARTICIPANTS[rnd.nextInt(PARTICIPANTS.length)]);
+        for (int i = rnd.nextInt(3); i > 0; i--) e.addItem(ITEMS[rnd.nextInt(ITEMS.length)]);
+        return e;
+    }
+
+    /** One to three clauses; a narrow start range, a rare name or neither steers the planner. */
+    private static String randomQuery(Random rnd) {
+        List<String> clauses = new ArrayList<>();
+        switch (rnd.nextInt(3)) {
+            case 0 -> {
+                int day = rnd.nextInt(22);
+                clauses.add(rnd.nextBoolean() ? "start=day " + day : "start>=" + day * DAY + " start<" + (day * DAY + rnd.nextInt(600)));
+            }
+            case 1 -> clauses.add(pick(rnd, "who:\"bo peep\"", "participant:ann*", "item:\"dragon egg\"",
+                    "title:siege", "title:\"goblin market\"", "drak*", "realm:venus", "item:iron*"));
+            default -> { }
+        }
+        for (int n = rnd.nextInt(3); n > 0 || clauses.isEmpty(); n--) {
+            clauses.add(pick(rnd, "realm:mars", "realm:mar*", "who:jane", "who:ja*", "participant:bob",
+                    "item:sword", "item:sh*", "campaign:raid*", "campaign:feasts", "title:dragon", "title:dra*",
+                    "title~agon", "title~\"d-r\"", "raid", "sword", "end<day 8", "end>=" + rnd.nextInt(20) * DAY,
+                    "start>today", "start<=now", "start<day " + rnd.nextInt(20)));
+        }
+        return String.join(" ", clauses);
+    }
+
+    private static String pick(Random rnd, String... options) {
+        return options[rnd.nextInt(options.length)];
+    }
+
+    private static List<EventQueryPlanner.Match> bruteForce(EventQuery query, List<Campaign> campaigns) {
+        List<EventQueryPlanner.Match> out = new ArrayList<>();
+        for (Campaign c : campaigns) {
+            for (QuestEvent e : c.getEvents()) if (query.matches(c, e)) out.add(new EventQueryPlanner.Match(c, e));
+        }
+        out.sort(Comparator.comparingLong((EventQueryPlanner.Match m) -> m.getEvent().getStartMinutes())
+                .thenComparingInt(m -> m.getCampaign().getCampaignId())
+                .thenComparingInt(m -> m.getEvent().getEventId()));
+        return out;
+    }
+
+    private static void assertSameMatches(String what, List<EventQueryPlanner.Match> expected, List<EventQueryPlanner.Match> actual) {
+        assertEquals(expected.size(), actual.size(), what);
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i).getCampaign(), actual.get(i).getCampaign(), what);
+            assertSame(expected.get(i).getEvent(), actual.get(i).getEvent(), what);
+        }
+    }
+
+    private static QuestEvent event(int id, String title, long start, long end, Realm realm) {
+        return new QuestEvent(id, title, start, end, realm);
+    }
+
+    private static boolean matches(String query, Campaign c, QuestEvent e) {
+        return EventQuery.parse(query, 0).matches(c, e);
+    }
+
+    private static void assertRange(String query, long now, long from, long to) {
+        EventQuery q = EventQuery.parse(query, now);
+        assertEquals(from, q.startFrom, query);
+        assertEquals(to, q.startTo, query);
+        assertFalse(q.endConstrained, query);
+    }
+
+    private static void assertError(String query, String message) {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> EventQuery.parse(query, 0));
+        assertEquals(message, ex.getMessage(), query);
+    }
+}
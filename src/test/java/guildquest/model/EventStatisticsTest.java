@@ -0,0 +1,235 @@
+package guildquest.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+class EventStatisticsTest {
+
+    private static final long DAY = GlobalTime.MINUTES_PER_DAY;
+    private static final long FAR = Long.MAX_VALUE - 10 * DAY; // day ~6.4e15, near the top of the day table
+    private static final String[] PARTICIPANTS = { "Jane", "jane", "JANE", "Bob", "Ann", "Zed" };
+    private static final Realm[] REALMS = {
+            RealmRegistry.global().intern("Mars", 0), RealmRegistry.global().intern("mars", 15),
+            RealmRegistry.global().intern("Venus", 0), null };
+
+    @Test
+    void runningTotalsMatchAFullRecountThroughEveryKindOfEdit() {
+        Random rnd = new Random(48);
+        User alice = new User("alice");
+        User bob = new User("bob");
+        User[] owners = { alice, bob, null };
+        List<Campaign> campaigns = List.of(new Campaign(1, "a", alice), new Campaign(2, "b", alice), new Campaign(3, "c", bob));
+        EventStatistics stats = new EventStatistics();
+        int nextId = 1;
+        for (Campaign c : campaigns) {
+            for (int i = 0; i < 40; i++) c.addEvent(randomEvent(rnd, nextId++));
+            stats.watch(c);
+        }
+
+        for (int op = 1; op <= 6000; op++) {
+            Campaign c = campaigns.get(rnd.nextInt(campaigns.size()));
+            List<QuestEvent> events = c.getEvents();
+            QuestEvent e = events.isEmpty() ? null : events.get(rnd.nextInt(events.size()));
+            int kind = rnd.nextInt(20);
+            if (e == null || kind < 4) {
+                c.addEvent(randomEvent(rnd, nextId++));
+            } else if (kind < 7) {
+                c.removeEventById(e.getEventId());
+            } else if (kind < 10) {
+                c.updateEvent(randomEvent(rnd, e.getEventId())); // replacement instance
+            } else if (kind < 15) {
+                long[] times = randomTimes(rnd);
+                e.setTimes(times[0], times[1]);
+                c.updateEvent(e);
+            } else if (kind < 18) {
+                e.clearParticipants();
+                for (int p = rnd.nextInt(4); p > 0; p--) e.addParticipant(PARTICIPANTS[rnd.nextInt(PARTICIPANTS.length)]);
+                e.setRealm(REALMS[rnd.nextInt(REALMS.length)]);
+                c.updateEvent(e);
+            } else if (kind == 18) {
+                c.setOwner(owners[rnd.nextInt(owners.length)]);
+            } else if (stats.forCampaign(c) != null) {
+                stats.unwatch(c);
+            } else {
+                stats.watch(c);
+            }
+            if (op % 50 == 0) assertMatchesRecount(stats, campaigns, owners, rnd);
+        }
+    }
+
+    @Test
+    void dayWindowsHandleNegativeAndHugeDayNumbers() {
+        EventStatistics stats = new EventStatistics();
+        Campaign c = new Campaign(1, "edges");
+        c.addEvent(new QuestEvent(1, "first", 0, 30, null));
+        c.addEvent(new QuestEvent(2, "mid", (1L << 40) * DAY, (1L << 40) * DAY + 60, null));
+        c.addEvent(new QuestEvent(3, "last", Long.MAX_VALUE - 5, Long.MAX_VALUE, null));
+        stats.watch(c);
+        EventStatistics.Totals t = stats.forCampaign(c);
+        long lastDay = GlobalTime.daysOf(Long.MAX_VALUE);
+
+        assertEquals(1, t.eventsOnDay(0));
+        assertEquals(0, t.eventsOnDay(-1));
+        assertEquals(1, t.eventsOnDay(1L << 40));
+        assertEquals(1, t.eventsOnDay(lastDay));
+        assertEquals(3, t.eventsBetweenDays(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(1, t.eventsBetweenDays(-100, 1));
+        assertEquals(0, t.eventsBetweenDays(-100, 0));
+        assertEquals(2, t.eventsBetweenDays(1, Long.MAX_VALUE));
+        assertEquals(1, t.eventsBetweenDays(lastDay, 1L << 53));
+        assertEquals(0, t.eventsBetweenDays(5, -5));
+        assertEquals(95, t.minutesBetweenDays(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(65, t.minutesBetweenDays(1, Long.MAX_VALUE));
+
+        c.removeEventById(3);
+        c.removeEventById(2);
+        assertEquals(1, t.eventsBetweenDays(Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(0, t.eventsOnDay(lastDay));
+        assertEquals(30, t.getScheduledMinutes());
+    }
+
+    // ---- Recount ----
+
+    /** Totals recomputed from the events. */
+    private static final class Recount {
+        long events;
+        long openEnded;
+        long minutes;
+        final TreeMap<Long, long[]> days = new TreeMap<>();              // day -> {events, minutes}
+        final Map<String, long[]> realms = new HashMap<>();              // lower-cased name -> {events, minutes}
+        final Map<String, long[]> participants = new HashMap<>();
+
+        void add(QuestEvent e) {
+            long m = e.hasEndTime() ? e.getEndMinutes() - e.getStartMinutes() : 0;
+            events++;
+            if (!e.hasEndTime()) openEnded++;
+            minutes += m;
+            bump(days.computeIfAbsent(GlobalTime.daysOf(e.getStartMinutes()), d -> new long[2]), m);
+            if (e.getRealm() != null) bump(realms.computeIfAbsent(lower(e.getRealm().getName()), k -> new long[2]), m);
+            Map<String, Boolean> distinct = new LinkedHashMap<>();
+            for (String p : e.getParticipants()) distinct.put(lower(p), true);
+            for (String p : distinct.keySet()) bump(participants.computeIfAbsent(p, k -> new long[2]), m);
+        }
+
+        long[] window(long from, long to) {
+            long[] sum = new long[2];
+            if (from >= to) return sum;
+            for (long[] v : days.subMap(from, true, to, false).values()) {
+                sum[0] += v[0];
+                sum[1] += v[1];
+            }
+            return sum;
+        }
+
+        private static void bump(long[] v, long m) {
+            v[0]++;
+            v[1] += m;
+        }
+    }
+
+    private static void assertMatchesRecount(EventStatistics stats, List<Campaign> campaigns, User[] owners, Random rnd) {
+        Recount overall = new Recount();
+        Map<User, Recount> byOwner = new HashMap<>();
+        for (Campaign c : campaigns) {
+            EventStatistics.Totals t = stats.forCampaign(c);
+            if (t == null) continue;
+            Recount r = new Recount();
+            Recount owner = c.getOwner() == null ? null : byOwner.computeIfAbsent(c.getOwner(), u -> new Recount());
+            for (QuestEvent e : c.getEvents()) {
+                r.add(e);
+                overall.add(e);
+                if (owner != null) owner.add(e);
+            }
+            assertTotals("campaign " + c.getName(), r, t, rnd);
+        }
+        assertTotals("overall", overall, stats.overall(), rnd);
+        for (User u : owners) {
+            if (u == null) continue;
+            Recount r = byOwner.get(u);
+            if (r == null) {
+                assertNull(stats.forOwner(u), u.toString());
+            } else {
+                assertNotNull(stats.forOwner(u), u.toString());
+                assertTotals("owner " + u, r, stats.forOwner(u), rnd);
+            }
+        }
+    }
+
+    private static void assertTotals(String what, Recount r, EventStatistics.Totals t, Random rnd) {
+        assertEquals(r.events, t.getEventCount(), what);
+        assertEquals(r.openEnded, t.getOpenEndedCount(), what);
+        assertEquals(r.minutes, t.getScheduledMinutes(), what);
+
+        for (Map.Entry<Long, long[]> d : r.days.entrySet()) assertEquals(d.getValue()[0], t.eventsOnDay(d.getKey()), what);
+        long farDay = GlobalTime.daysOf(FAR);
+        long[] bounds = { Long.MIN_VALUE, -1_000_000, -1, 0, 1, 7, 30, 61, farDay - 3, farDay, farDay + 20, 1L << 53, Long.MAX_VALUE };
+        for (int i = 0; i < 30; i++) {
+            long from = rnd.nextBoolean() ? bounds[rnd.nextInt(bounds.length)] : rnd.nextInt(70) - 5;
+            long to = rnd.nextBoolean() ? bounds[rnd.nextInt(bounds.length)] : rnd.nextInt(70) - 5;
+            long[] want = r.window(from, to);
+            assertEquals(want[0], t.eventsBetweenDays(from, to), what + " [" + from + ", " + to + ")");
+            assertEquals(want[1], t.minutesBetweenDays(from, to), what + " [" + from + ", " + to + ")");
+        }
+
+        assertRanking(what + " realms", r.realms, t.busiestRealms(Integer.MAX_VALUE));
+        assertRanking(what + " participants", r.participants, t.busiestParticipants(Integer.MAX_VALUE));
+        assertEquals(Math.min(2, r.realms.size()), t.busiestRealms(2).size(), what);
+        for (String p : PARTICIPANTS) {
+            long[] want = r.participants.get(lower(p));
+            EventStatistics.Ranked got = t.participant(" " + p + " ");
+            if (want == null) {
+                assertNull(got, what + " " + p);
+            } else {
+                assertEquals(want[0], got.getEvents(), what + " " + p);
+                assertEquals(want[1], got.getMinutes(), what + " " + p);
+            }
+        }
+    }
+
+    private static void assertRanking(String what, Map<String, long[]> expected, List<EventStatistics.Ranked> actual) {
+        List<Map.Entry<String, long[]>> want = new ArrayList<>(expected.entrySet());
+        want.sort(Comparator.comparingLong((Map.Entry<String, long[]> e) -> -e.getValue()[0])
+                .thenComparingLong(e -> -e.getValue()[1])
+                .thenComparing(Map.Entry::getKey));
+        assertEquals(want.size(), actual.size(), what);
+        for (int i = 0; i < want.size(); i++) {
+            assertEquals(want.get(i).getKey(), lower(actual.get(i).getName()), what);
+            assertEquals(want.get(i).getValue()[0], actual.get(i).getEvents(), what);
+            assertEquals(want.get(i).getValue()[1], actual.get(i).getMinutes(), what);
+        }
+    }
+
+    // ---- Events ----
+
+    private static QuestEvent randomEvent(Random rnd, int id) {
+        long[] times = randomTimes(rnd);
+        QuestEvent e = new QuestEvent(id, "e" + id, times[0], times[1], REALMS[rnd.nextInt(REALMS.length)]);
+        for (int p = rnd.nextInt(4); p > 0; p--) e.addParticipant(PARTICIPANTS[rnd.nextInt(PARTICIPANTS.length)]);
+        return e;
+    }
+
+    /** Mostly the first two months, some near the largest day a start can fall on. */
+    private static long[] randomTimes(Random rnd) {
+        long start = rnd.nextInt(10) == 0 ? FAR + rnd.nextInt(5 * (int) DAY) : rnd.nextInt(60 * (int) DAY);
+        long end = rnd.nextInt(4) == 0 ? QuestEvent.NO_END : start + rnd.nextInt(3 * (int) DAY);
+        return new long[] { start, end };
+    }
+
+    private static String lower(String s) {
+        return s.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,268 @@
+package guildquest.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+class EventTextIndexTest {
+
+    private static final String[] TITLE_WORDS = { "dragon", "drake", "draft", "raid", "goblin", "gold", "feast", "siege" };
+    private static final String[] PARTICIPANTS = { "Jane", "jake", "Drake", "Bo Peep", "Ann-Marie", "Goldie" };
+    private static final String[] ITEMS = { "Iron Sword", "sword", "Gold Ring", "potion", "Dragon Egg" };
+    private static final Realm[] REALMS = {
+            RealmRegistry.global().intern("Mars", 0), RealmRegistry.global().intern("Red Mars", 0), null };
+    private static final String[] QUERIES = {
+            "dragon", "dra*", "d*", "g*", "gold*", "raid dra*", "dragon egg", "jane", "ja*", "sword iron",
+            "bo-pe*", "ann marie", "feast gold*", "siege goblin raid", "x*", "nothing", "RAID Dragon", "mars", "red m*" };
+
+    @Test
+    void gallopingIntersectionAgreesWithASetIntersection() {
+        Random rnd = new Random(45);
+        for (int round = 0; round < 2000; round++) {
+            int[] a = sortedSample(rnd, rnd.nextInt(20), 1 + rnd.nextInt(5000));
+            int[] b = sortedSample(rnd, a.length + rnd.nextInt(round % 2 == 0 ? 30 : 3000), 1 + rnd.nextInt(5000));
+            TreeSet<Integer> expected = new TreeSet<>();
+            for (int x : a) expected.add(x);
+            TreeSet<Integer> inB = new TreeSet<>();
+            for (int x : b) inB.add(x);
+            expected.retainAll(inB);
+            assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), EventTextIndex.intersect(a, b));
+        }
+    }
+
+    @Test
+    void longIntMapBehavesLikeAHashMapThroughGrowthAndBackwardShiftRemoval() {
+        Random rnd = new Random(4545);
+        EventTextIndex.LongIntMap map = new EventTextIndex.LongIntMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int op = 0; op < 200_000; op++) {
+            // Keys shaped like (slot, eventId), including negative ids, so probe runs collide.
+            long key = ((long) rnd.nextInt(4) << 32) | ((rnd.nextInt(3000) - 100) & 0xFFFFFFFFL);
+            switch (rnd.nextInt(3)) {
+                case 0 -> {
+                    int value = rnd.nextInt(Integer.MAX_VALUE);
+                    map.put(key, value);
+                    expected.put(key, value);
+                }
+                case 1 -> {
+                    Integer removed = expected.remove(key);
+                    assertEquals(removed == null ? -1 : removed, map.remove(key));
+                }
+                default -> {
+                    Integer value = expected.get(key);
+                    assertEquals(value == null ? -1 : value, map.get(key));
+                }
+            }
+        }
+        for (Map.Entry<Long, Integer> e : expected.entrySet()) assertEquals((int) e.getValue(), map.get(e.getKey()));
+    }
+
+    @Test
+    void searchesMatchAScanOfTheEventsThroughEditsAndCompactions() {
+        Random rnd = new Random(450);
+        EventTextIndex index = new EventTextIndex();
+        List<Campaign> campaigns = new ArrayList<>();
+        int nextId = 1;
+        for (int c = 0; c < 2; c++) {
+            Campaign campaign = new Campaign(c + 1, "c" + c);
+            for (int i = 0; i < 900; i++) campaign.addEvent(randomEvent(rnd, nextId++));
+            campaigns.add(campaign);
+            index.watch(campaign);
+        }
+        Campaign late = new Campaign(3, "late");
+        for (int i = 0; i < 300; i++) late.addEvent(randomEvent(rnd, nextId++));
+
+        int compactions = 0;
+        long lastPostings = index.getPostingCount();
+        for (int op = 1; op <= 12_000; op++) {
+            Campaign c = campaigns.get(rnd.nextInt(campaigns.size()));
+            List<QuestEvent> events = c.getEvents();
+            QuestEvent e = events.get(rnd.nextInt(events.size()));
+            int kind = rnd.nextInt(10);
+            if (kind == 0) {
+                c.removeEventById(e.getEventId());
+            } else if (kind == 1) {
+                c.addEvent(randomEvent(rnd, nextId++));
+            } else if (kind < 6) {
+                c.updateEvent(randomEvent(rnd, e.getEventId())); // replacement instance
+            } else {
+                editInPlace(rnd, e);
+                c.updateEvent(e);
+            }
+            if (op == 6000) {
+                campaigns.add(late);
+                index.watch(late);
+            }
+
+            long postings = index.getPostingCount();
+            if (postings < lastPostings) compactions++; // only a compaction drops postings
+            lastPostings = postings;
+            if (op % 500 == 0) assertIndexMatchesScan(index, campaigns, rnd);
+        }
+        assertTrue(compactions >= 2, "expected several compactions, saw " + compactions);
+
+        // Unwatching drops a campaign's documents, and the rest still answer correctly.
+        index.unwatch(campaigns.get(0));
+        assertFalse(index.isWatching(campaigns.get(0)));
+        campaigns.get(0).addEvent(randomEvent(rnd, nextId++));
+        assertIndexMatchesScan(index, campaigns.subList(1, campaigns.size()), rnd);
+    }
+
+    @Test
+    void tokenizeSplitsOnNonAlphanumericsAndLowerCases() {
+        assertEquals(List.of("bo", "peep", "s", "2nd", "raid"), EventTextIndex.tokenize("  Bo-Peep's 2nd RAID!"));
+        assertEquals(List.of(), EventTextIndex.tokenize("--"));
+        assertEquals(List.of(), EventTextIndex.tokenize(null));
+    }
+
+    // ---- Helpers ----
+
+    private static void assertIndexMatchesScan(EventTextIndex index, List<Campaign> campaigns, Random rnd) {
+        int live = 0;
+        long postings = 0;
+        for (Campaign c : campaigns) {
+            live += c.getEventCount();
+            for (QuestEvent e : c.getEvents()) postings += distinctWords(e);
+        }
+        assertEquals(live, index.getDocumentCount());
+        // Dead documents keep their postings until the next compaction.
+        if (index.toString().endsWith("(0 dead docs)")) assertEquals(postings, index.getPostingCount());
+        else assertTrue(index.getPostingCount() > postings);
+
+        for (String query : QUERIES) {
+            EventTextIndex.Field field = rnd.nextInt(3) == 0 ? null
+                    : new EventTextIndex.Field[] { EventTextIndex.Field.TITLE, EventTextIndex.Field.PARTICIPANT,
+                            EventTextIndex.Field.ITEM, EventTextIndex.Field.REALM }[rnd.nextInt(4)];
+            List<QuestEvent> expected = new ArrayList<>();
+            Map<Campaign, List<Integer>> expectedIds = new HashMap<>();
+            for (Campaign c : campaigns) {
+                for (QuestEvent e : c.getEvents()) {
+                    if (!scanMatches(field, query, e)) continue;
+                    expected.add(e);
+                    expectedIds.computeIfAbsent(c, k -> new ArrayList<>()).add(e.getEventId());
+                }
+            }
+            String what = field + " " + query;
+
+            long estimate = index.estimate(field, query);
+            assertTrue(estimate >= expected.size(), what);
+
+            Map<Campaign, int[]> ids = index.matchingEventIds(field, query);
+            assertEquals(expectedIds.size(), ids.size(), what);
+            for (Map.Entry<Campaign, List<Integer>> en : expectedIds.entrySet()) {
+                int[] want = en.getValue().stream().mapToInt(Integer::intValue).sorted().toArray();
+                assertArrayEquals(want, ids.get(en.getKey()));
+            }
+
+            // Every hit, earliest first; then the limit keeps the earliest starts.
+            List<EventTextIndex.Hit> all = index.search(field, query, Integer.MAX_VALUE);
+            assertEquals(expected.size(), all.size(), what);
+            long[] starts = new long[expected.size()];
+            for (int i = 0; i < expected.size(); i++) starts[i] = expected.get(i).getStartMinutes();
+            Arrays.sort(starts);
+            for (int i = 0; i < all.size(); i++) {
+                EventTextIndex.Hit hit = all.get(i);
+                assertEquals(starts[i], hit.getStartMinutes(), what);
+                QuestEvent e = hit.getEvent();
+                assertEquals(e.getStartMinutes(), hit.getStartMinutes(), what);
+                assertTrue(scanMatches(field, query, e), what);
+            }
+            int limit = rnd.nextInt(10);
+            List<EventTextIndex.Hit> top = index.search(field, query, limit);
+            assertEquals(Math.min(limit, all.size()), top.size(), what);
+            for (int i = 0; i < top.size(); i++) {
+                assertSame(all.get(i).getCampaign(), top.get(i).getCampaign(), what);
+                assertEquals(all.get(i).getEventId(), top.get(i).getEventId(), what);
+            }
+        }
+        assertNull(index.matchingEventIds(null, " - "));
+        assertEquals(-1, index.estimate(null, ""));
+        assertTrue(index.search("", 10).isEmpty());
+    }
+
+    /** The index's rules spelled out directly: every word, exact or (last of a '*' chunk) prefix. */
+    private static boolean scanMatches(EventTextIndex.Field field, String query, QuestEvent e) {
+        List<String> have = new ArrayList<>();
+        if (field == null || field == EventTextIndex.Field.TITLE) have.addAll(EventTextIndex.tokenize(e.getTitle()));
+        if (field == null || field == EventTextIndex.Field.PARTICIPANT) {
+            for (String p : e.getParticipants()) have.addAll(EventTextIndex.tokenize(p));
+        }
+        if (field == null || field == EventTextIndex.Field.ITEM) {
+            for (String it : e.getItems()) have.addAll(EventTextIndex.tokenize(it));
+        }
+        if (field == EventTextIndex.Field.REALM && e.getRealm() != null) {
+            have.addAll(EventTextIndex.tokenize(e.getRealm().getName()));
+        }
+        for (String chunk : query.trim().split("\\s+")) {
+            boolean prefix = chunk.endsWith("*");
+            List<String> words = EventTextIndex.tokenize(prefix ? chunk.substring(0, chunk.length() - 1) : chunk);
+            for (int w = 0; w < words.size(); w++) {
+                boolean isPrefix = prefix && w == words.size() - 1;
+                String word = words.get(w);
+                if (have.stream().noneMatch(h -> isPrefix ? h.startsWith(word) : h.equals(word))) return false;
+            }
+        }
+        return true;
+    }
+
+    private static int distinctWords(QuestEvent e) {
+        int n = new TreeSet<>(EventTextIndex.tokenize(e.getTitle())).size();
+        TreeSet<String> participants = new TreeSet<>();
+        for (String p : e.getParticipants()) participants.addAll(EventTextIndex.tokenize(p));
+        TreeSet<String> items = new TreeSet<>();
+        for (String it : e.getItems()) items.addAll(EventTextIndex.tokenize(it));
+        n += participants.size() + items.size();
+        return e.getRealm() == null ? n : n + new TreeSet<>(EventTextIndex.tokenize(e.getRealm().getName())).size();
+    }
+
+    private static QuestEvent randomEvent(Random rnd, int id) {
+        QuestEvent e = new QuestEvent(id, randomTitle(rnd), rnd.nextInt(50_000), QuestEvent.NO_END,
+                REALMS[rnd.nextInt(REALMS.length)]);
+        for (int p = rnd.nextInt(3); p > 0; p--) e.addParticipant(PARTICIPANTS[rnd.nextInt(PARTICIPANTS.length)]);
+        for (int i = rnd.nextInt(3); i > 0; i--) e.addItem(ITEMS[rnd.nextInt(ITEMS.length)]);
+        return e;
+    }
+
+    private static void editInPlace(Random rnd, QuestEvent e) {
+        switch (rnd.nextInt(4)) {
+            case 0 -> e.setTitle(randomTitle(rnd));
+            case 1 -> e.setTimes(rnd.nextInt(50_000), QuestEvent.NO_END);
+            case 2 -> {
+                e.clearParticipants();
+                e.addParticipant(PARTICIPANTS[rnd.nextInt(PARTICIPANTS.length)]);
+            }
+            default -> {
+                e.clearItems();
+                e.setRealm(REALMS[rnd.nextInt(REALMS.length)]);
+            }
+        }
+    }
+
+    private static String randomTitle(Random rnd) {
+        StringBuilder title = new StringBuilder();
+        for (int w = rnd.nextInt(3) + 1; w > 0; w--) {
+            if (title.length() > 0) title.append(' ');
+            title.append(TITLE_WORDS[rnd.nextInt(TITLE_WORDS.length)]);
+        }
+        return title.toString();
+    }
+
+    private static int[] sortedSample(Random rnd, int n, int bound) {
+        TreeSet<Integer> set = new TreeSet<>();
+        while (set.size() < Math.min(n, bound)) set.add(rnd.nextInt(bound));
+        return set.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,69 @@
+package guildquest.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class EventTriggerSchedulerTest {
+
+    @Test
+    void archivedCampaignsHoldNoTimersAndThawedInstancesFireOnce() {
+        WorldClock clock = new WorldClock(GlobalTime.of(0));
+        EventTriggerScheduler scheduler = new EventTriggerScheduler(clock);
+        List<EventTriggerScheduler.Trigger> fired = new ArrayList<>();
+        scheduler.addTriggerListener(fired::add);
+
+        Campaign c = new Campaign(1, "Raids");
+        QuestEvent original = new QuestEvent(1, "raid", 100, QuestEvent.NO_END, null);
+        c.addEvent(original);
+        c.setColdTier(new CopyingColdTier());
+        scheduler.watch(c);
+        scheduler.addReminder(c, 1, 30);
+        assertEquals(2, scheduler.getPendingCount());
+
+        c.setArchived(true);
+        assertTrue(c.isFrozen());
+        assertEquals(0, scheduler.getPendingCount());
+
+        c.setArchived(false);
+        assertEquals(2, scheduler.getPendingCount()); // the reminder survived archiving
+
+        QuestEvent thawed = c.findEvent(1);
+        assertNotSame(original, thawed);
+        thawed.setTitle("raid, edited");
+        c.updateEvent(thawed);
+        assertEquals(2, scheduler.getPendingCount());
+
+        clock.advance(200);
+        assertEquals(2, fired.size());
+        assertEquals(EventTriggerScheduler.Kind.REMINDER, fired.get(0).getKind());
+        assertEquals(EventTriggerScheduler.Kind.START, fired.get(1).getKind());
+        assertEquals("raid, edited", fired.get(1).getEvent().getTitle());
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    void watchingAnArchivedCampaignDoesNotThawIt() {
+        WorldClock clock = new WorldClock(GlobalTime.of(0));
+        EventTriggerScheduler scheduler = new EventTriggerScheduler(clock);
+        Campaign c = new Campaign(2, "Old");
+        c.addEvent(new QuestEvent(1, "raid", 100, 150, null));
+        c.setColdTier(new CopyingColdTier());
+        c.setArchived(true);
+
+        scheduler.watch(c);
+        c.setName("Old, renamed");
+        assertTrue(c.isFrozen());
+        assertEquals(0, scheduler.getPendingCount());
+
+        c.setArchived(false);
+        assertEquals(2, scheduler.getPendingCount());
+        c.removeEventById(1);
+        assertEquals(0, scheduler.getPendingCount());
+    }
+}
@@ -0,0 +1,119 @@
+package guildquest.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class NameDictionaryTest {
+
+    @Test
+    void completionIgnoresCaseAndPutsTheMostUsedNamesFirst() {
+        Campaign c = new Campaign(1, "Guild");
+        int id = 1;
+        for (int i = 0; i < 5; i++) c.addEvent(event(id++, "jake"));
+        for (int i = 0; i < 3; i++) c.addEvent(event(id++, i == 0 ? "Jane" : "JANE"));
+        for (int i = 0; i < 2; i++) c.addEvent(event(id++, "Janice"));
+        c.addEvent(event(id++, "Jan"));
+        c.addEvent(event(id++, "Bob"));
+        NameDictionary names = new NameDictionary();
+        names.watch(c);
+
+        assertEquals(List.of("jake", "Jane", "Janice", "Jan"), names.complete(NameDictionary.Kind.PARTICIPANT, "JA", 10));
+        assertEquals(List.of("Jane", "Janice", "Jan"), names.complete(NameDictionary.Kind.PARTICIPANT, " jAn ", 10));
+        assertEquals(List.of("jake", "Jane"), names.complete(NameDictionary.Kind.PARTICIPANT, "j", 2));
+        assertEquals(List.of("jake", "Jane", "Janice", "Jan", "Bob"), names.complete(NameDictionary.Kind.PARTICIPANT, "", 10));
+        assertEquals(List.of(), names.complete(NameDictionary.Kind.PARTICIPANT, "x", 10));
+        assertEquals(List.of(), names.complete(NameDictionary.Kind.ITEM, "j", 10));
+        assertEquals(3, names.count(NameDictionary.Kind.PARTICIPANT, "jane"));
+        assertEquals(5, names.size(NameDictionary.Kind.PARTICIPANT));
+
+        // Counts follow edits: three more Jans overtake Jane and Janice.
+        c.addEvent(event(id++, "jan"));
+        c.addEvent(event(id++, "JAN"));
+        c.addEvent(event(id++, "Jan"));
+        assertEquals(List.of("Jan", "Jane", "Janice"), names.complete(NameDictionary.Kind.PARTICIPANT, "jan", 10));
+    }
+
+    @Test
+    void aNameWhoseCountDropsToZeroIsPrunedFromTheTrie() {
+        Campaign c = new Campaign(1, "Guild");
+        c.addEvent(event(1, "Bob"));
+        NameDictionary names = new NameDictionary();
+        names.watch(c);
+        String before = names.toString();
+
+        QuestEvent one = event(2, "Bobby");
+        one.addItem("Bob's Lantern");
+        c.addEvent(one);
+        c.addEvent(event(3, "Bobby"));
+        assertEquals(List.of("Bobby", "Bob"), names.complete(NameDictionary.Kind.PARTICIPANT, "bob", 10));
+        assertEquals(List.of("Bob's Lantern"), names.complete(NameDictionary.Kind.ITEM, "b", 10));
+
+        c.removeEventById(2);
+        assertEquals(1, names.count(NameDictionary.Kind.PARTICIPANT, "bobby"));
+        QuestEvent three = c.findEvent(3);
+        three.clearParticipants();
+        c.updateEvent(three);
+
+        assertEquals(0, names.count(NameDictionary.Kind.PARTICIPANT, "bobby"));
+        assertEquals(List.of("Bob"), names.complete(NameDictionary.Kind.PARTICIPANT, "bob", 10));
+        assertEquals(List.of(), names.complete(NameDictionary.Kind.ITEM, "b", 10));
+        assertEquals(1, names.size(NameDictionary.Kind.PARTICIPANT));
+        assertEquals(0, names.size(NameDictionary.Kind.ITEM));
+        assertEquals(before, names.toString(), "the 'by' and lantern nodes are gone");
+
+        // Dropping the last use of a name removes its whole path.
+        c.removeEventById(1);
+        assertEquals(List.of(), names.complete(NameDictionary.Kind.PARTICIPANT, "", 10));
+        assertEquals("names: 0 participants, 0 items (2 trie nodes)", names.toString());
+    }
+
+    @Test
+    void equalNamesShareOneStringAcrossEventsAndCampaigns() {
+        Campaign first = new Campaign(1, "First");
+        Campaign second = new Campaign(2, "Second");
+        QuestEvent a = event(1, new String("Jane"));
+        a.addItem(new String("Rope"));
+        QuestEvent b = event(2, new String("Jane"));
+        b.addItem(new String("Rope"));
+        QuestEvent shouted = event(3, new String("JANE"));
+        first.addEvent(a);
+        first.addEvent(b);
+        second.addEvent(shouted);
+        assertNotSame(a.getParticipants().get(0), b.getParticipants().get(0));
+        int version = a.getVersion();
+
+        NameDictionary names = new NameDictionary();
+        names.watch(first);
+        names.watch(second);
+        assertSame(a.getParticipants().get(0), b.getParticipants().get(0));
+        assertSame(a.getItems().get(0), b.getItems().get(0));
+        // Another spelling of the same name keeps its own spelling.
+        assertEquals("JANE", shouted.getParticipants().get(0));
+        assertNotSame(a.getParticipants().get(0), shouted.getParticipants().get(0));
+
+        // Events added or edited later are swapped over too, in any watched campaign.
+        QuestEvent later = event(4, new String("Jane"));
+        later.addParticipant(new String("JANE"));
+        second.addEvent(later);
+        assertSame(a.getParticipants().get(0), later.getParticipants().get(0));
+        assertSame(shouted.getParticipants().get(0), later.getParticipants().get(1));
+        b.addItem(new String("Rope"));
+        first.updateEvent(b);
+        assertSame(a.getItems().get(0), b.getItems().get(1));
+
+        assertEquals(version, a.getVersion(), "interning doesn't change the contents");
+        assertEquals(5, names.count(NameDictionary.Kind.PARTICIPANT, "jane"));
+        assertEquals(List.of("Jane"), names.complete(NameDictionary.Kind.PARTICIPANT, "ja", 1));
+    }
+
+    private static QuestEvent event(int id, String participant) {
+        QuestEvent e = new QuestEvent(id, "event " + id, 10L * id, QuestEvent.NO_END, null);
+        e.addParticipant(participant);
+        return e;
+    }
+}
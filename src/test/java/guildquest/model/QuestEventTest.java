@@ -0,0 +1,41 @@
+package guildquest.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class QuestEventTest {
+
+    @Test
+    void nameViewsStayLiveAcrossEveryRepresentation() {
+        QuestEvent e = new QuestEvent(1, "raid", 10, QuestEvent.NO_END, null);
+        List<String> participants = e.getParticipants();
+        List<String> items = e.getItems();
+        List<String> expected = new ArrayList<>();
+        assertTrue(participants.isEmpty());
+
+        // Empty -> inline array -> ArrayList: the view taken up front follows along.
+        for (int i = 0; i < 20; i++) {
+            e.addParticipant("p" + i);
+            expected.add("p" + i);
+            assertEquals(expected, participants);
+        }
+        e.addItem("Lantern");
+        assertEquals(List.of("Lantern"), items);
+
+        e.clearParticipants();
+        assertTrue(participants.isEmpty());
+        e.addParticipant("again");
+        assertEquals(List.of("again"), participants);
+
+        assertThrows(UnsupportedOperationException.class, () -> participants.add("x"));
+        assertThrows(IndexOutOfBoundsException.class, () -> participants.get(1));
+        e.clearItems();
+        assertThrows(IndexOutOfBoundsException.class, () -> items.get(0));
+    }
+}
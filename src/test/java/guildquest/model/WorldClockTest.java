@@ -0,0 +1,65 @@
+package guildquest.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class WorldClockTest {
+
+    @Test
+    void anAdvanceFromAListenerReachesEveryListenerInOrder() {
+        WorldClock clock = new WorldClock(GlobalTime.of(0));
+        List<Long> first = new ArrayList<>();
+        List<Long> second = new ArrayList<>();
+        clock.addListener(t -> {
+            first.add(t.toMinutes());
+            if (t.toMinutes() == 10) clock.advance(5);
+        });
+        clock.addListener(t -> second.add(t.toMinutes()));
+
+        clock.advance(10);
+
+        assertEquals(List.of(10L, 15L), first);
+        assertEquals(List.of(10L, 15L), second); // not 15 then 10
+    }
+
+    @Test
+    void realTimeTicksReachListenersOnlyThroughTheModelExecutor() throws InterruptedException {
+        WorldClock clock = new WorldClock(GlobalTime.of(0));
+        BlockingQueue<Runnable> modelQueue = new ArrayBlockingQueue<>(1_000);
+        List<Thread> seenOn = new ArrayList<>();
+        clock.addListener(t -> seenOn.add(Thread.currentThread()));
+
+        clock.startRealTime(60_000, 5, modelQueue::add);
+        Runnable work = modelQueue.poll(5, TimeUnit.SECONDS);
+        clock.stopRealTime();
+        assertTrue(seenOn.isEmpty());
+
+        work.run();
+        assertEquals(1, seenOn.size());
+        assertSame(Thread.currentThread(), seenOn.get(0));
+    }
+
+    @Test
+    void aFailingListenerIsReportedAndTheClockKeepsTicking() throws InterruptedException {
+        WorldClock clock = new WorldClock(GlobalTime.of(0));
+        BlockingQueue<RuntimeException> errors = new ArrayBlockingQueue<>(1_000);
+        clock.setErrorHandler(errors::add);
+        clock.addListener(t -> { throw new IllegalStateException("boom"); });
+
+        clock.startRealTime(60_000, 5, Runnable::run);
+        RuntimeException a = errors.poll(5, TimeUnit.SECONDS);
+        RuntimeException b = errors.poll(5, TimeUnit.SECONDS);
+        clock.stopRealTime();
+        assertEquals("boom", a.getMessage());
+        assertEquals("boom", b.getMessage());
+    }
+}
@@ -0,0 +1,97 @@
+package guildquest.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import guildquest.model.Permission;
+import guildquest.model.QuestEvent;
+import guildquest.model.Realm;
+import guildquest.model.User;
+
+class EventCodecTest {
+
+    @Test
+    void eventsRoundTripAtTheEdgesOfTheSpanEncoding() throws IOException {
+        Realm realm = new Realm("Codec", 90);
+        long far = Long.MAX_VALUE / 4;
+        long[][] times = {
+                { 0, QuestEvent.NO_END },
+                { 0, 0 },              // zero-length: span 1
+                { 100, 100 },
+                { 100, 101 },
+                { 1_440, 2_880 },
+                { far, QuestEvent.NO_END },
+                { far, far },
+                { far, far + 1_000_000 },
+        };
+        int id = 1;
+        for (long[] t : times) {
+            QuestEvent e = new QuestEvent(id++, "ev " + t[0], t[0], t[1], realm);
+            e.addParticipant("Ayla");
+            e.addItem("Lantern");
+            e.shareWith(new User("Bren"), Permission.COLLABORATIVE);
+
+            QuestEvent back = roundTrip(e);
+            assertEquals(e.getEventId(), back.getEventId());
+            assertEquals(e.getTitle(), back.getTitle());
+            assertEquals(t[0], back.getStartMinutes());
+            assertEquals(t[1], back.getEndMinutes());
+            assertEquals(realm.getName(), back.getRealm().getName());
+            assertEquals(List.of("Ayla"), back.getParticipants());
+            assertEquals(List.of("Lantern"), back.getItems());
+            assertEquals(Permission.COLLABORATIVE, back.getSharedWith().get(new User("Bren")));
+        }
+    }
+
+    @Test
+    void endsBeforeTheStartAreRejectedByTheModel() {
+        assertThrows(IllegalArgumentException.class, () -> new QuestEvent(1, "a", 100, 99, null));
+        assertThrows(IllegalArgumentException.class, () -> new QuestEvent(1, "a", 100, 5, null));
+
+        QuestEvent e = new QuestEvent(1, "a", 100, 200, null);
+        assertThrows(IllegalArgumentException.class, () -> e.setEndMinutes(99));
+        assertThrows(IllegalArgumentException.class, () -> e.setStartMinutes(201));
+        assertThrows(IllegalArgumentException.class, () -> e.setTimes(300, 250));
+        assertEquals(100, e.getStartMinutes());
+        assertEquals(200, e.getEndMinutes());
+
+        e.setTimes(300, 400); // moving both at once is fine
+        assertEquals(300, e.getStartMinutes());
+        assertEquals(400, e.getEndMinutes());
+    }
+
+    @Test
+    void legacyEventsEndingBeforeTheyStartDecodeAsOpenEnded() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(7);
+        out.writeBoolean(true); // title present (v1 layout of writeNullableString)
+        out.writeUTF("old");
+        out.writeInt(500);      // start
+        out.writeInt(400);      // end < start, allowed before validation existed
+        out.writeBoolean(false); // no realm
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeInt(0);
+
+        QuestEvent e = EventCodec.readEvent(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), EventCodec.FORMAT_V1);
+        assertEquals(500, e.getStartMinutes());
+        assertFalse(e.hasEndTime());
+    }
+
+    private static QuestEvent roundTrip(QuestEvent e) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        EventCodec.writeEvent(new DataOutputStream(bytes), e);
+        return EventCodec.readEvent(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+}
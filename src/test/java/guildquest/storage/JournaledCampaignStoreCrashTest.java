@@ -0,0 +1,297 @@
+package guildquest.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import guildquest.model.Campaign;
+import guildquest.model.QuestEvent;
+
+/**
+ * Fault injection for {@link JournaledCampaignStore}: cut or corrupt the journal at
+ * random points, kill a writer process at random moments, and make journal writes
+ * fail. Recovery must always produce exactly the state after some prefix of the
+ * writes and never replay more than checkpointInterval records.
+ */
+class JournaledCampaignStoreCrashTest {
+    private static final int NAME_KEY = Integer.MIN_VALUE; // campaign name in a described state
+
+    @TempDir
+    Path tmp;
+
+    @Test
+    void tornOrCorruptJournalTailsRecoverToAPrefixOfTheWrites() throws IOException {
+        int interval = 50;
+        int ops = 420;
+        Path source = tmp.resolve("source");
+        JournaledCampaignStore store = new JournaledCampaignStore(source, interval, false);
+        store.open();
+        Campaign c = new Campaign(1, "crash");
+        store.track(c);
+        Ops gen = new Ops(11);
+        for (int k = 0; k < ops; k++) gen.apply(gen.next(k), c);
+        store.close();
+
+        Path journal = lastJournal(source);
+        long size = Files.size(journal);
+        Random rnd = new Random(5);
+        for (int round = 0; round < 30; round++) {
+            Path copy = tmp.resolve("cut-" + round);
+            copyTree(source, copy);
+            Path target = copy.resolve(journal.getFileName());
+            long cut = round == 0 ? size : (long) (rnd.nextDouble() * size);
+            boolean flip = round % 3 == 2 && cut > 0;
+            try (FileChannel ch = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+                ch.truncate(cut);
+                if (flip) { // corrupt one byte in what is left instead of only tearing the tail
+                    long at = (long) (rnd.nextDouble() * cut);
+                    ByteBuffer b = ByteBuffer.allocate(1);
+                    ch.read(b, at);
+                    b.flip().put(0, (byte) (b.get(0) ^ 0x5A));
+                    ch.write(b, at);
+                }
+            }
+
+            JournaledCampaignStore reopened = new JournaledCampaignStore(copy, interval, false);
+            List<Campaign> recovered = reopened.open();
+            JournaledCampaignStore.RecoveryReport report = reopened.getLastRecovery();
+            reopened.close();
+
+            assertEquals(1, recovered.size());
+            int k = matchingPrefix(describe(recovered.get(0)), 11, ops);
+            assertTrue(k >= 0, () -> "recovered state is not a prefix of the writes (cut at " + cut + ")");
+            if (round == 0) assertEquals(ops, k);
+            assertTrue(report.recordsReplayed <= interval, report::toString);
+        }
+    }
+
+    @Test
+    void killedWriterProcessRecoversToAPrefixWithinTheReplayBound() throws Exception {
+        int interval = 200;
+        Random rnd = new Random(3);
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        for (int round = 0; round < 4; round++) {
+            Path dir = tmp.resolve("kill-" + round);
+            Process writer = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    Writer.class.getName(), dir.toString(), Integer.toString(round), Integer.toString(interval))
+                    .redirectErrorStream(true)
+                    .start();
+            try {
+                BufferedReader out = new BufferedReader(new InputStreamReader(writer.getInputStream(), StandardCharsets.UTF_8));
+                assertEquals("ready", out.readLine());
+                long delayMs = 50 + rnd.nextInt(400);
+                Thread.sleep(delayMs);
+                writer.destroyForcibly();
+                assertTrue(writer.waitFor(30, TimeUnit.SECONDS));
+
+                JournaledCampaignStore store = new JournaledCampaignStore(dir, interval, true);
+                List<Campaign> recovered = store.open();
+                JournaledCampaignStore.RecoveryReport report = store.getLastRecovery();
+                store.close();
+
+                assertEquals(1, recovered.size());
+                int k = matchingPrefix(describe(recovered.get(0)), round, Writer.MAX_OPS);
+                assertTrue(k >= 0, "recovered state is not a prefix of the writes");
+                assertTrue(report.recordsReplayed <= interval, report::toString);
+                System.out.printf("killed after %d ms at write %d: %s%n", delayMs, k, report);
+            } finally {
+                writer.destroyForcibly();
+            }
+        }
+    }
+
+    @Test
+    void aChangeTheJournalCannotTakeIsNotApplied() throws IOException {
+        Path dir = tmp.resolve("fail");
+        JournaledCampaignStore store = new JournaledCampaignStore(dir, 1, true);
+        store.open();
+        Campaign c = new Campaign(1, "before");
+        store.track(c);
+        c.addEvent(new QuestEvent(1, "kept", 10, 20, null));
+
+        // The next change has to start a new journal first; put a directory where that file goes.
+        Path blocker = dir.resolve(String.format("journal-%08d.log", seqOf(lastJournal(dir)) + 1));
+        Files.createDirectory(blocker);
+        assertThrows(UncheckedIOException.class, () -> c.addEvent(new QuestEvent(2, "lost", 30, 40, null)));
+        assertThrows(UncheckedIOException.class, () -> c.setName("after"));
+        assertNull(c.findEvent(2));
+        assertEquals(1, c.getEventCount());
+        assertEquals("before", c.getName());
+
+        Files.delete(blocker);
+        c.addEvent(new QuestEvent(3, "later", 50, 60, null));
+        store.close();
+        assertThrows(UncheckedIOException.class, () -> c.removeEventById(1));
+        assertEquals(2, c.getEventCount());
+
+        JournaledCampaignStore reopened = new JournaledCampaignStore(dir, 1, true);
+        Campaign back = reopened.open().get(0);
+        reopened.close();
+        assertEquals("before", back.getName());
+        assertEquals(2, back.getEventCount());
+        assertNull(back.findEvent(2));
+        assertEquals("later", back.findEvent(3).getTitle());
+    }
+
+    @Test
+    void trackingALargeCampaignCheckpointsInsteadOfJournaling() throws IOException {
+        Path dir = tmp.resolve("track");
+        JournaledCampaignStore store = new JournaledCampaignStore(dir, 100, false);
+        store.open();
+        Campaign c = new Campaign(4, "big");
+        for (int id = 1; id <= 5000; id++) c.addEvent(new QuestEvent(id, "e" + id, id, QuestEvent.NO_END, null));
+        store.track(c);
+        c.setName("big, renamed");
+        store.close();
+
+        JournaledCampaignStore reopened = new JournaledCampaignStore(dir, 100, false);
+        Campaign back = reopened.open().get(0);
+        reopened.close();
+        assertEquals(1, reopened.getLastRecovery().recordsReplayed);
+        assertEquals(5000, back.getEventCount());
+        assertEquals("big, renamed", back.getName());
+    }
+
+    // ---- Deterministic workload shared with the writer process ----
+
+    /** Adds, replaces, removes events and renames the campaign; titles carry the write number. */
+    static final class Ops {
+        final Random rnd;
+        final List<Integer> live = new ArrayList<>();
+        final Map<Integer, String> model = new HashMap<>();
+        int nextId = 1;
+        String previous; // model value of the key the last write changed, before it
+
+        Ops(long seed) {
+            rnd = new Random(seed);
+        }
+
+        /** {kind, id, start} for write k; 0 = add, 1 = replace, 2 = remove, 3 = rename. Updates the model. */
+        int[] next(int k) {
+            int roll = rnd.nextInt(100);
+            int kind = k % 97 == 96 ? 3 : live.size() < 5 || roll < 50 ? 0 : roll < 80 ? 1 : 2;
+            int start = rnd.nextInt(1_000_000);
+            int id = kind == 3 ? NAME_KEY : 0;
+            switch (kind) {
+                case 0 -> {
+                    id = nextId++;
+                    previous = null;
+                    live.add(id);
+                    model.put(id, "w" + k + "@" + start);
+                }
+                case 1 -> {
+                    id = live.get(rnd.nextInt(live.size()));
+                    previous = model.put(id, "w" + k + "@" + start);
+                }
+                case 2 -> {
+                    int at = rnd.nextInt(live.size());
+                    id = live.get(at);
+                    live.set(at, live.get(live.size() - 1));
+                    live.remove(live.size() - 1);
+                    previous = model.remove(id);
+                }
+                default -> previous = model.put(NAME_KEY, "w" + k);
+            }
+            return new int[] { kind, id, start, k };
+        }
+
+        void apply(int[] op, Campaign c) {
+            String title = "w" + op[3];
+            switch (op[0]) {
+                case 0 -> c.addEvent(new QuestEvent(op[1], title, op[2], op[2] + 30, null));
+                case 1 -> c.updateEvent(new QuestEvent(op[1], title, op[2], op[2] + 30, null));
+                case 2 -> c.removeEventById(op[1]);
+                default -> c.setName(title);
+            }
+        }
+    }
+
+    /** Child process: writes the workload until killed (or MAX_OPS). Args: dir seed interval. */
+    static final class Writer {
+        static final int MAX_OPS = 300_000;
+
+        public static void main(String[] args) throws Exception {
+            JournaledCampaignStore store = new JournaledCampaignStore(Path.of(args[0]), Integer.parseInt(args[2]), false);
+            store.open();
+            Campaign c = new Campaign(1, "crash");
+            store.track(c);
+            System.out.println("ready");
+            System.out.flush();
+            Ops gen = new Ops(Long.parseLong(args[1]));
+            for (int k = 0; k < MAX_OPS; k++) gen.apply(gen.next(k), c);
+            Thread.sleep(Long.MAX_VALUE);
+        }
+    }
+
+    private static Map<Integer, String> describe(Campaign c) {
+        Map<Integer, String> out = new HashMap<>();
+        for (QuestEvent e : c.getEvents()) out.put(e.getEventId(), e.getTitle() + "@" + e.getStartMinutes());
+        if (!"crash".equals(c.getName())) out.put(NAME_KEY, c.getName());
+        return out;
+    }
+
+    /** Last k such that the workload after k writes equals the recovered state, or -1. */
+    private static int matchingPrefix(Map<Integer, String> recovered, long seed, int maxOps) {
+        Ops gen = new Ops(seed);
+        int differing = recovered.size(); // keys where the model and the recovered state disagree
+        int match = differing == 0 ? 0 : -1;
+        for (int k = 0; k < maxOps; k++) {
+            int[] op = gen.next(k);
+            int key = op[1];
+            String now = gen.model.get(key);
+            boolean wasEqual = Objects.equals(gen.previous, recovered.get(key));
+            boolean isEqual = Objects.equals(now, recovered.get(key));
+            if (wasEqual && !isEqual) differing++;
+            if (!wasEqual && isEqual) differing--;
+            if (differing == 0) match = k + 1;
+        }
+        return match;
+    }
+
+    private static Path lastJournal(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith("journal-"))
+                    .max(Comparator.comparingLong(JournaledCampaignStoreCrashTest::seqOf))
+                    .orElseThrow();
+        }
+    }
+
+    private static long seqOf(Path journal) {
+        String n = journal.getFileName().toString();
+        return Long.parseLong(n.substring("journal-".length(), n.length() - ".log".length()));
+    }
+
+    private static void copyTree(Path from, Path to) throws IOException {
+        try (Stream<Path> files = Files.walk(from)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                Path dest = to.resolve(from.relativize(p).toString());
+                if (Files.isDirectory(p)) Files.createDirectories(dest);
+                else Files.copy(p, dest);
+            }
+        }
+    }
+}
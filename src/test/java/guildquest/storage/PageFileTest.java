@@ -0,0 +1,67 @@
+package guildquest.storage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PageFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void committedFileReadsBack() throws IOException {
+        Path file = dir.resolve("a.gqp");
+        try (PageFile.Writer w = new PageFile.Writer(file)) {
+            w.campaign(7, new byte[] { 1, 2, 3 });
+            w.commit();
+        }
+
+        try (PageFile.Reader r = new PageFile.Reader(file)) {
+            PageFile.Record rec = r.next();
+            assertEquals(PageFile.CAMPAIGN, rec.tag);
+            assertEquals(7, rec.campaignId);
+            assertArrayEquals(new byte[] { 1, 2, 3 }, rec.payload);
+            assertNull(r.next());
+        }
+    }
+
+    @Test
+    void failedWriteKeepsThePreviousFileAndRemovesTheTempFile() throws IOException {
+        Path file = dir.resolve("a.gqp");
+        try (PageFile.Writer w = new PageFile.Writer(file)) {
+            w.campaign(1, new byte[] { 42 });
+            w.commit();
+        }
+        byte[] before = Files.readAllBytes(file);
+
+        assertThrows(IOException.class, () -> {
+            try (PageFile.Writer w = new PageFile.Writer(file)) {
+                w.campaign(2, new byte[] { 9, 9 });
+                throw new IOException("disk full");
+            }
+        });
+
+        assertArrayEquals(before, Files.readAllBytes(file));
+        assertFalse(Files.exists(dir.resolve("a.gqp.tmp")));
+    }
+
+    @Test
+    void closingWithoutCommitNeverCreatesTheTarget() throws IOException {
+        Path file = dir.resolve("b.gqp");
+        try (PageFile.Writer w = new PageFile.Writer(file)) {
+            w.campaign(1, new byte[0]);
+        }
+        assertFalse(Files.exists(file));
+        assertFalse(Files.exists(dir.resolve("b.gqp.tmp")));
+    }
+}
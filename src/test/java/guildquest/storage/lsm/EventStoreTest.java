@@ -0,0 +1,92 @@
+package guildquest.storage.lsm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import guildquest.model.Campaign;
+import guildquest.model.QuestEvent;
+import guildquest.model.Realm;
+
+class EventStoreTest {
+    private static final Realm REALM = new Realm("Test", 0);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void churnSurvivesLeveledCompactionAndReopen() throws IOException {
+        TreeMap<Long, Integer> expected = new TreeMap<>(); // start * 1_000_000 + id -> id
+        long[] start = new long[2000];
+        Random rnd = new Random(7);
+
+        try (EventStore store = new EventStore(dir, 1024, 2)) {
+            for (int i = 0; i < 20_000; i++) {
+                int id = rnd.nextInt(start.length);
+                if (start[id] > 0) {
+                    store.delete(1, start[id], id);
+                    expected.remove(start[id] * 1_000_000 + id);
+                    start[id] = 0;
+                }
+                if (rnd.nextInt(4) != 0) {
+                    start[id] = 1 + rnd.nextInt(100_000);
+                    store.put(1, new QuestEvent(id, "e" + id, start[id], QuestEvent.NO_END, REALM));
+                    expected.put(start[id] * 1_000_000 + id, id);
+                }
+            }
+            store.flush();
+            assertEquals(new ArrayList<>(expected.values()), ids(store));
+
+            EventStore.Stats stats = store.getStats();
+            assertTrue(stats.compactions > 0, "compaction never ran");
+            // Flushes alone are ~1x; every level adds about one rewrite. Rewriting everything
+            // on each compaction would be in the hundreds here.
+            assertTrue(stats.writeAmplification() < 16, () -> "write amplification " + stats);
+        }
+
+        try (EventStore reopened = new EventStore(dir, 1024, 2)) {
+            assertEquals(new ArrayList<>(expected.values()), ids(reopened));
+        }
+    }
+
+    @Test
+    void releasedCampaignAnswersRangeQueriesFromTheStoreWithoutThawing() throws IOException {
+        Campaign c = new Campaign(3, "Bound");
+        for (int id = 1; id <= 50; id++) c.addEvent(new QuestEvent(id, "e" + id, id * 10L, id * 10L + 5, REALM));
+
+        try (EventStore store = new EventStore(dir)) {
+            CampaignBinding binding = store.attach(c);
+            binding.release();
+            assertTrue(c.isFrozen());
+            assertEquals(50, c.getEventCount());
+
+            List<QuestEvent> hits = c.eventsStartingBetween(100, 200);
+            assertEquals(10, hits.size());
+            assertEquals(10, hits.get(0).getEventId());
+            assertTrue(c.isFrozen(), "range query thawed the campaign");
+
+            QuestEvent opened = c.findEvent(42);
+            assertNotNull(opened);
+            assertFalse(c.isFrozen());
+            assertEquals(50, c.getEvents().size());
+            binding.detach();
+        }
+    }
+
+    private static List<Integer> ids(EventStore store) throws IOException {
+        List<Integer> out = new ArrayList<>();
+        store.scan(1, 0, Long.MAX_VALUE, (id, s, bytes) -> out.add(id));
+        return out;
+    }
+}